@@ -1,5 +1,6 @@
 package nl.pim16aap2.bigdoors.api;
 
+import nl.pim16aap2.bigdoors.util.Cuboid;
 
 /**
  * Analyzes blocks to obtain various information.
@@ -17,6 +18,23 @@ public interface IBlockAnalyzer
      */
     boolean isAirOrLiquid(IPLocation location);
 
+    /**
+     * Check if a block if air or liquid (water, lava).
+     * <p>
+     * This looks up the block directly, so it has to be called on the main thread.
+     *
+     * @param world
+     *     The world of the block.
+     * @param x
+     *     The x coordinate of the block.
+     * @param y
+     *     The y coordinate of the block.
+     * @param z
+     *     The z coordinate of the block.
+     * @return True if it is air or liquid.
+     */
+    boolean isAirOrLiquid(IPWorld world, int x, int y, int z);
+
     /**
      * Check if a block is on the blacklist of types/materials that is not allowed for animations.
      *
@@ -26,6 +44,19 @@ public interface IBlockAnalyzer
      */
     boolean isAllowedBlock(IPLocation location);
 
+    /**
+     * Creates a snapshot of the blocks in an area of a world.
+     * <p>
+     * This method has to be called on the main thread, but the resulting snapshot can be used from any thread.
+     *
+     * @param world
+     *     The world to capture the blocks from.
+     * @param cuboid
+     *     The area to capture.
+     * @return The snapshot of all blocks in the area.
+     */
+    IBlockSnapshot createSnapshot(IPWorld world, Cuboid cuboid);
+
     /**
      * Represents the status of a material.
      *
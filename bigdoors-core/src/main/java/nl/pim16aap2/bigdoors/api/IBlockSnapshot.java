@@ -0,0 +1,37 @@
+package nl.pim16aap2.bigdoors.api;
+
+import nl.pim16aap2.bigdoors.util.Cuboid;
+
+/**
+ * Represents an immutable snapshot of the blocks in an area of a world.
+ * <p>
+ * Unlike the world itself, a snapshot can be read from any thread. See
+ * {@link IBlockAnalyzer#createSnapshot(IPWorld, Cuboid)}.
+ *
+ * @author Pim
+ */
+public interface IBlockSnapshot
+{
+    /**
+     * @return The area of the world that is covered by this snapshot.
+     */
+    Cuboid getCuboid();
+
+    /**
+     * Check if a block in this snapshot was air or liquid (water, lava) at the time the snapshot was created.
+     * <p>
+     * See {@link IBlockAnalyzer#isAirOrLiquid(IPLocation)}.
+     *
+     * @param x
+     *     The x coordinate of the block.
+     * @param y
+     *     The y coordinate of the block.
+     * @param z
+     *     The z coordinate of the block.
+     * @return True if it was air or liquid.
+     *
+     * @throws IllegalArgumentException
+     *     When the position is outside of the cuboid of this snapshot.
+     */
+    boolean isAirOrLiquid(int x, int y, int z);
+}
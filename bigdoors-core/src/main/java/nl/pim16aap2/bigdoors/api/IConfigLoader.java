@@ -2,6 +2,12 @@ package nl.pim16aap2.bigdoors.api;
 
 import nl.pim16aap2.bigdoors.api.restartable.IRestartable;
 import nl.pim16aap2.bigdoors.doortypes.DoorType;
+import nl.pim16aap2.bigdoors.managers.DoorPreloader;
+import nl.pim16aap2.bigdoors.managers.DoorRegistry;
+import nl.pim16aap2.bigdoors.managers.ProtectionCheckCache;
+import nl.pim16aap2.bigdoors.managers.RedstoneQueue;
+import nl.pim16aap2.bigdoors.moveblocks.DoorToggleScheduler;
+import nl.pim16aap2.bigdoors.util.Cuboid;
 
 import java.util.Locale;
 import java.util.OptionalInt;
@@ -74,6 +80,149 @@ public interface IConfigLoader extends IRestartable
      */
     int cacheTimeout();
 
+    /**
+     * Gets the maximum amount of memory (in MB) that can be used to cache the keyframes of animations.
+     * <p>
+     * See {@link nl.pim16aap2.bigdoors.moveblocks.KeyframeCache}.
+     *
+     * @return The maximum size of the keyframe cache in MB. When this value is 0 or lower, keyframes are not cached.
+     */
+    int keyframeCacheSize();
+
+    /**
+     * Gets the minimum number of animated blocks a door needs to have for its animation to be computed by multiple
+     * threads in parallel.
+     *
+     * @return The minimum number of blocks of a door that is animated in parallel. When this value is 0 or lower,
+     * animations are never computed in parallel.
+     */
+    int parallelAnimationThreshold();
+
+    /**
+     * Gets the distance (in blocks) from an animation beyond which players only receive every 2nd movement update of
+     * the animated blocks.
+     *
+     * @return The distance beyond which players receive half the updates. When this value is 0 or lower, the distance
+     * is not used.
+     */
+    int animationHalfRateDistance();
+
+    /**
+     * Gets the distance (in blocks) from an animation beyond which players only receive every 4th movement update of
+     * the animated blocks.
+     *
+     * @return The distance beyond which players receive a quarter of the updates. When this value is 0 or lower, the
+     * distance is not used.
+     */
+    int animationQuarterRateDistance();
+
+    /**
+     * Checks if blocks that are fully enclosed by other blocks should be left out of animations.
+     * <p>
+     * These blocks cannot be seen during the animation, so they are moved to their final position directly instead.
+     * This is only done for animations that do not rotate the blocks.
+     *
+     * @return True if interior blocks should be culled from animations.
+     */
+    boolean cullInteriorBlocks();
+
+    /**
+     * Gets the amount of time (in milliseconds) changes to doors are buffered before they are written to the
+     * database.
+     * <p>
+     * When a door changes several times within this time, only the final state is written.
+     *
+     * @return The delay before changes to doors are written to the database. When this value is 0 or lower, changes
+     * are written immediately.
+     */
+    int doorSyncDelay();
+
+    /**
+     * Gets the number of changed doors that can be buffered before they are written to the database, regardless of
+     * {@link #doorSyncDelay()}.
+     *
+     * @return The maximum number of buffered changed doors. When this value is 0 or lower, there is no maximum.
+     */
+    int doorSyncBatchSize();
+
+    /**
+     * Gets the number of threads to use for processing redstone events.
+     *
+     * @return The number of redstone threads.
+     */
+    int redstoneThreads();
+
+    /**
+     * Gets the maximum number of redstone events that can wait to be processed. See {@link RedstoneQueue}.
+     *
+     * @return The capacity of the redstone queue.
+     */
+    int redstoneQueueSize();
+
+    /**
+     * Gets the policy that determines what happens to redstone events when they arrive faster than they can be
+     * processed.
+     *
+     * @return The policy of the redstone queue.
+     */
+    RedstoneQueue.Policy redstoneQueuePolicy();
+
+    /**
+     * Gets the radius (in chunks) around a loaded chunk in which to load all doors. See {@link DoorPreloader}.
+     *
+     * @return The radius in which to preload doors. When this value is 0, only the doors in the loaded chunk itself are
+     * preloaded. When it is lower than 0, doors are not preloaded at all.
+     */
+    int doorPreloadRadius();
+
+    /**
+     * Gets the maximum number of database queries that can be used to preload doors at the same time.
+     *
+     * @return The maximum number of concurrent preload queries.
+     */
+    int doorPreloadConcurrency();
+
+    /**
+     * Gets the maximum amount of time (in milliseconds) that can be spent on starting door toggles in a single tick.
+     * See {@link DoorToggleScheduler}.
+     *
+     * @return The time budget for toggles per tick. When this value is 0 or lower, there is no time budget.
+     */
+    int toggleTimeBudget();
+
+    /**
+     * Gets the maximum number of blocks of the doors whose toggles are started in a single tick. See
+     * {@link DoorToggleScheduler}.
+     *
+     * @return The block budget for toggles per tick. When this value is 0 or lower, there is no block budget.
+     */
+    int toggleBlockBudget();
+
+    /**
+     * Gets the amount of time (in milliseconds) the result of a protection check is cached. See
+     * {@link ProtectionCheckCache}.
+     *
+     * @return The amount of time protection checks are cached. When this value is 0 or lower, they are not cached.
+     */
+    int protectionCheckCacheTime();
+
+    /**
+     * Checks if protection checks may be performed asynchronously ahead of time when a door toggle is requested. See
+     * {@link ProtectionCheckCache#checkAhead(IPPlayer, Cuboid, IPWorld)}.
+     * <p>
+     * This should only be enabled when all hooked protection plugins can be queried from other threads.
+     *
+     * @return True if protection checks may be performed asynchronously.
+     */
+    boolean asyncProtectionChecks();
+
+    /**
+     * Gets the maximum number of doors that are kept in memory. See {@link DoorRegistry}.
+     *
+     * @return The maximum number of doors in the door registry. When this value is 0 or lower, there is no limit.
+     */
+    int doorCacheSize();
+
     /**
      * Gets the global maximum number of doors a player can own.
      *
@@ -0,0 +1,220 @@
+package nl.pim16aap2.bigdoors.api.animatedblock;
+
+import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Platform-independent base of {@link IAnimationUpdateBatch} implementations that group the packets of all animated
+ * blocks per player.
+ * <p>
+ * Animated blocks can be moved in two ways (see {@link nl.pim16aap2.bigdoors.moveblocks.BlockMover.MovementMethod}).
+ * Blocks that are teleported add their relative moves using {@link #addRelativeMove(Iterable, Object, Object)}, while
+ * blocks that are moved using their velocity add their velocity updates using
+ * {@link #addVelocity(Iterable, Object, Object)}.
+ * <p>
+ * Players that are close to the animation receive the relative moves or velocities of every step. Players that are
+ * further away only receive an update every few steps as determined by the {@link AnimationDetailLevels}. Because
+ * they miss some of the updates, they receive absolute teleports to correct the positions of the blocks.
+ *
+ * @param <P>
+ *     The type of the players that receive the packets.
+ * @param <E>
+ *     The type of the entities that are animated.
+ * @param <T>
+ *     The type of the packets.
+ * @author Pim
+ */
+public abstract class AbstractAnimationUpdateBatch<P, E, T> implements IAnimationUpdateBatch
+{
+    private final Vector3Dd center;
+    private final AnimationDetailLevels detailLevels;
+    private final Map<P, Viewer<T>> viewers = new IdentityHashMap<>();
+
+    /**
+     * The number of times this batch has been flushed.
+     */
+    private int step = 0;
+
+    /**
+     * @param center
+     *     The center of the animation. This is used to determine the distance between the animation and a player.
+     * @param detailLevels
+     *     The detail levels that determine how often players receive updates depending on their distance.
+     */
+    protected AbstractAnimationUpdateBatch(Vector3Dd center, AnimationDetailLevels detailLevels)
+    {
+        this.center = center;
+        this.detailLevels = detailLevels;
+    }
+
+    /**
+     * Gets the squared distance between a player and a position.
+     *
+     * @param player
+     *     The player.
+     * @param position
+     *     The position.
+     * @return The squared distance between the player and the position.
+     */
+    protected abstract double getDistanceSquared(P player, Vector3Dd position);
+
+    /**
+     * Creates a packet that moves an entity to its current absolute position.
+     *
+     * @param entity
+     *     The entity.
+     * @return The new packet.
+     */
+    protected abstract T createAbsoluteMove(E entity);
+
+    /**
+     * Sends packets to a player.
+     *
+     * @param player
+     *     The player to send the packets to.
+     * @param packets
+     *     The packets to send. The list will not be modified after this call.
+     */
+    protected abstract void send(P player, List<T> packets);
+
+    /**
+     * Adds the movement of a teleported entity in the current step to this batch.
+     *
+     * @param players
+     *     The players that can see the entity.
+     * @param entity
+     *     The entity that moved. Its position should already be updated.
+     * @param relativeMove
+     *     The relative move packet to send to the players that receive every update. This may be null if the entity
+     *     did not move far enough for these players to notice.
+     */
+    protected synchronized void addRelativeMove(Iterable<P> players, E entity, @Nullable T relativeMove)
+    {
+        @Nullable T absoluteMove = null;
+        for (final P player : players)
+        {
+            final Viewer<T> viewer = getViewer(player);
+            if (viewer.receivesEveryStep())
+            {
+                if (relativeMove != null)
+                    viewer.packets.add(relativeMove);
+            }
+            else if (viewer.isUpdateStep(step))
+            {
+                if (absoluteMove == null)
+                    absoluteMove = createAbsoluteMove(entity);
+                viewer.packets.add(absoluteMove);
+            }
+        }
+    }
+
+    /**
+     * Adds the new velocity of an entity that is moved using its velocity in the current step to this batch.
+     * <p>
+     * The clients move the entity using the last velocity they received until they receive a new one. Players that
+     * do not receive every update are sent the absolute position of the entity along with its velocity, to correct
+     * the drift caused by the velocities they missed.
+     *
+     * @param players
+     *     The players that can see the entity.
+     * @param entity
+     *     The entity whose velocity changed.
+     * @param velocity
+     *     The packet that updates the velocity of the entity.
+     */
+    protected synchronized void addVelocity(Iterable<P> players, E entity, T velocity)
+    {
+        @Nullable T absoluteMove = null;
+        for (final P player : players)
+        {
+            final Viewer<T> viewer = getViewer(player);
+            if (viewer.receivesEveryStep())
+                viewer.packets.add(velocity);
+            else if (viewer.isUpdateStep(step))
+            {
+                if (absoluteMove == null)
+                    absoluteMove = createAbsoluteMove(entity);
+                viewer.packets.add(absoluteMove);
+                viewer.packets.add(velocity);
+            }
+        }
+    }
+
+    private Viewer<T> getViewer(P player)
+    {
+        final Viewer<T> viewer = viewers.computeIfAbsent(player, key -> new Viewer<>());
+        if (viewer.lastStep != step)
+            viewer.update(step, detailLevels.getUpdateInterval(getDistanceSquared(player, center)));
+        return viewer;
+    }
+
+    @Override
+    public synchronized void flush()
+    {
+        final Iterator<Map.Entry<P, Viewer<T>>> it = viewers.entrySet().iterator();
+        while (it.hasNext())
+        {
+            final Map.Entry<P, Viewer<T>> entry = it.next();
+            final Viewer<T> viewer = entry.getValue();
+            // Forget about players that no longer track any of the animated blocks.
+            if (viewer.lastStep != step)
+            {
+                it.remove();
+                continue;
+            }
+            if (viewer.packets.isEmpty())
+                continue;
+
+            send(entry.getKey(), viewer.packets);
+            viewer.packets = new ArrayList<>(viewer.packets.size());
+        }
+        ++step;
+    }
+
+    /**
+     * Keeps track of the updates of a single player.
+     */
+    private static final class Viewer<T>
+    {
+        private List<T> packets = new ArrayList<>();
+
+        /**
+         * The number of steps between two updates. 0 if unknown.
+         */
+        private int interval = 0;
+
+        /**
+         * The last step this player was seen.
+         */
+        private int lastStep = -1;
+
+        /**
+         * Whether the player should receive absolute positions in the current step, because it switched to a
+         * different detail level.
+         */
+        private boolean resync = false;
+
+        private void update(int step, int newInterval)
+        {
+            resync = interval != 0 && interval != newInterval;
+            interval = newInterval;
+            lastStep = step;
+        }
+
+        private boolean receivesEveryStep()
+        {
+            return interval == 1 && !resync;
+        }
+
+        private boolean isUpdateStep(int step)
+        {
+            return resync || step % interval == 0;
+        }
+    }
+}
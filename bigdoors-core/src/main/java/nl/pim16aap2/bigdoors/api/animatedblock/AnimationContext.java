@@ -26,4 +26,9 @@ public class AnimationContext
      * The current progress of the animation.
      */
     IAnimation<? extends IAnimatedBlock> animation;
+
+    /**
+     * The batch that collects the movement updates of the animated blocks for every step of the animation.
+     */
+    IAnimationUpdateBatch updateBatch;
 }
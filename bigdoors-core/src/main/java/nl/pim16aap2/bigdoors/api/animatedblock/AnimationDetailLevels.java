@@ -0,0 +1,45 @@
+package nl.pim16aap2.bigdoors.api.animatedblock;
+
+/**
+ * Describes how often the movement of animated blocks is sent to players depending on their distance to the
+ * animation.
+ * <p>
+ * Players closer than {@link #halfRateDistance()} receive every update, players further away only receive every 2nd
+ * update, and players beyond {@link #quarterRateDistance()} only receive every 4th update.
+ *
+ * @param halfRateDistance
+ *     The distance (in blocks) from which players only receive every 2nd update. When 0 or lower, this band is
+ *     disabled.
+ * @param quarterRateDistance
+ *     The distance (in blocks) from which players only receive every 4th update. When 0 or lower, this band is
+ *     disabled.
+ * @author Pim
+ */
+public record AnimationDetailLevels(int halfRateDistance, int quarterRateDistance)
+{
+    /**
+     * Detail levels that send every update to every player, regardless of their distance.
+     */
+    public static final AnimationDetailLevels FULL = new AnimationDetailLevels(0, 0);
+
+    /**
+     * Gets the number of steps between two consecutive updates for a player.
+     *
+     * @param distanceSquared
+     *     The squared distance between the player and the animation.
+     * @return The number of steps between two updates sent to the player. This is 1 when every update should be sent.
+     */
+    public int getUpdateInterval(double distanceSquared)
+    {
+        if (exceeds(distanceSquared, quarterRateDistance))
+            return 4;
+        if (exceeds(distanceSquared, halfRateDistance))
+            return 2;
+        return 1;
+    }
+
+    private static boolean exceeds(double distanceSquared, int distance)
+    {
+        return distance > 0 && distanceSquared >= (double) distance * distance;
+    }
+}
@@ -27,6 +27,42 @@ public interface IAnimatedBlock
      */
     Vector3Dd getCurrentPosition();
 
+    /**
+     * Gets the x coordinate of the current position of this animated block.
+     * <p>
+     * Implementations should override this method to avoid allocating a new {@link Vector3Dd} for every call.
+     *
+     * @return The x coordinate of the current position of this animated block.
+     */
+    default double getCurrentX()
+    {
+        return getCurrentPosition().x();
+    }
+
+    /**
+     * Gets the y coordinate of the current position of this animated block.
+     * <p>
+     * Implementations should override this method to avoid allocating a new {@link Vector3Dd} for every call.
+     *
+     * @return The y coordinate of the current position of this animated block.
+     */
+    default double getCurrentY()
+    {
+        return getCurrentPosition().y();
+    }
+
+    /**
+     * Gets the z coordinate of the current position of this animated block.
+     * <p>
+     * Implementations should override this method to avoid allocating a new {@link Vector3Dd} for every call.
+     *
+     * @return The z coordinate of the current position of this animated block.
+     */
+    default double getCurrentZ()
+    {
+        return getCurrentPosition().z();
+    }
+
     /**
      * Gets the previous position of this animated block. This value is updated after each tick/teleport and describes
      * the location this animated block was at before it moved.
@@ -86,6 +122,24 @@ public interface IAnimatedBlock
         return teleport(newPosition, new Vector3Dd(0, 0, 0), TeleportMode.SET_VELOCITY);
     }
 
+    /**
+     * Teleports the entity to the provided coordinates.
+     * <p>
+     * Implementations should override this method to avoid allocating a new {@link Vector3Dd} for every call.
+     *
+     * @param x
+     *     The x coordinate of the location that the entity will be reported to.
+     * @param y
+     *     The y coordinate of the location that the entity will be reported to.
+     * @param z
+     *     The z coordinate of the location that the entity will be reported to.
+     * @return True if the teleport was successful.
+     */
+    default boolean teleport(double x, double y, double z)
+    {
+        return teleport(new Vector3Dd(x, y, z));
+    }
+
     /**
      * Spawns this animated block.
      */
@@ -122,6 +176,23 @@ public interface IAnimatedBlock
      */
     void setVelocity(Vector3Dd vector);
 
+    /**
+     * Sets the velocity of the entity.
+     * <p>
+     * Implementations should override this method to avoid allocating a new {@link Vector3Dd} for every call.
+     *
+     * @param x
+     *     The new velocity of the entity along the x axis.
+     * @param y
+     *     The new velocity of the entity along the y axis.
+     * @param z
+     *     The new velocity of the entity along the z axis.
+     */
+    default void setVelocity(double x, double y, double z)
+    {
+        setVelocity(new Vector3Dd(x, y, z));
+    }
+
     /**
      * @return The starting position of this animated block.
      */
@@ -47,4 +47,14 @@ public interface IAnimatedBlockData
      *     this block will not be broken upon removal of this block.
      */
     void deleteOriginalBlock(boolean applyPhysics);
+
+    /**
+     * Checks if this block fully occludes the blocks behind it. For example, stone is occluding, while glass is not.
+     *
+     * @return True if this block is occluding.
+     */
+    default boolean isOccluding()
+    {
+        return false;
+    }
 }
@@ -0,0 +1,30 @@
+package nl.pim16aap2.bigdoors.api.animatedblock;
+
+import nl.pim16aap2.bigdoors.api.factories.IAnimatedBlockFactory;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
+
+/**
+ * Collects the movement updates of all {@link IAnimatedBlock}s of a single animation, so they can be sent to the
+ * players that can see them all at once at the end of every step of the animation.
+ * <p>
+ * Batches may send updates less frequently to players that are far away from the animation. See
+ * {@link AnimationDetailLevels}.
+ * <p>
+ * New batches are created by {@link IAnimatedBlockFactory#createUpdateBatch(Vector3Dd, AnimationDetailLevels)}.
+ *
+ * @author Pim
+ */
+public interface IAnimationUpdateBatch
+{
+    /**
+     * A batch that does not collect anything. This can be used by platforms that send their updates immediately.
+     */
+    IAnimationUpdateBatch NONE = () ->
+    {
+    };
+
+    /**
+     * Sends all updates collected since the last flush.
+     */
+    void flush();
+}
@@ -2,8 +2,10 @@ package nl.pim16aap2.bigdoors.api.factories;
 
 import nl.pim16aap2.bigdoors.api.IPLocation;
 import nl.pim16aap2.bigdoors.api.animatedblock.AnimationContext;
+import nl.pim16aap2.bigdoors.api.animatedblock.AnimationDetailLevels;
 import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlockData;
+import nl.pim16aap2.bigdoors.api.animatedblock.IAnimationUpdateBatch;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
 
 import java.util.Optional;
@@ -39,4 +41,23 @@ public interface IAnimatedBlockFactory
         IPLocation loc, float radius, float startAngle, boolean bottom, boolean onEdge, AnimationContext context,
         Vector3Dd finalPosition)
         throws Exception;
+
+    /**
+     * Creates a new {@link IAnimationUpdateBatch} that collects the movement updates of the animated blocks created
+     * for a single animation.
+     * <p>
+     * By default, no updates are collected and every animated block sends its own updates.
+     *
+     * @param center
+     *     The center of the animation. This is used to determine the distance between players and the animation.
+     * @param detailLevels
+     *     The detail levels that determine how often updates are sent to players that are further away from the
+     *     center of the animation.
+     * @return The new {@link IAnimationUpdateBatch}.
+     */
+    default IAnimationUpdateBatch createUpdateBatch(
+        @SuppressWarnings("unused") Vector3Dd center, @SuppressWarnings("unused") AnimationDetailLevels detailLevels)
+    {
+        return IAnimationUpdateBatch.NONE;
+    }
 }
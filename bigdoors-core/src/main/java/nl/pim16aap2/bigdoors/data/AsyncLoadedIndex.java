@@ -0,0 +1,158 @@
+package nl.pim16aap2.bigdoors.data;
+
+import nl.pim16aap2.bigdoors.util.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Represents an index whose initial contents are loaded asynchronously (e.g. from the database), but that can already
+ * be changed while it is being loaded.
+ * <p>
+ * The changes that are made while loading are recorded. The loaded data of the entries that were changed may be
+ * outdated, so it is ignored. Once the index has been loaded, changes are applied directly.
+ * <p>
+ * Subclasses store the entries and provide the lookups. The entries are only modified while holding the lock of this
+ * object.
+ *
+ * @param <T>
+ *     The type of the entries. Every entry is identified by a unique id.
+ * @author Pim
+ */
+public abstract class AsyncLoadedIndex<T>
+{
+    /**
+     * Completed once the contents have been loaded.
+     */
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    /**
+     * The changes that were made while loading. A null value means that the entry was removed.
+     * <p>
+     * This is null once the contents have been loaded.
+     */
+    private @Nullable Map<Long, @Nullable T> pendingChanges = new HashMap<>();
+
+    /**
+     * Adds an entry to the index or replaces the existing entry with the same id.
+     *
+     * @param id
+     *     The id of the entry.
+     * @param entry
+     *     The entry.
+     */
+    protected abstract void put(long id, T entry);
+
+    /**
+     * Removes an entry from the index if it exists.
+     *
+     * @param id
+     *     The id of the entry.
+     */
+    protected abstract void remove(long id);
+
+    /**
+     * Adds all loaded entries to the index.
+     * <p>
+     * Subclasses can override this method when adding multiple entries at once is cheaper than adding them one by
+     * one.
+     *
+     * @param entries
+     *     The loaded entries mapped by their ids.
+     */
+    protected void putAll(Map<Long, T> entries)
+    {
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Adds, replaces, or removes an entry.
+     *
+     * @param id
+     *     The id of the entry.
+     * @param entry
+     *     The new entry. When this is null, the entry is removed.
+     */
+    public final synchronized void update(long id, @Nullable T entry)
+    {
+        if (pendingChanges != null)
+            pendingChanges.put(id, entry);
+
+        if (entry == null)
+            remove(id);
+        else
+            put(id, entry);
+    }
+
+    /**
+     * Loads the contents of this index.
+     * <p>
+     * This should be called exactly once.
+     *
+     * @param source
+     *     The future that provides the entries mapped by their ids.
+     * @param onFailure
+     *     Called when the entries could not be loaded. This can be used to make sure a new index is loaded the next
+     *     time it is needed (e.g. by removing this index from a cache). The lookups are completed exceptionally after
+     *     this has been called.
+     */
+    public final void load(CompletableFuture<? extends Map<Long, T>> source, Consumer<Throwable> onFailure)
+    {
+        source.whenComplete(
+            (entries, throwable) ->
+            {
+                if (throwable == null)
+                {
+                    onLoaded(entries);
+                    return;
+                }
+                onFailure.accept(throwable);
+                loaded.completeExceptionally(throwable);
+            });
+    }
+
+    private void onLoaded(Map<Long, T> entries)
+    {
+        synchronized (this)
+        {
+            final Map<Long, @Nullable T> changes = Util.requireNonNull(pendingChanges, "PendingChanges");
+            if (changes.isEmpty())
+                putAll(entries);
+            else
+            {
+                final Map<Long, T> unchanged = new HashMap<>(entries);
+                unchanged.keySet().removeAll(changes.keySet());
+                putAll(unchanged);
+            }
+            pendingChanges = null;
+        }
+        loaded.complete(null);
+    }
+
+    /**
+     * Runs a lookup once the contents of this index have been loaded.
+     *
+     * @param lookup
+     *     The lookup.
+     * @param <R>
+     *     The type of the result of the lookup.
+     * @return The result of the lookup. Once the index has been loaded, the future is completed immediately. When
+     * the contents could not be loaded, it is completed exceptionally.
+     */
+    public final <R> CompletableFuture<R> whenLoaded(Supplier<R> lookup)
+    {
+        return loaded.thenApply(ignored -> lookup.get());
+    }
+
+    /**
+     * @return True if the contents of this index have been loaded successfully.
+     */
+    public final boolean isLoaded()
+    {
+        return loaded.isDone() && !loaded.isCompletedExceptionally();
+    }
+}
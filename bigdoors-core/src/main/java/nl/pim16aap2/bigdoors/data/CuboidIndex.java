@@ -0,0 +1,313 @@
+package nl.pim16aap2.bigdoors.data;
+
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.Util;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Represents a spatial index of {@link Cuboid}s identified by a long key.
+ * <p>
+ * The cuboids are bucketed by the chunks (columns of 16x16 blocks) they intersect with, so finding the cuboids at a
+ * position or in a region only has to look at the cuboids in the chunks that are involved.
+ * <p>
+ * This class is thread-safe. Lookups can run concurrently, but they are blocked while the index is modified.
+ *
+ * @author Pim
+ */
+public final class CuboidIndex
+{
+    private static final long[] NO_KEYS = new long[0];
+
+    /**
+     * All cuboids in this index mapped by their key.
+     */
+    private final Map<Long, Cuboid> cuboids = new HashMap<>();
+
+    /**
+     * The keys of all cuboids that intersect with a chunk, mapped by the id of that chunk. See
+     * {@link Util#getChunkId(int, int)}.
+     */
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    public CuboidIndex()
+    {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+    }
+
+    /**
+     * Adds a cuboid to this index. If the key is already in this index, its cuboid is replaced.
+     *
+     * @param key
+     *     The key of the cuboid.
+     * @param cuboid
+     *     The cuboid.
+     */
+    public void put(long key, Cuboid cuboid)
+    {
+        writeLock.lock();
+        try
+        {
+            final @Nullable Cuboid previous = cuboids.put(key, cuboid);
+            if (cuboid.equals(previous))
+                return;
+            if (previous != null)
+                removeFromBuckets(key, previous);
+            addToBuckets(key, cuboid);
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a cuboid from this index.
+     *
+     * @param key
+     *     The key of the cuboid.
+     * @return True if the key was in this index.
+     */
+    public boolean remove(long key)
+    {
+        writeLock.lock();
+        try
+        {
+            final @Nullable Cuboid previous = cuboids.remove(key);
+            if (previous == null)
+                return false;
+            removeFromBuckets(key, previous);
+            return true;
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the cuboid of a key.
+     *
+     * @param key
+     *     The key.
+     * @return The cuboid of the key, or null if the key is not in this index.
+     */
+    public @Nullable Cuboid get(long key)
+    {
+        readLock.lock();
+        try
+        {
+            return cuboids.get(key);
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the keys of all cuboids that contain a position.
+     *
+     * @param pos
+     *     The position.
+     * @return The keys of all cuboids that contain the position.
+     */
+    public long[] getAt(Vector3Di pos)
+    {
+        readLock.lock();
+        try
+        {
+            final @Nullable Set<Long> bucket = buckets.get(Util.getChunkId(pos.x() >> 4, pos.z() >> 4));
+            if (bucket == null)
+                return NO_KEYS;
+
+            final KeyCollector collector = new KeyCollector();
+            for (final long key : bucket)
+                if (cuboids.get(key).isPosInsideCuboid(pos))
+                    collector.add(key);
+            return collector.toArray();
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the keys of all cuboids that intersect with a region.
+     *
+     * @param region
+     *     The region.
+     * @return The keys of all cuboids that share at least 1 block with the region.
+     */
+    public long[] getIntersecting(Cuboid region)
+    {
+        readLock.lock();
+        try
+        {
+            final KeyCollector collector = new KeyCollector();
+            final int minChunkX = region.getMin().x() >> 4;
+            final int minChunkZ = region.getMin().z() >> 4;
+            final int maxChunkX = region.getMax().x() >> 4;
+            final int maxChunkZ = region.getMax().z() >> 4;
+
+            // When the region covers more chunks than there are cuboids, just check every cuboid.
+            final long chunkCount = (maxChunkX - minChunkX + 1L) * (maxChunkZ - minChunkZ + 1L);
+            if (chunkCount > cuboids.size())
+            {
+                for (final Map.Entry<Long, Cuboid> entry : cuboids.entrySet())
+                    if (intersects(entry.getValue(), region))
+                        collector.add(entry.getKey());
+                return collector.toArray();
+            }
+
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX)
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ)
+                {
+                    final @Nullable Set<Long> bucket = buckets.get(Util.getChunkId(chunkX, chunkZ));
+                    if (bucket == null)
+                        continue;
+
+                    for (final long key : bucket)
+                    {
+                        final Cuboid cuboid = cuboids.get(key);
+                        // Cuboids in multiple chunks are only collected in the first chunk they share with the
+                        // region, so they are not collected more than once.
+                        if (chunkX == Math.max(minChunkX, cuboid.getMin().x() >> 4) &&
+                            chunkZ == Math.max(minChunkZ, cuboid.getMin().z() >> 4) &&
+                            intersects(cuboid, region))
+                            collector.add(key);
+                    }
+                }
+            return collector.toArray();
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the keys of all cuboids within a range of a position. See {@link Cuboid#isInRange(Vector3Di, int)}.
+     *
+     * @param pos
+     *     The position.
+     * @param range
+     *     The maximum distance (in blocks) between the position and a cuboid along every axis.
+     * @return The keys of all cuboids within range of the position.
+     */
+    public long[] getInRange(Vector3Di pos, int range)
+    {
+        if (range < 0)
+            throw new IllegalArgumentException("Range (" + range + ") cannot be smaller than 0!");
+        return getIntersecting(new Cuboid(pos.subtract(range), pos.add(range)));
+    }
+
+    /**
+     * @return The number of cuboids in this index.
+     */
+    public int size()
+    {
+        readLock.lock();
+        try
+        {
+            return cuboids.size();
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all cuboids from this index.
+     */
+    public void clear()
+    {
+        writeLock.lock();
+        try
+        {
+            cuboids.clear();
+            buckets.clear();
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    private void addToBuckets(long key, Cuboid cuboid)
+    {
+        for (int chunkX = cuboid.getMin().x() >> 4; chunkX <= cuboid.getMax().x() >> 4; ++chunkX)
+            for (int chunkZ = cuboid.getMin().z() >> 4; chunkZ <= cuboid.getMax().z() >> 4; ++chunkZ)
+                buckets.computeIfAbsent(Util.getChunkId(chunkX, chunkZ), ignored -> new HashSet<>(4)).add(key);
+    }
+
+    private void removeFromBuckets(long key, Cuboid cuboid)
+    {
+        for (int chunkX = cuboid.getMin().x() >> 4; chunkX <= cuboid.getMax().x() >> 4; ++chunkX)
+            for (int chunkZ = cuboid.getMin().z() >> 4; chunkZ <= cuboid.getMax().z() >> 4; ++chunkZ)
+            {
+                final long chunkId = Util.getChunkId(chunkX, chunkZ);
+                final @Nullable Set<Long> bucket = buckets.get(chunkId);
+                if (bucket != null && bucket.remove(key) && bucket.isEmpty())
+                    buckets.remove(chunkId);
+            }
+    }
+
+    private static boolean intersects(Cuboid a, Cuboid b)
+    {
+        return a.getMin().x() <= b.getMax().x() && a.getMax().x() >= b.getMin().x() &&
+            a.getMin().y() <= b.getMax().y() && a.getMax().y() >= b.getMin().y() &&
+            a.getMin().z() <= b.getMax().z() && a.getMax().z() >= b.getMin().z();
+    }
+
+    @Override
+    public String toString()
+    {
+        readLock.lock();
+        try
+        {
+            return "CuboidIndex(cuboids=" + cuboids.size() + ", chunks=" + buckets.size() + ")";
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Collects keys into a growing array.
+     */
+    private static final class KeyCollector
+    {
+        private long[] keys = NO_KEYS;
+        private int size = 0;
+
+        void add(long key)
+        {
+            if (size == keys.length)
+                keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+            keys[size++] = key;
+        }
+
+        long[] toArray()
+        {
+            return size == 0 ? NO_KEYS : Arrays.copyOf(keys, size);
+        }
+    }
+}
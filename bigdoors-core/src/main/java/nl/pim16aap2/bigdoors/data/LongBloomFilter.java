@@ -0,0 +1,117 @@
+package nl.pim16aap2.bigdoors.data;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represents a bloom filter of primitive long values.
+ * <p>
+ * A bloom filter can tell with certainty that a value was never added to it, but it can only tell that a value was
+ * probably added to it. The probability of false positives depends on the number of values that were added compared
+ * to the capacity of the filter. Values cannot be removed from the filter.
+ * <p>
+ * This class is thread-safe. Values can be added and checked concurrently without any locking.
+ *
+ * @author Pim
+ */
+public final class LongBloomFilter
+{
+    /**
+     * The number of values this filter was sized for. Adding more values than this increases the probability of false
+     * positives beyond the requested probability.
+     */
+    @Getter
+    private final int capacity;
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * @param capacity
+     *     The number of values the filter should be able to contain.
+     * @param falsePositiveProbability
+     *     The probability of false positives once the filter contains the specified number of values. This must be
+     *     between 0 and 1 (exclusive).
+     */
+    public LongBloomFilter(int capacity, double falsePositiveProbability)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity of bloom filter must be greater than 0!");
+        if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1))
+            throw new IllegalArgumentException(
+                "False positive probability must be between 0 and 1, not " + falsePositiveProbability + "!");
+
+        this.capacity = capacity;
+        final double optimalBits = -capacity * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+        final int words = (int) Math.min(Integer.MAX_VALUE / 64, Math.max(1, (long) Math.ceil(optimalBits / 64)));
+        bitCount = words * 64;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        bits = new AtomicLongArray(words);
+    }
+
+    /**
+     * Spreads the bits of a value using the finalizer of SplitMix64.
+     */
+    private static long mix(long value)
+    {
+        long hash = value;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Gets the index of the nth bit of a value. The bits are derived from a single hash using double hashing.
+     */
+    private int getBitIndex(long hash, int idx)
+    {
+        final int combined = (int) hash + idx * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * Adds a value to this filter.
+     *
+     * @param value
+     *     The value to add.
+     */
+    public void put(long value)
+    {
+        final long hash = mix(value);
+        for (int idx = 1; idx <= hashCount; ++idx)
+        {
+            final int bit = getBitIndex(hash, idx);
+            final long mask = 1L << bit;
+            final int word = bit >>> 6;
+            if ((bits.get(word) & mask) == 0)
+                bits.getAndAccumulate(word, mask, (current, update) -> current | update);
+        }
+    }
+
+    /**
+     * Checks if a value may have been added to this filter.
+     *
+     * @param value
+     *     The value to check.
+     * @return False if the value was definitely never added to this filter, true if it probably was.
+     */
+    public boolean mightContain(long value)
+    {
+        final long hash = mix(value);
+        for (int idx = 1; idx <= hashCount; ++idx)
+        {
+            final int bit = getBitIndex(hash, idx);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LongBloomFilter(capacity=" + capacity + ", bits=" + bitCount + ", hashes=" + hashCount + ")";
+    }
+}
@@ -0,0 +1,256 @@
+package nl.pim16aap2.bigdoors.data;
+
+import java.util.Arrays;
+
+/**
+ * Represents an immutable multimap of primitive long keys to primitive long values.
+ * <p>
+ * The keys are stored in an open-addressing hash table with linear probing. The values of all keys are packed into a
+ * single array, so every key only needs to store the offset and the number of its values. Neither the keys nor the
+ * values are ever boxed and looking up a key that is not in the map does not allocate anything.
+ * <p>
+ * Instances are created using a {@link Builder}.
+ *
+ * @author Pim
+ */
+public final class LongMultimap
+{
+    /**
+     * An empty map.
+     */
+    public static final LongMultimap EMPTY = new LongMultimap(new long[1], new long[1], new long[0], 0);
+
+    private static final long[] NO_VALUES = new long[0];
+
+    /**
+     * Multiplier used to spread the bits of the keys. This is the 64-bit golden ratio (Fibonacci hashing).
+     */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The hash table of the keys. The length of this array is always a power of 2.
+     */
+    private final long[] keys;
+
+    /**
+     * The location of the values of the key at the same index in {@link #keys}. The upper 32 bits contain the offset
+     * in {@link #values} and the lower 32 bits contain the number of values. Every key has at least 1 value, so a
+     * value of 0 means that the slot is empty.
+     */
+    private final long[] slots;
+
+    /**
+     * The values of all keys.
+     */
+    private final long[] values;
+
+    private final int mask;
+    private final int size;
+
+    private LongMultimap(long[] keys, long[] slots, long[] values, int size)
+    {
+        this.keys = keys;
+        this.slots = slots;
+        this.values = values;
+        this.size = size;
+        mask = keys.length - 1;
+    }
+
+    /**
+     * @return A new {@link Builder}.
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    private static int hash(long key)
+    {
+        return (int) ((key * HASH_MULTIPLIER) >>> 32);
+    }
+
+    private int indexOf(long key)
+    {
+        for (int idx = hash(key) & mask; ; idx = (idx + 1) & mask)
+        {
+            if (slots[idx] == 0)
+                return -1;
+            if (keys[idx] == key)
+                return idx;
+        }
+    }
+
+    /**
+     * Checks if a key has any values in this map.
+     *
+     * @param key
+     *     The key.
+     * @return True if the key has at least 1 value.
+     */
+    public boolean containsKey(long key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the number of values of a key.
+     *
+     * @param key
+     *     The key.
+     * @return The number of values of the key.
+     */
+    public int count(long key)
+    {
+        final int idx = indexOf(key);
+        return idx < 0 ? 0 : (int) slots[idx];
+    }
+
+    /**
+     * Gets all values of a key.
+     *
+     * @param key
+     *     The key.
+     * @return A copy of the values of the key in the order in which they were added. When the key does not have any
+     * values, a shared empty array is returned.
+     */
+    public long[] get(long key)
+    {
+        final int idx = indexOf(key);
+        if (idx < 0)
+            return NO_VALUES;
+        final long slot = slots[idx];
+        final int offset = (int) (slot >>> 32);
+        return Arrays.copyOfRange(values, offset, offset + (int) slot);
+    }
+
+    /**
+     * @return The number of keys in this map.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return The total number of values of all keys in this map.
+     */
+    public int valueCount()
+    {
+        return values.length;
+    }
+
+    /**
+     * @return True if this map does not contain any keys.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("{");
+        for (int idx = 0; idx < keys.length; ++idx)
+        {
+            if (slots[idx] == 0)
+                continue;
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(keys[idx]).append('=').append(Arrays.toString(get(keys[idx])));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Collects key-value pairs for a new {@link LongMultimap}.
+     * <p>
+     * Note that this class is not thread-safe.
+     *
+     * @author Pim
+     */
+    public static final class Builder
+    {
+        private long[] keys = new long[8];
+        private long[] values = new long[8];
+        private int pairs = 0;
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Adds a value to a key. Adding the same value to a key multiple times results in duplicate values.
+         *
+         * @param key
+         *     The key.
+         * @param value
+         *     The value to add to the key.
+         * @return This builder.
+         */
+        public Builder put(long key, long value)
+        {
+            if (pairs == keys.length)
+            {
+                keys = Arrays.copyOf(keys, pairs * 2);
+                values = Arrays.copyOf(values, pairs * 2);
+            }
+            keys[pairs] = key;
+            values[pairs] = value;
+            ++pairs;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link LongMultimap} from all pairs added to this builder.
+         *
+         * @return The new {@link LongMultimap}.
+         */
+        public LongMultimap build()
+        {
+            if (pairs == 0)
+                return EMPTY;
+
+            // Keep the load factor at or below 0.5, so there is always an empty slot to end the probing.
+            final int capacity = Integer.highestOneBit(pairs) << 2;
+            final int mask = capacity - 1;
+            final long[] tableKeys = new long[capacity];
+            final int[] counts = new int[capacity];
+            final int[] slotOfPair = new int[pairs];
+
+            int size = 0;
+            for (int pair = 0; pair < pairs; ++pair)
+            {
+                final long key = keys[pair];
+                int idx = hash(key) & mask;
+                while (counts[idx] != 0 && tableKeys[idx] != key)
+                    idx = (idx + 1) & mask;
+
+                if (counts[idx]++ == 0)
+                {
+                    tableKeys[idx] = key;
+                    ++size;
+                }
+                slotOfPair[pair] = idx;
+            }
+
+            final long[] slots = new long[capacity];
+            final int[] offsets = new int[capacity];
+            int offset = 0;
+            for (int idx = 0; idx < capacity; ++idx)
+            {
+                if (counts[idx] == 0)
+                    continue;
+                slots[idx] = ((long) offset << 32) | counts[idx];
+                offsets[idx] = offset;
+                offset += counts[idx];
+            }
+
+            final long[] packedValues = new long[pairs];
+            for (int pair = 0; pair < pairs; ++pair)
+                packedValues[offsets[slotOfPair[pair]]++] = values[pair];
+
+            return new LongMultimap(tableKeys, slots, packedValues, size);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package nl.pim16aap2.bigdoors.data;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Represents an index of values that can be looked up by (case-insensitive) prefixes of their keys.
+ * <p>
+ * The values are stored in an array that is sorted by their keys, so all values whose keys start with a prefix are
+ * stored next to each other and can be found using a binary search.
+ * <p>
+ * Every value is identified by a unique id. Adding a value with the same id as an existing value replaces the existing
+ * value.
+ * <p>
+ * This class is thread-safe. Modifications replace the array with an updated copy, so lookups never have to wait for
+ * modifications. This makes modifications relatively expensive, so this class is best suited for data that is looked
+ * up much more often than it is modified.
+ *
+ * @param <T>
+ *     The type of the values.
+ * @author Pim
+ */
+public final class PrefixIndex<T>
+{
+    private static final Comparator<Entry<?>> COMPARATOR =
+        Comparator.<Entry<?>, String>comparing(Entry::key).thenComparingLong(Entry::id);
+
+    private final ToLongFunction<T> idFunction;
+    private final Function<T, String> keyFunction;
+
+    /**
+     * All entries in this index sorted by their keys and ids.
+     */
+    private volatile Entry<T>[] entries = newArray(0);
+
+    /**
+     * All entries in this index mapped by their ids.
+     */
+    private final Map<Long, Entry<T>> entriesById = new HashMap<>();
+
+    /**
+     * @param idFunction
+     *     The function that provides the unique id of a value.
+     * @param keyFunction
+     *     The function that provides the key of a value.
+     */
+    public PrefixIndex(ToLongFunction<T> idFunction, Function<T, String> keyFunction)
+    {
+        this.idFunction = idFunction;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Adds a value to this index. If a value with the same id is already in this index, it is replaced.
+     *
+     * @param value
+     *     The value to add.
+     */
+    public synchronized void put(T value)
+    {
+        final Entry<T> entry = newEntry(value);
+        final @Nullable Entry<T> previous = entriesById.put(entry.id(), entry);
+        final Entry<T>[] current = entries;
+
+        final List<Entry<T>> updated = new ArrayList<>(current.length + 1);
+        for (final Entry<T> other : current)
+            if (other != previous)
+                updated.add(other);
+
+        final int idx = Collections.binarySearch(updated, entry, COMPARATOR);
+        updated.add(-(idx + 1), entry);
+        entries = updated.toArray(newArray(0));
+    }
+
+    /**
+     * Adds multiple values to this index at once. See {@link #put(Object)}.
+     * <p>
+     * This is more efficient than adding them one at a time, as the entries only have to be sorted once.
+     *
+     * @param values
+     *     The values to add.
+     */
+    public synchronized void putAll(Collection<T> values)
+    {
+        for (final T value : values)
+        {
+            final Entry<T> entry = newEntry(value);
+            entriesById.put(entry.id(), entry);
+        }
+        final Entry<T>[] updated = entriesById.values().toArray(newArray(0));
+        Arrays.sort(updated, COMPARATOR);
+        entries = updated;
+    }
+
+    /**
+     * Removes a value from this index.
+     *
+     * @param id
+     *     The id of the value to remove.
+     * @return True if a value with the given id was in this index.
+     */
+    public synchronized boolean remove(long id)
+    {
+        final @Nullable Entry<T> previous = entriesById.remove(id);
+        if (previous == null)
+            return false;
+
+        final Entry<T>[] current = entries;
+        final Entry<T>[] updated = newArray(current.length - 1);
+        int idx = 0;
+        for (final Entry<T> entry : current)
+            if (entry != previous)
+                updated[idx++] = entry;
+        entries = updated;
+        return true;
+    }
+
+    /**
+     * Gets a value from this index.
+     *
+     * @param id
+     *     The id of the value.
+     * @return The value with the given id, or null if no such value is in this index.
+     */
+    public synchronized @Nullable T get(long id)
+    {
+        final @Nullable Entry<T> entry = entriesById.get(id);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Gets all values whose keys start with a prefix. The comparison is not case-sensitive.
+     *
+     * @param prefix
+     *     The prefix.
+     * @return All values whose keys start with the prefix, sorted by their keys.
+     */
+    public List<T> getByPrefix(String prefix)
+    {
+        final Entry<T>[] current = entries;
+        final String key = normalize(prefix);
+
+        // Find the first entry whose key is not smaller than the prefix.
+        int low = 0;
+        int high = current.length;
+        while (low < high)
+        {
+            final int mid = (low + high) >>> 1;
+            if (current[mid].key().compareTo(key) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        final List<T> ret = new ArrayList<>();
+        for (int idx = low; idx < current.length && current[idx].key().startsWith(key); ++idx)
+            ret.add(current[idx].value());
+        return ret;
+    }
+
+    /**
+     * @return The number of values in this index.
+     */
+    public int size()
+    {
+        return entries.length;
+    }
+
+    /**
+     * Removes all values from this index.
+     */
+    public synchronized void clear()
+    {
+        entriesById.clear();
+        entries = newArray(0);
+    }
+
+    private Entry<T> newEntry(T value)
+    {
+        return new Entry<>(normalize(keyFunction.apply(value)), idFunction.applyAsLong(value), value);
+    }
+
+    private static String normalize(String key)
+    {
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newArray(int size)
+    {
+        return (Entry<T>[]) new Entry[size];
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PrefixIndex(size=" + size() + ")";
+    }
+
+    /**
+     * @param key
+     *     The normalized key of the value.
+     * @param id
+     *     The id of the value.
+     * @param value
+     *     The value.
+     */
+    private record Entry<T>(String key, long id, T value) {}
+}
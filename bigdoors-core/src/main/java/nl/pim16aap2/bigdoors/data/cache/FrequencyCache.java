@@ -0,0 +1,660 @@
+package nl.pim16aap2.bigdoors.data.cache;
+
+import lombok.Builder;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Represents a cache that is bounded by the total weight of its entries and that decides which entries to keep based
+ * on how often they are accessed (W-TinyLFU).
+ * <p>
+ * New entries are added to a small LRU 'window'. Entries that are pushed out of the window are only admitted to the
+ * main space of the cache if they have been accessed more often recently than the entry that would have to be evicted
+ * to make room for them (see {@link FrequencySketch}). This keeps frequently used entries in the cache, even when a
+ * large number of entries is accessed only once (e.g. when loading all doors in a large area).
+ * <p>
+ * The main space is split into a 'probation' and a 'protected' segment. Entries in the probation segment are moved to
+ * the protected segment when they are accessed again. Entries are evicted from the probation segment first.
+ * <p>
+ * Entries can be pinned, in which case they are never evicted or expired. When all entries are pinned, the cache may
+ * exceed its maximum weight.
+ * <p>
+ * This class is thread-safe. Lookups do not acquire any locks: the entries are stored in a concurrent map and the
+ * accesses are recorded in a buffer. The buffered accesses are applied to the segments and the sketch in batches while
+ * holding the {@link #evictionLock}, which is also held while adding entries. When the buffer is full, accesses are
+ * dropped, which only makes the eviction policy slightly less accurate.
+ *
+ * @param <K>
+ *     Type of the Key of the map.
+ * @param <V>
+ *     Type of the value of the map.
+ * @author Pim
+ */
+public final class FrequencyCache<K, V>
+{
+    /**
+     * The share of the maximum weight of the cache reserved for the window.
+     */
+    private static final double WINDOW_RATIO = 0.01;
+
+    /**
+     * The share of the main space of the cache reserved for the protected segment.
+     */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /**
+     * The maximum number of buffered accesses. This must be a power of 2.
+     */
+    private static final int READ_BUFFER_SIZE = 128;
+
+    /**
+     * The number of buffered accesses after which a lookup tries to apply them.
+     */
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 4;
+
+    private final Map<K, Node<K, V>> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Guards the segments, the sketch, and the weights.
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>();
+    private final FrequencySketch sketch = new FrequencySketch(0);
+
+    /**
+     * The ring buffer of the accessed nodes that have not been applied yet.
+     */
+    private final AtomicReferenceArray<@Nullable Node<K, V>> readBuffer =
+        new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+    /**
+     * The total number of accesses that were added to the {@link #readBuffer}.
+     */
+    private final AtomicLong readBufferWriteCount = new AtomicLong();
+
+    /**
+     * The total number of accesses that were applied from the {@link #readBuffer}. This is only updated while holding
+     * the {@link #evictionLock}.
+     */
+    private volatile long readBufferReadCount = 0;
+
+    private final LongSupplier maximumWeight;
+    private final @Nullable ToIntBiFunction<K, V> weigher;
+    private final @Nullable BiPredicate<K, V> pinned;
+    private final @Nullable BiConsumer<K, V> evictionListener;
+    private final long expireAfterAccess;
+    private final LongSupplier nanoTime;
+
+    private long totalWeight = 0;
+    private long windowWeight = 0;
+    private long protectedWeight = 0;
+
+    FrequencyCache(
+        LongSupplier maximumWeight, @Nullable ToIntBiFunction<K, V> weigher, @Nullable BiPredicate<K, V> pinned,
+        @Nullable Duration expireAfterAccess, @Nullable BiConsumer<K, V> evictionListener, LongSupplier nanoTime)
+    {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.pinned = pinned;
+        this.evictionListener = evictionListener;
+        this.expireAfterAccess = expireAfterAccess == null ? 0 : expireAfterAccess.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Constructor of {@link FrequencyCache}.
+     *
+     * @param maximumWeight
+     *     Supplies the maximum total weight of all entries in the cache. This is evaluated whenever an entry is added,
+     *     so it may change over time. Values less than 1 mean the cache is not bounded.
+     * @param weigher
+     *     The function that determines the weight of an entry. When null (default), every entry has a weight of 1, so
+     *     the maximum weight is the maximum number of entries.
+     * @param pinned
+     *     The function that determines whether an entry is pinned. Pinned entries are never evicted or expired. When
+     *     null (default), no entries are pinned. This is only evaluated for the entries that are about to be evicted
+     *     or expired, and never while holding the lock of this cache.
+     * @param expireAfterAccess
+     *     The amount of time after which entries that have not been accessed expire. When null (default) or 0, entries
+     *     do not expire.
+     * @param evictionListener
+     *     The function that is called for every entry that is evicted or expired. This is not called for entries that
+     *     are removed explicitly. The listener is not called while holding the lock of this cache.
+     */
+    @Builder
+    private FrequencyCache(
+        LongSupplier maximumWeight, @Nullable ToIntBiFunction<K, V> weigher, @Nullable BiPredicate<K, V> pinned,
+        @Nullable Duration expireAfterAccess, @Nullable BiConsumer<K, V> evictionListener)
+    {
+        this(maximumWeight, weigher, pinned, expireAfterAccess, evictionListener, System::nanoTime);
+    }
+
+    /**
+     * Gets the value associated with the provided key.
+     *
+     * @param key
+     *     The key of the value to look up.
+     * @return The value associated with the provided key if it is available.
+     */
+    public Optional<V> get(K key)
+    {
+        final @Nullable Node<K, V> node = nodes.get(key);
+        if (node == null)
+            return Optional.empty();
+
+        final long now = nanoTime.getAsLong();
+        if (isExpired(node, now) && !isPinned(node))
+        {
+            if (nodes.remove(key, node))
+            {
+                detach(node);
+                notifyEviction(node);
+            }
+            return Optional.empty();
+        }
+
+        node.lastAccess = now;
+        recordAccess(node);
+        return Optional.of(node.value);
+    }
+
+    /**
+     * Checks if a provided key exists in the cache and has not expired.
+     *
+     * @param key
+     *     The key to check.
+     * @return True if the key exists.
+     */
+    public boolean containsKey(K key)
+    {
+        return get(key).isPresent();
+    }
+
+    /**
+     * Puts a new key/value pair in the cache, replacing any existing value.
+     *
+     * @param key
+     *     The key of the pair to add to the cache.
+     * @param value
+     *     The value of the pair to add to the cache.
+     * @return The value that was just added to the cache.
+     */
+    public V put(K key, V value)
+    {
+        final Node<K, V> node = newNode(key, value);
+        final List<Node<K, V>> victims;
+        evictionLock.lock();
+        try
+        {
+            final @Nullable Node<K, V> previous = nodes.put(key, node);
+            if (previous != null)
+                detachLocked(previous);
+            victims = afterWrite(node);
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+        evict(victims);
+        return value;
+    }
+
+    /**
+     * Adds a key/value pair to the cache if no value is associated with the key yet.
+     *
+     * @param key
+     *     The key of the pair to add to the cache.
+     * @param value
+     *     The value of the pair to add to the cache.
+     * @return The value that was already associated with the key, if any. If the value was added, an empty Optional.
+     */
+    public Optional<V> putIfAbsent(K key, V value)
+    {
+        final Optional<V> existing = get(key);
+        if (existing.isPresent())
+            return existing;
+
+        final Node<K, V> node = newNode(key, value);
+        final List<Node<K, V>> victims;
+        evictionLock.lock();
+        try
+        {
+            final @Nullable Node<K, V> current = nodes.putIfAbsent(key, node);
+            if (current != null)
+                return Optional.of(current.value);
+            victims = afterWrite(node);
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+        evict(victims);
+        return Optional.empty();
+    }
+
+    /**
+     * Removes a key from the cache.
+     *
+     * @param key
+     *     The key to remove.
+     * @return The value that was associated with the key, if any.
+     */
+    public Optional<V> remove(K key)
+    {
+        final @Nullable Node<K, V> node = nodes.remove(key);
+        if (node == null)
+            return Optional.empty();
+        detach(node);
+        return Optional.of(node.value);
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear()
+    {
+        evictionLock.lock();
+        try
+        {
+            drainReadBuffer();
+            nodes.values().forEach(node -> node.segment = null);
+            nodes.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            totalWeight = 0;
+            windowWeight = 0;
+            protectedWeight = 0;
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the total number cached entries.
+     * <p>
+     * Note that this may include expired entries that have not been removed yet.
+     *
+     * @return The total number of cached entries.
+     */
+    public int getSize()
+    {
+        return nodes.size();
+    }
+
+    /**
+     * @return The total weight of all cached entries.
+     */
+    public long getWeight()
+    {
+        evictionLock.lock();
+        try
+        {
+            return totalWeight;
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    private Node<K, V> newNode(K key, V value)
+    {
+        final int weight = weigher == null ? 1 : weigher.applyAsInt(key, value);
+        if (weight < 0)
+            throw new IllegalArgumentException("Weight of key: \"" + key + "\" cannot be negative!");
+        return new Node<>(key, value, weight, nanoTime.getAsLong());
+    }
+
+    /**
+     * Adds an access of a node to the {@link #readBuffer}. When enough accesses have been buffered, they are applied
+     * if the {@link #evictionLock} is not held by another thread.
+     */
+    private void recordAccess(Node<K, V> node)
+    {
+        final long writeCount = readBufferWriteCount.get();
+        final long pending = writeCount - readBufferReadCount;
+        // The access is dropped when the buffer is full or when another thread claimed the same slot.
+        if (pending < READ_BUFFER_SIZE && readBufferWriteCount.compareAndSet(writeCount, writeCount + 1))
+            readBuffer.lazySet((int) (writeCount & (READ_BUFFER_SIZE - 1)), node);
+
+        if (pending + 1 < READ_BUFFER_DRAIN_THRESHOLD || !evictionLock.tryLock())
+            return;
+        try
+        {
+            drainReadBuffer();
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Applies all buffered accesses. The {@link #evictionLock} must be held.
+     */
+    private void drainReadBuffer()
+    {
+        long readCount = readBufferReadCount;
+        final long writeCount = readBufferWriteCount.get();
+        for (; readCount < writeCount; ++readCount)
+        {
+            final int index = (int) (readCount & (READ_BUFFER_SIZE - 1));
+            final @Nullable Node<K, V> node = readBuffer.get(index);
+            // The slot was claimed, but the node has not been written yet.
+            if (node == null)
+                break;
+            readBuffer.lazySet(index, null);
+            onAccess(node);
+        }
+        readBufferReadCount = readCount;
+    }
+
+    /**
+     * Updates the frequency and the position of a node that was accessed. The {@link #evictionLock} must be held.
+     */
+    private void onAccess(Node<K, V> node)
+    {
+        sketch.increment(node.key);
+        if (node.segment == null)
+            return;
+
+        switch (node.segment)
+        {
+            case WINDOW -> moveToTail(window, node);
+            case PROTECTED -> moveToTail(protectedSegment, node);
+            case PROBATION ->
+            {
+                probation.remove(node.key);
+                node.segment = Segment.PROTECTED;
+                protectedSegment.put(node.key, node);
+                protectedWeight += node.weight;
+                demoteProtected();
+            }
+        }
+    }
+
+    /**
+     * Adds a new node to the window and selects the nodes that should be evicted. The {@link #evictionLock} must be
+     * held.
+     *
+     * @return The nodes that should be evicted. They have been removed from the segments already, but they have to be
+     * passed to {@link #evict(List)} once the lock has been released.
+     */
+    private List<Node<K, V>> afterWrite(Node<K, V> node)
+    {
+        drainReadBuffer();
+        sketch.increment(node.key);
+
+        node.segment = Segment.WINDOW;
+        window.put(node.key, node);
+        windowWeight += node.weight;
+        totalWeight += node.weight;
+
+        final List<Node<K, V>> victims = new ArrayList<>(0);
+        expire(node.lastAccess, victims);
+        selectVictims(victims);
+        return victims;
+    }
+
+    /**
+     * Evicts the selected nodes, unless they are pinned. Pinned nodes are added to the tail of the probation segment
+     * again, so they are not selected again right away.
+     * <p>
+     * This must be called without holding the {@link FrequencyCache#evictionLock}.
+     */
+    private void evict(List<Node<K, V>> victims)
+    {
+        for (final Node<K, V> victim : victims)
+        {
+            if (isPinned(victim))
+                reattach(victim);
+            else if (nodes.remove(victim.key, victim))
+                notifyEviction(victim);
+        }
+    }
+
+    private void reattach(Node<K, V> node)
+    {
+        evictionLock.lock();
+        try
+        {
+            // The node may have been removed or replaced in the meantime.
+            if (node.segment != null || nodes.get(node.key) != node)
+                return;
+            node.lastAccess = nanoTime.getAsLong();
+            node.segment = Segment.PROBATION;
+            probation.put(node.key, node);
+            totalWeight += node.weight;
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    private void detach(Node<K, V> node)
+    {
+        evictionLock.lock();
+        try
+        {
+            detachLocked(node);
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a node from the segments if it is still part of any of them. The {@link #evictionLock} must be held.
+     */
+    private void detachLocked(Node<K, V> node)
+    {
+        if (node.segment == null)
+            return;
+
+        totalWeight -= node.weight;
+        switch (node.segment)
+        {
+            case WINDOW ->
+            {
+                window.remove(node.key);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> probation.remove(node.key);
+            case PROTECTED ->
+            {
+                protectedSegment.remove(node.key);
+                protectedWeight -= node.weight;
+            }
+        }
+        node.segment = null;
+    }
+
+    private void notifyEviction(Node<K, V> node)
+    {
+        if (evictionListener != null)
+            evictionListener.accept(node.key, node.value);
+    }
+
+    private boolean isPinned(Node<K, V> node)
+    {
+        return pinned != null && pinned.test(node.key, node.value);
+    }
+
+    private boolean isExpired(Node<K, V> node, long now)
+    {
+        return expireAfterAccess > 0 && now - node.lastAccess > expireAfterAccess;
+    }
+
+    /**
+     * Selects the expired entries from the heads of all segments. The {@link #evictionLock} must be held.
+     * <p>
+     * Every segment is ordered by the time of the last access, so only the heads of the segments need to be checked.
+     */
+    private void expire(long now, List<Node<K, V>> victims)
+    {
+        if (expireAfterAccess <= 0)
+            return;
+        expire(window, now, victims);
+        expire(probation, now, victims);
+        expire(protectedSegment, now, victims);
+    }
+
+    private void expire(LinkedHashMap<K, Node<K, V>> segment, long now, List<Node<K, V>> victims)
+    {
+        @Nullable Node<K, V> node;
+        while ((node = firstNode(segment)) != null && isExpired(node, now))
+        {
+            detachLocked(node);
+            victims.add(node);
+        }
+    }
+
+    /**
+     * Moves entries from the window to the main space and selects entries to evict until the cache no longer exceeds
+     * its maximum weight. The {@link #evictionLock} must be held.
+     */
+    private void selectVictims(List<Node<K, V>> victims)
+    {
+        final long maxWeight = getMaximumWeight();
+        sketch.ensureCapacity(nodes.size());
+
+        final long maxWindowWeight = Math.max(1, (long) (maxWeight * WINDOW_RATIO));
+        @Nullable Node<K, V> candidate;
+        while (windowWeight > maxWindowWeight && (candidate = firstNode(window)) != null)
+        {
+            window.remove(candidate.key);
+            windowWeight -= candidate.weight;
+            candidate.segment = Segment.PROBATION;
+            probation.put(candidate.key, candidate);
+
+            if (totalWeight <= maxWeight)
+                continue;
+
+            // The main space is full, so either the candidate or the victim has to go.
+            final @Nullable Node<K, V> victim = findVictim(candidate);
+            final Node<K, V> evicted =
+                victim == null || sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+            if (evicted != null)
+            {
+                detachLocked(evicted);
+                victims.add(evicted);
+            }
+        }
+
+        // The weights of the entries may be so uneven that evicting a single victim per candidate is not enough.
+        while (totalWeight > maxWeight)
+        {
+            final @Nullable Node<K, V> victim = findVictim(null);
+            if (victim == null)
+                return;
+            detachLocked(victim);
+            victims.add(victim);
+        }
+    }
+
+    /**
+     * Finds the entry that should be evicted first: the least recently used entry in the probation segment, then in
+     * the protected segment, and finally in the window.
+     *
+     * @param exclude
+     *     The node to exclude from the search, if any.
+     */
+    private @Nullable Node<K, V> findVictim(@Nullable Node<K, V> exclude)
+    {
+        for (final LinkedHashMap<K, Node<K, V>> segment : List.of(probation, protectedSegment, window))
+            for (final Node<K, V> node : segment.values())
+                if (node != exclude)
+                    return node;
+        return null;
+    }
+
+    /**
+     * Moves the least recently used entries of the protected segment to the probation segment until the protected
+     * segment no longer exceeds its maximum weight.
+     */
+    private void demoteProtected()
+    {
+        final long maxWeight = getMaximumWeight();
+        final long maxProtectedWeight =
+            (long) ((maxWeight - Math.max(1, (long) (maxWeight * WINDOW_RATIO))) * PROTECTED_RATIO);
+
+        @Nullable Node<K, V> node;
+        while (protectedWeight > maxProtectedWeight && (node = firstNode(protectedSegment)) != null)
+        {
+            protectedSegment.remove(node.key);
+            protectedWeight -= node.weight;
+            node.segment = Segment.PROBATION;
+            probation.put(node.key, node);
+        }
+    }
+
+    private long getMaximumWeight()
+    {
+        final long maxWeight = maximumWeight.getAsLong();
+        return maxWeight < 1 ? Long.MAX_VALUE : maxWeight;
+    }
+
+    private static <K, V> void moveToTail(LinkedHashMap<K, Node<K, V>> segment, Node<K, V> node)
+    {
+        segment.remove(node.key);
+        segment.put(node.key, node);
+    }
+
+    private static <K, V> @Nullable Node<K, V> firstNode(LinkedHashMap<K, Node<K, V>> segment)
+    {
+        final Iterator<Node<K, V>> it = segment.values().iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    private enum Segment
+    {
+        WINDOW,
+        PROBATION,
+        PROTECTED
+    }
+
+    private static final class Node<K, V>
+    {
+        private final K key;
+        private final V value;
+        private final int weight;
+        private volatile long lastAccess;
+
+        /**
+         * The segment that contains this node. This is null when the node is not part of any segment (e.g. when it is
+         * about to be evicted). This is only accessed while holding the {@link FrequencyCache#evictionLock}.
+         */
+        private @Nullable Segment segment;
+
+        private Node(K key, V value, int weight, long lastAccess)
+        {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package nl.pim16aap2.bigdoors.data.cache;
+
+/**
+ * Estimates how often keys have been accessed recently using a Count-Min sketch with 4-bit counters.
+ * <p>
+ * Once the number of increments reaches a multiple of the capacity of the sketch, all counters are halved. This makes
+ * the estimates favor recent accesses over accesses that happened a long time ago.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Pim
+ */
+final class FrequencySketch
+{
+    /**
+     * The seeds of the hash functions used to select a counter for each row of the sketch.
+     */
+    private static final long[] SEEDS =
+        {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    /**
+     * The mask that clears the highest bit of every counter after they have been shifted to the right by 1.
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MAX_COUNT = 15;
+    private static final int MIN_SIZE = 16;
+    private static final int MAX_SIZE = 1 << 30;
+
+    /**
+     * The counters. Every long holds 16 counters of 4 bits each.
+     */
+    private long[] table = new long[0];
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity)
+    {
+        ensureCapacity(capacity);
+    }
+
+    /**
+     * Ensures the sketch can estimate the frequencies of at least the provided number of keys accurately.
+     * <p>
+     * When the sketch has to grow, all frequencies are forgotten.
+     *
+     * @param capacity
+     *     The number of keys the sketch should be able to estimate the frequencies of.
+     */
+    void ensureCapacity(int capacity)
+    {
+        final int size = Math.max(MIN_SIZE, ceilingPowerOfTwo(Math.min(capacity, MAX_SIZE)));
+        if (table.length >= size)
+            return;
+        table = new long[size];
+        sampleSize = 10 * size;
+        additions = 0;
+    }
+
+    /**
+     * Gets the estimated number of times a key has been accessed recently.
+     *
+     * @param key
+     *     The key.
+     * @return The estimated frequency of the key. This value is at most 15.
+     */
+    int frequency(Object key)
+    {
+        final long hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; ++row)
+            frequency = Math.min(frequency, (int) ((table[indexOf(hash, row)] >>> offsetOf(hash, row)) & 0xFL));
+        return frequency;
+    }
+
+    /**
+     * Increments the estimated frequency of a key.
+     *
+     * @param key
+     *     The key.
+     */
+    void increment(Object key)
+    {
+        final long hash = spread(key.hashCode());
+        boolean incremented = false;
+        for (int row = 0; row < SEEDS.length; ++row)
+        {
+            final int index = indexOf(hash, row);
+            final int offset = offsetOf(hash, row);
+            if (((table[index] >>> offset) & 0xFL) < MAX_COUNT)
+            {
+                table[index] += 1L << offset;
+                incremented = true;
+            }
+        }
+
+        if (incremented && ++additions >= sampleSize)
+            reset();
+    }
+
+    /**
+     * Halves all counters.
+     */
+    private void reset()
+    {
+        for (int idx = 0; idx < table.length; ++idx)
+            table[idx] = (table[idx] >>> 1) & RESET_MASK;
+        additions /= 2;
+    }
+
+    private int indexOf(long hash, int row)
+    {
+        final long seeded = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) ((seeded + (seeded >>> 32)) & (table.length - 1));
+    }
+
+    private static int offsetOf(long hash, int row)
+    {
+        return (int) ((hash >>> (row << 3)) & 0xFL) << 2;
+    }
+
+    private static long spread(int hashCode)
+    {
+        final long hash = hashCode * 0x9e3779b97f4a7c15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static int ceilingPowerOfTwo(int value)
+    {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -37,9 +37,14 @@ import java.time.Clock;
 abstract class AbstractTimedValue<T>
 {
     protected final long timeOut;
-    protected long insertTime;
+    protected volatile long insertTime;
     protected final Clock clock;
 
+    /**
+     * The weight of this value in a size-bounded {@link TimedCache}. See {@link TimedCache#getWeight()}.
+     */
+    int weight = 1;
+
     protected AbstractTimedValue(Clock clock, long timeOut)
     {
         this.clock = clock;
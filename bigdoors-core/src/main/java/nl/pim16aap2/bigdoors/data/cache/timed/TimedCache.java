@@ -30,25 +30,41 @@ import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.util.Util;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.time.Clock;
 import java.time.Duration;
-import java.util.Map;
+import java.util.Deque;
 import java.util.Optional;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
 import java.util.logging.Level;
 
 /**
  * Represents a timed cached map backed by a {@link ConcurrentHashMap}. Entries will expire after a configurable amount
  * of time.
  * <p>
- * Expired entries cannot be retrieved or used in any way, but they will still show up in the size arguments. If
- * configured, a separate thread may perform regular cleanup.
+ * Expired entries cannot be retrieved or used in any way, but they may still show up in the size arguments until they
+ * are removed. Expired entries are removed when they are accessed and a few at a time whenever new entries are added.
+ * If configured, the cleanup thread that is shared by all caches may perform regular cleanup as well.
+ * <p>
+ * Because all entries in a cache share the same timeout, the order in which entries expire is the order in which they
+ * were inserted (or refreshed). The entries are therefore tracked in a queue in that order, so removing expired entries
+ * only requires looking at the head of the queue instead of scanning the entire map.
+ * <p>
+ * Optionally, the total weight of the entries in the cache can be bounded (see {@link #getWeight()}). When the bound is
+ * exceeded, the entries closest to expiring are evicted first.
  *
  * @param <K>
  *     Type of the Key of the map.
@@ -61,11 +77,52 @@ public sealed class TimedCache<K, V>
 {
     private static final Clock DEFAULT_CLOCK = Clock.systemUTC();
 
+    /**
+     * The executor that runs the cleanup tasks of all caches on a single daemon thread.
+     */
+    private static final ScheduledThreadPoolExecutor CLEANUP_EXECUTOR = createCleanupExecutor();
+
+    /**
+     * The maximum number of entries in the {@link #expiryQueue} to process whenever a new entry is added.
+     */
+    private static final int AMORTIZED_CLEANUP_LIMIT = 4;
+
+    /**
+     * The minimum number of stale nodes in the {@link #expiryQueue} before it is compacted. See
+     * {@link #compactExpiryQueue()}.
+     */
+    private static final int MIN_COMPACTION_SIZE = 64;
+
     /**
      * The actual data structure all values are cached in.
      */
     private final ConcurrentHashMap<K, AbstractTimedValue<V>> cache = new ConcurrentHashMap<>();
 
+    /**
+     * The entries of the cache in the order in which they were inserted.
+     * <p>
+     * Entries that are refreshed are not moved. Instead, they are moved to the tail of the queue when they reach the
+     * head of the queue. Similarly, entries that have been replaced or removed are only removed from the queue once
+     * they reach the head, or when the queue is compacted.
+     */
+    private final Deque<ExpiryNode<K, V>> expiryQueue = new ConcurrentLinkedDeque<>();
+
+    /**
+     * The approximate number of nodes in the {@link #expiryQueue} whose entries have been replaced or removed.
+     */
+    private final AtomicInteger staleNodeCount = new AtomicInteger();
+
+    /**
+     * Whether to use the {@link #expiryQueue}. It is not needed when entries never expire and the cache is not bounded.
+     */
+    private final boolean useExpiryQueue;
+
+    /**
+     * The queue the {@link SoftReference}s of {@link TimedSoftValue}s are registered with, so entries whose values
+     * have been reclaimed by the garbage collector can be removed without scanning the entire map.
+     */
+    private final ReferenceQueue<V> referenceQueue = new ReferenceQueue<>();
+
     /**
      * The amount of time a variable will be available measured in milliseconds for positive non-zero values.
      * <p>
@@ -75,13 +132,28 @@ public sealed class TimedCache<K, V>
      */
     private final long timeOut;
 
-    private final Timer taskTimer = new Timer(true);
+    /**
+     * The maximum total weight of all entries in the cache. 0 means the cache is not bounded.
+     */
+    private final long maximumWeight;
+
+    /**
+     * The function that determines the weight of an entry. When null, every entry has a weight of 1.
+     */
+    private final @Nullable ToIntBiFunction<K, V> weigher;
+
+    /**
+     * The total weight of all entries in the cache. This is only kept track of when the cache is bounded.
+     */
+    private final AtomicLong totalWeight = new AtomicLong();
+
+    private volatile @Nullable ScheduledFuture<?> cleanupTask;
 
     /**
      * Function that creates the specific type of {@link AbstractTimedValue} that is required according to the
      * configuration.
      */
-    private final Function<V, AbstractTimedValue<V>> timedValueCreator;
+    private final BiFunction<K, V, AbstractTimedValue<V>> timedValueCreator;
 
     /**
      * Whether to refresh entries whenever they are accessed.
@@ -112,20 +184,33 @@ public sealed class TimedCache<K, V>
      */
     private volatile boolean alive = true;
 
-    TimedCache(Clock clock, long timeOut, boolean softReference, boolean refresh, boolean keepAfterTimeOut)
+    TimedCache(
+        Clock clock, long timeOut, boolean softReference, boolean refresh, boolean keepAfterTimeOut,
+        long maximumWeight, @Nullable ToIntBiFunction<K, V> weigher)
     {
+        if (maximumWeight < 0)
+            throw new IllegalArgumentException("The maximum weight cannot be negative!");
+
         this.clock = clock;
         this.refresh = refresh;
         this.keepAfterTimeOut = keepAfterTimeOut;
         this.timeOut = timeOut;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        useExpiryQueue = timeOut > 0 || maximumWeight > 0;
         timedValueCreator = softReference ? this::createTimedSoftValue : this::createTimedValue;
     }
 
+    TimedCache(Clock clock, long timeOut, boolean softReference, boolean refresh, boolean keepAfterTimeOut)
+    {
+        this(clock, timeOut, softReference, refresh, keepAfterTimeOut, 0, null);
+    }
+
     TimedCache(
         Clock clock, Duration duration, @Nullable Duration cleanup, boolean softReference,
-        boolean refresh, boolean keepAfterTimeOut)
+        boolean refresh, boolean keepAfterTimeOut, long maximumWeight, @Nullable ToIntBiFunction<K, V> weigher)
     {
-        this(clock, duration.toMillis(), softReference, refresh, keepAfterTimeOut);
+        this(clock, duration.toMillis(), softReference, refresh, keepAfterTimeOut, maximumWeight, weigher);
 
         final long cleanupMillis = cleanup == null ? 0 : cleanup.toMillis();
 
@@ -135,6 +220,13 @@ public sealed class TimedCache<K, V>
         setupCleanupTask(cleanupMillis);
     }
 
+    TimedCache(
+        Clock clock, Duration duration, @Nullable Duration cleanup, boolean softReference,
+        boolean refresh, boolean keepAfterTimeOut)
+    {
+        this(clock, duration, cleanup, softReference, refresh, keepAfterTimeOut, 0, null);
+    }
+
     /**
      * Ensures that this cache is still {@link #alive}.
      *
@@ -161,7 +253,7 @@ public sealed class TimedCache<K, V>
      * @param cleanup
      *     The duration between each cleanup cycle. During cleanup, all expired entries will be removed from the cache.
      *     When null (default) or 0, entries are evicted from the cache whenever they are accessed after they have
-     *     expired. This value also uses millisecond precision.
+     *     expired or when new entries are added. This value also uses millisecond precision.
      * @param softReference
      *     Whether to wrap values in {@link SoftReference}s or not. This allows the garbage collector to clear up any
      *     values as it sees fit.
@@ -178,13 +270,20 @@ public sealed class TimedCache<K, V>
      *     they are removed by the garbage collector.
      *     <p>
      *     When this is true, values in the cache
+     * @param maximumWeight
+     *     The maximum total weight of all entries in the cache. When adding an entry causes this value to be exceeded,
+     *     the entries closest to expiring are evicted until it is no longer exceeded. When 0 (default), the size of the
+     *     cache is not bounded.
+     * @param weigher
+     *     The function that determines the weight of an entry. This is only used when the maximumWeight is set. When
+     *     null (default), every entry has a weight of 1, so the maximumWeight is the maximum number of entries.
      */
     @Builder
     protected TimedCache(
         Duration duration, @Nullable Duration cleanup, boolean softReference, boolean refresh,
-        boolean keepAfterTimeOut)
+        boolean keepAfterTimeOut, long maximumWeight, @Nullable ToIntBiFunction<K, V> weigher)
     {
-        this(DEFAULT_CLOCK, duration, cleanup, softReference, refresh, keepAfterTimeOut);
+        this(DEFAULT_CLOCK, duration, cleanup, softReference, refresh, keepAfterTimeOut, maximumWeight, weigher);
     }
 
     /**
@@ -215,7 +314,9 @@ public sealed class TimedCache<K, V>
     public V put(K key, V value)
     {
         validateState();
-        cache.put(key, timedValueCreator.apply(value));
+        final AbstractTimedValue<V> timedValue = timedValueCreator.apply(key, value);
+        replaced(key, cache.put(key, timedValue), timedValue);
+        afterWrite();
         return value;
     }
 
@@ -231,12 +332,14 @@ public sealed class TimedCache<K, V>
     public Optional<V> putIfPresent(K key, V value)
     {
         validateState();
-        return Optional.ofNullable(cache.compute(key, (k, tValue) ->
+        final Optional<V> result = Optional.ofNullable(cache.compute(key, (k, tValue) ->
         {
             if (tValue == null || tValue.timedOut())
-                return null;
-            return timedValueCreator.apply(value);
+                return replaced(k, tValue, null);
+            return replaced(k, tValue, timedValueCreator.apply(k, value));
         })).map(entry -> entry.getValue(refresh));
+        afterWrite();
+        return result;
     }
 
     /**
@@ -252,13 +355,14 @@ public sealed class TimedCache<K, V>
         final AtomicReference<@Nullable V> returnValue = new AtomicReference<>();
         cache.compute(key, (k, tValue) ->
         {
-            if (tValue == null || tValue.timedOut())
-                return timedValueCreator.apply(value);
+            final @Nullable V existing = (tValue == null || tValue.timedOut()) ? null : tValue.getValue(refresh);
+            if (existing == null)
+                return replaced(k, tValue, timedValueCreator.apply(k, value));
 
-            returnValue.set(tValue.getValue(refresh));
-            return null;
+            returnValue.set(existing);
+            return tValue;
         });
-
+        afterWrite();
         return Optional.ofNullable(returnValue.get());
     }
 
@@ -277,12 +381,13 @@ public sealed class TimedCache<K, V>
                 innerValue = Util.requireNonNull(mappingFunction.apply(k),
                                                  "Computed TimedCache value for key: \"" + key + "\"");
                 returnValue.set(innerValue);
-                return timedValueCreator.apply(innerValue);
+                return replaced(k, tValue, timedValueCreator.apply(k, innerValue));
             }
 
             returnValue.set(innerValue);
             return tValue;
         });
+        afterWrite();
         return Util.requireNonNull(returnValue.get(), "Computed TimedCache value for key: \"" + key + "\"");
     }
 
@@ -292,19 +397,21 @@ public sealed class TimedCache<K, V>
     public Optional<V> computeIfPresent(K key, BiFunction<K, @Nullable V, V> remappingFunction)
     {
         validateState();
-        return Optional.ofNullable(cache.compute(key, (k, timedValue) ->
+        final Optional<V> result = Optional.ofNullable(cache.compute(key, (k, timedValue) ->
         {
             if (timedValue == null || timedValue.timedOut())
-                return null;
+                return replaced(k, timedValue, null);
             final @Nullable var value = timedValue.getValue(refresh);
-            return createTimedValue(remappingFunction, k, value);
+            return replaced(k, timedValue, createTimedValue(remappingFunction, k, value));
         })).map(entry -> entry.getValue(refresh));
+        afterWrite();
+        return result;
     }
 
     @SuppressWarnings("NullAway") // NullAway doesn't like nullable in the BiFunction
     private AbstractTimedValue<V> createTimedValue(BiFunction<K, @Nullable V, V> function, K key, @Nullable V val)
     {
-        return timedValueCreator.apply(function.apply(key, val));
+        return timedValueCreator.apply(key, function.apply(key, val));
     }
 
     /**
@@ -313,7 +420,7 @@ public sealed class TimedCache<K, V>
     public V compute(K key, BiFunction<K, @Nullable V, V> mappingFunction)
     {
         validateState();
-        return Util.requireNonNull(cache.compute(key, (k, timedValue)
+        final AbstractTimedValue<V> result = Util.requireNonNull(cache.compute(key, (k, timedValue)
             ->
         {
             final @Nullable V value;
@@ -321,8 +428,10 @@ public sealed class TimedCache<K, V>
                 value = null;
             else
                 value = timedValue.getValue(refresh);
-            return createTimedValue(mappingFunction, k, value);
-        }).getValue(refresh), "Computed cache value for key: \"" + key + "\"");
+            return replaced(k, timedValue, createTimedValue(mappingFunction, k, value));
+        }), "Computed cache entry for key: \"" + key + "\"");
+        afterWrite();
+        return Util.requireNonNull(result.getValue(refresh), "Computed cache value for key: \"" + key + "\"");
     }
 
     /**
@@ -331,7 +440,21 @@ public sealed class TimedCache<K, V>
     public Optional<V> remove(K key)
     {
         validateState();
-        return getValue(cache.remove(key));
+        final @Nullable AbstractTimedValue<V> removed = cache.remove(key);
+        replaced(key, removed, null);
+        return getValue(removed);
+    }
+
+    /**
+     * See {@link ConcurrentHashMap#remove(Object, Object)}.
+     * <p>
+     * The value is compared using {@link Object#equals(Object)}.
+     */
+    public boolean remove(K key, V value)
+    {
+        validateState();
+        final @Nullable AbstractTimedValue<V> timedValue = cache.get(key);
+        return timedValue != null && value.equals(timedValue.getValue(false)) && remove(key, timedValue);
     }
 
     /**
@@ -354,7 +477,7 @@ public sealed class TimedCache<K, V>
         final @Nullable var value = entry.getValue(refresh);
         if (value == null)
         {
-            cache.remove(key);
+            remove(key, entry);
             return Optional.empty();
         }
         return Optional.of(value);
@@ -403,13 +526,29 @@ public sealed class TimedCache<K, V>
         return cache.size();
     }
 
+    /**
+     * Gets the total weight of all cached entries.
+     * <p>
+     * This is only kept track of when the cache is bounded (i.e. the maximum weight is set). Note that this also
+     * includes expired entries.
+     *
+     * @return The total weight of all cached entries or 0 if the cache is not bounded.
+     */
+    public long getWeight()
+    {
+        validateState();
+        return totalWeight.get();
+    }
+
     /**
      * Removes all entries from the cache.
      */
     public void clear()
     {
         validateState();
-        cache.clear();
+        cache.forEach(this::remove);
+        // Only the nodes of entries that were added while clearing the cache are kept.
+        compactExpiryQueue();
     }
 
     /**
@@ -430,38 +569,232 @@ public sealed class TimedCache<K, V>
      * Creates a new {@link TimedValue}. This method should not be called directly. Instead, use to
      * {@link #timedValueCreator}.
      *
+     * @param key
+     *     The key the value will be mapped to.
      * @param val
      *     The value to wrap in an {@link AbstractTimedValue}.
      * @return The newly created {@link TimedValue}.
      */
-    private AbstractTimedValue<V> createTimedValue(V val)
+    private AbstractTimedValue<V> createTimedValue(K key, V val)
     {
-        return new TimedValue<>(clock, val, timeOut);
+        return weigh(key, val, new TimedValue<>(clock, val, timeOut));
     }
 
     /**
      * Creates a new {@link TimedSoftValue}. This method should not be called directly. Instead, use to
      * {@link #timedValueCreator}.
      *
+     * @param key
+     *     The key the value will be mapped to.
      * @param val
      *     The value to wrap in an {@link AbstractTimedValue}.
      * @return The newly created {@link TimedSoftValue}.
      */
-    private AbstractTimedValue<V> createTimedSoftValue(V val)
+    private AbstractTimedValue<V> createTimedSoftValue(K key, V val)
+    {
+        final KeyedReference<K, V> reference = new KeyedReference<>(key, val, referenceQueue);
+        final TimedSoftValue<V> timedValue = new TimedSoftValue<>(clock, val, reference, timeOut, keepAfterTimeOut);
+        reference.owner = timedValue;
+        return weigh(key, val, timedValue);
+    }
+
+    private AbstractTimedValue<V> weigh(K key, V val, AbstractTimedValue<V> timedValue)
+    {
+        if (maximumWeight > 0 && weigher != null)
+        {
+            timedValue.weight = weigher.applyAsInt(key, val);
+            if (timedValue.weight < 0)
+                throw new IllegalArgumentException("Weight of key: \"" + key + "\" cannot be negative!");
+        }
+        return timedValue;
+    }
+
+    /**
+     * Updates the bookkeeping of this cache after an entry in {@link #cache} has been replaced.
+     * <p>
+     * This updates the {@link #totalWeight} and adds the new entry to the {@link #expiryQueue}.
+     *
+     * @param key
+     *     The key of the entry.
+     * @param oldValue
+     *     The entry that was replaced, if any.
+     * @param newValue
+     *     The entry that replaced it, if any.
+     * @return The new entry.
+     */
+    private @Nullable AbstractTimedValue<V> replaced(
+        K key, @Nullable AbstractTimedValue<V> oldValue, @Nullable AbstractTimedValue<V> newValue)
+    {
+        if (oldValue == newValue)
+            return newValue;
+
+        if (maximumWeight > 0)
+            totalWeight.addAndGet((newValue == null ? 0 : newValue.weight) - (oldValue == null ? 0 : oldValue.weight));
+        if (oldValue != null && useExpiryQueue)
+            onNodeStale();
+        if (newValue != null)
+            enqueue(key, newValue);
+        return newValue;
+    }
+
+    /**
+     * Removes an entry from the cache if the key is still mapped to it.
+     *
+     * @return True if the entry was removed.
+     */
+    private boolean remove(K key, AbstractTimedValue<V> value)
+    {
+        if (!cache.remove(key, value))
+            return false;
+        replaced(key, value, null);
+        return true;
+    }
+
+    /**
+     * Performs the amortized maintenance of the cache after a write.
+     * <p>
+     * Entries whose values have been reclaimed by the garbage collector and a few expired entries are removed. If the
+     * cache is bounded, entries are evicted until it no longer exceeds its maximum weight.
+     */
+    private void afterWrite()
+    {
+        drainReferenceQueue();
+        removeExpired(AMORTIZED_CLEANUP_LIMIT);
+        evict();
+    }
+
+    /**
+     * Adds an entry to the tail of the {@link #expiryQueue}.
+     */
+    private void enqueue(K key, AbstractTimedValue<V> value)
+    {
+        if (useExpiryQueue)
+            expiryQueue.offerLast(new ExpiryNode<>(key, value, value.insertTime));
+    }
+
+    /**
+     * Registers that a node in the {@link #expiryQueue} has become stale. Once the queue contains more stale nodes than
+     * there are entries in the cache, it is compacted.
+     */
+    private void onNodeStale()
+    {
+        if (staleNodeCount.incrementAndGet() > Math.max(MIN_COMPACTION_SIZE, cache.size()))
+            compactExpiryQueue();
+    }
+
+    /**
+     * Removes all stale nodes from the {@link #expiryQueue}.
+     * <p>
+     * Stale nodes are normally only removed once they reach the head of the queue. When entries are replaced or
+     * removed often, the queue would otherwise grow with the number of writes rather than with the number of entries.
+     */
+    private void compactExpiryQueue()
+    {
+        staleNodeCount.set(0);
+        expiryQueue.removeIf(this::isStale);
+    }
+
+    /**
+     * Checks if a node in the {@link #expiryQueue} still represents an entry in the cache.
+     */
+    private boolean isStale(ExpiryNode<K, V> node)
     {
-        return new TimedSoftValue<>(clock, val, timeOut, keepAfterTimeOut);
+        return cache.get(node.key()) != node.value();
+    }
+
+    /**
+     * Removes expired entries from the head of the {@link #expiryQueue}.
+     *
+     * @param limit
+     *     The maximum number of nodes to process.
+     */
+    private void removeExpired(int limit)
+    {
+        final long now = clock.millis();
+        for (int idx = 0; idx < limit; ++idx)
+        {
+            final @Nullable ExpiryNode<K, V> node = expiryQueue.pollFirst();
+            if (node == null)
+                return;
+            if (isStale(node))
+            {
+                staleNodeCount.decrementAndGet();
+                continue;
+            }
+
+            // Entries are queued in the order they were inserted, so if the head
+            // of the queue has not expired yet, none of the other entries have either.
+            if (timeOut <= 0 || now - node.insertTime() <= timeOut)
+            {
+                expiryQueue.offerFirst(node);
+                return;
+            }
+
+            final AbstractTimedValue<V> value = node.value();
+            if (value.canBeEvicted())
+                remove(node.key(), value);
+            else if (!value.timedOut())
+                // The entry was refreshed after it was queued.
+                enqueue(node.key(), value);
+            // Otherwise, the entry is kept until its value is reclaimed by the garbage collector.
+            // See drainReferenceQueue().
+        }
+    }
+
+    /**
+     * Evicts entries from the head of the {@link #expiryQueue} until the {@link #totalWeight} no longer exceeds the
+     * {@link #maximumWeight}.
+     */
+    private void evict()
+    {
+        if (maximumWeight <= 0)
+            return;
+
+        while (totalWeight.get() > maximumWeight)
+        {
+            final @Nullable ExpiryNode<K, V> node = expiryQueue.pollFirst();
+            if (node == null)
+                return;
+            if (isStale(node))
+            {
+                staleNodeCount.decrementAndGet();
+                continue;
+            }
+
+            final AbstractTimedValue<V> value = node.value();
+            if (value.insertTime != node.insertTime())
+                // The entry was refreshed after it was queued, so it should be evicted after other entries.
+                enqueue(node.key(), value);
+            else if (remove(node.key(), value))
+                log.at(Level.FINEST).log("Evicted entry with key \"%s\" from bounded TimedCache.", node.key());
+        }
+    }
+
+    /**
+     * Removes all entries whose values have been reclaimed by the garbage collector.
+     */
+    private void drainReferenceQueue()
+    {
+        @Nullable Reference<? extends V> reference;
+        while ((reference = referenceQueue.poll()) != null)
+        {
+            @SuppressWarnings("unchecked") final KeyedReference<K, V> keyed = (KeyedReference<K, V>) reference;
+            final @Nullable AbstractTimedValue<V> owner = keyed.owner;
+            if (owner != null && owner.getValue(false) == null)
+                remove(keyed.key, owner);
+        }
     }
 
     /**
      * Removes any entries that have expired from the map.
      * <p>
-     * An entry counts as expired if {@link AbstractTimedValue#getValue(boolean)} returns null.
+     * An entry counts as expired if {@link AbstractTimedValue#canBeEvicted()} returns true or if its value has been
+     * reclaimed by the garbage collector.
      */
     protected void cleanupCache()
     {
-        for (final Map.Entry<K, AbstractTimedValue<V>> entry : cache.entrySet())
-            if (entry.getValue().canBeEvicted())
-                cache.remove(entry.getKey());
+        drainReferenceQueue();
+        removeExpired(Integer.MAX_VALUE);
     }
 
     /**
@@ -477,16 +810,20 @@ public sealed class TimedCache<K, V>
     {
         if (period < 1)
             return;
+        cleanupTask = CleanupTask.schedule(this, period);
+    }
 
-        final var verifyTask = new TimerTask()
+    private static ScheduledThreadPoolExecutor createCleanupExecutor()
+    {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+            1, runnable ->
         {
-            @Override
-            public void run()
-            {
-                cleanupCache();
-            }
-        };
-        taskTimer.scheduleAtFixedRate(verifyTask, period, period);
+            final Thread thread = new Thread(runnable, "TimedCache-Cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
     }
 
     /**
@@ -501,8 +838,96 @@ public sealed class TimedCache<K, V>
     {
         this.alive = false;
         log.at(Level.FINEST).withStackTrace(StackSize.FULL).log("Shutting down TimedCache normally!");
+        final @Nullable ScheduledFuture<?> task = cleanupTask;
+        if (task != null)
+            task.cancel(false);
         cache.clear();
-        taskTimer.cancel();
+        expiryQueue.clear();
+        staleNodeCount.set(0);
+        totalWeight.set(0);
+    }
+
+    // For testing.
+    int getExpiryQueueSize()
+    {
+        return expiryQueue.size();
+    }
+
+    /**
+     * Represents an entry in the {@link #expiryQueue}.
+     *
+     * @param key
+     *     The key of the entry.
+     * @param value
+     *     The value of the entry.
+     * @param insertTime
+     *     The insertion time of the value at the time it was queued.
+     */
+    private record ExpiryNode<K, V>(K key, AbstractTimedValue<V> value, long insertTime)
+    {
+    }
+
+    /**
+     * Represents a {@link SoftReference} to a value that remembers the key and the entry the value belongs to.
+     */
+    private static final class KeyedReference<K, V> extends SoftReference<V>
+    {
+        private final K key;
+        private volatile @Nullable AbstractTimedValue<V> owner;
+
+        private KeyedReference(K key, V referent, ReferenceQueue<V> queue)
+        {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * Represents the task that regularly cleans up a cache on the shared cleanup thread.
+     * <p>
+     * The task only keeps a weak reference to its cache, so caches that are never shut down can still be reclaimed by
+     * the garbage collector. Once that has happened, the task cancels itself.
+     */
+    private static final class CleanupTask implements Runnable
+    {
+        private final WeakReference<TimedCache<?, ?>> cache;
+        private volatile @Nullable ScheduledFuture<?> future;
+
+        private CleanupTask(TimedCache<?, ?> cache)
+        {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        static ScheduledFuture<?> schedule(TimedCache<?, ?> cache, long period)
+        {
+            final CleanupTask task = new CleanupTask(cache);
+            final ScheduledFuture<?> future =
+                CLEANUP_EXECUTOR.scheduleAtFixedRate(task, period, period, TimeUnit.MILLISECONDS);
+            task.future = future;
+            return future;
+        }
+
+        @Override
+        public void run()
+        {
+            final @Nullable TimedCache<?, ?> timedCache = cache.get();
+            if (timedCache == null)
+            {
+                final @Nullable ScheduledFuture<?> scheduledFuture = future;
+                if (scheduledFuture != null)
+                    scheduledFuture.cancel(false);
+                return;
+            }
+
+            try
+            {
+                timedCache.cleanupCache();
+            }
+            catch (Exception e)
+            {
+                log.at(Level.SEVERE).withCause(e).log("Failed to clean up TimedCache!");
+            }
+        }
     }
 
     /**
@@ -570,6 +995,13 @@ public sealed class TimedCache<K, V>
             return Optional.empty();
         }
 
+        @Override
+        public boolean remove(K key, V value)
+        {
+            validateState();
+            return false;
+        }
+
         @Override
         public Optional<V> get(K key)
         {
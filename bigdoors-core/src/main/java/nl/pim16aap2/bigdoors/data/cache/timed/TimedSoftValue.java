@@ -66,10 +66,24 @@ class TimedSoftValue<T> extends AbstractTimedValue<T>
      *     has timed out.
      */
     public TimedSoftValue(Clock clock, T val, long timeOut, boolean keepAfterTimeOut)
+    {
+        this(clock, val, new SoftReference<>(val), timeOut, keepAfterTimeOut);
+    }
+
+    /**
+     * Constructor of {@link TimedSoftValue} that uses an existing {@link SoftReference} to the value. This allows the
+     * reference to be registered with a {@link java.lang.ref.ReferenceQueue}.
+     * <p>
+     * See {@link #TimedSoftValue(Clock, Object, long, boolean)}.
+     *
+     * @param reference
+     *     The {@link SoftReference} to the value.
+     */
+    TimedSoftValue(Clock clock, T val, SoftReference<T> reference, long timeOut, boolean keepAfterTimeOut)
     {
         super(clock, timeOut);
         this.keepAfterTimeOut = keepAfterTimeOut;
-        value = new SoftReference<>(val);
+        value = reference;
         if (keepAfterTimeOut)
             hardReference = val;
     }
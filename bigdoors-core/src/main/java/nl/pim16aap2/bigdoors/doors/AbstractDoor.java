@@ -15,6 +15,7 @@ import nl.pim16aap2.bigdoors.localization.ILocalizer;
 import nl.pim16aap2.bigdoors.managers.DoorRegistry;
 import nl.pim16aap2.bigdoors.moveblocks.AutoCloseScheduler;
 import nl.pim16aap2.bigdoors.moveblocks.BlockMover;
+import nl.pim16aap2.bigdoors.moveblocks.ObstructionChecker;
 import nl.pim16aap2.bigdoors.util.Cuboid;
 import nl.pim16aap2.bigdoors.util.DoorOwner;
 import nl.pim16aap2.bigdoors.util.DoorToggleResult;
@@ -174,13 +175,18 @@ public abstract class AbstractDoor implements IDoor
      *     If the {@link DoorBase} should be opened instantly (i.e. skip animation) or not.
      * @param actionType
      *     The type of action.
+     * @param obstructionResult
+     *     The result of an earlier check for obstructions in the area the door will move into. It is only used if it is
+     *     still valid (see {@link ObstructionChecker#getValidResult(ObstructionChecker.Result, IPWorld, Cuboid, Cuboid,
+     *     boolean)}). May be null.
      * @return The result of the attempt.
      */
     // TODO: Simplify this method.
     @SuppressWarnings({"unused", "squid:S1172"}) // messageReceiver isn't used yet, but it will be.
     final synchronized DoorToggleResult toggle(DoorActionCause cause, IMessageable messageReceiver,
                                                IPPlayer responsible, double time, boolean skipAnimation,
-                                               DoorActionType actionType)
+                                               DoorActionType actionType,
+                                               @Nullable ObstructionChecker.Result obstructionResult)
     {
         if (!doorOpeningHelper.isMainThread())
         {
@@ -222,7 +228,8 @@ public abstract class AbstractDoor implements IDoor
             return doorOpeningHelper.abort(this, DoorToggleResult.CANCELLED, cause, responsible, messageReceiver);
 
         final @Nullable IPPlayer responsiblePlayer = cause.equals(DoorActionCause.PLAYER) ? responsible : null;
-        if (!doorOpeningHelper.isLocationEmpty(newCuboid.get(), getCuboid(), responsiblePlayer, getWorld()))
+        if (!doorOpeningHelper.isLocationEmpty(obstructionResult, newCuboid.get(), getCuboid(),
+                                               responsiblePlayer, getWorld()))
             return doorOpeningHelper.abort(this, DoorToggleResult.OBSTRUCTED, cause, responsible, messageReceiver);
 
         if (!doorOpeningHelper.canBreakBlocksBetweenLocs(this, newCuboid.get(), responsible))
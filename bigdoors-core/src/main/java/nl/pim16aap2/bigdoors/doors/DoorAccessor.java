@@ -0,0 +1,191 @@
+package nl.pim16aap2.bigdoors.doors;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Provides access to a single field or the {@link DoorBase} constructor of a door class.
+ * <p>
+ * Every accessor is an instance of its own hidden class that is defined from {@link DoorAccessorTemplate}. The method
+ * handles it uses are stored in static final fields of that hidden class, so the JIT can treat them as constants and
+ * inline the field access or constructor call. Method handles stored in instance fields cannot be inlined like that.
+ * <p>
+ * Only the methods that match the type of the field (or the constructor) may be used.
+ *
+ * @author Pim
+ */
+interface DoorAccessor
+{
+    int getInt(Object target)
+        throws Throwable;
+
+    void setInt(Object target, int value)
+        throws Throwable;
+
+    boolean getBoolean(Object target)
+        throws Throwable;
+
+    void setBoolean(Object target, boolean value)
+        throws Throwable;
+
+    long getLong(Object target)
+        throws Throwable;
+
+    void setLong(Object target, long value)
+        throws Throwable;
+
+    double getDouble(Object target)
+        throws Throwable;
+
+    void setDouble(Object target, double value)
+        throws Throwable;
+
+    float getFloat(Object target)
+        throws Throwable;
+
+    void setFloat(Object target, float value)
+        throws Throwable;
+
+    short getShort(Object target)
+        throws Throwable;
+
+    void setShort(Object target, short value)
+        throws Throwable;
+
+    byte getByte(Object target)
+        throws Throwable;
+
+    void setByte(Object target, byte value)
+        throws Throwable;
+
+    char getChar(Object target)
+        throws Throwable;
+
+    void setChar(Object target, char value)
+        throws Throwable;
+
+    @Nullable Object getObject(Object target)
+        throws Throwable;
+
+    void setObject(Object target, @Nullable Object value)
+        throws Throwable;
+
+    /**
+     * Sets the field to a boxed value. This works for fields of any type.
+     *
+     * @param target
+     *     The object whose field to set.
+     * @param value
+     *     The value to set. Boxed primitives are unboxed.
+     */
+    void setBoxed(Object target, @Nullable Object value)
+        throws Throwable;
+
+    /**
+     * Creates a new door using the {@link DoorBase} constructor of the door class.
+     *
+     * @param doorBase
+     *     The {@link DoorBase} to pass to the constructor.
+     * @return The new door.
+     */
+    AbstractDoor construct(DoorBase doorBase)
+        throws Throwable;
+
+    /**
+     * Creates a new accessor for a field.
+     *
+     * @param field
+     *     The field. This should already be accessible.
+     * @param valueType
+     *     The type of the values as used by the accessor. This is either the primitive type of the field or Object.
+     * @return The new accessor.
+     *
+     * @throws IllegalAccessException
+     *     When the field is not accessible.
+     */
+    static DoorAccessor forField(Field field, Class<?> valueType)
+        throws IllegalAccessException
+    {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodHandle getter =
+            lookup.unreflectGetter(field).asType(MethodType.methodType(valueType, Object.class));
+        final MethodHandle setter =
+            lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, valueType));
+        return define(List.of(getter, setter));
+    }
+
+    /**
+     * Creates a new accessor for the {@link DoorBase} constructor of a door class.
+     *
+     * @param constructor
+     *     The constructor. This should already be accessible.
+     * @return The new accessor.
+     *
+     * @throws IllegalAccessException
+     *     When the constructor is not accessible.
+     */
+    static DoorAccessor forConstructor(Constructor<? extends AbstractDoor> constructor)
+        throws IllegalAccessException
+    {
+        final MethodHandle ctor = MethodHandles.lookup().unreflectConstructor(constructor)
+                                               .asType(MethodType.methodType(AbstractDoor.class, DoorBase.class));
+        return define(List.of(ctor, ctor));
+    }
+
+    /**
+     * Defines a new hidden class from {@link DoorAccessorTemplate} and creates an instance of it.
+     * <p>
+     * The hidden class is defined in the same package as this interface, so it can access package-private members.
+     *
+     * @param handles
+     *     The class data of the hidden class. This is a list of the 2 handles used by the template.
+     * @return The new accessor.
+     */
+    private static DoorAccessor define(List<MethodHandle> handles)
+        throws IllegalAccessException
+    {
+        final MethodHandles.Lookup hiddenLookup =
+            MethodHandles.lookup().defineHiddenClassWithClassData(getTemplate(), handles, true);
+        try
+        {
+            return (DoorAccessor) hiddenLookup.findConstructor(hiddenLookup.lookupClass(),
+                                                               MethodType.methodType(void.class)).invoke();
+        }
+        catch (IllegalAccessException e)
+        {
+            throw e;
+        }
+        catch (Throwable t)
+        {
+            throw new IllegalStateException("Failed to instantiate accessor!", t);
+        }
+    }
+
+    /**
+     * Reads the class file of {@link DoorAccessorTemplate}.
+     * <p>
+     * The template is referenced by name, so it is never initialized itself.
+     */
+    private static byte[] getTemplate()
+    {
+        final String name = "DoorAccessorTemplate.class";
+        try (@Nullable InputStream inputStream = DoorAccessor.class.getResourceAsStream(name))
+        {
+            if (inputStream == null)
+                throw new IllegalStateException("Could not find class file: " + name);
+            return inputStream.readAllBytes();
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Failed to read class file: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package nl.pim16aap2.bigdoors.doors;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+/**
+ * The template of the hidden classes that implement {@link DoorAccessor}.
+ * <p>
+ * This class itself is never used. Instead, {@link DoorAccessor} defines a new hidden class from its class file for
+ * every field and constructor, with the method handles to use as class data. Those handles are then loaded into the
+ * static final fields of the hidden class when it is initialized.
+ *
+ * @author Pim
+ */
+@SuppressWarnings("unused")
+final class DoorAccessorTemplate implements DoorAccessor
+{
+    /**
+     * The getter of a field or the constructor of a door class.
+     */
+    private static final MethodHandle FIRST;
+
+    /**
+     * The setter of a field.
+     */
+    private static final MethodHandle SECOND;
+
+    static
+    {
+        try
+        {
+            @SuppressWarnings("unchecked") final List<MethodHandle> handles =
+                MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, List.class);
+            if (handles == null)
+                throw new IllegalStateException("DoorAccessorTemplate should only be used as hidden class!");
+            FIRST = handles.get(0);
+            SECOND = handles.get(1);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public int getInt(Object target)
+        throws Throwable
+    {
+        return (int) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setInt(Object target, int value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public boolean getBoolean(Object target)
+        throws Throwable
+    {
+        return (boolean) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setBoolean(Object target, boolean value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public long getLong(Object target)
+        throws Throwable
+    {
+        return (long) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setLong(Object target, long value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public double getDouble(Object target)
+        throws Throwable
+    {
+        return (double) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setDouble(Object target, double value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public float getFloat(Object target)
+        throws Throwable
+    {
+        return (float) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setFloat(Object target, float value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public short getShort(Object target)
+        throws Throwable
+    {
+        return (short) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setShort(Object target, short value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public byte getByte(Object target)
+        throws Throwable
+    {
+        return (byte) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setByte(Object target, byte value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public char getChar(Object target)
+        throws Throwable
+    {
+        return (char) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setChar(Object target, char value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public @Nullable Object getObject(Object target)
+        throws Throwable
+    {
+        return (Object) FIRST.invokeExact(target);
+    }
+
+    @Override
+    public void setObject(Object target, @Nullable Object value)
+        throws Throwable
+    {
+        SECOND.invokeExact(target, value);
+    }
+
+    @Override
+    public void setBoxed(Object target, @Nullable Object value)
+        throws Throwable
+    {
+        SECOND.invoke(target, value);
+    }
+
+    @Override
+    public AbstractDoor construct(DoorBase doorBase)
+        throws Throwable
+    {
+        return (AbstractDoor) FIRST.invokeExact(doorBase);
+    }
+}
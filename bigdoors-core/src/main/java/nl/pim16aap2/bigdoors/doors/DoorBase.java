@@ -375,6 +375,9 @@ public final class DoorBase extends DatabaseManager.FriendDoorAccessor implement
     @Override
     public synchronized void setRotationPoint(Vector3Di pos)
     {
+        // The keyframes of all animations of this door depend on the position of the rotation point.
+        if (!pos.equals(rotationPoint))
+            blockMoverContextProvider.get().getKeyframeCache().invalidate(doorUID);
         rotationPoint = pos;
     }
 
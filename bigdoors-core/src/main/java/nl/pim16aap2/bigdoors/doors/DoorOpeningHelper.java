@@ -2,16 +2,13 @@ package nl.pim16aap2.bigdoors.doors;
 
 import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.GlowingBlockSpawner;
-import nl.pim16aap2.bigdoors.api.IBlockAnalyzer;
 import nl.pim16aap2.bigdoors.api.IConfigLoader;
 import nl.pim16aap2.bigdoors.api.IMessageable;
 import nl.pim16aap2.bigdoors.api.IPExecutor;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
 import nl.pim16aap2.bigdoors.api.IPWorld;
-import nl.pim16aap2.bigdoors.api.IProtectionCompatManager;
 import nl.pim16aap2.bigdoors.api.PColor;
 import nl.pim16aap2.bigdoors.api.factories.IBigDoorsEventFactory;
-import nl.pim16aap2.bigdoors.api.factories.IPLocationFactory;
 import nl.pim16aap2.bigdoors.doortypes.DoorType;
 import nl.pim16aap2.bigdoors.events.IDoorEventCaller;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
@@ -22,11 +19,12 @@ import nl.pim16aap2.bigdoors.events.dooraction.IDoorToggleEvent;
 import nl.pim16aap2.bigdoors.localization.ILocalizer;
 import nl.pim16aap2.bigdoors.managers.DatabaseManager;
 import nl.pim16aap2.bigdoors.managers.DoorTypeManager;
+import nl.pim16aap2.bigdoors.managers.ProtectionCheckCache;
 import nl.pim16aap2.bigdoors.moveblocks.BlockMover;
 import nl.pim16aap2.bigdoors.moveblocks.DoorActivityManager;
+import nl.pim16aap2.bigdoors.moveblocks.ObstructionChecker;
 import nl.pim16aap2.bigdoors.util.Cuboid;
 import nl.pim16aap2.bigdoors.util.DoorToggleResult;
-import nl.pim16aap2.bigdoors.util.Util;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
 import org.jetbrains.annotations.Nullable;
 
@@ -47,9 +45,8 @@ public final class DoorOpeningHelper
     private final DoorActivityManager doorActivityManager;
     private final DoorTypeManager doorTypeManager;
     private final IConfigLoader config;
-    private final IBlockAnalyzer blockAnalyzer;
-    private final IPLocationFactory locationFactory;
-    private final IProtectionCompatManager protectionCompatManager;
+    private final ObstructionChecker obstructionChecker;
+    private final ProtectionCheckCache protectionCheckCache;
     private final GlowingBlockSpawner glowingBlockSpawner;
     private final IBigDoorsEventFactory bigDoorsEventFactory;
     private final IPExecutor executor;
@@ -58,17 +55,16 @@ public final class DoorOpeningHelper
     @Inject //
     DoorOpeningHelper(
         ILocalizer localizer, DoorActivityManager doorActivityManager, DoorTypeManager doorTypeManager,
-        IConfigLoader config, IBlockAnalyzer blockAnalyzer, IPLocationFactory locationFactory,
-        IProtectionCompatManager protectionCompatManager, GlowingBlockSpawner glowingBlockSpawner,
-        IBigDoorsEventFactory bigDoorsEventFactory, IPExecutor executor, IDoorEventCaller doorEventCaller)
+        IConfigLoader config, ObstructionChecker obstructionChecker, ProtectionCheckCache protectionCheckCache,
+        GlowingBlockSpawner glowingBlockSpawner, IBigDoorsEventFactory bigDoorsEventFactory, IPExecutor executor,
+        IDoorEventCaller doorEventCaller)
     {
         this.localizer = localizer;
         this.doorActivityManager = doorActivityManager;
         this.doorTypeManager = doorTypeManager;
         this.config = config;
-        this.blockAnalyzer = blockAnalyzer;
-        this.locationFactory = locationFactory;
-        this.protectionCompatManager = protectionCompatManager;
+        this.obstructionChecker = obstructionChecker;
+        this.protectionCheckCache = protectionCheckCache;
         this.glowingBlockSpawner = glowingBlockSpawner;
         this.bigDoorsEventFactory = bigDoorsEventFactory;
         this.executor = executor;
@@ -174,6 +170,8 @@ public final class DoorOpeningHelper
      * Checks if the owner of a door can break blocks between 2 positions.
      * <p>
      * If the player is not allowed to break the block(s), they'll receive a message about this.
+     * <p>
+     * The result may be cached by the {@link ProtectionCheckCache}.
      *
      * @param door
      *     The {@link IDoor} being opened.
@@ -186,8 +184,7 @@ public final class DoorOpeningHelper
     public boolean canBreakBlocksBetweenLocs(IDoor door, Cuboid cuboid, IPPlayer responsible)
     {
         // If the returned value is an empty Optional, the player is allowed to break blocks.
-        return protectionCompatManager.canBreakBlocksBetweenLocs(responsible, cuboid.getMin(), cuboid.getMax(),
-                                                                 door.getWorld()).map(
+        return protectionCheckCache.canBreakBlocksBetweenLocs(responsible, cuboid, door.getWorld()).map(
             protectionCompat ->
             {
                 log.at(Level.WARNING).log("Player '%s' is not allowed to open door '%s' (%d) here! Reason: %s",
@@ -208,43 +205,46 @@ public final class DoorOpeningHelper
      *     The {@link IPPlayer} to notify of violations. May be null.
      * @param world
      *     The world to check the blocks in.
-     * @return True if the area is not empty.
+     * @return True if the area is empty.
      */
     public boolean isLocationEmpty(Cuboid newCuboid, Cuboid currentCuboid, @Nullable IPPlayer player, IPWorld world)
     {
-        final Vector3Di newMin = newCuboid.getMin();
-        final Vector3Di newMax = newCuboid.getMax();
-        final Vector3Di curMin = currentCuboid.getMin();
-        final Vector3Di curMax = currentCuboid.getMax();
+        return isLocationEmpty(null, newCuboid, currentCuboid, player, world);
+    }
 
-        boolean isEmpty = true;
-        for (int xAxis = newMin.x(); xAxis <= newMax.x(); ++xAxis)
-        {
-            for (int yAxis = newMin.y(); yAxis <= newMax.y(); ++yAxis)
-            {
-                for (int zAxis = newMin.z(); zAxis <= newMax.z(); ++zAxis)
-                {
-                    // Ignore blocks that are currently part of the door.
-                    // It's expected and accepted for them to be in the way.
-                    if (Util.between(xAxis, curMin.x(), curMax.x()) &&
-                        Util.between(yAxis, curMin.y(), curMax.y()) &&
-                        Util.between(zAxis, curMin.z(), curMax.z()))
-                        continue;
-
-                    if (!blockAnalyzer.isAirOrLiquid(locationFactory.create(world, xAxis, yAxis, zAxis)))
-                    {
-                        if (player == null)
-                            return false;
-
-                        glowingBlockSpawner
-                            .builder().forPlayer(player).withColor(PColor.RED).forDuration(Duration.ofSeconds(4))
-                            .atPosition(xAxis + 0.5, yAxis, zAxis + 0.5).inWorld(world).build();
-                        isEmpty = false;
-                    }
-                }
-            }
-        }
-        return isEmpty;
+    /**
+     * Checks if an area is empty. See {@link #isLocationEmpty(Cuboid, Cuboid, IPPlayer, IPWorld)}.
+     * <p>
+     * When the result of a previous (asynchronous) check is provided, it is used instead of checking the area again if
+     * it is still valid. See {@link ObstructionChecker#getValidResult(ObstructionChecker.Result, IPWorld, Cuboid,
+     * Cuboid, boolean)}.
+     *
+     * @param obstructionResult
+     *     The result of a previous check of the area. May be null.
+     * @param newCuboid
+     *     The {@link Cuboid} representing the area the door will take up after the toggle.
+     * @param currentCuboid
+     *     The {@link Cuboid} representing the area the door currently takes up. Any parts of the new cuboid overlapping
+     *     this cuboid will be ignored.
+     * @param player
+     *     The {@link IPPlayer} to notify of violations. May be null.
+     * @param world
+     *     The world to check the blocks in.
+     * @return True if the area is empty.
+     */
+    public boolean isLocationEmpty(
+        @Nullable ObstructionChecker.Result obstructionResult, Cuboid newCuboid, Cuboid currentCuboid,
+        @Nullable IPPlayer player, IPWorld world)
+    {
+        final ObstructionChecker.Result result =
+            obstructionChecker.getValidResult(obstructionResult, world, newCuboid, currentCuboid, player != null);
+
+        if (player != null)
+            for (final Vector3Di obstruction : result.obstructions())
+                glowingBlockSpawner
+                    .builder().forPlayer(player).withColor(PColor.RED).forDuration(Duration.ofSeconds(4))
+                    .atPosition(obstruction.x() + 0.5, obstruction.y(), obstruction.z() + 0.5).inWorld(world).build();
+        return !result.isObstructed();
     }
 
     /**
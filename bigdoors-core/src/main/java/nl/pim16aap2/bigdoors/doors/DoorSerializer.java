@@ -2,7 +2,6 @@ package nl.pim16aap2.bigdoors.doors;
 
 import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.annotations.PersistentVariable;
-import nl.pim16aap2.bigdoors.util.FastFieldSetter;
 import nl.pim16aap2.bigdoors.util.UnsafeGetter;
 import nl.pim16aap2.util.SafeStringBuilder;
 import org.jetbrains.annotations.Nullable;
@@ -10,12 +9,14 @@ import sun.misc.Unsafe;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,6 +25,14 @@ import java.util.logging.Level;
 
 /**
  * Manages the serialization aspects of the doors.
+ * <p>
+ * The type-specific data of a door is stored in a compact binary format. It starts with {@link #FORMAT_MARKER},
+ * followed by the version of the format and the number of fields. After that, the values of all {@link
+ * PersistentVariable} fields are written in declaration order (superclasses first) by their {@link
+ * PersistentFieldCodec}.
+ * <p>
+ * Data that was written using Java object serialization by older versions can still be read. Such data is written in
+ * the new format the next time the door is synchronized with the database.
  *
  * @param <T>
  *     The type of door.
@@ -32,26 +41,45 @@ import java.util.logging.Level;
 @Flogger
 public class DoorSerializer<T extends AbstractDoor>
 {
+    /**
+     * The first byte of data in the binary format. Data written using Java object serialization always starts with
+     * 0xAC, so this can be used to distinguish between the two.
+     */
+    static final byte FORMAT_MARKER = 0x42;
+
+    /**
+     * The current version of the binary format.
+     */
+    static final byte FORMAT_VERSION = 1;
+
     /**
      * The list of serializable fields in the target class {@link #doorClass}.
      */
     private final List<Field> fields = new ArrayList<>();
 
+    /**
+     * The codecs of all {@link #fields}, in the same order.
+     */
+    private final List<PersistentFieldCodec> codecs = new ArrayList<>();
+
     /**
      * The target class.
      */
     private final Class<T> doorClass;
 
     /**
-     * The constructor in the {@link #doorClass} that takes exactly 1 argument of the type {@link DoorBase} if such a
-     * constructor exists.
+     * The accessor of the constructor in the {@link #doorClass} that takes exactly 1 argument of the type {@link
+     * DoorBase} if such a constructor exists.
      */
-    private final @Nullable Constructor<T> ctor;
+    private final @Nullable DoorAccessor ctor;
 
     private static final @Nullable Unsafe UNSAFE = UnsafeGetter.getUnsafe();
 
-    private final @Nullable FastFieldSetter<AbstractDoor, DoorBase> fieldCopierDoorBase =
-        getFieldCopierDoorBase(UNSAFE);
+    /**
+     * The setter of {@link AbstractDoor#doorBase} with the type (AbstractDoor,DoorBase)void. This is used to
+     * initialize doors that were allocated without calling a constructor.
+     */
+    private static final @Nullable MethodHandle DOOR_BASE_SETTER = getDoorBaseSetter();
 
     public DoorSerializer(Class<T> doorClass)
     {
@@ -60,11 +88,12 @@ public class DoorSerializer<T extends AbstractDoor>
         if (Modifier.isAbstract(doorClass.getModifiers()))
             throw new IllegalArgumentException("THe DoorSerializer only works for concrete classes!");
 
-        @Nullable Constructor<T> ctorTmp = null;
+        @Nullable DoorAccessor ctorTmp = null;
         try
         {
-            ctorTmp = doorClass.getDeclaredConstructor(DoorBase.class);
-            ctorTmp.setAccessible(true);
+            final Constructor<T> constructor = doorClass.getDeclaredConstructor(DoorBase.class);
+            constructor.setAccessible(true);
+            ctorTmp = DoorAccessor.forConstructor(constructor);
         }
         catch (Exception e)
         {
@@ -77,7 +106,7 @@ public class DoorSerializer<T extends AbstractDoor>
                                            " and Unsafe is unavailable! This type cannot be enabled!");
 
         log.at(Level.FINE).log("Using %s construction method for class %s.",
-                               (ctor == null ? "Unsafe" : "Reflection"), getDoorTypeName());
+                               (ctor == null ? "Unsafe" : "Constructor"), getDoorTypeName());
 
         findAnnotatedFields();
     }
@@ -102,6 +131,16 @@ public class DoorSerializer<T extends AbstractDoor>
                         String.format("Type %s of field %s for door type %s is not serializable!",
                                       field.getType().getName(), field.getName(), getDoorTypeName()));
                 fields.add(field);
+                try
+                {
+                    codecs.add(PersistentFieldCodec.of(field));
+                }
+                catch (IllegalAccessException e)
+                {
+                    throw new UnsupportedOperationException(
+                        String.format("Field %s for door type %s is not accessible!",
+                                      field.getName(), getDoorTypeName()), e);
+                }
             }
     }
 
@@ -115,18 +154,26 @@ public class DoorSerializer<T extends AbstractDoor>
     public byte[] serialize(AbstractDoor door)
         throws Exception
     {
-        final ArrayList<Object> values = new ArrayList<>(fields.size());
-        for (final Field field : fields)
-            try
-            {
-                values.add(field.get(door));
-            }
-            catch (IllegalAccessException e)
-            {
-                throw new Exception(String.format("Failed to get value of field %s (type %s) for door type %s!",
-                                                  field.getName(), field.getType().getName(), getDoorTypeName()), e);
-            }
-        return toByteArray(values);
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(16 + 8 * codecs.size());
+        try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream))
+        {
+            out.writeByte(FORMAT_MARKER);
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(codecs.size());
+            for (int idx = 0; idx < codecs.size(); ++idx)
+                try
+                {
+                    codecs.get(idx).write(door, out);
+                }
+                catch (Throwable e)
+                {
+                    final Field field = fields.get(idx);
+                    throw new Exception(String.format("Failed to get value of field %s (type %s) for door type %s!",
+                                                      field.getName(), field.getType().getName(),
+                                                      getDoorTypeName()), e);
+                }
+        }
+        return byteArrayOutputStream.toByteArray();
     }
 
     /**
@@ -143,17 +190,33 @@ public class DoorSerializer<T extends AbstractDoor>
     public T deserialize(DoorBase doorBase, byte[] data)
         throws Exception
     {
-        return instantiate(doorBase, fromByteArray(data));
-    }
+        if (data.length == 0 || data[0] != FORMAT_MARKER)
+            return instantiate(doorBase, fromByteArray(data));
 
-    private static byte[] toByteArray(Serializable serializable)
-        throws Exception
-    {
-        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-             ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream))
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data)))
         {
-            objectOutputStream.writeObject(serializable);
-            return byteArrayOutputStream.toByteArray();
+            in.readByte();
+            final byte version = in.readByte();
+            if (version != FORMAT_VERSION)
+                throw new IllegalStateException(String.format("Unsupported format version %d for type %s!",
+                                                              version, getDoorTypeName()));
+
+            final int fieldCount = in.readUnsignedShort();
+            if (fieldCount != codecs.size())
+                throw new IllegalStateException(String.format("Expected %d arguments but received %d for type %s",
+                                                              codecs.size(), fieldCount, getDoorTypeName()));
+
+            final @Nullable T door = instantiate(doorBase);
+            if (door == null)
+                throw new IllegalStateException("Failed to initialize door!");
+
+            for (final PersistentFieldCodec codec : codecs)
+                codec.read(in, door);
+            return door;
+        }
+        catch (Throwable t)
+        {
+            throw new Exception("Failed to create new instance of type: " + getDoorTypeName(), t);
         }
     }
 
@@ -185,11 +248,11 @@ public class DoorSerializer<T extends AbstractDoor>
             final @Nullable T door = instantiate(doorBase);
             if (door == null)
                 throw new IllegalStateException("Failed to initialize door!");
-            for (int idx = 0; idx < fields.size(); ++idx)
-                fields.get(idx).set(door, values.get(idx));
+            for (int idx = 0; idx < codecs.size(); ++idx)
+                codecs.get(idx).setValue(door, values.get(idx));
             return door;
         }
-        catch (Exception t)
+        catch (Throwable t)
         {
             throw new Exception("Failed to create new instance of type: " + getDoorTypeName(), t);
         }
@@ -198,34 +261,33 @@ public class DoorSerializer<T extends AbstractDoor>
     /**
      * Attempts to create a new instance of {@link #doorClass} using the provided base data.
      * <p>
-     * When {@link #ctor} is available, {@link #instantiateReflection(DoorBase, Constructor)} is used. If that is not
-     * the case, {@link #instantiateUnsafe(DoorBase)} is used instead.
+     * When {@link #ctor} is available, {@link #instantiateConstructor(DoorBase, DoorAccessor)} is used. If that is
+     * not the case, {@link #instantiateUnsafe(DoorBase)} is used instead.
      *
      * @param doorBase
      *     The {@link DoorBase} to use for basic {@link AbstractDoor} initialization.
      * @return A new instance of {@link #doorClass} if one could be constructed.
      */
     private @Nullable T instantiate(DoorBase doorBase)
-        throws IllegalAccessException, InstantiationException, InvocationTargetException
+        throws Throwable
     {
-        return ctor == null ? instantiateUnsafe(doorBase) : instantiateReflection(doorBase, ctor);
+        return ctor == null ? instantiateUnsafe(doorBase) : instantiateConstructor(doorBase, ctor);
     }
 
-    private T instantiateReflection(DoorBase doorBase, Constructor<T> ctor)
-        throws IllegalAccessException, InvocationTargetException, InstantiationException
+    private T instantiateConstructor(DoorBase doorBase, DoorAccessor ctor)
+        throws Throwable
     {
-        return ctor.newInstance(doorBase);
+        return doorClass.cast(ctor.construct(doorBase));
     }
 
     private @Nullable T instantiateUnsafe(DoorBase doorBase)
-        throws InstantiationException
+        throws Throwable
     {
-        if (UNSAFE == null || fieldCopierDoorBase == null)
+        if (UNSAFE == null || DOOR_BASE_SETTER == null)
             return null;
 
-        @SuppressWarnings("unchecked") //
-        final T door = (T) UNSAFE.allocateInstance(doorClass);
-        fieldCopierDoorBase.copy(door, doorBase);
+        final T door = doorClass.cast(UNSAFE.allocateInstance(doorClass));
+        DOOR_BASE_SETTER.invokeExact((AbstractDoor) door, doorBase);
         return door;
     }
 
@@ -253,19 +315,21 @@ public class DoorSerializer<T extends AbstractDoor>
         }
 
         final StringBuilder sb = new StringBuilder();
-        for (final Field field : fields)
+        for (int idx = 0; idx < codecs.size(); ++idx)
         {
-            String value;
+            sb.append(fields.get(idx).getName()).append(": ");
+            final int length = sb.length();
             try
             {
-                value = field.get(door).toString();
+                codecs.get(idx).appendValue(door, sb);
             }
-            catch (IllegalAccessException e)
+            catch (Throwable e)
             {
                 log.at(Level.SEVERE).withCause(e).log();
-                value = "ERROR";
+                sb.setLength(length);
+                sb.append("ERROR");
             }
-            sb.append(field.getName()).append(": ").append(value).append('\n');
+            sb.append('\n');
         }
         return sb.toString();
     }
@@ -291,17 +355,17 @@ public class DoorSerializer<T extends AbstractDoor>
         return sb.toString();
     }
 
-    private static @Nullable FastFieldSetter<AbstractDoor, DoorBase> getFieldCopierDoorBase(@Nullable Unsafe unsafe)
+    private static @Nullable MethodHandle getDoorBaseSetter()
     {
-        if (unsafe == null)
-            return null;
         try
         {
-            return FastFieldSetter.of(unsafe, DoorBase.class, AbstractDoor.class, "doorBase");
+            final Field field = AbstractDoor.class.getDeclaredField("doorBase");
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectSetter(field);
         }
         catch (Exception e)
         {
-            log.at(Level.FINE).withCause(e).log("Failed to get FastFieldSetter for DoorBase of class: ");
+            log.at(Level.FINE).withCause(e).log("Failed to get setter for DoorBase of class: AbstractDoor");
             return null;
         }
     }
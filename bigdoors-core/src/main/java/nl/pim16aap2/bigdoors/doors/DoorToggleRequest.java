@@ -9,12 +9,17 @@ import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.IMessageable;
 import nl.pim16aap2.bigdoors.api.IPExecutor;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
+import nl.pim16aap2.bigdoors.api.IPWorld;
 import nl.pim16aap2.bigdoors.api.factories.IPPlayerFactory;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
 import nl.pim16aap2.bigdoors.localization.ILocalizer;
+import nl.pim16aap2.bigdoors.managers.ProtectionCheckCache;
 import nl.pim16aap2.bigdoors.moveblocks.AutoCloseScheduler;
 import nl.pim16aap2.bigdoors.moveblocks.DoorActivityManager;
+import nl.pim16aap2.bigdoors.moveblocks.DoorToggleScheduler;
+import nl.pim16aap2.bigdoors.moveblocks.ObstructionChecker;
+import nl.pim16aap2.bigdoors.util.Cuboid;
 import nl.pim16aap2.bigdoors.util.DoorToggleResult;
 import nl.pim16aap2.bigdoors.util.Util;
 import nl.pim16aap2.bigdoors.util.doorretriever.DoorRetriever;
@@ -49,6 +54,9 @@ public class DoorToggleRequest
     private final AutoCloseScheduler autoCloseScheduler;
     private final IPPlayerFactory playerFactory;
     private final IPExecutor executor;
+    private final DoorToggleScheduler doorToggleScheduler;
+    private final ObstructionChecker obstructionChecker;
+    private final ProtectionCheckCache protectionCheckCache;
 
     @AssistedInject
     public DoorToggleRequest(
@@ -56,7 +64,8 @@ public class DoorToggleRequest
         @Assisted IMessageable messageReceiver, @Assisted @Nullable IPPlayer responsible, @Assisted double time,
         @Assisted boolean skipAnimation, @Assisted DoorActionType doorActionType, ILocalizer localizer,
         DoorActivityManager doorActivityManager, AutoCloseScheduler autoCloseScheduler, IPPlayerFactory playerFactory,
-        IPExecutor executor)
+        IPExecutor executor, DoorToggleScheduler doorToggleScheduler, ObstructionChecker obstructionChecker,
+        ProtectionCheckCache protectionCheckCache)
     {
         this.doorRetriever = doorRetriever;
         this.doorActionCause = doorActionCause;
@@ -70,10 +79,18 @@ public class DoorToggleRequest
         this.autoCloseScheduler = autoCloseScheduler;
         this.playerFactory = playerFactory;
         this.executor = executor;
+        this.doorToggleScheduler = doorToggleScheduler;
+        this.obstructionChecker = obstructionChecker;
+        this.protectionCheckCache = protectionCheckCache;
     }
 
     /**
      * Executes the toggle request.
+     * <p>
+     * Before the toggle is scheduled, the area the door will move into is checked for obstructions asynchronously (see
+     * {@link ObstructionChecker}). If enabled, the protection plugins are queried ahead of time as well (see
+     * {@link ProtectionCheckCache#checkAhead(IPPlayer, Cuboid, IPWorld)}). The door is then toggled on the main thread
+     * once the {@link DoorToggleScheduler} has room for it.
      *
      * @return The result of the request.
      */
@@ -93,16 +110,63 @@ public class DoorToggleRequest
         }
         final AbstractDoor door = doorOpt.get();
         final IPPlayer actualResponsible = getActualResponsible(door);
+        final Optional<Cuboid> newCuboid = door.getPotentialNewCoordinates();
+
+        return checkObstructions(door, newCuboid)
+            .thenCombine(checkProtectionAhead(door, newCuboid, actualResponsible),
+                         (obstructionResult, ignored) -> obstructionResult)
+            .thenCompose(obstructionResult -> doorToggleScheduler.schedule(
+                doorActionCause, door.getBlockCount(), () -> execute(door, actualResponsible, obstructionResult)));
+    }
 
-        if (executor.isMainThread())
-            return CompletableFuture.completedFuture(execute(door, actualResponsible));
-        return executor.scheduleOnMainThread(() -> execute(door, actualResponsible));
+    /**
+     * Checks the area the door will move into for obstructions.
+     * <p>
+     * The result is only an early check. When the door is toggled, it is revalidated on the main thread.
+     *
+     * @param door
+     *     The door to check.
+     * @param newCuboid
+     *     The area the door will move into.
+     * @return The result of the check. This will be null if the area could not be checked.
+     */
+    private CompletableFuture<ObstructionChecker.@Nullable Result> checkObstructions(
+        AbstractDoor door, Optional<Cuboid> newCuboid)
+    {
+        if (newCuboid.isEmpty())
+            return CompletableFuture.completedFuture(null);
+
+        return obstructionChecker
+            .checkAsync(door.getWorld(), newCuboid.get(), door.getCuboid(), doorActionCause == DoorActionCause.PLAYER)
+            .exceptionally(Util::exceptionally);
+    }
+
+    /**
+     * Checks if the responsible player is allowed to break the blocks in the area the door will move into ahead of
+     * time, so the result is cached by the time the door is toggled.
+     *
+     * @param door
+     *     The door to check.
+     * @param newCuboid
+     *     The area the door will move into.
+     * @param responsible
+     *     The player responsible for the toggle.
+     * @return A future that is completed once the check is done.
+     */
+    private CompletableFuture<Void> checkProtectionAhead(
+        AbstractDoor door, Optional<Cuboid> newCuboid, IPPlayer responsible)
+    {
+        if (newCuboid.isEmpty())
+            return CompletableFuture.completedFuture(null);
+        return protectionCheckCache.checkAhead(responsible, newCuboid.get(), door.getWorld());
     }
 
-    private DoorToggleResult execute(AbstractDoor door, IPPlayer responsible)
+    private DoorToggleResult execute(
+        AbstractDoor door, IPPlayer responsible, @Nullable ObstructionChecker.Result obstructionResult)
     {
         executor.assertMainThread();
-        return door.toggle(doorActionCause, messageReceiver, responsible, time, skipAnimation, doorActionType);
+        return door.toggle(doorActionCause, messageReceiver, responsible, time, skipAnimation, doorActionType,
+                           obstructionResult);
     }
 
     /**
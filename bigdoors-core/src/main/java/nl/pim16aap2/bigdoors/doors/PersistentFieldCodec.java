@@ -0,0 +1,497 @@
+package nl.pim16aap2.bigdoors.doors;
+
+import nl.pim16aap2.bigdoors.annotations.PersistentVariable;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the value of a single {@link PersistentVariable} field of a door to a binary stream and reads it back.
+ * <p>
+ * Every codec is created once per field when the {@link DoorSerializer} for a door type is created. The field is
+ * accessed through a {@link DoorAccessor} whose methods match the type of the field, so primitive values are never
+ * boxed and no access checks are performed per value.
+ * <p>
+ * Primitives, Strings, and enums are written directly. Any other {@link java.io.Serializable} type falls back to Java
+ * object serialization of just that value.
+ *
+ * @author Pim
+ */
+abstract class PersistentFieldCodec
+{
+    protected final Field field;
+
+    /**
+     * The accessor of the field. Only the methods that match the type V are used, where V is either the primitive type
+     * of the field or Object.
+     */
+    protected final DoorAccessor accessor;
+
+    private PersistentFieldCodec(Field field, Class<?> valueType)
+        throws IllegalAccessException
+    {
+        this.field = field;
+        accessor = DoorAccessor.forField(field, valueType);
+    }
+
+    /**
+     * Writes the value of the field of a door to the output.
+     *
+     * @param door
+     *     The door whose field to write.
+     * @param out
+     *     The output to write the value to.
+     */
+    abstract void write(Object door, DataOutput out)
+        throws Throwable;
+
+    /**
+     * Reads a value from the input and sets the field of a door to it.
+     *
+     * @param in
+     *     The input to read the value from.
+     * @param door
+     *     The door whose field to set.
+     */
+    abstract void read(DataInput in, Object door)
+        throws Throwable;
+
+    /**
+     * Sets the field of a door to a boxed value.
+     *
+     * @param door
+     *     The door whose field to set.
+     * @param value
+     *     The value to set. Boxed primitives are unboxed.
+     */
+    void setValue(Object door, @Nullable Object value)
+        throws Throwable
+    {
+        accessor.setBoxed(door, value);
+    }
+
+    /**
+     * Appends the value of the field of a door to a {@link StringBuilder}.
+     *
+     * @param door
+     *     The door whose field to append.
+     * @param sb
+     *     The {@link StringBuilder} to append the value to.
+     */
+    void appendValue(Object door, StringBuilder sb)
+        throws Throwable
+    {
+        sb.append(accessor.getObject(door));
+    }
+
+    /**
+     * Creates a new codec for a field.
+     *
+     * @param field
+     *     The field. This should already be accessible.
+     * @return The new codec.
+     *
+     * @throws IllegalAccessException
+     *     When the field is not accessible.
+     */
+    static PersistentFieldCodec of(Field field)
+        throws IllegalAccessException
+    {
+        final Class<?> type = field.getType();
+        if (type == int.class)
+            return new IntCodec(field);
+        if (type == boolean.class)
+            return new BooleanCodec(field);
+        if (type == long.class)
+            return new LongCodec(field);
+        if (type == double.class)
+            return new DoubleCodec(field);
+        if (type == float.class)
+            return new FloatCodec(field);
+        if (type == short.class)
+            return new ShortCodec(field);
+        if (type == byte.class)
+            return new ByteCodec(field);
+        if (type == char.class)
+            return new CharCodec(field);
+        if (type == String.class)
+            return new StringCodec(field);
+        if (type.isEnum())
+            return new EnumCodec(field);
+        return new SerializableCodec(field);
+    }
+
+    /**
+     * @return The name of the type of values written by this codec.
+     */
+    String getTypeName()
+    {
+        return field.getType().getName();
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes)
+        throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in)
+        throws IOException
+    {
+        final int length = in.readInt();
+        if (length < 0)
+            throw new IOException("Received invalid length: " + length);
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeString(DataOutput out, @Nullable String str)
+        throws IOException
+    {
+        out.writeBoolean(str != null);
+        if (str != null)
+            writeBytes(out, str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static @Nullable String readString(DataInput in)
+        throws IOException
+    {
+        return in.readBoolean() ? new String(readBytes(in), StandardCharsets.UTF_8) : null;
+    }
+
+    private static final class IntCodec extends PersistentFieldCodec
+    {
+        private IntCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, int.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeInt(accessor.getInt(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setInt(door, in.readInt());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getInt(door));
+        }
+    }
+
+    private static final class BooleanCodec extends PersistentFieldCodec
+    {
+        private BooleanCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, boolean.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeBoolean(accessor.getBoolean(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setBoolean(door, in.readBoolean());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getBoolean(door));
+        }
+    }
+
+    private static final class LongCodec extends PersistentFieldCodec
+    {
+        private LongCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, long.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeLong(accessor.getLong(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setLong(door, in.readLong());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getLong(door));
+        }
+    }
+
+    private static final class DoubleCodec extends PersistentFieldCodec
+    {
+        private DoubleCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, double.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeDouble(accessor.getDouble(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setDouble(door, in.readDouble());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getDouble(door));
+        }
+    }
+
+    private static final class FloatCodec extends PersistentFieldCodec
+    {
+        private FloatCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, float.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeFloat(accessor.getFloat(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setFloat(door, in.readFloat());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getFloat(door));
+        }
+    }
+
+    private static final class ShortCodec extends PersistentFieldCodec
+    {
+        private ShortCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, short.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeShort(accessor.getShort(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setShort(door, in.readShort());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getShort(door));
+        }
+    }
+
+    private static final class ByteCodec extends PersistentFieldCodec
+    {
+        private ByteCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, byte.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeByte(accessor.getByte(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setByte(door, in.readByte());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getByte(door));
+        }
+    }
+
+    private static final class CharCodec extends PersistentFieldCodec
+    {
+        private CharCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, char.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            out.writeChar(accessor.getChar(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setChar(door, in.readChar());
+        }
+
+        @Override
+        void appendValue(Object door, StringBuilder sb)
+            throws Throwable
+        {
+            sb.append(accessor.getChar(door));
+        }
+    }
+
+    private static final class StringCodec extends PersistentFieldCodec
+    {
+        private StringCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, Object.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            writeString(out, (String) accessor.getObject(door));
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            accessor.setObject(door, readString(in));
+        }
+    }
+
+    /**
+     * Stores enums by the name of the constant, so reordering the constants of an enum does not affect existing data.
+     */
+    private static final class EnumCodec extends PersistentFieldCodec
+    {
+        private EnumCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, Object.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            final @Nullable Enum<?> value = (Enum<?>) accessor.getObject(door);
+            writeString(out, value == null ? null : value.name());
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            final @Nullable String name = readString(in);
+            final @Nullable Object value =
+                name == null ? null : Enum.valueOf((Class<? extends Enum>) field.getType(), name);
+            accessor.setObject(door, value);
+        }
+    }
+
+    private static final class SerializableCodec extends PersistentFieldCodec
+    {
+        private SerializableCodec(Field field)
+            throws IllegalAccessException
+        {
+            super(field, Object.class);
+        }
+
+        @Override
+        void write(Object door, DataOutput out)
+            throws Throwable
+        {
+            try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                 ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream))
+            {
+                objectOutputStream.writeObject(accessor.getObject(door));
+                objectOutputStream.flush();
+                writeBytes(out, byteArrayOutputStream.toByteArray());
+            }
+        }
+
+        @Override
+        void read(DataInput in, Object door)
+            throws Throwable
+        {
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(readBytes(in))))
+            {
+                accessor.setObject(door, objectInputStream.readObject());
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
 import nl.pim16aap2.bigdoors.api.PPlayerData;
 import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
@@ -12,6 +13,7 @@ import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
 import nl.pim16aap2.bigdoors.api.factories.IBigDoorsEventFactory;
 import nl.pim16aap2.bigdoors.api.restartable.Restartable;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.LongMultimap;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.DoorBase;
 import nl.pim16aap2.bigdoors.events.ICancellableBigDoorsEvent;
@@ -19,7 +21,9 @@ import nl.pim16aap2.bigdoors.events.IDoorCreatedEvent;
 import nl.pim16aap2.bigdoors.events.IDoorEventCaller;
 import nl.pim16aap2.bigdoors.events.IDoorPrepareCreateEvent;
 import nl.pim16aap2.bigdoors.events.IDoorPrepareDeleteEvent;
+import nl.pim16aap2.bigdoors.moveblocks.KeyframeCache;
 import nl.pim16aap2.bigdoors.storage.IStorage;
+import nl.pim16aap2.bigdoors.util.Cuboid;
 import nl.pim16aap2.bigdoors.util.DoorOwner;
 import nl.pim16aap2.bigdoors.util.Util;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
@@ -29,14 +33,15 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
@@ -60,9 +65,17 @@ public final class DatabaseManager extends Restartable implements IDebuggable
 
     private final IStorage db;
 
+    /**
+     * The queue that buffers door synchronizations, so they can be written to the database in batches.
+     */
+    private final DoorSyncQueue syncQueue;
+
     private final IDoorEventCaller doorEventCaller;
     private final DoorRegistry doorRegistry;
     private final Lazy<PowerBlockManager> powerBlockManager;
+    private final Lazy<DoorSpatialIndex> doorSpatialIndex;
+    private final Lazy<DoorNameIndex> doorNameIndex;
+    private final KeyframeCache keyframeCache;
     private final IBigDoorsEventFactory bigDoorsEventFactory;
 
     /**
@@ -72,18 +85,25 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      *     The object managing restarts for this object.
      * @param storage
      *     The {@link IStorage} to use for all database calls.
+     * @param syncQueue
+     *     The {@link DoorSyncQueue} that buffers door synchronizations.
      */
     @Inject
     public DatabaseManager(
-        RestartableHolder restartableHolder, IStorage storage, DoorRegistry doorRegistry,
-        Lazy<PowerBlockManager> powerBlockManager, IBigDoorsEventFactory bigDoorsEventFactory,
+        RestartableHolder restartableHolder, IStorage storage, DoorSyncQueue syncQueue, DoorRegistry doorRegistry,
+        Lazy<PowerBlockManager> powerBlockManager, Lazy<DoorSpatialIndex> doorSpatialIndex,
+        Lazy<DoorNameIndex> doorNameIndex, KeyframeCache keyframeCache, IBigDoorsEventFactory bigDoorsEventFactory,
         IDoorEventCaller doorEventCaller, DebuggableRegistry debuggableRegistry)
     {
         super(restartableHolder);
         db = storage;
+        this.syncQueue = syncQueue;
         this.doorEventCaller = doorEventCaller;
         this.doorRegistry = doorRegistry;
         this.powerBlockManager = powerBlockManager;
+        this.doorSpatialIndex = doorSpatialIndex;
+        this.doorNameIndex = doorNameIndex;
+        this.keyframeCache = keyframeCache;
         this.bigDoorsEventFactory = bigDoorsEventFactory;
         initThreadPool();
         debuggableRegistry.registerDebuggable(this);
@@ -108,12 +128,56 @@ public final class DatabaseManager extends Restartable implements IDebuggable
     @Override
     public void shutDown()
     {
+        syncQueue.shutDown();
         threadPool.shutdownNow();
     }
 
     private void initThreadPool()
     {
         this.threadPool = Executors.newFixedThreadPool(THREAD_COUNT);
+        syncQueue.initialize();
+    }
+
+    /**
+     * Runs a query that retrieves door data on the {@link #threadPool}.
+     * <p>
+     * All pending synchronizations are written to the database before the query is executed, so the query does not
+     * retrieve outdated data. See {@link DoorSyncQueue}.
+     *
+     * @param query
+     *     The query to run.
+     * @return The future result of the query.
+     */
+    private <T> CompletableFuture<T> queryDoors(Supplier<T> query)
+    {
+        return CompletableFuture.supplyAsync(
+            () ->
+            {
+                syncQueue.flush();
+                return query.get();
+            }, threadPool);
+    }
+
+    /**
+     * Runs a query that only retrieves the data of a single door on the {@link #threadPool}.
+     * <p>
+     * Only the pending synchronization of that door is written to the database before the query is executed. See
+     * {@link #queryDoors(Supplier)}.
+     *
+     * @param doorUID
+     *     The UID of the door.
+     * @param query
+     *     The query to run.
+     * @return The future result of the query.
+     */
+    private <T> CompletableFuture<T> queryDoor(long doorUID, Supplier<T> query)
+    {
+        return CompletableFuture.supplyAsync(
+            () ->
+            {
+                syncQueue.flush(doorUID);
+                return query.get();
+            }, threadPool);
     }
 
     /**
@@ -150,10 +214,16 @@ public final class DatabaseManager extends Restartable implements IDebuggable
 
                 final Optional<AbstractDoor> result = db.insert(newDoor);
                 result.ifPresent(
-                    (door) -> powerBlockManager.get().onDoorAddOrRemove(door.getWorld().worldName(),
-                                                                        new Vector3Di(door.getPowerBlock().x(),
-                                                                                      door.getPowerBlock().y(),
-                                                                                      door.getPowerBlock().z())));
+                    (door) ->
+                    {
+                        powerBlockManager.get().onDoorAddOrRemove(door.getWorld().worldName(),
+                                                                  new Vector3Di(door.getPowerBlock().x(),
+                                                                                door.getPowerBlock().y(),
+                                                                                door.getPowerBlock().z()));
+                        doorSpatialIndex.get().updateDoor(door.getWorld().worldName(), door.getDoorUID(),
+                                                          door.getCuboid());
+                        doorNameIndex.get().updateDoor(door);
+                    });
                 return new DoorInsertResult(result, false);
             }, threadPool).exceptionally(ex -> Util.exceptionally(ex, new DoorInsertResult(Optional.empty(), false)));
 
@@ -227,6 +297,9 @@ public final class DatabaseManager extends Restartable implements IDebuggable
                                                           new Vector3Di(door.getPowerBlock().x(),
                                                                         door.getPowerBlock().y(),
                                                                         door.getPowerBlock().z()));
+                doorSpatialIndex.get().removeDoor(door.getWorld().worldName(), door.getDoorUID());
+                doorNameIndex.get().removeDoor(door);
+                keyframeCache.invalidate(door.getDoorUID());
                 return ActionResult.SUCCESS;
             }, threadPool).exceptionally(ex -> Util.exceptionally(ex, ActionResult.FAIL));
     }
@@ -240,10 +313,26 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      */
     public CompletableFuture<List<Long>> getDoorsInChunk(long chunkId)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoorsInChunk(chunkId), threadPool)
+        return queryDoors(() -> db.getDoorsInChunk(chunkId))
                                 .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
     }
 
+    /**
+     * Gets all {@link AbstractDoor}s in a world that have their rotation point in any of the given chunks using a
+     * single query.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param chunkIds
+     *     The ids of the chunks. See {@link Util#getChunkId(int, int)}.
+     * @return All {@link AbstractDoor}s that have their rotation point in any of the given chunks. The future is
+     * completed exceptionally when the doors could not be retrieved.
+     */
+    public CompletableFuture<List<AbstractDoor>> getDoorsInChunks(String worldName, List<Long> chunkIds)
+    {
+        return queryDoors(() -> db.getDoorsInChunks(worldName, chunkIds));
+    }
+
     /**
      * Gets all {@link AbstractDoor} owned by a player. Only searches for {@link AbstractDoor} with a given name if one
      * was provided.
@@ -259,13 +348,12 @@ public final class DatabaseManager extends Restartable implements IDebuggable
         // Check if the name is actually the UID of the door.
         final OptionalLong doorUID = Util.parseLong(doorID);
         if (doorUID.isPresent())
-            return CompletableFuture
-                .supplyAsync(() -> db.getDoor(playerUUID, doorUID.getAsLong())
-                                     .map(Collections::singletonList)
-                                     .orElse(Collections.emptyList()), threadPool)
+            return queryDoor(doorUID.getAsLong(), () -> db.getDoor(playerUUID, doorUID.getAsLong())
+                                                          .map(Collections::singletonList)
+                                                          .orElse(Collections.emptyList()))
                 .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
 
-        return CompletableFuture.supplyAsync(() -> db.getDoors(playerUUID, doorID), threadPool)
+        return queryDoors(() -> db.getDoors(playerUUID, doorID))
                                 .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
     }
 
@@ -286,7 +374,7 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      */
     public CompletableFuture<List<AbstractDoor>> getDoors(UUID playerUUID)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoors(playerUUID), threadPool)
+        return queryDoors(() -> db.getDoors(playerUUID))
                                 .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
     }
 
@@ -311,7 +399,7 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      */
     public CompletableFuture<List<AbstractDoor>> getDoors(UUID playerUUID, String name, int maxPermission)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoors(playerUUID, name, maxPermission), threadPool)
+        return queryDoors(() -> db.getDoors(playerUUID, name, maxPermission))
                                 .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
     }
 
@@ -324,7 +412,7 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      */
     public CompletableFuture<List<AbstractDoor>> getDoors(String name)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoors(name), threadPool)
+        return queryDoors(() -> db.getDoors(name))
                                 .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
     }
 
@@ -381,10 +469,29 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      */
     public CompletableFuture<Optional<AbstractDoor>> getDoor(long doorUID)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoor(doorUID), threadPool)
+        return queryDoor(doorUID, () -> db.getDoor(doorUID))
                                 .exceptionally(Util::exceptionallyOptional);
     }
 
+    /**
+     * Gets all {@link AbstractDoor}s with the given UIDs.
+     * <p>
+     * All doors are retrieved at once, so this should be preferred over retrieving the doors one by one.
+     *
+     * @param doorUIDs
+     *     The UIDs of the {@link AbstractDoor}s.
+     * @return All {@link AbstractDoor}s that exist.
+     */
+    public CompletableFuture<List<AbstractDoor>> getDoors(List<Long> doorUIDs)
+    {
+        return CompletableFuture.supplyAsync(
+            () ->
+            {
+                syncQueue.flush(doorUIDs);
+                return db.getDoors(doorUIDs);
+            }, threadPool).exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
+    }
+
     /**
      * Gets the {@link AbstractDoor} with the given UID owned by the player. If the given player does not own the
      * provided door, no door will be returned.
@@ -412,7 +519,7 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      */
     public CompletableFuture<Optional<AbstractDoor>> getDoor(UUID uuid, long doorUID)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoor(uuid, doorUID), threadPool)
+        return queryDoor(doorUID, () -> db.getDoor(uuid, doorUID))
                                 .exceptionally(Util::exceptionallyOptional);
     }
 
@@ -426,7 +533,7 @@ public final class DatabaseManager extends Restartable implements IDebuggable
     @SuppressWarnings("unused")
     public CompletableFuture<Integer> countDoorsOwnedByPlayer(UUID playerUUID)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoorCountForPlayer(playerUUID), threadPool)
+        return queryDoors(() -> db.getDoorCountForPlayer(playerUUID))
                                 .exceptionally(ex -> Util.exceptionally(ex, -1));
     }
 
@@ -442,7 +549,7 @@ public final class DatabaseManager extends Restartable implements IDebuggable
     @SuppressWarnings("unused")
     public CompletableFuture<Integer> countDoorsOwnedByPlayer(UUID playerUUID, String doorName)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoorCountForPlayer(playerUUID, doorName), threadPool)
+        return queryDoors(() -> db.getDoorCountForPlayer(playerUUID, doorName))
                                 .exceptionally(ex -> Util.exceptionally(ex, -1));
     }
 
@@ -456,7 +563,7 @@ public final class DatabaseManager extends Restartable implements IDebuggable
     @SuppressWarnings("unused")
     public CompletableFuture<Integer> countDoorsByName(String doorName)
     {
-        return CompletableFuture.supplyAsync(() -> db.getDoorCountByName(doorName), threadPool)
+        return queryDoors(() -> db.getDoorCountByName(doorName))
                                 .exceptionally(ex -> Util.exceptionally(ex, -1));
     }
 
@@ -511,6 +618,8 @@ public final class DatabaseManager extends Restartable implements IDebuggable
 
                     ((FriendDoorAccessor) door.getDoorBase())
                         .addOwner(player.getUUID(), new DoorOwner(door.getDoorUID(), permission, playerData));
+                    doorNameIndex.get().updateOwner(
+                        player.getUUID(), new OwnedDoorIdentifier(door.getDoorUID(), door.getName(), permission));
 
                     return ActionResult.SUCCESS;
                 }, threadPool).exceptionally(ex -> Util.exceptionally(ex, ActionResult.FAIL));
@@ -624,12 +733,17 @@ public final class DatabaseManager extends Restartable implements IDebuggable
                         return ActionResult.FAIL;
 
                     ((FriendDoorAccessor) door.getDoorBase()).removeOwner(playerUUID);
+                    doorNameIndex.get().removeOwner(playerUUID, door.getDoorUID());
                     return ActionResult.SUCCESS;
                 }, threadPool).exceptionally(ex -> Util.exceptionally(ex, ActionResult.FAIL));
     }
 
     /**
      * Updates the all data of an {@link AbstractDoor}. This includes both the base data and the type-specific data.
+     * <p>
+     * The update may be buffered for a short while, so it can be written together with other updates. When the door
+     * is updated again before the data is written, only the most recent data is written. See {@link
+     * IConfigLoader#doorSyncDelay()}.
      *
      * @param doorBase
      *     The {@link DoorBase} that describes the base data of door.
@@ -639,8 +753,17 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      */
     public CompletableFuture<Boolean> syncDoorData(DoorBase doorBase, byte[] typeData)
     {
-        return CompletableFuture.supplyAsync(() -> db.syncDoorData(doorBase, typeData), threadPool)
-                                .exceptionally(ex -> Util.exceptionally(ex, Boolean.FALSE));
+        final CompletableFuture<Boolean> result =
+            syncQueue.isEnabled() ? syncQueue.add(doorBase, typeData) :
+            CompletableFuture.supplyAsync(() -> db.syncDoorData(doorBase, typeData), threadPool)
+                             .exceptionally(ex -> Util.exceptionally(ex, Boolean.FALSE));
+
+        // The indices are only updated once the synchronization has been queued, so indices that start loading
+        // after this point read the new data (the sync queue is flushed before loading).
+        doorSpatialIndex.get().updateDoor(doorBase.getWorld().worldName(), doorBase.getDoorUID(),
+                                          doorBase.getCuboid());
+        doorNameIndex.get().updateDoor(doorBase);
+        return result;
     }
 
     /**
@@ -648,6 +771,9 @@ public final class DatabaseManager extends Restartable implements IDebuggable
      * <p>
      * For example, this method can retrieve the identifiers "1", "10", "11", "100", etc from an input of "1" or
      * "MyDoor", "MyPortcullis", "MyOtherDoor", etc from an input of "My".
+     * <p>
+     * When a player is provided, the identifiers are retrieved from the {@link DoorNameIndex}, so repeated lookups for
+     * the same player do not access the database.
      *
      * @param input
      *     The partial identifier to look for.
@@ -658,8 +784,24 @@ public final class DatabaseManager extends Restartable implements IDebuggable
     public CompletableFuture<List<DoorIdentifier>> getIdentifiersFromPartial(
         String input, @Nullable IPPlayer player, int maxPermission)
     {
-        return CompletableFuture.supplyAsync(() -> db.getPartialIdentifiers(input, player, maxPermission), threadPool)
+        if (player != null)
+            return doorNameIndex.get().getIdentifiers(player.getUUID(), input, maxPermission)
                                 .exceptionally(t -> Util.exceptionally(t, Collections.emptyList()));
+        return queryDoors(() -> db.getPartialIdentifiers(input, player, maxPermission))
+                                .exceptionally(t -> Util.exceptionally(t, Collections.emptyList()));
+    }
+
+    /**
+     * Retrieves the identifiers of all doors owned by a player.
+     *
+     * @param playerUUID
+     *     The {@link UUID} of the player.
+     * @return The identifiers of all doors owned by the player. The future is completed exceptionally when the
+     * identifiers could not be retrieved.
+     */
+    CompletableFuture<List<OwnedDoorIdentifier>> getOwnedDoorIdentifiers(UUID playerUUID)
+    {
+        return queryDoors(() -> db.getOwnedDoorIdentifiers(playerUUID));
     }
 
     /**
@@ -676,25 +818,49 @@ public final class DatabaseManager extends Restartable implements IDebuggable
     }
 
     /**
-     * Gets a map of location hashes and their connected powerblocks for all doors in a chunk.
-     * <p>
-     * The key is the hashed location in chunk space, the value is the list of UIDs of the doors whose powerblocks
-     * occupies that location.
+     * Gets the power block data of multiple chunks at once. See {@link IStorage#getPowerBlockData(List)}.
      *
-     * @param chunkId
-     *     The id of the chunk the doors are in.
-     * @return A map of location hashes and their connected powerblocks for all doors in a chunk.
+     * @param chunkIds
+     *     The ids of the chunks.
+     * @return The maps of location hashes and their connected powerblocks mapped by the id of their chunk. The future
+     * is completed exceptionally when the power block data could not be retrieved.
+     */
+    CompletableFuture<Map<Long, LongMultimap>> getPowerBlockData(List<Long> chunkIds)
+    {
+        return queryDoors(() -> db.getPowerBlockData(chunkIds));
+    }
+
+    /**
+     * Gets the cuboids of all doors in a world.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @return The cuboids of all doors in the world mapped by the UIDs of their doors. The future is completed
+     * exceptionally when the cuboids could not be retrieved.
+     */
+    CompletableFuture<Map<Long, Cuboid>> getDoorCuboids(String worldName)
+    {
+        return queryDoors(() -> db.getDoorCuboids(worldName));
+    }
+
+    /**
+     * Gets the positions of all power blocks in a world.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @return The positions of all power blocks in the world. The future is completed exceptionally when the positions
+     * could not be retrieved.
      */
-    CompletableFuture<ConcurrentHashMap<Integer, List<Long>>> getPowerBlockData(long chunkId)
+    CompletableFuture<List<Vector3Di>> getPowerBlockPositions(String worldName)
     {
-        return CompletableFuture.supplyAsync(() -> db.getPowerBlockData(chunkId), threadPool)
-                                .exceptionally(ex -> Util.exceptionally(ex, new ConcurrentHashMap<>(0)));
+        return queryDoors(() -> db.getPowerBlockPositions(worldName));
     }
 
     @Override
     public String getDebugInformation()
     {
-        return "Database status: " + threadPool;
+        return "Database status: " + threadPool +
+            "\n" + syncQueue.getDebugInformation();
     }
 
     /**
@@ -802,4 +968,16 @@ public final class DatabaseManager extends Restartable implements IDebuggable
             return name;
         }
     }
+
+    /**
+     * Represents a {@link DoorIdentifier} of a door owned by a player.
+     *
+     * @param uid
+     *     The UID of the door.
+     * @param name
+     *     The name of the door.
+     * @param permission
+     *     The level of ownership the player has over the door.
+     */
+    public record OwnedDoorIdentifier(long uid, String name, int permission) {}
 }
@@ -0,0 +1,243 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.AsyncLoadedIndex;
+import nl.pim16aap2.bigdoors.data.PrefixIndex;
+import nl.pim16aap2.bigdoors.data.cache.timed.TimedCache;
+import nl.pim16aap2.bigdoors.doors.IDoor;
+import nl.pim16aap2.bigdoors.util.DoorOwner;
+import nl.pim16aap2.bigdoors.util.Util;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Keeps track of the names and UIDs of the doors owned by players, so doors can be found from partial identifiers
+ * (e.g. for tab completion) without accessing the database.
+ * <p>
+ * The doors of a player are loaded from the database using a single query the first time they are needed. After that,
+ * they are kept up-to-date whenever a door is created, renamed, or deleted, and whenever the player is added or removed
+ * as an owner of a door. When the doors could not be loaded, the lookup fails and the doors are loaded again on the
+ * next lookup.
+ * <p>
+ * The doors of players that have not been accessed for {@link #EXPIRY} are removed from memory again.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class DoorNameIndex extends Restartable implements IDebuggable
+{
+    /**
+     * The amount of time the doors of a player are kept in memory after they were last accessed.
+     */
+    static final Duration EXPIRY = Duration.ofMinutes(10);
+
+    private final DatabaseManager databaseManager;
+
+    private final TimedCache<UUID, OwnerIndex> owners = TimedCache.<UUID, OwnerIndex>builder()
+                                                                  .duration(EXPIRY)
+                                                                  .cleanup(EXPIRY)
+                                                                  .softReference(false)
+                                                                  .refresh(true)
+                                                                  .build();
+
+    @Inject
+    public DoorNameIndex(
+        RestartableHolder restartableHolder, DatabaseManager databaseManager, DebuggableRegistry debuggableRegistry)
+    {
+        super(restartableHolder);
+        this.databaseManager = databaseManager;
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    /**
+     * Retrieves the identifiers of all doors owned by a player that start with the provided input.
+     * <p>
+     * When the input is numerical, the UIDs of the doors are matched against it. Otherwise, their names are. See
+     * {@link DatabaseManager#getIdentifiersFromPartial(String, nl.pim16aap2.bigdoors.api.IPPlayer, int)}.
+     *
+     * @param playerUUID
+     *     The {@link UUID} of the player that owns the doors.
+     * @param input
+     *     The partial identifier to look for. The comparison is not case-sensitive.
+     * @param maxPermission
+     *     The maximum level of ownership (inclusive) the player has over the doors.
+     * @return The identifiers of all doors owned by the player that start with the provided input. Once the doors of
+     * the player have been loaded, the returned future is completed immediately.
+     */
+    public CompletableFuture<List<DatabaseManager.DoorIdentifier>> getIdentifiers(
+        UUID playerUUID, String input, int maxPermission)
+    {
+        final OwnerIndex ownerIndex = getOwnerIndex(playerUUID);
+        return ownerIndex.whenLoaded(
+            () ->
+            {
+                final List<DatabaseManager.OwnedDoorIdentifier> matches;
+                if (Util.isNumerical(input))
+                    // Leading zeroes are ignored, just like when the UIDs are matched by the database.
+                    matches = ownerIndex.byUID.getByPrefix(String.valueOf(Long.parseLong(input)));
+                else
+                    matches = ownerIndex.byName.getByPrefix(input);
+
+                final List<DatabaseManager.DoorIdentifier> ret = new ArrayList<>(matches.size());
+                for (final DatabaseManager.OwnedDoorIdentifier match : matches)
+                    if (match.permission() <= maxPermission)
+                        ret.add(new DatabaseManager.DoorIdentifier(match.uid(), match.name()));
+                return ret;
+            });
+    }
+
+    private OwnerIndex getOwnerIndex(UUID playerUUID)
+    {
+        final Optional<OwnerIndex> existing = owners.get(playerUUID);
+        if (existing.isPresent())
+            return existing.get();
+
+        final OwnerIndex ownerIndex = new OwnerIndex();
+        final Optional<OwnerIndex> previous = owners.putIfAbsent(playerUUID, ownerIndex);
+        if (previous.isPresent())
+            return previous.get();
+
+        // The doors are only loaded once the index has been added to the cache, so a failed load can always remove it
+        // again.
+        ownerIndex.load(
+            databaseManager.getOwnedDoorIdentifiers(playerUUID).thenApply(OwnerIndex::mapByUID),
+            throwable ->
+            {
+                log.at(Level.SEVERE).withCause(throwable)
+                   .log("Failed to load the doors owned by player '%s'!", playerUUID);
+                owners.remove(playerUUID, ownerIndex);
+            });
+        return ownerIndex;
+    }
+
+    /**
+     * Updates the name of a door for all of its owners. This should be called whenever a door is created or changed.
+     *
+     * @param door
+     *     The door.
+     */
+    void updateDoor(IDoor door)
+    {
+        for (final DoorOwner doorOwner : door.getDoorOwners())
+            updateOwner(doorOwner.pPlayerData().getUUID(),
+                        new DatabaseManager.OwnedDoorIdentifier(door.getDoorUID(), door.getName(),
+                                                                doorOwner.permission()));
+    }
+
+    /**
+     * Removes a door for all of its owners. This should be called whenever a door is deleted.
+     *
+     * @param door
+     *     The door.
+     */
+    void removeDoor(IDoor door)
+    {
+        for (final DoorOwner doorOwner : door.getDoorOwners())
+            removeOwner(doorOwner.pPlayerData().getUUID(), door.getDoorUID());
+    }
+
+    /**
+     * Adds or updates a door owned by a player. This should be called whenever a player is added as owner of a door.
+     *
+     * @param playerUUID
+     *     The {@link UUID} of the player.
+     * @param identifier
+     *     The identifier of the door.
+     */
+    void updateOwner(UUID playerUUID, DatabaseManager.OwnedDoorIdentifier identifier)
+    {
+        // Players whose doors have not been loaded do not need to be updated.
+        owners.get(playerUUID).ifPresent(ownerIndex -> ownerIndex.update(identifier.uid(), identifier));
+    }
+
+    /**
+     * Removes a door owned by a player. This should be called whenever a player is removed as owner of a door.
+     *
+     * @param playerUUID
+     *     The {@link UUID} of the player.
+     * @param doorUID
+     *     The UID of the door.
+     */
+    void removeOwner(UUID playerUUID, long doorUID)
+    {
+        owners.get(playerUUID).ifPresent(ownerIndex -> ownerIndex.update(doorUID, null));
+    }
+
+    @Override
+    public void initialize()
+    {
+    }
+
+    @Override
+    public void shutDown()
+    {
+        owners.clear();
+    }
+
+    @Override
+    public String getDebugInformation()
+    {
+        return "Door name index: " + owners.getSize() + " players";
+    }
+
+    /**
+     * Represents the doors owned by a single player.
+     */
+    private static final class OwnerIndex extends AsyncLoadedIndex<DatabaseManager.OwnedDoorIdentifier>
+    {
+        private final PrefixIndex<DatabaseManager.OwnedDoorIdentifier> byName =
+            new PrefixIndex<>(DatabaseManager.OwnedDoorIdentifier::uid, DatabaseManager.OwnedDoorIdentifier::name);
+
+        private final PrefixIndex<DatabaseManager.OwnedDoorIdentifier> byUID =
+            new PrefixIndex<>(DatabaseManager.OwnedDoorIdentifier::uid, identifier -> String.valueOf(identifier.uid()));
+
+        @Override
+        protected void put(long doorUID, DatabaseManager.OwnedDoorIdentifier identifier)
+        {
+            // Doors are synced often (e.g. whenever they are toggled), but they are rarely renamed.
+            if (identifier.equals(byName.get(doorUID)))
+                return;
+            byName.put(identifier);
+            byUID.put(identifier);
+        }
+
+        @Override
+        protected void remove(long doorUID)
+        {
+            byName.remove(doorUID);
+            byUID.remove(doorUID);
+        }
+
+        @Override
+        protected void putAll(Map<Long, DatabaseManager.OwnedDoorIdentifier> identifiers)
+        {
+            final List<DatabaseManager.OwnedDoorIdentifier> values = new ArrayList<>(identifiers.values());
+            byName.putAll(values);
+            byUID.putAll(values);
+        }
+
+        private static Map<Long, DatabaseManager.OwnedDoorIdentifier> mapByUID(
+            List<DatabaseManager.OwnedDoorIdentifier> identifiers)
+        {
+            final Map<Long, DatabaseManager.OwnedDoorIdentifier> ret = new HashMap<>(identifiers.size() * 4 / 3 + 1);
+            for (final DatabaseManager.OwnedDoorIdentifier identifier : identifiers)
+                ret.put(identifier.uid(), identifier);
+            return ret;
+        }
+    }
+}
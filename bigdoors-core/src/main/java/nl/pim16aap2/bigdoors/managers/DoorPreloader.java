@@ -0,0 +1,257 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.cache.timed.TimedCache;
+import nl.pim16aap2.bigdoors.doors.AbstractDoor;
+import nl.pim16aap2.bigdoors.util.Util;
+import nl.pim16aap2.bigdoors.util.vector.Vector2Di;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Loads the doors in chunks that are being loaded, so they are available in the {@link DoorRegistry} before anyone
+ * interacts with them.
+ * <p>
+ * When a chunk is loaded, all doors with their rotation point in that chunk or in the chunks within
+ * {@link IConfigLoader#doorPreloadRadius()} chunks of it are loaded. Chunks whose doors have been loaded recently are
+ * skipped.
+ * <p>
+ * At most {@link IConfigLoader#doorPreloadConcurrency()} queries are run at the same time. Chunks that are loaded while
+ * all queries are busy (e.g. when a player teleports) are queued and loaded together using a single query once a
+ * query finishes.
+ * <p>
+ * Chunks are marked as preloaded as soon as they are queued, so they are not queued again while their query is
+ * running. When a query fails, its chunks are unmarked again, so they are retried the next time they are requested.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class DoorPreloader extends Restartable implements IDebuggable
+{
+    /**
+     * The maximum number of chunks to load using a single query.
+     */
+    static final int MAX_CHUNKS_PER_QUERY = 256;
+
+    private final DatabaseManager databaseManager;
+    private final IConfigLoader config;
+
+    /**
+     * The ids of the chunks whose doors have been loaded recently, mapped by the name of their world.
+     * <p>
+     * Entries expire together with the doors in the {@link DoorRegistry}, so chunks are loaded again once their doors
+     * may have been removed from the registry.
+     */
+    private final Map<String, TimedCache<Long, Boolean>> preloadedChunks = new LinkedHashMap<>();
+
+    /**
+     * The ids of the chunks that are waiting to be loaded, mapped by the name of their world.
+     */
+    private final Map<String, Set<Long>> pendingChunks = new LinkedHashMap<>();
+
+    /**
+     * The number of queries that are currently running.
+     */
+    private int runningQueries = 0;
+
+    /**
+     * Incremented whenever this preloader is shut down. Queries that were started before that are no longer counted in
+     * {@link #runningQueries}, as their futures may never be completed (e.g. when the thread pool of the
+     * {@link DatabaseManager} is shut down before they run).
+     */
+    private int generation = 0;
+
+    private long requestedChunkCount = 0;
+    private long skippedChunkCount = 0;
+    private long queryCount = 0;
+    private long failedQueryCount = 0;
+    private long loadedDoorCount = 0;
+
+    @Inject
+    public DoorPreloader(
+        RestartableHolder holder, DatabaseManager databaseManager, IConfigLoader config,
+        DebuggableRegistry debuggableRegistry)
+    {
+        super(holder);
+        this.databaseManager = databaseManager;
+        this.config = config;
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    @Override
+    public void initialize()
+    {
+    }
+
+    @Override
+    public synchronized void shutDown()
+    {
+        preloadedChunks.values().forEach(TimedCache::shutDown);
+        preloadedChunks.clear();
+        pendingChunks.clear();
+        runningQueries = 0;
+        ++generation;
+    }
+
+    /**
+     * Loads the doors in a chunk and in the chunks around it.
+     * <p>
+     * This method does not block. The doors are loaded asynchronously.
+     *
+     * @param worldName
+     *     The name of the world of the chunk.
+     * @param chunk
+     *     The coordinates of the chunk.
+     */
+    public void preloadChunk(String worldName, Vector2Di chunk)
+    {
+        final int radius = config.doorPreloadRadius();
+        if (radius < 0)
+            return;
+
+        synchronized (this)
+        {
+            final TimedCache<Long, Boolean> preloaded =
+                preloadedChunks.computeIfAbsent(worldName, ignored -> newPreloadedChunksCache());
+            final Set<Long> pending = pendingChunks.computeIfAbsent(worldName, ignored -> new LinkedHashSet<>());
+
+            for (int x = chunk.x() - radius; x <= chunk.x() + radius; ++x)
+                for (int z = chunk.y() - radius; z <= chunk.y() + radius; ++z)
+                {
+                    ++requestedChunkCount;
+                    final long chunkId = Util.getChunkId(x, z);
+                    if (preloaded.containsKey(chunkId))
+                    {
+                        ++skippedChunkCount;
+                        continue;
+                    }
+                    preloaded.put(chunkId, Boolean.TRUE);
+                    pending.add(chunkId);
+                }
+
+            if (pending.isEmpty())
+                pendingChunks.remove(worldName);
+        }
+        startQueries();
+    }
+
+    private TimedCache<Long, Boolean> newPreloadedChunksCache()
+    {
+        return TimedCache.<Long, Boolean>builder()
+                         .duration(DoorRegistry.CACHE_EXPIRY)
+                         .cleanup(DoorRegistry.CACHE_EXPIRY)
+                         .build();
+    }
+
+    /**
+     * Starts queries for pending chunks until there are no more pending chunks or until the maximum number of running
+     * queries has been reached.
+     */
+    private void startQueries()
+    {
+        final int maxQueries = Math.max(1, config.doorPreloadConcurrency());
+        while (true)
+        {
+            final String worldName;
+            final List<Long> chunkIds;
+            final int queryGeneration;
+            synchronized (this)
+            {
+                if (runningQueries >= maxQueries || pendingChunks.isEmpty())
+                    return;
+
+                final Iterator<Map.Entry<String, Set<Long>>> worldIt = pendingChunks.entrySet().iterator();
+                final Map.Entry<String, Set<Long>> entry = worldIt.next();
+                worldName = entry.getKey();
+                chunkIds = takeChunks(entry.getValue());
+                if (entry.getValue().isEmpty())
+                    worldIt.remove();
+
+                ++runningQueries;
+                ++queryCount;
+                queryGeneration = generation;
+            }
+            query(worldName, chunkIds, queryGeneration);
+        }
+    }
+
+    private static List<Long> takeChunks(Set<Long> chunks)
+    {
+        final List<Long> ret = new ArrayList<>(Math.min(MAX_CHUNKS_PER_QUERY, chunks.size()));
+        final Iterator<Long> it = chunks.iterator();
+        while (it.hasNext() && ret.size() < MAX_CHUNKS_PER_QUERY)
+        {
+            ret.add(it.next());
+            it.remove();
+        }
+        return ret;
+    }
+
+    private void query(String worldName, List<Long> chunkIds, int queryGeneration)
+    {
+        databaseManager.getDoorsInChunks(worldName, chunkIds).whenComplete(
+            (doors, throwable) ->
+            {
+                if (throwable != null)
+                {
+                    log.at(Level.SEVERE).withCause(throwable)
+                       .log("Failed to preload doors in %d chunks in world '%s'!", chunkIds.size(), worldName);
+                    onQueryFailed(worldName, chunkIds, queryGeneration);
+                }
+                else
+                    onQueryCompleted(doors, queryGeneration);
+                startQueries();
+            });
+    }
+
+    private synchronized void onQueryCompleted(List<AbstractDoor> doors, int queryGeneration)
+    {
+        if (queryGeneration != generation)
+            return;
+        --runningQueries;
+        loadedDoorCount += doors.size();
+    }
+
+    private synchronized void onQueryFailed(String worldName, List<Long> chunkIds, int queryGeneration)
+    {
+        if (queryGeneration != generation)
+            return;
+        --runningQueries;
+        ++failedQueryCount;
+        final @Nullable TimedCache<Long, Boolean> preloaded = preloadedChunks.get(worldName);
+        if (preloaded != null)
+            chunkIds.forEach(preloaded::remove);
+    }
+
+    @Override
+    public synchronized String getDebugInformation()
+    {
+        int pendingCount = 0;
+        for (final Set<Long> pending : pendingChunks.values())
+            pendingCount += pending.size();
+
+        return "Running door preload queries: " + runningQueries +
+            "\nPending door preload chunks: " + pendingCount +
+            "\nRequested door preload chunks: " + requestedChunkCount +
+            "\nSkipped door preload chunks: " + skippedChunkCount +
+            "\nDoor preload queries: " + queryCount +
+            "\nFailed door preload queries: " + failedQueryCount +
+            "\nPreloaded doors: " + loadedDoorCount;
+    }
+}
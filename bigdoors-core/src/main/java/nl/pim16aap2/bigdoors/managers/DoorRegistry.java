@@ -1,22 +1,40 @@
 package nl.pim16aap2.bigdoors.managers;
 
-import nl.pim16aap2.bigdoors.annotations.Initializer;
+import dagger.Lazy;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
 import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
 import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
 import nl.pim16aap2.bigdoors.api.restartable.Restartable;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
-import nl.pim16aap2.bigdoors.data.cache.timed.TimedCache;
+import nl.pim16aap2.bigdoors.data.cache.FrequencyCache;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.DoorBase;
 import nl.pim16aap2.bigdoors.doors.IDoor;
+import nl.pim16aap2.bigdoors.moveblocks.DoorActivityManager;
+import org.jetbrains.annotations.Nullable;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
 
 /**
  * Represents a registry of doors.
+ * <p>
+ * The number of doors kept in the registry is bounded by {@link IConfigLoader#doorCacheSize()}. When the registry is
+ * full, the doors that are accessed least often are evicted first (see {@link FrequencyCache}). Doors that are
+ * currently busy (see {@link DoorActivityManager#isDoorBusy(long)}) or whose data has not been written to the database
+ * yet (see {@link DoorSyncQueue#isPending(long)}) are never evicted.
+ * <p>
+ * Evicted doors are only weakly referenced afterwards. When an evicted door is still in use somewhere else, it is
+ * registered again when it is requested, so there is never more than 1 instance of a door in use at the same time.
  *
  * @author Pim
  * @see <a href="https://en.wikipedia.org/wiki/Multiton_pattern">Wikipedia: Multiton</a>
@@ -24,59 +42,63 @@ import java.util.Optional;
 @Singleton
 public final class DoorRegistry extends Restartable implements IDebuggable
 {
-    public static final int CONCURRENCY_LEVEL = 4;
-    public static final int INITIAL_CAPACITY = 100;
     public static final Duration CACHE_EXPIRY = Duration.ofMinutes(15);
 
-    // It's not final, so we make it volatile to ensure it's always visible.
-    // SonarLint likes to complain about making it volatile, as this doesn't
-    // mean access to the object is thread-safe. However, we know that the
-    // type is thread-safe; we just want to ensure visibility across threads.
-    @SuppressWarnings("squid:S3077")
-    private volatile TimedCache<Long, AbstractDoor> doorCache;
+    private final FrequencyCache<Long, AbstractDoor> doorCache;
+
+    /**
+     * The doors that have been evicted from the {@link #doorCache} but that may still be in use.
+     */
+    private final Map<Long, EvictedDoor> evictedDoors = new ConcurrentHashMap<>();
+    private final ReferenceQueue<AbstractDoor> evictedDoorsQueue = new ReferenceQueue<>();
 
     /**
      * Keeps track of whether to allow new entries to be added to the cache.
      */
     private volatile boolean acceptNewEntries = true;
 
-    // TODO: Implement the use of these parameters. Once implemented, this should be public.
-    private final int concurrencyLevel;
-    private final int initialCapacity;
+    private final LongSupplier maxDoorCount;
     private final Duration cacheExpiry;
 
     /**
      * Constructs a new {@link #DoorRegistry}.
      *
-     * @param concurrencyLevel
-     *     The concurrency level (see Guava docs) of the cache.
-     * @param initialCapacity
-     *     The initial size of the cache to reserve.
+     * @param maxDoorCount
+     *     Supplies the maximum number of doors to keep in the cache. Values less than 1 mean the cache is not bounded.
+     * @param pinned
+     *     Determines whether a door should never be evicted. May be null.
      * @param cacheExpiry
-     *     How long to keep stuff in the cache.
+     *     How long to keep doors that are not accessed in the cache.
      */
-//    @IBuilder // These parameters aren't implemented atm, so there's no point in having this ctor/builder.
     private DoorRegistry(
-        RestartableHolder restartableHolder, DebuggableRegistry debuggableRegistry,
-        int concurrencyLevel, int initialCapacity, Duration cacheExpiry)
+        RestartableHolder restartableHolder, DebuggableRegistry debuggableRegistry, LongSupplier maxDoorCount,
+        @Nullable BiPredicate<Long, AbstractDoor> pinned, Duration cacheExpiry)
     {
         super(restartableHolder);
-        this.concurrencyLevel = concurrencyLevel;
-        this.initialCapacity = initialCapacity;
+        this.maxDoorCount = maxDoorCount;
         this.cacheExpiry = cacheExpiry;
-        init();
+        doorCache = FrequencyCache.<Long, AbstractDoor>builder()
+                                  .maximumWeight(maxDoorCount)
+                                  .pinned(pinned)
+                                  .expireAfterAccess(cacheExpiry)
+                                  .evictionListener(this::onEviction)
+                                  .build();
         debuggableRegistry.registerDebuggable(this);
     }
 
     /**
      * Constructs a new {@link #DoorRegistry} using the default values.
      * <p>
-     * See {@link #CONCURRENCY_LEVEL}, {@link #INITIAL_CAPACITY}.
+     * See {@link IConfigLoader#doorCacheSize()}, {@link #CACHE_EXPIRY}.
      */
     @Inject
-    public DoorRegistry(RestartableHolder restartableHolder, DebuggableRegistry debuggableRegistry)
+    public DoorRegistry(
+        RestartableHolder restartableHolder, DebuggableRegistry debuggableRegistry, IConfigLoader config,
+        Lazy<DoorActivityManager> doorActivityManager, Lazy<DoorSyncQueue> doorSyncQueue)
     {
-        this(restartableHolder, debuggableRegistry, CONCURRENCY_LEVEL, INITIAL_CAPACITY, CACHE_EXPIRY);
+        this(restartableHolder, debuggableRegistry, config::doorCacheSize,
+             (doorUID, door) -> doorActivityManager.get().isDoorBusy(doorUID) || doorSyncQueue.get().isPending(doorUID),
+             CACHE_EXPIRY);
     }
 
     /**
@@ -87,7 +109,7 @@ public final class DoorRegistry extends Restartable implements IDebuggable
     public static DoorRegistry unCached(RestartableHolder restartableHolder, DebuggableRegistry debuggableRegistry)
     {
         final DoorRegistry doorRegistry =
-            new DoorRegistry(restartableHolder, debuggableRegistry, -1, -1, Duration.ofMillis(-1));
+            new DoorRegistry(restartableHolder, debuggableRegistry, () -> 1, null, CACHE_EXPIRY);
         doorRegistry.acceptNewEntries = false;
         return doorRegistry;
     }
@@ -101,7 +123,8 @@ public final class DoorRegistry extends Restartable implements IDebuggable
      */
     public Optional<AbstractDoor> getRegisteredDoor(long doorUID)
     {
-        return doorCache.get(doorUID);
+        final Optional<AbstractDoor> door = doorCache.get(doorUID);
+        return door.isPresent() ? door : readmit(doorUID);
     }
 
     /**
@@ -112,6 +135,7 @@ public final class DoorRegistry extends Restartable implements IDebuggable
      */
     void deregisterDoor(long doorUID)
     {
+        evictedDoors.remove(doorUID);
         doorCache.remove(doorUID);
     }
 
@@ -125,7 +149,7 @@ public final class DoorRegistry extends Restartable implements IDebuggable
     @SuppressWarnings("unused")
     public boolean isRegistered(long doorUID)
     {
-        return doorCache.containsKey(doorUID);
+        return getRegisteredDoor(doorUID).isPresent();
     }
 
     /**
@@ -138,7 +162,7 @@ public final class DoorRegistry extends Restartable implements IDebuggable
      */
     public boolean isRegistered(IDoor doorBase)
     {
-        return doorCache.get(doorBase.getDoorUID()).map(found -> found == doorBase).orElse(false);
+        return getRegisteredDoor(doorBase.getDoorUID()).map(found -> found == doorBase).orElse(false);
     }
 
     /**
@@ -153,41 +177,74 @@ public final class DoorRegistry extends Restartable implements IDebuggable
         if (!acceptNewEntries)
             return true;
         final AbstractDoor door = registrable.getAbstractDoorBase();
+        // If the door was evicted but is still in use, that instance takes precedence.
+        readmit(door.getDoorUID());
         return doorCache.putIfAbsent(door.getDoorUID(), door).isEmpty();
     }
 
-    @Override
-    public void shutDown()
+    /**
+     * Registers a door that was evicted from the {@link #doorCache} again if it is still in use.
+     *
+     * @param doorUID
+     *     The UID of the door.
+     * @return The registered door, if it was still in use.
+     */
+    private Optional<AbstractDoor> readmit(long doorUID)
     {
-        doorCache.clear();
+        drainEvictedDoors();
+        final @Nullable EvictedDoor evicted = evictedDoors.remove(doorUID);
+        final @Nullable AbstractDoor door = evicted == null ? null : evicted.get();
+        if (door == null)
+            return Optional.empty();
+        return Optional.of(doorCache.putIfAbsent(doorUID, door).orElse(door));
+    }
+
+    private void onEviction(long doorUID, AbstractDoor door)
+    {
+        evictedDoors.put(doorUID, new EvictedDoor(doorUID, door, evictedDoorsQueue));
     }
 
     /**
-     * (Re)initializes the {@link #doorCache}.
-     *
-     * @return This {@link DoorRegistry}.
+     * Removes all evicted doors that have been reclaimed by the garbage collector from {@link #evictedDoors}.
      */
-    @Initializer
-    private void init()
+    private void drainEvictedDoors()
     {
-        if (cacheExpiry.isNegative())
-            doorCache = TimedCache.emptyCache();
-        else
-            doorCache = TimedCache.<Long, AbstractDoor>builder()
-                                  .cleanup(Duration.ofMinutes(5))
-                                  .softReference(true)
-                                  .keepAfterTimeOut(true)
-                                  .duration(cacheExpiry)
-                                  .build();
+        @Nullable Reference<? extends AbstractDoor> reference;
+        while ((reference = evictedDoorsQueue.poll()) != null)
+        {
+            final EvictedDoor evicted = (EvictedDoor) reference;
+            evictedDoors.remove(evicted.doorUID, evicted);
+        }
+    }
+
+    @Override
+    public void shutDown()
+    {
+        doorCache.clear();
+        evictedDoors.clear();
     }
 
     @Override
     public String getDebugInformation()
     {
         return "Accepting new entries: " + acceptNewEntries +
-            "\nconcurrencyLevel: " + concurrencyLevel +
-            "\ninitialCapacity: " + initialCapacity +
+            "\nmaxDoorCount: " + maxDoorCount.getAsLong() +
             "\ncacheExpiry: " + cacheExpiry +
-            "\ncacheSize: " + doorCache.getSize();
+            "\ncacheSize: " + doorCache.getSize() +
+            "\nevictedDoors: " + evictedDoors.size();
+    }
+
+    /**
+     * Represents a weak reference to a door that was evicted from the {@link #doorCache}.
+     */
+    private static final class EvictedDoor extends WeakReference<AbstractDoor>
+    {
+        private final long doorUID;
+
+        private EvictedDoor(long doorUID, AbstractDoor door, ReferenceQueue<AbstractDoor> queue)
+        {
+            super(door, queue);
+            this.doorUID = doorUID;
+        }
     }
 }
@@ -0,0 +1,203 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.AsyncLoadedIndex;
+import nl.pim16aap2.bigdoors.data.CuboidIndex;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Keeps track of the cuboids of all doors in every world, so the doors at a position or in a region can be found
+ * without accessing the database.
+ * <p>
+ * The cuboids of the doors in a world are loaded from the database using a single query the first time a lookup is
+ * done in that world. After that, the index is kept up-to-date whenever a door is created, deleted, or changed (e.g.
+ * when it is toggled). Changes to doors in worlds that have not been loaded are ignored, as they are read from the
+ * database when the world is loaded.
+ * <p>
+ * All lookups return the UIDs of the doors they found. Once the cuboids of a world have been loaded, the returned
+ * futures are completed immediately. When the cuboids could not be loaded, the futures are completed exceptionally and
+ * the world is loaded again on the next lookup.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class DoorSpatialIndex extends Restartable implements IDebuggable
+{
+    private final Map<String, SpatialWorld> spatialWorlds = new ConcurrentHashMap<>();
+    private final DatabaseManager databaseManager;
+
+    @Inject
+    public DoorSpatialIndex(
+        RestartableHolder restartableHolder, DatabaseManager databaseManager, DebuggableRegistry debuggableRegistry)
+    {
+        super(restartableHolder);
+        this.databaseManager = databaseManager;
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    /**
+     * Gets the UIDs of all doors that contain a position.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param pos
+     *     The position.
+     * @return The UIDs of all doors that contain the position.
+     */
+    public CompletableFuture<long[]> getDoorsAt(String worldName, Vector3Di pos)
+    {
+        return getIndex(worldName).thenApply(index -> index.getAt(pos));
+    }
+
+    /**
+     * Gets the UIDs of all doors that intersect with a region.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param region
+     *     The region.
+     * @return The UIDs of all doors that share at least 1 block with the region.
+     */
+    public CompletableFuture<long[]> getDoorsInRegion(String worldName, Cuboid region)
+    {
+        return getIndex(worldName).thenApply(index -> index.getIntersecting(region));
+    }
+
+    /**
+     * Gets the UIDs of all doors within a range of a position. See {@link Cuboid#isInRange(Vector3Di, int)}.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param pos
+     *     The position (e.g. the position of a player).
+     * @param range
+     *     The maximum distance (in blocks) between the position and a door along every axis.
+     * @return The UIDs of all doors within range of the position.
+     */
+    public CompletableFuture<long[]> getDoorsInRange(String worldName, Vector3Di pos, int range)
+    {
+        return getIndex(worldName).thenApply(index -> index.getInRange(pos, range));
+    }
+
+    private CompletableFuture<CuboidIndex> getIndex(String worldName)
+    {
+        final SpatialWorld spatialWorld = getSpatialWorld(worldName);
+        return spatialWorld.whenLoaded(() -> spatialWorld.index);
+    }
+
+    private SpatialWorld getSpatialWorld(String worldName)
+    {
+        final @Nullable SpatialWorld existing = spatialWorlds.get(worldName);
+        if (existing != null)
+            return existing;
+
+        final SpatialWorld spatialWorld = new SpatialWorld();
+        final @Nullable SpatialWorld previous = spatialWorlds.putIfAbsent(worldName, spatialWorld);
+        if (previous != null)
+            return previous;
+
+        // The world is only loaded once it has been added to the map, so a failed load can always remove it again.
+        loadSpatialWorld(worldName, spatialWorld);
+        return spatialWorld;
+    }
+
+    private void loadSpatialWorld(String worldName, SpatialWorld spatialWorld)
+    {
+        spatialWorld.load(
+            databaseManager.getDoorCuboids(worldName),
+            throwable ->
+            {
+                log.at(Level.SEVERE).withCause(throwable)
+                   .log("Failed to load the cuboids of the doors in world '%s'!", worldName);
+                spatialWorlds.remove(worldName, spatialWorld);
+            });
+    }
+
+    /**
+     * Updates the cuboid of a door in the index. This should be called whenever a door is created or changed.
+     *
+     * @param worldName
+     *     The name of the world of the door.
+     * @param doorUID
+     *     The UID of the door.
+     * @param cuboid
+     *     The current cuboid of the door.
+     */
+    void updateDoor(String worldName, long doorUID, Cuboid cuboid)
+    {
+        final @Nullable SpatialWorld spatialWorld = spatialWorlds.get(worldName);
+        if (spatialWorld != null)
+            spatialWorld.update(doorUID, cuboid);
+    }
+
+    /**
+     * Removes a door from the index. This should be called whenever a door is deleted.
+     *
+     * @param worldName
+     *     The name of the world of the door.
+     * @param doorUID
+     *     The UID of the door.
+     */
+    void removeDoor(String worldName, long doorUID)
+    {
+        final @Nullable SpatialWorld spatialWorld = spatialWorlds.get(worldName);
+        if (spatialWorld != null)
+            spatialWorld.update(doorUID, null);
+    }
+
+    @Override
+    public void initialize()
+    {
+    }
+
+    @Override
+    public void shutDown()
+    {
+        spatialWorlds.clear();
+    }
+
+    @Override
+    public String getDebugInformation()
+    {
+        final StringBuilder sb = new StringBuilder("Door spatial indices:");
+        spatialWorlds.forEach(
+            (worldName, spatialWorld) -> sb.append("\n  ").append(worldName).append(": ")
+                                           .append(spatialWorld.isLoaded() ?
+                                                   spatialWorld.index.toString() : "loading"));
+        return sb.toString();
+    }
+
+    /**
+     * Represents the index of a single world.
+     */
+    private static final class SpatialWorld extends AsyncLoadedIndex<Cuboid>
+    {
+        private final CuboidIndex index = new CuboidIndex();
+
+        @Override
+        protected void put(long doorUID, Cuboid cuboid)
+        {
+            index.put(doorUID, cuboid);
+        }
+
+        @Override
+        protected void remove(long doorUID)
+        {
+            index.remove(doorUID);
+        }
+    }
+}
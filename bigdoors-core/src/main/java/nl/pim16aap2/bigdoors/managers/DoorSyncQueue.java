@@ -0,0 +1,290 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.doors.DoorBase;
+import nl.pim16aap2.bigdoors.storage.IStorage;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Buffers the synchronization of doors with the database, so they can be written in batches.
+ * <p>
+ * Doors are often synchronized many times in quick succession (e.g. doors that are toggled automatically are
+ * synchronized after every toggle). Only the most recent data of a door has to be written to the database, so when a
+ * door is synchronized again while a previous synchronization is still pending, the new data replaces the old data.
+ * All requests for the same door then share the result of that single write.
+ * <p>
+ * Pending synchronizations are written in a single transaction every {@link IConfigLoader#doorSyncDelay()}
+ * milliseconds, or as soon as {@link IConfigLoader#doorSyncBatchSize()} doors are pending. All pending
+ * synchronizations are written when the queue is shut down.
+ * <p>
+ * The database does not contain the data of pending synchronizations yet, so reads that may be affected by them
+ * should write them first using {@link #flush()} or {@link #flush(long)}.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+final class DoorSyncQueue
+{
+    private final IStorage db;
+    private final IConfigLoader config;
+
+    /**
+     * The pending synchronizations mapped by the UID of their door.
+     */
+    private Map<Long, PendingSync> pending = new LinkedHashMap<>();
+
+    /**
+     * Ensures batches are written in the order in which they were taken from the queue, so older data of a door can
+     * never overwrite newer data.
+     */
+    private final Object flushLock = new Object();
+
+    private volatile @Nullable ScheduledExecutorService executor;
+
+    /**
+     * The total number of synchronizations requested since the queue was created.
+     */
+    private long requestCount = 0;
+
+    /**
+     * The total number of doors written to the database since the queue was created.
+     */
+    private long writeCount = 0;
+
+    @Inject
+    DoorSyncQueue(IStorage db, IConfigLoader config)
+    {
+        this.db = db;
+        this.config = config;
+    }
+
+    /**
+     * Starts flushing pending synchronizations periodically. When {@link IConfigLoader#doorSyncDelay()} is 0 or lower,
+     * the queue is disabled instead.
+     */
+    synchronized void initialize()
+    {
+        final int delay = config.doorSyncDelay();
+        if (delay <= 0)
+        {
+            executor = null;
+            return;
+        }
+
+        final ScheduledExecutorService newExecutor = Executors.newSingleThreadScheduledExecutor();
+        newExecutor.scheduleWithFixedDelay(this::flush, delay, delay, TimeUnit.MILLISECONDS);
+        executor = newExecutor;
+    }
+
+    /**
+     * Stops the periodic flushing and writes all pending synchronizations to the database.
+     */
+    void shutDown()
+    {
+        final @Nullable ScheduledExecutorService currentExecutor = executor;
+        executor = null;
+        if (currentExecutor != null)
+        {
+            currentExecutor.shutdown();
+            try
+            {
+                if (!currentExecutor.awaitTermination(30, TimeUnit.SECONDS))
+                    log.at(Level.SEVERE).log("Timed out waiting for door synchronizations to finish!");
+            }
+            catch (InterruptedException e)
+            {
+                log.at(Level.SEVERE).withCause(e).log("Interrupted while waiting for door synchronizations!");
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Checks if synchronizations are buffered by this queue. When this is false, synchronizations should be written to
+     * the database directly.
+     *
+     * @return True if this queue is enabled.
+     */
+    boolean isEnabled()
+    {
+        return executor != null;
+    }
+
+    /**
+     * Adds a synchronization to the queue. If the door already has a pending synchronization, its data is replaced.
+     *
+     * @param doorBase
+     *     The {@link DoorBase} that describes the base data of door.
+     * @param typeData
+     *     The type-specific data of this door.
+     * @return The future result of the synchronization. This is completed once the door has been written to the
+     * database.
+     */
+    CompletableFuture<Boolean> add(DoorBase doorBase, byte[] typeData)
+    {
+        final CompletableFuture<Boolean> result;
+        final boolean full;
+        synchronized (this)
+        {
+            ++requestCount;
+            final @Nullable PendingSync previous = pending.get(doorBase.getDoorUID());
+            result = previous == null ? new CompletableFuture<>() : previous.result();
+            pending.put(doorBase.getDoorUID(), new PendingSync(new IStorage.DoorSyncData(doorBase, typeData), result));
+
+            final int batchSize = config.doorSyncBatchSize();
+            full = batchSize > 0 && pending.size() >= batchSize;
+        }
+
+        if (full)
+            scheduleFlush();
+        return result;
+    }
+
+    private void scheduleFlush()
+    {
+        final @Nullable ScheduledExecutorService currentExecutor = executor;
+        try
+        {
+            if (currentExecutor != null)
+            {
+                currentExecutor.execute(this::flush);
+                return;
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.at(Level.FINE).log("Door sync executor is shut down, flushing on the current thread!");
+        }
+        flush();
+    }
+
+    /**
+     * Writes all pending synchronizations to the database in a single transaction.
+     */
+    void flush()
+    {
+        synchronized (flushLock)
+        {
+            final Map<Long, PendingSync> batch;
+            synchronized (this)
+            {
+                if (pending.isEmpty())
+                    return;
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+            write(new ArrayList<>(batch.values()));
+        }
+    }
+
+    /**
+     * Writes the pending synchronization of a single door to the database, if it has one.
+     * <p>
+     * The pending synchronizations of all other doors remain in the queue.
+     *
+     * @param doorUID
+     *     The UID of the door.
+     */
+    void flush(long doorUID)
+    {
+        flush(List.of(doorUID));
+    }
+
+    /**
+     * Writes the pending synchronizations of a set of doors to the database in a single transaction.
+     * <p>
+     * The pending synchronizations of all other doors remain in the queue.
+     *
+     * @param doorUIDs
+     *     The UIDs of the doors.
+     */
+    void flush(Collection<Long> doorUIDs)
+    {
+        synchronized (flushLock)
+        {
+            final List<PendingSync> batch = new ArrayList<>(Math.min(doorUIDs.size(), 16));
+            synchronized (this)
+            {
+                if (pending.isEmpty())
+                    return;
+                for (final long doorUID : doorUIDs)
+                {
+                    final @Nullable PendingSync sync = pending.remove(doorUID);
+                    if (sync != null)
+                        batch.add(sync);
+                }
+            }
+            if (!batch.isEmpty())
+                write(batch);
+        }
+    }
+
+    /**
+     * Checks if a door has a pending synchronization.
+     *
+     * @param doorUID
+     *     The UID of the door.
+     * @return True if the latest data of the door has not been handed to the database yet.
+     */
+    synchronized boolean isPending(long doorUID)
+    {
+        return pending.containsKey(doorUID);
+    }
+
+    private void write(List<PendingSync> syncs)
+    {
+        final List<IStorage.DoorSyncData> data = new ArrayList<>(syncs.size());
+        syncs.forEach(sync -> data.add(sync.data()));
+
+        boolean[] results;
+        try
+        {
+            results = db.syncDoorData(data);
+        }
+        catch (Exception e)
+        {
+            log.at(Level.SEVERE).withCause(e).log("Failed to synchronize %d doors!", syncs.size());
+            results = new boolean[syncs.size()];
+        }
+
+        synchronized (this)
+        {
+            writeCount += syncs.size();
+        }
+
+        for (int idx = 0; idx < syncs.size(); ++idx)
+            syncs.get(idx).result().complete(results[idx]);
+    }
+
+    /**
+     * @return A summary of the current state of this queue.
+     */
+    synchronized String getDebugInformation()
+    {
+        return "Door sync queue: " + (isEnabled() ? "enabled" : "disabled") +
+            "\nPending door syncs: " + pending.size() +
+            "\nRequested door syncs: " + requestCount +
+            "\nWritten door syncs: " + writeCount;
+    }
+
+    private record PendingSync(IStorage.DoorSyncData data, CompletableFuture<Boolean> result)
+    {
+    }
+}
@@ -3,22 +3,61 @@ package nl.pim16aap2.bigdoors.managers;
 import nl.pim16aap2.bigdoors.api.IConfigLoader;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
 import nl.pim16aap2.bigdoors.api.IPermissionsManager;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.cache.timed.TimedCache;
 import nl.pim16aap2.bigdoors.util.Limit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.time.Duration;
 import java.util.OptionalInt;
+import java.util.UUID;
 
 @Singleton
-public class LimitsManager
+public class LimitsManager extends Restartable
 {
+    /**
+     * The amount of time the limits of a player are cached.
+     * <p>
+     * The cached limits of a player are invalidated when they join or leave the server (see
+     * {@link #invalidate(UUID)}), but not every change to the permissions of a player can be observed. This is the
+     * upper bound on the amount of time it takes for such changes to take effect.
+     */
+    static final Duration CACHE_EXPIRY = Duration.ofMinutes(1);
+
+    /**
+     * The cached value of a limit that the player can bypass.
+     */
+    private static final int BYPASS = -2;
+
+    /**
+     * The cached value of a limit for which the player does not have a personal limit.
+     */
+    private static final int NO_LIMIT = -1;
+
+    private static final Limit[] LIMITS = Limit.values();
 
     private final IPermissionsManager permissionsManager;
     private final IConfigLoader config;
 
+    /**
+     * The permission-based values of all {@link Limit}s of players mapped by the {@link UUID}s of the players.
+     * <p>
+     * Every array is indexed by {@link Limit#ordinal()} and contains either {@link #BYPASS}, {@link #NO_LIMIT}, or the
+     * (positive) personal limit of the player.
+     */
+    private final TimedCache<UUID, int[]> playerLimits = TimedCache.<UUID, int[]>builder()
+                                                                   .duration(CACHE_EXPIRY)
+                                                                   .cleanup(CACHE_EXPIRY)
+                                                                   .softReference(false)
+                                                                   .refresh(false)
+                                                                   .build();
+
     @Inject
-    public LimitsManager(IPermissionsManager permissionsManager, IConfigLoader config)
+    public LimitsManager(IPermissionsManager permissionsManager, IConfigLoader config, RestartableHolder holder)
     {
+        super(holder);
         this.permissionsManager = permissionsManager;
         this.config = config;
     }
@@ -26,6 +65,9 @@ public class LimitsManager
     /**
      * Gets the value of the {@link Limit} for the given player. It checks the global limit, any admin bypass
      * permission, and the player's personal limit.
+     * <p>
+     * The permissions of a player are only checked once for all limits. The results are cached until they are
+     * invalidated (see {@link #invalidate(UUID)}) or until they expire (see {@link #CACHE_EXPIRY}).
      *
      * @param player
      *     The player for whom to check the limit.
@@ -40,19 +82,58 @@ public class LimitsManager
      */
     public OptionalInt getLimit(IPPlayer player, Limit limit)
     {
-        final boolean hasBypass = permissionsManager.hasPermission(player, limit.getAdminPermission());
+        final int[] limits = playerLimits.computeIfAbsent(player.getUUID(), uuid -> computeLimits(player));
+        final int playerLimit = limits[limit.ordinal()];
         final OptionalInt globalLimit = limit.getGlobalLimit(config);
-        if (hasBypass)
+        if (playerLimit == BYPASS || playerLimit == NO_LIMIT)
             return globalLimit;
 
-        final OptionalInt playerLimit = permissionsManager.getMaxPermissionSuffix(player, limit.getUserPermission());
+        return globalLimit.isPresent() ? OptionalInt.of(Math.min(globalLimit.getAsInt(), playerLimit)) :
+               OptionalInt.of(playerLimit);
+    }
+
+    /**
+     * Retrieves the permission-based values of all {@link Limit}s of a player.
+     *
+     * @param player
+     *     The player.
+     * @return The values of all limits indexed by {@link Limit#ordinal()}.
+     */
+    private int[] computeLimits(IPPlayer player)
+    {
+        final int[] limits = new int[LIMITS.length];
+        for (final Limit limit : LIMITS)
+        {
+            if (permissionsManager.hasPermission(player, limit.getAdminPermission()))
+                limits[limit.ordinal()] = BYPASS;
+            else
+                limits[limit.ordinal()] =
+                    permissionsManager.getMaxPermissionSuffix(player, limit.getUserPermission()).orElse(NO_LIMIT);
+        }
+        return limits;
+    }
 
-        if (globalLimit.isPresent() && playerLimit.isPresent())
-            return OptionalInt.of(Math.min(globalLimit.getAsInt(), playerLimit.getAsInt()));
+    /**
+     * Invalidates the cached limits of a player, so their permissions are checked again the next time any of their
+     * limits is requested.
+     * <p>
+     * This should be called whenever the permissions of a player may have changed (e.g. when they join or leave the
+     * server).
+     *
+     * @param playerUUID
+     *     The {@link UUID} of the player.
+     */
+    public void invalidate(UUID playerUUID)
+    {
+        playerLimits.remove(playerUUID);
+    }
 
-        return globalLimit.isPresent() ? OptionalInt.of(globalLimit.getAsInt()) :
-               playerLimit.isPresent() ? OptionalInt.of(playerLimit.getAsInt()) :
-               OptionalInt.empty();
+    /**
+     * Invalidates the cached limits of all players. See {@link #invalidate(UUID)}.
+     */
+    public void invalidateAll()
+    {
+        playerLimits.clear();
     }
 
     /**
@@ -72,4 +153,15 @@ public class LimitsManager
         final OptionalInt limitValue = getLimit(player, limit);
         return limitValue.isPresent() && value > limitValue.getAsInt();
     }
+
+    @Override
+    public void initialize()
+    {
+    }
+
+    @Override
+    public void shutDown()
+    {
+        invalidateAll();
+    }
 }
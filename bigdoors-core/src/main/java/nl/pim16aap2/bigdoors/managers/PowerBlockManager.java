@@ -4,20 +4,26 @@ import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.IConfigLoader;
 import nl.pim16aap2.bigdoors.api.restartable.Restartable;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.LongBloomFilter;
+import nl.pim16aap2.bigdoors.data.LongMultimap;
 import nl.pim16aap2.bigdoors.data.cache.timed.TimedCache;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.DoorBase;
 import nl.pim16aap2.bigdoors.util.Util;
 import nl.pim16aap2.bigdoors.util.vector.Vector2Di;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.jetbrains.annotations.Nullable;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,6 +38,24 @@ import java.util.logging.Level;
 @Flogger
 public final class PowerBlockManager extends Restartable
 {
+    /**
+     * The radius (in chunks) of the area around a chunk whose power blocks are loaded together with the power blocks of
+     * that chunk. For example, a radius of 1 loads the power blocks of a 3x3 area of chunks in a single query.
+     */
+    static final int PREFETCH_RADIUS = 1;
+
+    /**
+     * The probability of false positives of the filter of power block positions of a world.
+     */
+    private static final double POWER_BLOCK_FILTER_FPP = 0.01;
+
+    /**
+     * The minimum number of power blocks the filter of power block positions of a world is sized for. The filter is
+     * always sized for at least twice the number of power blocks in the world, so it does not have to be rebuilt every
+     * time a door is added.
+     */
+    private static final int MIN_POWER_BLOCK_FILTER_CAPACITY = 1024;
+
     private final Map<String, PowerBlockWorld> powerBlockWorlds = new ConcurrentHashMap<>();
     private final IConfigLoader config;
     private final DatabaseManager databaseManager;
@@ -86,8 +110,7 @@ public final class PowerBlockManager extends Restartable
      *     The name of the world.
      * @return All {@link DoorBase}s that have a powerblock at a location in a world.
      */
-    // TODO: Try to have about 50% less CompletableFuture here.
-    public CompletableFuture<List<CompletableFuture<Optional<AbstractDoor>>>> doorsFromPowerBlockLoc(
+    public CompletableFuture<List<AbstractDoor>> doorsFromPowerBlockLoc(
         Vector3Di loc,
         String worldName)
     {
@@ -98,13 +121,58 @@ public final class PowerBlockManager extends Restartable
             return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
-        return powerBlockWorld.getPowerBlocks(loc).handle(
-            (list, throwable) ->
-            {
-                final List<CompletableFuture<Optional<AbstractDoor>>> doorBases = new ArrayList<>();
-                list.forEach(doorUID -> doorBases.add(databaseManager.getDoor(doorUID)));
-                return doorBases;
-            }).exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
+        return powerBlockWorld.getPowerBlocks(loc).thenCompose(
+            doorUIDs -> doorUIDs.isEmpty() ?
+                        CompletableFuture.completedFuture(Collections.emptyList()) :
+                        databaseManager.getDoors(doorUIDs))
+                              .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
+    }
+
+    /**
+     * Checks if there may be a power block at a position in a world.
+     * <p>
+     * This check is cheap and does not allocate anything, so it can be used to discard positions before looking them
+     * up using {@link #doorsFromPowerBlockLoc(Vector3Di, String)}.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param x
+     *     The x coordinate of the position.
+     * @param y
+     *     The y coordinate of the position.
+     * @param z
+     *     The z coordinate of the position.
+     * @return False if there is definitely no power block at the position, true if there may be one.
+     */
+    public boolean mayBePowerBlock(String worldName, int x, int y, int z)
+    {
+        final PowerBlockWorld powerBlockWorld = powerBlockWorlds.get(worldName);
+        return powerBlockWorld != null && powerBlockWorld.isBigDoorsWorld() &&
+            powerBlockWorld.mayContainPowerBlock(x, y, z);
+    }
+
+    /**
+     * Loads the power blocks in a chunk and in the chunks around it, so they are available as soon as they are needed.
+     * <p>
+     * Chunks whose power blocks have already been loaded and chunks that are known not to contain any power blocks are
+     * skipped. When the chunk itself is known not to contain any power blocks, nothing is loaded at all.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param chunk
+     *     The location (x,z) of the chunk in chunk-space.
+     */
+    public void prefetchChunk(String worldName, Vector2Di chunk)
+    {
+        final PowerBlockWorld powerBlockWorld = powerBlockWorlds.get(worldName);
+        if (powerBlockWorld == null)
+        {
+            log.at(Level.WARNING).log("Failed to load power blocks for world: '%s'.", worldName);
+            return;
+        }
+        final long chunkId = Util.getChunkId(chunk);
+        if (powerBlockWorld.isBigDoorsWorld() && powerBlockWorld.mayContainPowerBlocks(chunkId))
+            powerBlockWorld.getPowerBlockChunk(chunkId);
     }
 
     /**
@@ -135,11 +203,10 @@ public final class PowerBlockManager extends Restartable
      * @param newPos
      *     The new position.
      */
-    @SuppressWarnings("unused")
     public void updatePowerBlockLoc(AbstractDoor door, Vector3Di oldPos, Vector3Di newPos)
     {
         door.setPowerBlockPosition(newPos);
-        door.syncData();
+        final CompletableFuture<Boolean> syncResult = door.syncData();
         final PowerBlockWorld powerBlockWorld = powerBlockWorlds.get(door.getWorld().worldName());
         if (powerBlockWorld == null)
         {
@@ -147,9 +214,15 @@ public final class PowerBlockManager extends Restartable
             return;
         }
 
-        // Invalidate both the old and the new positions.
-        powerBlockWorld.invalidatePosition(oldPos);
-        powerBlockWorld.invalidatePosition(newPos);
+        // Invalidate both the old and the new positions. This has to wait until the new position has been written to
+        // the database, as the old position might be loaded into the cache again otherwise.
+        syncResult.whenComplete(
+            (result, throwable) ->
+            {
+                powerBlockWorld.addPowerBlock(newPos);
+                powerBlockWorld.invalidatePosition(oldPos);
+                powerBlockWorld.invalidatePosition(newPos);
+            });
     }
 
     /**
@@ -168,6 +241,7 @@ public final class PowerBlockManager extends Restartable
             log.at(Level.WARNING).log("Failed to load power blocks for world: '%s'.", worldName);
             return;
         }
+        powerBlockWorld.addPowerBlock(pos);
         powerBlockWorld.invalidatePosition(pos);
         powerBlockWorld.checkBigDoorsWorldStatus();
     }
@@ -188,10 +262,33 @@ public final class PowerBlockManager extends Restartable
             log.at(Level.WARNING).log("Failed to load power blocks for world: '%s'.", worldName);
             return;
         }
-        powerBlockWorld.invalidatePosition(new Vector3Di(chunk.x(), 64, chunk.y()));
+        powerBlockWorld.invalidateChunk(Util.getChunkId(chunk));
         powerBlockWorld.checkBigDoorsWorldStatus();
     }
 
+    /**
+     * Packs a position into a single long. The x and z coordinates use 26 bits each and the y coordinate uses 12 bits,
+     * which covers all valid positions in a world.
+     *
+     * @param x
+     *     The x coordinate of the position.
+     * @param y
+     *     The y coordinate of the position.
+     * @param z
+     *     The z coordinate of the position.
+     * @return The packed position.
+     */
+    public static long getPositionKey(int x, int y, int z)
+    {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+    @Override
+    public void initialize()
+    {
+        powerBlockWorlds.values().forEach(PowerBlockWorld::loadPowerBlocks);
+    }
+
     @Override
     public void shutDown()
     {
@@ -208,6 +305,36 @@ public final class PowerBlockManager extends Restartable
         private final String worldName;
         private volatile boolean isBigDoorsWorld = false;
 
+        /**
+         * The sorted IDs of all chunks in this world that are known to contain at least 1 power block.
+         * <p>
+         * This array is rebuilt whenever the power blocks of this world are loaded from the database. In between,
+         * chunks are only ever added, so it may contain chunks whose power blocks have been removed since. Those only
+         * cost a regular lookup.
+         * <p>
+         * This array is replaced whenever a chunk is added, so it can be read without any synchronization.
+         */
+        private volatile long[] powerBlockChunkIds = new long[0];
+
+        /**
+         * Filter of the positions of all power blocks in this world. See {@link #getPositionKey(int, int, int)}.
+         * <p>
+         * This is null until the power blocks of this world have been loaded. Until then, every position may contain a
+         * power block. When the power blocks could not be loaded, they are loaded again on the next lookup.
+         */
+        private volatile @Nullable LongBloomFilter powerBlockFilter = null;
+
+        /**
+         * The number of positions that have been added to {@link #powerBlockFilter}.
+         */
+        private int powerBlockFilterSize = 0;
+
+        /**
+         * The power blocks that were added while the power blocks of this world were being loaded from the database.
+         * This is null when they are not being loaded.
+         */
+        private @Nullable List<Vector3Di> pendingPowerBlocks = null;
+
         /**
          * TimedCache of all {@link PowerBlockChunk}s in this world.
          * <p>
@@ -226,6 +353,132 @@ public final class PowerBlockManager extends Restartable
         {
             this.worldName = worldName;
             checkBigDoorsWorldStatus();
+            loadPowerBlocks();
+        }
+
+        /**
+         * Loads the positions of all power blocks in this world from the database and rebuilds
+         * {@link #powerBlockFilter} and {@link #powerBlockChunkIds} from them.
+         * <p>
+         * Power blocks that are added while they are being loaded are included as well.
+         */
+        private void loadPowerBlocks()
+        {
+            synchronized (this)
+            {
+                if (pendingPowerBlocks != null)
+                    return;
+                pendingPowerBlocks = new ArrayList<>();
+            }
+            databaseManager.getPowerBlockPositions(worldName).whenComplete(this::onPowerBlocksLoaded);
+        }
+
+        private synchronized void onPowerBlocksLoaded(
+            @Nullable List<Vector3Di> positions, @Nullable Throwable throwable)
+        {
+            final List<Vector3Di> pending = Objects.requireNonNull(pendingPowerBlocks);
+            pendingPowerBlocks = null;
+            if (positions == null)
+            {
+                log.at(Level.SEVERE).withCause(throwable)
+                   .log("Failed to load power blocks for world: '%s'.", worldName);
+                return;
+            }
+
+            final List<Vector3Di> all = new ArrayList<>(positions.size() + pending.size());
+            all.addAll(positions);
+            all.addAll(pending);
+
+            final LongBloomFilter filter =
+                new LongBloomFilter(Math.max(MIN_POWER_BLOCK_FILTER_CAPACITY, 2 * all.size()), POWER_BLOCK_FILTER_FPP);
+            final long[] chunkIds = new long[all.size()];
+            for (int idx = 0; idx < all.size(); ++idx)
+            {
+                final Vector3Di pos = all.get(idx);
+                filter.put(getPositionKey(pos.x(), pos.y(), pos.z()));
+                chunkIds[idx] = Util.getChunkId(pos);
+            }
+            Arrays.sort(chunkIds);
+
+            powerBlockChunkIds = Arrays.stream(chunkIds).distinct().toArray();
+            powerBlockFilterSize = all.size();
+            powerBlockFilter = filter;
+            log.at(Level.FINE)
+               .log("Loaded %d power blocks in world '%s' using filter %s", all.size(), worldName, filter);
+        }
+
+        /**
+         * Registers a new power block. This should only be called once the power block has been written to the
+         * database, as it may be lost when the power blocks of this world are reloaded in the meantime otherwise.
+         *
+         * @param pos
+         *     The position of the power block.
+         */
+        private synchronized void addPowerBlock(Vector3Di pos)
+        {
+            if (pendingPowerBlocks != null)
+                pendingPowerBlocks.add(pos);
+            addPowerBlockChunk(Util.getChunkId(pos));
+
+            final @Nullable LongBloomFilter filter = powerBlockFilter;
+            if (filter == null)
+                return;
+            filter.put(getPositionKey(pos.x(), pos.y(), pos.z()));
+            // Rebuild the filter once it contains more positions than it was sized for, as it will produce more and
+            // more false positives otherwise.
+            if (++powerBlockFilterSize > filter.getCapacity())
+                loadPowerBlocks();
+        }
+
+        /**
+         * Adds a chunk to the chunks that are known to contain at least 1 power block.
+         *
+         * @param chunkId
+         *     The id of the chunk.
+         */
+        private synchronized void addPowerBlockChunk(long chunkId)
+        {
+            final long[] current = powerBlockChunkIds;
+            final int idx = Arrays.binarySearch(current, chunkId);
+            if (idx >= 0)
+                return;
+
+            final int insertionPoint = -(idx + 1);
+            final long[] updated = new long[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insertionPoint);
+            updated[insertionPoint] = chunkId;
+            System.arraycopy(current, insertionPoint, updated, insertionPoint + 1, current.length - insertionPoint);
+            powerBlockChunkIds = updated;
+        }
+
+        /**
+         * Checks if a chunk may contain any power blocks. Only chunks for which this is true have to be looked up.
+         *
+         * @param chunkId
+         *     The id of the chunk.
+         * @return False if the chunk is known not to contain any power blocks.
+         */
+        private boolean mayContainPowerBlocks(long chunkId)
+        {
+            return powerBlockFilter == null || Arrays.binarySearch(powerBlockChunkIds, chunkId) >= 0;
+        }
+
+        /**
+         * Checks if there may be a power block at a position. Only positions for which this is true have to be looked
+         * up.
+         *
+         * @param x
+         *     The x coordinate of the position.
+         * @param y
+         *     The y coordinate of the position.
+         * @param z
+         *     The z coordinate of the position.
+         * @return False if there is definitely no power block at the position.
+         */
+        private boolean mayContainPowerBlock(int x, int y, int z)
+        {
+            final @Nullable LongBloomFilter filter = powerBlockFilter;
+            return filter == null || filter.mightContain(getPositionKey(x, y, z));
         }
 
         /**
@@ -250,27 +503,72 @@ public final class PowerBlockManager extends Restartable
             if (!isBigDoorsWorld())
                 return CompletableFuture.completedFuture(Collections.emptyList());
 
-            final long chunkId = Util.getChunkId(loc);
+            // The power blocks may have failed to load before, in which case no position can be rejected.
+            if (powerBlockFilter == null)
+                loadPowerBlocks();
 
-            if (!powerBlockChunks.containsKey(chunkId))
-            {
-                final PowerBlockChunk powerBlockChunk =
-                    powerBlockChunks.put(chunkId, new PowerBlockChunk());
+            final long chunkId = Util.getChunkId(loc);
+            if (!mayContainPowerBlock(loc.x(), loc.y(), loc.z()) || !mayContainPowerBlocks(chunkId))
+                return CompletableFuture.completedFuture(Collections.emptyList());
 
-                return databaseManager.getPowerBlockData(chunkId).handle(
-                    (map, exception) ->
-                    {
-                        powerBlockChunk.setPowerBlocks(map);
+            return getPowerBlockChunk(chunkId).getPowerBlocks(loc)
+                                              .exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
+        }
 
-                        final List<Long> doorUIDs = new ArrayList<>(map.size());
-                        map.forEach((key, value) -> doorUIDs.addAll(value));
-                        return doorUIDs;
-                    }).exceptionally(ex -> Util.exceptionally(ex, Collections.emptyList()));
-            }
+        /**
+         * Gets a chunk from the cache. If the chunk is not cached yet, it is loaded together with all other chunks in
+         * {@link #PREFETCH_RADIUS} around it that are not cached yet and that may contain power blocks.
+         *
+         * @param chunkId
+         *     The id of the chunk.
+         * @return The chunk. Its power blocks may still be loading.
+         */
+        private PowerBlockChunk getPowerBlockChunk(long chunkId)
+        {
+            return powerBlockChunks.get(chunkId).orElseGet(() -> loadChunks(chunkId));
+        }
 
-            return CompletableFuture.completedFuture(powerBlockChunks.get(chunkId)
-                                                                     .map((entry) -> entry.getPowerBlocks(loc))
-                                                                     .orElseGet(Collections::emptyList));
+        /**
+         * Loads a chunk and all other chunks in {@link #PREFETCH_RADIUS} around it that are not cached yet, using a
+         * single query. Surrounding chunks that are known not to contain any power blocks (see
+         * {@link #mayContainPowerBlocks(long)}) are not loaded, as they would never be looked up.
+         *
+         * @param chunkId
+         *     The id of the chunk at the center of the area to load.
+         * @return The chunk at the center of the area.
+         */
+        private synchronized PowerBlockChunk loadChunks(long chunkId)
+        {
+            // The chunk may have been loaded by another thread in the meantime.
+            final Optional<PowerBlockChunk> existing = powerBlockChunks.get(chunkId);
+            if (existing.isPresent())
+                return existing.get();
+
+            final Vector2Di center = Util.getChunkFromId(chunkId);
+            final Map<Long, PowerBlockChunk> pending = new HashMap<>();
+            for (int x = center.x() - PREFETCH_RADIUS; x <= center.x() + PREFETCH_RADIUS; ++x)
+                for (int z = center.y() - PREFETCH_RADIUS; z <= center.y() + PREFETCH_RADIUS; ++z)
+                {
+                    final long id = Util.getChunkId(x, z);
+                    if (id == chunkId || (mayContainPowerBlocks(id) && !powerBlockChunks.containsKey(id)))
+                        pending.put(id, powerBlockChunks.put(id, new PowerBlockChunk()));
+                }
+
+            databaseManager.getPowerBlockData(new ArrayList<>(pending.keySet())).whenComplete(
+                (result, throwable) ->
+                {
+                    if (throwable != null)
+                    {
+                        log.at(Level.SEVERE).withCause(throwable).log("Failed to load power blocks!");
+                        // Make sure the chunks will be loaded again the next time they are needed.
+                        pending.forEach(powerBlockChunks::remove);
+                    }
+                    pending.forEach(
+                        (id, chunk) -> chunk.setPowerBlocks(
+                            result == null ? LongMultimap.EMPTY : result.getOrDefault(id, LongMultimap.EMPTY)));
+                });
+
+            return pending.get(chunkId);
         }
 
         /**
@@ -281,7 +579,18 @@ public final class PowerBlockManager extends Restartable
          */
         private void invalidatePosition(Vector3Di pos)
         {
-            powerBlockChunks.remove(Util.getChunkId(pos));
+            invalidateChunk(Util.getChunkId(pos));
+        }
+
+        /**
+         * Removes a chunk from the cache.
+         *
+         * @param chunkId
+         *     The id of the chunk.
+         */
+        private void invalidateChunk(long chunkId)
+        {
+            powerBlockChunks.remove(chunkId);
         }
 
         /**
@@ -298,6 +607,11 @@ public final class PowerBlockManager extends Restartable
         void clear()
         {
             powerBlockChunks.clear();
+            synchronized (this)
+            {
+                powerBlockFilter = null;
+                powerBlockChunkIds = new long[0];
+            }
         }
     }
 
@@ -309,18 +623,19 @@ public final class PowerBlockManager extends Restartable
     private static final class PowerBlockChunk
     {
         /**
-         * Map that contains all power blocks in this chunk.
+         * Map that contains all power blocks in this chunk. This is completed once the power blocks have been loaded
+         * from the database.
          * <p>
          * Key: Hashed locations (in chunk-space coordinates),
          * {@link Util#simpleChunkSpaceLocationhash(int, int, int)}.
          * <p>
-         * Value: List of UIDs of all doors whose power block occupy this space.
+         * Values: The UIDs of all doors whose power block occupy this space.
          */
-        private Map<Integer, List<Long>> powerBlocks = Collections.emptyMap();
+        private final CompletableFuture<LongMultimap> powerBlocks = new CompletableFuture<>();
 
-        private void setPowerBlocks(Map<Integer, List<Long>> powerBlocks)
+        private void setPowerBlocks(LongMultimap powerBlocks)
         {
-            this.powerBlocks = powerBlocks;
+            this.powerBlocks.complete(powerBlocks);
         }
 
         /**
@@ -330,23 +645,25 @@ public final class PowerBlockManager extends Restartable
          *     The location to check.
          * @return All UIDs of doors whose power blocks are in the given location.
          */
-        private List<Long> getPowerBlocks(Vector3Di loc)
+        private CompletableFuture<List<Long>> getPowerBlocks(Vector3Di loc)
         {
-            if (!isPowerBlockChunk())
-                return Collections.emptyList();
-
-            return powerBlocks.getOrDefault(Util.simpleChunkSpaceLocationhash(loc.x(), loc.y(), loc.z()),
-                                            Collections.emptyList());
+            final int locationHash = Util.simpleChunkSpaceLocationhash(loc.x(), loc.y(), loc.z());
+            final @Nullable LongMultimap loaded = powerBlocks.getNow(null);
+            if (loaded != null)
+                return CompletableFuture.completedFuture(getDoorUIDs(loaded, locationHash));
+            return powerBlocks.thenApply(map -> getDoorUIDs(map, locationHash));
         }
 
-        /**
-         * Updates if this chunk contains more than 0 power blocks.
-         *
-         * @return True if this chunk contains more than 0 doors.
-         */
-        private boolean isPowerBlockChunk()
+        private static List<Long> getDoorUIDs(LongMultimap powerBlocks, int locationHash)
         {
-            return !powerBlocks.isEmpty();
+            if (!powerBlocks.containsKey(locationHash))
+                return Collections.emptyList();
+
+            final long[] doorUIDs = powerBlocks.get(locationHash);
+            final List<Long> ret = new ArrayList<>(doorUIDs.length);
+            for (final long doorUID : doorUIDs)
+                ret.add(doorUID);
+            return ret;
         }
     }
 }
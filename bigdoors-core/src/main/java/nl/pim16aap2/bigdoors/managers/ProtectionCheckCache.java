@@ -0,0 +1,230 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.IPExecutor;
+import nl.pim16aap2.bigdoors.api.IPPlayer;
+import nl.pim16aap2.bigdoors.api.IPWorld;
+import nl.pim16aap2.bigdoors.api.IProtectionCompatManager;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Caches the results of checking if players are allowed to break all blocks in a cuboid by the hooked protection
+ * plugins (see {@link IProtectionCompatManager}).
+ * <p>
+ * Protection plugins can be slow to evaluate large cuboids, while the same door is often toggled by the same player
+ * several times in a short period. The results are therefore cached per player, world, and cuboid for
+ * {@link IConfigLoader#protectionCheckCacheTime()} milliseconds.
+ * <p>
+ * Changes to the claims or regions of protection plugins cannot be observed, so they take effect once the cached
+ * results expire. The results of a player are invalidated explicitly when they join or leave the server (see
+ * {@link #invalidate(UUID)}) and all results are invalidated when the set of hooked protection plugins changes (see
+ * {@link #invalidateAll()}).
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class ProtectionCheckCache extends Restartable implements IDebuggable
+{
+    private final IProtectionCompatManager protectionCompatManager;
+    private final IConfigLoader config;
+    private final IPExecutor executor;
+    private final LongSupplier nanoTime;
+
+    private final Map<Key, Verdict> verdicts = new ConcurrentHashMap<>();
+
+    /**
+     * The time (in nanoseconds) after which expired verdicts should be removed from {@link #verdicts}.
+     */
+    private volatile long nextCleanup = Long.MIN_VALUE;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    ProtectionCheckCache(
+        RestartableHolder holder, IProtectionCompatManager protectionCompatManager, IConfigLoader config,
+        IPExecutor executor, DebuggableRegistry debuggableRegistry, LongSupplier nanoTime)
+    {
+        super(holder);
+        this.protectionCompatManager = protectionCompatManager;
+        this.config = config;
+        this.executor = executor;
+        this.nanoTime = nanoTime;
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    @Inject
+    public ProtectionCheckCache(
+        RestartableHolder holder, IProtectionCompatManager protectionCompatManager, IConfigLoader config,
+        IPExecutor executor, DebuggableRegistry debuggableRegistry)
+    {
+        this(holder, protectionCompatManager, config, executor, debuggableRegistry, System::nanoTime);
+    }
+
+    /**
+     * Check if a player can break all blocks in a cuboid.
+     * <p>
+     * If a valid result of an earlier check exists, that result is returned without querying the protection plugins.
+     *
+     * @param player
+     *     The {@link IPPlayer}.
+     * @param cuboid
+     *     The {@link Cuboid} to check.
+     * @param world
+     *     The world.
+     * @return The name of the IProtectionCompat that objects, if any, or an empty Optional if allowed by all compats.
+     */
+    public Optional<String> canBreakBlocksBetweenLocs(IPPlayer player, Cuboid cuboid, IPWorld world)
+    {
+        final long ttl = TimeUnit.MILLISECONDS.toNanos(config.protectionCheckCacheTime());
+        if (ttl <= 0)
+            return check(player, cuboid, world);
+
+        final Key key = new Key(player.getUUID(), world.worldName(), cuboid);
+        final @Nullable Verdict verdict = verdicts.get(key);
+        if (verdict != null && nanoTime.getAsLong() < verdict.expiry())
+        {
+            hits.incrementAndGet();
+            return verdict.result();
+        }
+
+        misses.incrementAndGet();
+        final Optional<String> result = check(player, cuboid, world);
+        final long now = nanoTime.getAsLong();
+        verdicts.put(key, new Verdict(result, now + ttl));
+        cleanup(now, ttl);
+        return result;
+    }
+
+    /**
+     * Checks if a player can break all blocks in a cuboid asynchronously, so the result is cached by the time it is
+     * needed.
+     * <p>
+     * This only does anything when {@link IConfigLoader#asyncProtectionChecks()} is enabled and the cache is not
+     * disabled. Otherwise, the check is left to {@link #canBreakBlocksBetweenLocs(IPPlayer, Cuboid, IPWorld)}.
+     *
+     * @param player
+     *     The {@link IPPlayer}.
+     * @param cuboid
+     *     The {@link Cuboid} to check.
+     * @param world
+     *     The world.
+     * @return A future that is completed once the result has been cached. This future is never completed
+     * exceptionally.
+     */
+    public CompletableFuture<Void> checkAhead(IPPlayer player, Cuboid cuboid, IPWorld world)
+    {
+        if (!config.asyncProtectionChecks() || config.protectionCheckCacheTime() <= 0)
+            return CompletableFuture.completedFuture(null);
+
+        return executor
+            .supplyAsync(() -> canBreakBlocksBetweenLocs(player, cuboid, world))
+            .<Void>thenApply(result -> null)
+            .exceptionally(
+                throwable ->
+                {
+                    log.at(Level.SEVERE).withCause(throwable)
+                       .log("Failed to check protection of %s in world %s for player %s!", cuboid, world, player);
+                    return null;
+                });
+    }
+
+    private Optional<String> check(IPPlayer player, Cuboid cuboid, IPWorld world)
+    {
+        return protectionCompatManager.canBreakBlocksBetweenLocs(player, cuboid.getMin(), cuboid.getMax(), world);
+    }
+
+    /**
+     * Removes all expired verdicts at most once every ttl.
+     */
+    private void cleanup(long now, long ttl)
+    {
+        if (now < nextCleanup)
+            return;
+        nextCleanup = now + ttl;
+        verdicts.values().removeIf(verdict -> now >= verdict.expiry());
+    }
+
+    /**
+     * Removes the cached results of a player, so the protection plugins are queried again the next time they toggle a
+     * door.
+     * <p>
+     * Some protection plugins only resolve the groups or permissions of a player while they are online, so the results
+     * of a player should not outlive their session.
+     *
+     * @param playerUUID
+     *     The {@link UUID} of the player.
+     */
+    public void invalidate(UUID playerUUID)
+    {
+        verdicts.keySet().removeIf(key -> key.playerUUID().equals(playerUUID));
+    }
+
+    /**
+     * Invalidates all cached results.
+     * <p>
+     * This should be called whenever the set of hooked protection plugins changes.
+     */
+    public void invalidateAll()
+    {
+        verdicts.clear();
+    }
+
+    /**
+     * @return The number of cached results, including any expired results that have not been removed yet.
+     */
+    public int getSize()
+    {
+        return verdicts.size();
+    }
+
+    @Override
+    public void initialize()
+    {
+    }
+
+    @Override
+    public void shutDown()
+    {
+        invalidateAll();
+    }
+
+    @Override
+    public String getDebugInformation()
+    {
+        return "Protection check cache: " + verdicts.size() + " entries, " +
+            hits.get() + " hits, " + misses.get() + " misses";
+    }
+
+    private record Key(UUID playerUUID, String worldName, Cuboid cuboid)
+    {
+    }
+
+    /**
+     * @param result
+     *     The name of the IProtectionCompat that objected, if any.
+     * @param expiry
+     *     The time (in nanoseconds) at which this verdict expires.
+     */
+    private record Verdict(Optional<String> result, long expiry)
+    {
+    }
+}
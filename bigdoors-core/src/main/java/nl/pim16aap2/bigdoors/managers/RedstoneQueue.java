@@ -0,0 +1,339 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.doors.AbstractDoor;
+import nl.pim16aap2.bigdoors.doors.DoorToggleRequestBuilder;
+import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
+import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Processes redstone events on a dedicated, bounded thread pool.
+ * <p>
+ * Redstone events can be fired many times per tick (e.g. by redstone clocks), so the amount of work they can cause
+ * has to be limited. Events are put in a queue with a capacity of {@link IConfigLoader#redstoneQueueSize()} and are
+ * processed by {@link IConfigLoader#redstoneThreads()} threads. What happens when events arrive faster than they can
+ * be processed is determined by the {@link Policy} defined by {@link IConfigLoader#redstoneQueuePolicy()}.
+ * <p>
+ * The threads wait for the doors of an event to be looked up before they process the next event (see
+ * {@link #toggleDoorsAt(String, int, int, int)}). The lookups run on the thread pool of the {@link DatabaseManager},
+ * so this makes sure the bound of the queue also limits the number of lookups.
+ * <p>
+ * Doors are only toggled by redstone when they do not have any pending redstone toggles yet. Once the toggle request
+ * of a door has been handled on the main thread, the door can be toggled by redstone again.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class RedstoneQueue extends Restartable implements IDebuggable
+{
+    /**
+     * The maximum amount of time (in seconds) a redstone thread waits for the doors of an event to be looked up.
+     */
+    private static final long LOOKUP_TIMEOUT = 10;
+
+    private final IConfigLoader config;
+    private final PowerBlockManager powerBlockManager;
+    private final DoorToggleRequestBuilder doorToggleRequestBuilder;
+
+    private volatile @Nullable ThreadPoolExecutor executor;
+    private volatile Policy policy = Policy.COALESCE;
+
+    /**
+     * The positions of all events that are waiting to be processed. Only used for {@link Policy#COALESCE}.
+     */
+    private final Set<EventPosition> pendingEvents = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The UIDs of all doors with a pending redstone toggle.
+     */
+    private final Set<Long> pendingToggles = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong skippedToggleCount = new AtomicLong();
+
+    @Inject
+    public RedstoneQueue(
+        RestartableHolder holder, IConfigLoader config, PowerBlockManager powerBlockManager,
+        DoorToggleRequestBuilder doorToggleRequestBuilder, DebuggableRegistry debuggableRegistry)
+    {
+        super(holder);
+        this.config = config;
+        this.powerBlockManager = powerBlockManager;
+        this.doorToggleRequestBuilder = doorToggleRequestBuilder;
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    @Override
+    public synchronized void initialize()
+    {
+        shutDown();
+
+        final int threads = Math.max(1, config.redstoneThreads());
+        final int queueSize = Math.max(1, config.redstoneQueueSize());
+        policy = config.redstoneQueuePolicy();
+
+        final ThreadPoolExecutor newExecutor =
+            new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                   new ArrayBlockingQueue<>(queueSize), new RedstoneThreadFactory());
+        executor = newExecutor;
+    }
+
+    @Override
+    public synchronized void shutDown()
+    {
+        final @Nullable ThreadPoolExecutor currentExecutor = executor;
+        executor = null;
+        if (currentExecutor != null)
+            currentExecutor.shutdownNow();
+        pendingEvents.clear();
+        pendingToggles.clear();
+    }
+
+    /**
+     * Submits a redstone event to be processed.
+     * <p>
+     * When the {@link Policy#COALESCE} policy is used and there is already a pending event at the same position, the
+     * new event is merged into the pending event.
+     *
+     * @param worldName
+     *     The name of the world the event happened in.
+     * @param x
+     *     The x coordinate of the block that changed.
+     * @param y
+     *     The y coordinate of the block that changed.
+     * @param z
+     *     The z coordinate of the block that changed.
+     * @param task
+     *     The task that processes the event.
+     * @return True if the task was added to the queue or merged into a pending task, false if it was dropped.
+     */
+    public boolean submit(String worldName, int x, int y, int z, Runnable task)
+    {
+        submittedCount.incrementAndGet();
+
+        final @Nullable ThreadPoolExecutor currentExecutor = executor;
+        if (currentExecutor == null)
+        {
+            droppedCount.incrementAndGet();
+            log.at(Level.FINE).log("Dropping redstone event because the queue is not running!");
+            return false;
+        }
+
+        if (policy == Policy.DROP)
+            return execute(currentExecutor, task);
+
+        final EventPosition position = new EventPosition(worldName, PowerBlockManager.getPositionKey(x, y, z));
+        if (!pendingEvents.add(position))
+        {
+            coalescedCount.incrementAndGet();
+            return true;
+        }
+
+        final boolean accepted = execute(currentExecutor, () ->
+        {
+            // Remove the position before processing the event, so any events that happen while this event is being
+            // processed are not lost.
+            pendingEvents.remove(position);
+            task.run();
+        });
+        if (!accepted)
+            pendingEvents.remove(position);
+        return accepted;
+    }
+
+    private boolean execute(ThreadPoolExecutor target, Runnable task)
+    {
+        try
+        {
+            target.execute(task);
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            // Only log every 1000th drop, to avoid flooding the log when the queue is saturated.
+            final long dropped = droppedCount.incrementAndGet();
+            if (dropped % 1000 == 1)
+                log.at(Level.WARNING).log("Redstone queue is full! Dropped %d redstone events so far.", dropped);
+            return false;
+        }
+    }
+
+    /**
+     * Toggles all doors that have their power block at a given position.
+     * <p>
+     * Doors that already have a pending redstone toggle are skipped.
+     * <p>
+     * This blocks until the doors have been looked up, so it should only be called by tasks submitted to this queue
+     * (see {@link #submit(String, int, int, int, Runnable)}).
+     *
+     * @param worldName
+     *     The name of the world of the power block.
+     * @param x
+     *     The x coordinate of the power block.
+     * @param y
+     *     The y coordinate of the power block.
+     * @param z
+     *     The z coordinate of the power block.
+     */
+    public void toggleDoorsAt(String worldName, int x, int y, int z)
+    {
+        final CompletableFuture<Void> toggle =
+            powerBlockManager.doorsFromPowerBlockLoc(new Vector3Di(x, y, z), worldName).thenAccept(this::toggleDoors);
+        try
+        {
+            toggle.get(LOOKUP_TIMEOUT, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (TimeoutException e)
+        {
+            // The doors will still be toggled once they have been looked up.
+            log.at(Level.WARNING).log("Timed out looking up the doors with power block %d, %d, %d in world '%s'!",
+                                      x, y, z, worldName);
+        }
+        catch (ExecutionException e)
+        {
+            log.at(Level.SEVERE).withCause(e).log("Failed to toggle the doors at %d, %d, %d in world '%s'!",
+                                                  x, y, z, worldName);
+        }
+    }
+
+    private void toggleDoors(List<AbstractDoor> doors)
+    {
+        for (final AbstractDoor door : doors)
+        {
+            final long doorUID = door.getDoorUID();
+            if (!pendingToggles.add(doorUID))
+            {
+                skippedToggleCount.incrementAndGet();
+                continue;
+            }
+
+            try
+            {
+                doorToggleRequestBuilder.builder()
+                                        .door(door)
+                                        .doorActionCause(DoorActionCause.REDSTONE)
+                                        .doorActionType(DoorActionType.TOGGLE)
+                                        .build().execute()
+                                        .whenComplete((result, throwable) -> pendingToggles.remove(doorUID));
+            }
+            catch (Exception e)
+            {
+                pendingToggles.remove(doorUID);
+                log.at(Level.SEVERE).withCause(e).log("Failed to toggle door %d by redstone!", doorUID);
+            }
+        }
+    }
+
+    /**
+     * @return The number of events that are waiting to be processed.
+     */
+    public int getQueueDepth()
+    {
+        final @Nullable ThreadPoolExecutor currentExecutor = executor;
+        return currentExecutor == null ? 0 : currentExecutor.getQueue().size();
+    }
+
+    /**
+     * @return The total number of events that were dropped because the queue was full or not running.
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return The total number of events that were merged into a pending event at the same position.
+     */
+    public long getCoalescedCount()
+    {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return The total number of door toggles that were skipped because the door already had a pending toggle.
+     */
+    public long getSkippedToggleCount()
+    {
+        return skippedToggleCount.get();
+    }
+
+    @Override
+    public String getDebugInformation()
+    {
+        final @Nullable ThreadPoolExecutor currentExecutor = executor;
+        return "Redstone queue: " + (currentExecutor == null ? "stopped" : "running") +
+            "\nPolicy: " + policy +
+            "\nQueue depth: " + getQueueDepth() +
+            "\nActive threads: " + (currentExecutor == null ? 0 : currentExecutor.getActiveCount()) +
+            "\nSubmitted events: " + submittedCount.get() +
+            "\nCoalesced events: " + coalescedCount.get() +
+            "\nDropped events: " + droppedCount.get() +
+            "\nPending toggles: " + pendingToggles.size() +
+            "\nSkipped toggles: " + skippedToggleCount.get();
+    }
+
+    /**
+     * Describes what happens to redstone events when they arrive faster than they can be processed.
+     */
+    public enum Policy
+    {
+        /**
+         * Every event is added to the queue. When the queue is full, new events are dropped.
+         */
+        DROP,
+
+        /**
+         * Events at a position that already has a pending event are merged into the pending event. When the queue is
+         * full, events at new positions are dropped.
+         */
+        COALESCE
+    }
+
+    private record EventPosition(String worldName, long position)
+    {
+    }
+
+    private static final class RedstoneThreadFactory implements ThreadFactory
+    {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "BigDoors redstone " + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
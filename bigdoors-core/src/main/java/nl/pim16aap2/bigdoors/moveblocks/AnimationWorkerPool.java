@@ -0,0 +1,151 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+
+/**
+ * Splits the work of large animations into chunks that are processed in parallel.
+ * <p>
+ * Only animations with at least {@link IConfigLoader#parallelAnimationThreshold()} animated blocks are processed in
+ * parallel. Smaller animations are processed on the thread of the animation itself.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class AnimationWorkerPool extends Restartable implements IDebuggable
+{
+    /**
+     * The minimum number of blocks to process in a single chunk. Smaller chunks are not worth the overhead of
+     * scheduling them on another thread.
+     */
+    static final int MIN_CHUNK_SIZE = 512;
+
+    private final IConfigLoader config;
+
+    /**
+     * The pool to run the chunks on.
+     */
+    private volatile ForkJoinPool pool;
+
+    @Inject
+    public AnimationWorkerPool(RestartableHolder holder, IConfigLoader config, DebuggableRegistry debuggableRegistry)
+    {
+        super(holder);
+        this.config = config;
+        initPool();
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    @Override
+    public void initialize()
+    {
+        if (pool.isShutdown())
+            initPool();
+    }
+
+    @Override
+    public void shutDown()
+    {
+        pool.shutdownNow();
+    }
+
+    private void initPool()
+    {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Checks if an animation should be processed in parallel.
+     *
+     * @param blockCount
+     *     The number of animated blocks in the animation.
+     * @return True if the animation is large enough to be processed in parallel.
+     */
+    boolean shouldRunInParallel(int blockCount)
+    {
+        final int threshold = config.parallelAnimationThreshold();
+        return threshold > 0 && blockCount >= threshold && blockCount >= 2 * MIN_CHUNK_SIZE;
+    }
+
+    /**
+     * Processes the range [0, size) by splitting it into chunks that are processed in parallel.
+     * <p>
+     * This method blocks until all chunks have been processed. Once it returns, all changes made by the task are
+     * visible to the calling thread.
+     * <p>
+     * When the pool is not available, the entire range is processed on the calling thread.
+     *
+     * @param size
+     *     The total number of items to process.
+     * @param task
+     *     The task to run for each chunk. This task may be called concurrently for different (disjoint) ranges.
+     */
+    void run(int size, RangeTask task)
+    {
+        final ForkJoinPool currentPool = pool;
+        final int chunkCount = Math.min(currentPool.getParallelism(), Math.max(1, size / MIN_CHUNK_SIZE));
+        if (chunkCount < 2)
+        {
+            task.run(0, size);
+            return;
+        }
+
+        final int chunkSize = (size + chunkCount - 1) / chunkCount;
+        final ForkJoinTask<?>[] forks = new ForkJoinTask<?>[chunkCount - 1];
+        int forked = 0;
+        try
+        {
+            for (; forked < forks.length; ++forked)
+            {
+                final int fromIdx = forked * chunkSize;
+                final int toIdx = Math.min(size, fromIdx + chunkSize);
+                forks[forked] = currentPool.submit(() -> task.run(fromIdx, toIdx));
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.at(Level.FINE).withCause(e).log("Failed to submit animation chunk! Processing it serially instead.");
+        }
+
+        // Process everything that was not submitted to the pool (at least the last chunk) on this thread.
+        task.run(forked * chunkSize, size);
+
+        for (int idx = 0; idx < forked; ++idx)
+            forks[idx].join();
+    }
+
+    @Override
+    public String getDebugInformation()
+    {
+        return "AnimationWorkerPool: " + pool;
+    }
+
+    /**
+     * Represents a task that processes a range of indices.
+     */
+    @FunctionalInterface
+    interface RangeTask
+    {
+        /**
+         * Processes a range of indices.
+         *
+         * @param fromIdx
+         *     The first index to process (inclusive).
+         * @param toIdx
+         *     The last index to process (exclusive).
+         */
+        void run(int fromIdx, int toIdx);
+    }
+}
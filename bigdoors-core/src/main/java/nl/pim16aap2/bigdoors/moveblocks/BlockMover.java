@@ -3,13 +3,16 @@ package nl.pim16aap2.bigdoors.moveblocks;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
 import nl.pim16aap2.bigdoors.api.IPExecutor;
 import nl.pim16aap2.bigdoors.api.IPLocation;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
 import nl.pim16aap2.bigdoors.api.IPWorld;
 import nl.pim16aap2.bigdoors.api.animatedblock.AnimationContext;
+import nl.pim16aap2.bigdoors.api.animatedblock.AnimationDetailLevels;
 import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.api.animatedblock.IAnimationHook;
+import nl.pim16aap2.bigdoors.api.animatedblock.IAnimationUpdateBatch;
 import nl.pim16aap2.bigdoors.api.factories.IAnimatedBlockFactory;
 import nl.pim16aap2.bigdoors.api.factories.IPLocationFactory;
 import nl.pim16aap2.bigdoors.audio.IAudioPlayer;
@@ -26,6 +29,7 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -74,6 +78,48 @@ public abstract class BlockMover
     @ToString.Exclude
     private final AnimationHookManager animationHookManager;
 
+    @ToString.Exclude
+    private final KeyframeCache keyframeCache;
+
+    @ToString.Exclude
+    private final AnimationWorkerPool animationWorkerPool;
+
+    @ToString.Exclude
+    private final ObstructionChecker obstructionChecker;
+
+    /**
+     * The batch that collects the movement updates of the animated blocks, so they can be sent at the end of every
+     * step.
+     */
+    @ToString.Exclude
+    private IAnimationUpdateBatch updateBatch = IAnimationUpdateBatch.NONE;
+
+    /**
+     * Determines how often updates are sent to players depending on their distance to this animation.
+     */
+    @ToString.Exclude
+    private final AnimationDetailLevels detailLevels;
+
+    /**
+     * Whether the goal positions of the animated blocks are computed in parallel. See {@link AnimationWorkerPool}.
+     */
+    private boolean parallel = false;
+
+    /**
+     * The keyframes of this animation if they were already cached by a previous toggle. When available, the goal
+     * positions are replayed from these keyframes instead of being computed.
+     */
+    @ToString.Exclude
+    private @Nullable KeyframeCache.Keyframes cachedKeyframes;
+
+    /**
+     * The keyframes that are being recorded for this animation, so they can be replayed by later toggles.
+     */
+    @ToString.Exclude
+    private @Nullable KeyframeCache.Keyframes recordedKeyframes;
+
+    private @Nullable KeyframeCache.Key keyframesKey;
+
     protected MovementMethod movementMethod = MovementMethod.VELOCITY;
 
     @Getter
@@ -87,6 +133,29 @@ public abstract class BlockMover
     @ToString.Exclude
     protected ArrayList<IAnimatedBlock> animatedBlocks;
 
+    /**
+     * The blocks that are fully enclosed by other blocks and therefore cannot be seen during the animation.
+     * <p>
+     * These blocks are never spawned. Instead, they are moved to their final position directly when the animation is
+     * finished. See {@link #canCullInteriorBlocks()}.
+     */
+    @ToString.Exclude
+    private final List<IAnimatedBlock> hiddenBlocks = new ArrayList<>();
+
+    /**
+     * Whether interior blocks should be culled according to the config. See {@link IConfigLoader#cullInteriorBlocks()}.
+     */
+    private final boolean cullInteriorBlocks;
+
+    /**
+     * The positions of the {@link #animatedBlocks}. The index of a block in this buffer is the same as its index in
+     * {@link #animatedBlocks}.
+     * <p>
+     * This buffer is created when the animation is started.
+     */
+    @ToString.Exclude
+    protected PositionBuffer positions;
+
     protected int xMin;
 
     protected int yMin;
@@ -149,6 +218,12 @@ public abstract class BlockMover
         animatedBlockFactory = context.getAnimatedBlockFactory();
         locationFactory = context.getLocationFactory();
         animationHookManager = context.getAnimationHookManager();
+        keyframeCache = context.getKeyframeCache();
+        animationWorkerPool = context.getAnimationWorkerPool();
+        obstructionChecker = context.getObstructionChecker();
+        detailLevels = new AnimationDetailLevels(context.getConfig().animationHalfRateDistance(),
+                                                 context.getConfig().animationQuarterRateDistance());
+        cullInteriorBlocks = context.getConfig().cullInteriorBlocks();
 
         if (!context.getExecutor().isMainThread(Thread.currentThread().getId()))
             throw new Exception("BlockMovers must be called on the main thread!");
@@ -161,6 +236,7 @@ public abstract class BlockMover
         this.openDirection = openDirection;
         this.player = player;
         animatedBlocks = new ArrayList<>(door.getBlockCount());
+        positions = new PositionBuffer(Collections.emptyList());
         this.newCuboid = newCuboid;
         this.cause = cause;
         this.actionType = actionType;
@@ -189,6 +265,8 @@ public abstract class BlockMover
         for (final IAnimatedBlock animatedBlock : animatedBlocks)
             if (animatedBlock.getAnimatedBlockData().rotateBlock(openDirection))
                 animatedBlock.respawn();
+        for (final IAnimatedBlock hiddenBlock : hiddenBlocks)
+            hiddenBlock.getAnimatedBlockData().rotateBlock(openDirection);
     }
 
     /**
@@ -233,7 +311,11 @@ public abstract class BlockMover
 
         final Animation<IAnimatedBlock> animation = new Animation<>(animationDuration, door.getCuboid(), animatedBlocks,
                                                                     door);
-        final AnimationContext animationContext = new AnimationContext(door.getDoorType(), door, animation);
+        updateBatch = animatedBlockFactory.createUpdateBatch(door.getCuboid().getCenter(), detailLevels);
+        final AnimationContext animationContext =
+            new AnimationContext(door.getDoorType(), door, animation, updateBatch);
+        final @Nullable IAnimatedBlock @Nullable [] blockGrid =
+            cullInteriorBlocks && canCullInteriorBlocks() ? createBlockGrid() : null;
 
         try
         {
@@ -253,9 +335,18 @@ public abstract class BlockMover
                         final Vector3Dd startPosition = new Vector3Dd(xAxis + 0.5, yAxis, zAxis + 0.5);
                         final Vector3Dd finalPosition = getFinalPosition(startPosition, radius);
 
-                        animatedBlockFactory
-                            .create(location, radius, startAngle, bottom, onEdge, animationContext, finalPosition)
-                            .ifPresent(animatedBlocks::add);
+                        final @Nullable IAnimatedBlock animatedBlock =
+                            animatedBlockFactory
+                                .create(location, radius, startAngle, bottom, onEdge, animationContext,
+                                        finalPosition)
+                                .orElse(null);
+                        if (animatedBlock == null)
+                            continue;
+
+                        if (blockGrid == null)
+                            animatedBlocks.add(animatedBlock);
+                        else
+                            blockGrid[getGridIndex(xAxis, yAxis, zAxis)] = animatedBlock;
                     }
         }
         catch (Exception e)
@@ -265,7 +356,12 @@ public abstract class BlockMover
             return;
         }
 
+        if (blockGrid != null)
+            cullInteriorBlocks(blockGrid);
+
         animatedBlocks.trimToSize();
+        positions = new PositionBuffer(animatedBlocks);
+        parallel = animationWorkerPool.shouldRunInParallel(positions.size());
 
         if (!tryRemoveOriginalBlocks(false) || !tryRemoveOriginalBlocks(true))
             return;
@@ -277,7 +373,170 @@ public abstract class BlockMover
         if (animationSkipped)
             putBlocks(false);
         else
+        {
+            initKeyframes();
             animateEntities(animation);
+        }
+    }
+
+    /**
+     * Checks if the blocks that are fully enclosed by other blocks stay hidden for the entire animation.
+     * <p>
+     * This is the case when all blocks move together without rotating, so they never leave any gaps between them.
+     * When this is true and {@link IConfigLoader#cullInteriorBlocks()} is enabled, these blocks are not animated, but
+     * moved to their final position directly when the animation is finished.
+     *
+     * @return True if interior blocks can be culled from this animation.
+     */
+    protected boolean canCullInteriorBlocks()
+    {
+        return false;
+    }
+
+    /**
+     * Creates an array that can hold an animated block for every position in the cuboid of the door.
+     *
+     * @return The new array, or null if the cuboid is too large to fit in a single array.
+     */
+    private @Nullable IAnimatedBlock @Nullable [] createBlockGrid()
+    {
+        final long volume = (long) (xMax - xMin + 1) * (yMax - yMin + 1) * (zMax - zMin + 1);
+        if (volume > Integer.MAX_VALUE - 8)
+            return null;
+        return new IAnimatedBlock[(int) volume];
+    }
+
+    private int getGridIndex(int x, int y, int z)
+    {
+        return ((x - xMin) * (yMax - yMin + 1) + (y - yMin)) * (zMax - zMin + 1) + (z - zMin);
+    }
+
+    /**
+     * Divides the blocks in the grid between the {@link #animatedBlocks} and the {@link #hiddenBlocks}.
+     * <p>
+     * A block is hidden when it is not on the edge of the cuboid and all 6 of its neighbors are occluding blocks.
+     *
+     * @param blockGrid
+     *     The grid containing the blocks of the door. See {@link #getGridIndex(int, int, int)}.
+     */
+    private void cullInteriorBlocks(@Nullable IAnimatedBlock[] blockGrid)
+    {
+        for (int xAxis = xMin; xAxis <= xMax; ++xAxis)
+            for (int yAxis = yMax; yAxis >= yMin; --yAxis)
+                for (int zAxis = zMin; zAxis <= zMax; ++zAxis)
+                {
+                    final @Nullable IAnimatedBlock animatedBlock = blockGrid[getGridIndex(xAxis, yAxis, zAxis)];
+                    if (animatedBlock == null)
+                        continue;
+
+                    if (isHidden(blockGrid, xAxis, yAxis, zAxis))
+                        hiddenBlocks.add(animatedBlock);
+                    else
+                        animatedBlocks.add(animatedBlock);
+                }
+        log.at(Level.FINEST).log("Culled %d interior blocks of door %d", hiddenBlocks.size(), door.getDoorUID());
+    }
+
+    private boolean isHidden(@Nullable IAnimatedBlock[] blockGrid, int x, int y, int z)
+    {
+        if (x == xMin || x == xMax || y == yMin || y == yMax || z == zMin || z == zMax)
+            return false;
+        return isOccluding(blockGrid, x - 1, y, z) && isOccluding(blockGrid, x + 1, y, z) &&
+            isOccluding(blockGrid, x, y - 1, z) && isOccluding(blockGrid, x, y + 1, z) &&
+            isOccluding(blockGrid, x, y, z - 1) && isOccluding(blockGrid, x, y, z + 1);
+    }
+
+    private boolean isOccluding(@Nullable IAnimatedBlock[] blockGrid, int x, int y, int z)
+    {
+        final @Nullable IAnimatedBlock animatedBlock = blockGrid[getGridIndex(x, y, z)];
+        return animatedBlock != null && animatedBlock.getAnimatedBlockData().isOccluding();
+    }
+
+    /**
+     * Checks if this animation follows the exact same trajectory every time it is started for the same door, cuboid,
+     * and direction.
+     * <p>
+     * When this is the case, the goal positions of every step can be cached and replayed by later toggles. See
+     * {@link KeyframeCache}.
+     *
+     * @return True if the goal positions of this animation only depend on the number of ticks and the start and final
+     * positions of the animated blocks.
+     */
+    protected boolean isAnimationRepeatable()
+    {
+        return true;
+    }
+
+    /**
+     * Retrieves the keyframes of this animation from the {@link KeyframeCache} or prepares new keyframes to be
+     * recorded if they do not exist yet.
+     */
+    private void initKeyframes()
+    {
+        if (!isAnimationRepeatable())
+            return;
+
+        final KeyframeCache.Key key =
+            new KeyframeCache.Key(door.getDoorUID(), getClass(), door.getCuboid(), newCuboid, door.getRotationPoint(),
+                                  openDirection, animationDuration);
+        final long checksum = KeyframeCache.Keyframes.checksum(positions);
+
+        cachedKeyframes = keyframeCache.get(key, checksum);
+        if (cachedKeyframes == null)
+        {
+            keyframesKey = key;
+            recordedKeyframes = keyframeCache.createKeyframes(key, positions.size(), checksum);
+        }
+    }
+
+    /**
+     * Runs a task for all animated blocks, either in parallel or on the current thread.
+     *
+     * @param task
+     *     The task to run for the range of blocks.
+     */
+    private void processRange(AnimationWorkerPool.RangeTask task)
+    {
+        if (parallel)
+            animationWorkerPool.run(positions.size(), task);
+        else
+            task.run(0, positions.size());
+    }
+
+    /**
+     * Updates the goal positions of all animated blocks for a single step of the animation.
+     * <p>
+     * If the keyframes of this animation are available, they are used instead of computing the goal positions. If
+     * not, the computed goal positions are recorded, so they can be replayed later.
+     * <p>
+     * For large animations, the work is split into chunks that are processed in parallel. See
+     * {@link AnimationWorkerPool}.
+     *
+     * @param ticks
+     *     The number of ticks that have passed since the start of the animation.
+     */
+    private void updateGoalPositions(int ticks)
+    {
+        final @Nullable KeyframeCache.Keyframes cachedKeyframes = this.cachedKeyframes;
+        if (cachedKeyframes != null)
+        {
+            processRange((fromIdx, toIdx) -> cachedKeyframes.replay(ticks, positions, fromIdx, toIdx));
+            return;
+        }
+
+        processRange((fromIdx, toIdx) -> computeGoalPositions(ticks, fromIdx, toIdx));
+
+        final @Nullable KeyframeCache.Keyframes recordedKeyframes = this.recordedKeyframes;
+        final @Nullable KeyframeCache.Key keyframesKey = this.keyframesKey;
+        if (recordedKeyframes == null || keyframesKey == null)
+            return;
+
+        recordedKeyframes.record(ticks, positions);
+        if (recordedKeyframes.isComplete())
+        {
+            keyframeCache.put(keyframesKey, recordedKeyframes);
+            this.recordedKeyframes = null;
+        }
     }
 
     /**
@@ -293,7 +552,12 @@ public abstract class BlockMover
      */
     private boolean tryRemoveOriginalBlocks(boolean edgePass)
     {
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
+        return tryRemoveOriginalBlocks(animatedBlocks, edgePass) && tryRemoveOriginalBlocks(hiddenBlocks, edgePass);
+    }
+
+    private boolean tryRemoveOriginalBlocks(List<IAnimatedBlock> blocks, boolean edgePass)
+    {
+        for (final IAnimatedBlock animatedBlock : blocks)
         {
             try
             {
@@ -343,6 +607,20 @@ public abstract class BlockMover
                 log.at(Level.SEVERE).withCause(e).log("Failed to restore block: %s", animatedBlock);
             }
         }
+        for (final IAnimatedBlock hiddenBlock : hiddenBlocks)
+        {
+            try
+            {
+                final Vector3Dd startPos = hiddenBlock.getStartPosition();
+                hiddenBlock.getAnimatedBlockData().putBlock(new Vector3Di((int) startPos.x(),
+                                                                          (int) Math.round(startPos.y()),
+                                                                          (int) startPos.z()));
+            }
+            catch (Exception e)
+            {
+                log.at(Level.SEVERE).withCause(e).log("Failed to restore block: %s", hiddenBlock);
+            }
+        }
         doorActivityManager.processFinishedBlockMover(this, false);
     }
 
@@ -355,13 +633,63 @@ public abstract class BlockMover
      */
     protected abstract Vector3Dd getFinalPosition(IVector3D startLocation, float radius);
 
+    /**
+     * Computes the goal positions of the animated blocks for a single step of the animation and writes them to
+     * {@link #positions}.
+     * <p>
+     * Implementations should not allocate any objects per block, as this method is called for every block on every
+     * tick.
+     * <p>
+     * For large animations, this method may be called concurrently for disjoint ranges of blocks, so implementations
+     * must not modify any state other than the goal positions (and skip flags) of the blocks in the provided range.
+     *
+     * @param ticks
+     *     The number of ticks that have passed since the start of the animation.
+     * @param fromIdx
+     *     The index of the first block to process (inclusive).
+     * @param toIdx
+     *     The index of the last block to process (exclusive).
+     */
+    protected abstract void computeGoalPositions(int ticks, int fromIdx, int toIdx);
+
     /**
      * Runs a single step of the animation.
+     * <p>
+     * Overriding methods should not forget to call this method, as it is responsible for actually moving the animated
+     * blocks.
      *
      * @param ticks
      *     The number of ticks that have passed since the start of the animation.
      */
-    protected abstract void executeAnimationStep(int ticks);
+    protected void executeAnimationStep(int ticks)
+    {
+        updateGoalPositions(ticks);
+        applyGoalPositions();
+    }
+
+    /**
+     * Moves all animated blocks towards the goal positions stored in {@link #positions} using the
+     * {@link #movementMethod}.
+     * <p>
+     * The current positions in the buffer are updated as well. Once all blocks have been moved, the collected
+     * movement updates are flushed.
+     */
+    private void applyGoalPositions()
+    {
+        final int size = Math.min(positions.size(), animatedBlocks.size());
+        for (int idx = 0; idx < size; ++idx)
+        {
+            final IAnimatedBlock animatedBlock = animatedBlocks.get(idx);
+            positions.setCurrent(idx, animatedBlock.getCurrentX(), animatedBlock.getCurrentY(),
+                                 animatedBlock.getCurrentZ());
+
+            if (positions.consumeSkipped(idx))
+                continue;
+            movementMethod.apply(animatedBlock, positions.getGoalX(idx), positions.getGoalY(idx),
+                                 positions.getGoalZ(idx));
+        }
+        updateBatch.flush();
+    }
 
     private void executeAnimationStep(int counter, Animation<IAnimatedBlock> animation)
     {
@@ -382,8 +710,8 @@ public abstract class BlockMover
      */
     protected void executeFinishingStep(@SuppressWarnings("unused") int counter)
     {
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, animatedBlock.getFinalPosition());
+        positions.setGoalsToFinal(0, positions.size());
+        applyGoalPositions();
     }
 
     private void executeFinishingStep(int counter, Animation<IAnimatedBlock> animation)
@@ -404,7 +732,7 @@ public abstract class BlockMover
         animation.setState(AnimationState.STOPPING);
 
         for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            animatedBlock.setVelocity(new Vector3Dd(0D, 0D, 0D));
+            animatedBlock.setVelocity(0D, 0D, 0D);
 
         forEachHook("onAnimationEnding", IAnimationHook::onAnimationEnding);
 
@@ -544,11 +872,17 @@ public abstract class BlockMover
 
         for (final IAnimatedBlock animatedBlock : animatedBlocks)
             putSavedBlock(animatedBlock);
+        // Hidden blocks were never spawned, so they only need to be placed.
+        for (final IAnimatedBlock hiddenBlock : hiddenBlocks)
+            hiddenBlock.getAnimatedBlockData().putBlock(hiddenBlock.getFinalPosition());
+        // Other doors may have been checked for obstructions before the blocks were placed.
+        obstructionChecker.onBlocksChanged(world.worldName(), newCuboid);
 
         // Tell the door object it has been opened and what its new coordinates are.
         updateCoords(door);
 
         animatedBlocks.clear();
+        hiddenBlocks.clear();
 
         forEachHook("onAnimationCompleted", IAnimationHook::onAnimationCompleted);
 
@@ -598,33 +932,10 @@ public abstract class BlockMover
 
     private Cuboid getAnimationRegion()
     {
-        double xMin = Double.MAX_VALUE;
-        double yMin = Double.MAX_VALUE;
-        double zMin = Double.MAX_VALUE;
-
-        double xMax = Double.MIN_VALUE;
-        double yMax = Double.MIN_VALUE;
-        double zMax = Double.MIN_VALUE;
-
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-        {
-            final Vector3Dd pos = animatedBlock.getPosition();
-            if (pos.x() < xMin)
-                xMin = pos.x();
-            else if (pos.x() > xMax)
-                xMax = pos.x();
-
-            if (pos.y() < yMin)
-                yMin = pos.y();
-            else if (pos.y() > yMax)
-                yMax = pos.y();
-
-            if (pos.z() < zMin)
-                zMin = pos.z();
-            else if (pos.z() > zMax)
-                zMax = pos.z();
-        }
-        return Cuboid.of(new Vector3Dd(xMin, yMin, zMin), new Vector3Dd(xMax, yMax, zMax), Cuboid.RoundingMode.OUTWARD);
+        final double[] bounds = positions.getCurrentBounds();
+        return Cuboid.of(new Vector3Dd(bounds[0], bounds[1], bounds[2]),
+                         new Vector3Dd(bounds[3], bounds[4], bounds[5]),
+                         Cuboid.RoundingMode.OUTWARD);
     }
 
     private void forEachHook(String actionName, Consumer<IAnimationHook<IAnimatedBlock>> call)
@@ -657,12 +968,18 @@ public abstract class BlockMover
         private final IPExecutor executor;
         private final IAnimatedBlockFactory animatedBlockFactory;
         private final AnimationHookManager animationHookManager;
+        private final KeyframeCache keyframeCache;
+        private final AnimationWorkerPool animationWorkerPool;
+        private final ObstructionChecker obstructionChecker;
+        private final IConfigLoader config;
 
         @Inject
         public Context(
             DoorActivityManager doorActivityManager, AutoCloseScheduler autoCloseScheduler,
             IPLocationFactory locationFactory, IAudioPlayer audioPlayer, IPExecutor executor,
-            IAnimatedBlockFactory animatedBlockFactory, AnimationHookManager animationHookManager)
+            IAnimatedBlockFactory animatedBlockFactory, AnimationHookManager animationHookManager,
+            KeyframeCache keyframeCache, AnimationWorkerPool animationWorkerPool, ObstructionChecker obstructionChecker,
+            IConfigLoader config)
         {
             this.doorActivityManager = doorActivityManager;
             this.autoCloseScheduler = autoCloseScheduler;
@@ -671,6 +988,10 @@ public abstract class BlockMover
             this.executor = executor;
             this.animatedBlockFactory = animatedBlockFactory;
             this.animationHookManager = animationHookManager;
+            this.keyframeCache = keyframeCache;
+            this.animationWorkerPool = animationWorkerPool;
+            this.obstructionChecker = obstructionChecker;
+            this.config = config;
         }
     }
 
@@ -681,6 +1002,12 @@ public abstract class BlockMover
     @ToString
     public abstract static class MovementMethod
     {
+        /**
+         * The fraction of the distance between the current and the goal position that is applied as velocity by
+         * {@link #VELOCITY}.
+         */
+        private static final double VELOCITY_MULTIPLIER = 0.101;
+
         /**
          * The animated blocks are moved in the direction of the goal position by applying a velocity along the vector
          * between the current and the target positions.
@@ -694,7 +1021,15 @@ public abstract class BlockMover
             @Override
             public void apply(IAnimatedBlock animatedBlock, Vector3Dd goalPos)
             {
-                animatedBlock.setVelocity(goalPos.subtract(animatedBlock.getCurrentPosition()).multiply(0.101));
+                apply(animatedBlock, goalPos.x(), goalPos.y(), goalPos.z());
+            }
+
+            @Override
+            public void apply(IAnimatedBlock animatedBlock, double goalX, double goalY, double goalZ)
+            {
+                animatedBlock.setVelocity((goalX - animatedBlock.getCurrentX()) * VELOCITY_MULTIPLIER,
+                                          (goalY - animatedBlock.getCurrentY()) * VELOCITY_MULTIPLIER,
+                                          (goalZ - animatedBlock.getCurrentZ()) * VELOCITY_MULTIPLIER);
             }
         };
 
@@ -708,6 +1043,12 @@ public abstract class BlockMover
             {
                 animatedBlock.teleport(goalPos);
             }
+
+            @Override
+            public void apply(IAnimatedBlock animatedBlock, double goalX, double goalY, double goalZ)
+            {
+                animatedBlock.teleport(goalX, goalY, goalZ);
+            }
         };
 
         private final String name;
@@ -726,5 +1067,15 @@ public abstract class BlockMover
          * Moves an animated block to a given goal position using the specified method.
          */
         public abstract void apply(IAnimatedBlock animatedBlock, Vector3Dd goalPos);
+
+        /**
+         * Moves an animated block to a given goal position using the specified method.
+         * <p>
+         * Implementations should override this method to avoid allocating a new {@link Vector3Dd} for every call.
+         */
+        public void apply(IAnimatedBlock animatedBlock, double goalX, double goalY, double goalZ)
+        {
+            apply(animatedBlock, new Vector3Dd(goalX, goalY, goalZ));
+        }
     }
 }
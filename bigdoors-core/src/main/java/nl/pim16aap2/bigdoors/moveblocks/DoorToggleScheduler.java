@@ -0,0 +1,289 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.IPExecutor;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
+import nl.pim16aap2.bigdoors.util.DoorToggleResult;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Schedules door toggles on the main thread while limiting the amount of work done per tick.
+ * <p>
+ * Starting a toggle (checking for obstructions and protection plugins, calling events, and constructing the
+ * {@link BlockMover}) has to happen on the main thread. To avoid spending too much time on this in a single tick (e.g.
+ * when many doors are toggled by the same redstone clock), toggles are queued and started in batches of at most
+ * {@link IConfigLoader#toggleTimeBudget()} milliseconds and {@link IConfigLoader#toggleBlockBudget()} blocks per tick.
+ * Toggles that do not fit in the budget of a tick are postponed to the next tick. At least one toggle is started every
+ * tick, so doors that exceed the budget on their own can still be toggled.
+ * <p>
+ * Toggles initiated by players are started before toggles initiated by the server, which are started before toggles
+ * caused by redstone, the auto close system, or perpetual movement. Toggles with the same priority are started in the
+ * order in which they were scheduled.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class DoorToggleScheduler extends Restartable implements IDebuggable
+{
+    private final IPExecutor executor;
+    private final IConfigLoader config;
+    private final LongSupplier nanoTime;
+
+    @GuardedBy("this")
+    private final PriorityQueue<ToggleTask> queue = new PriorityQueue<>();
+
+    /**
+     * Whether the queue will be processed on the main thread. New toggles do not have to schedule processing the queue
+     * when it is already scheduled.
+     */
+    @GuardedBy("this")
+    private boolean processingScheduled = false;
+
+    @GuardedBy("this")
+    private long sequence = 0;
+
+    private volatile TickReport lastTickReport = new TickReport(0, 0, 0, 0);
+    private volatile long maxTickNanos = 0;
+    private volatile long deferredTickCount = 0;
+
+    DoorToggleScheduler(
+        RestartableHolder holder, IPExecutor executor, IConfigLoader config, DebuggableRegistry debuggableRegistry,
+        LongSupplier nanoTime)
+    {
+        super(holder);
+        this.executor = executor;
+        this.config = config;
+        this.nanoTime = nanoTime;
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    @Inject
+    public DoorToggleScheduler(
+        RestartableHolder holder, IPExecutor executor, IConfigLoader config, DebuggableRegistry debuggableRegistry)
+    {
+        this(holder, executor, config, debuggableRegistry, System::nanoTime);
+    }
+
+    /**
+     * Schedules a toggle to be started on the main thread.
+     *
+     * @param cause
+     *     What caused the toggle. This determines the priority of the toggle.
+     * @param blockCount
+     *     The number of blocks in the door that will be toggled.
+     * @param toggle
+     *     The supplier that starts the toggle. This is called on the main thread.
+     * @return The result of the toggle once it has been started.
+     */
+    public CompletableFuture<DoorToggleResult> schedule(
+        DoorActionCause cause, int blockCount, Supplier<DoorToggleResult> toggle)
+    {
+        final ToggleTask task;
+        final boolean scheduleProcessing;
+        synchronized (this)
+        {
+            task = new ToggleTask(getPriority(cause), sequence++, blockCount, toggle);
+            queue.add(task);
+            scheduleProcessing = !processingScheduled;
+            processingScheduled = true;
+        }
+
+        if (scheduleProcessing)
+            executor.scheduleOnMainThread(this::processQueue);
+        return task.result;
+    }
+
+    /**
+     * Starts as many toggles as fit in the budget of the current tick. If any toggles remain after that, processing
+     * the queue is scheduled again for the next tick.
+     */
+    void processQueue()
+    {
+        final long timeBudget = config.toggleTimeBudget() <= 0 ?
+                                Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(config.toggleTimeBudget());
+        final long blockBudget = config.toggleBlockBudget() <= 0 ? Long.MAX_VALUE : config.toggleBlockBudget();
+
+        final long start = nanoTime.getAsLong();
+        int toggles = 0;
+        long blocks = 0;
+        int deferred = 0;
+        while (true)
+        {
+            final ToggleTask task;
+            synchronized (this)
+            {
+                final @Nullable ToggleTask next = queue.peek();
+                if (next == null)
+                {
+                    processingScheduled = false;
+                    break;
+                }
+
+                if (toggles > 0 &&
+                    (nanoTime.getAsLong() - start >= timeBudget || blocks + next.blockCount > blockBudget))
+                {
+                    deferred = queue.size();
+                    executor.runSyncLater(this::processQueue, 1);
+                    break;
+                }
+                task = next;
+                queue.poll();
+            }
+
+            task.run();
+            ++toggles;
+            blocks += task.blockCount;
+        }
+        updateStatistics(new TickReport(toggles, blocks, nanoTime.getAsLong() - start, deferred));
+    }
+
+    private void updateStatistics(TickReport report)
+    {
+        lastTickReport = report;
+        maxTickNanos = Math.max(maxTickNanos, report.nanos());
+        if (report.deferred() > 0)
+        {
+            ++deferredTickCount;
+            log.at(Level.FINE).log("Toggle budget exceeded: %s", report);
+        }
+        else
+            log.at(Level.FINEST).log("Toggles in tick: %s", report);
+    }
+
+    /**
+     * Gets the priority of a toggle. Toggles with a lower value are started first.
+     *
+     * @param cause
+     *     What caused the toggle.
+     * @return The priority of the toggle.
+     */
+    static int getPriority(DoorActionCause cause)
+    {
+        return switch (cause)
+            {
+                case PLAYER -> 0;
+                case SERVER -> 1;
+                case REDSTONE, AUTOCLOSE, PERPETUALMOVEMENT -> 2;
+            };
+    }
+
+    /**
+     * @return The number of toggles that are waiting to be started.
+     */
+    public synchronized int getQueueSize()
+    {
+        return queue.size();
+    }
+
+    /**
+     * @return The report of the most recent tick in which any toggles were started.
+     */
+    public TickReport getLastTickReport()
+    {
+        return lastTickReport;
+    }
+
+    @Override
+    public void initialize()
+    {
+    }
+
+    @Override
+    public void shutDown()
+    {
+        final List<ToggleTask> cancelled;
+        synchronized (this)
+        {
+            cancelled = new ArrayList<>(queue);
+            queue.clear();
+            // Scheduled tasks may be cancelled on shutdown, so the next toggle has to schedule processing again.
+            processingScheduled = false;
+        }
+        cancelled.forEach(task -> task.result.complete(DoorToggleResult.CANCELLED));
+    }
+
+    @Override
+    public String getDebugInformation()
+    {
+        return "Toggle scheduler: queue size: " + getQueueSize() +
+            ", last tick: " + lastTickReport +
+            ", max tick time: " + String.format("%.2f ms", maxTickNanos / 1_000_000D) +
+            ", deferred ticks: " + deferredTickCount;
+    }
+
+    /**
+     * Describes the toggles that were started in a single tick.
+     *
+     * @param toggles
+     *     The number of toggles that were started.
+     * @param blocks
+     *     The total number of blocks of the doors that were toggled.
+     * @param nanos
+     *     The amount of time (in nanoseconds) spent on starting the toggles.
+     * @param deferred
+     *     The number of toggles that were postponed to the next tick.
+     */
+    public record TickReport(int toggles, long blocks, long nanos, int deferred)
+    {
+        @Override
+        public String toString()
+        {
+            return String.format("%d toggles (%d blocks) in %.2f ms, %d deferred",
+                                 toggles, blocks, nanos / 1_000_000D, deferred);
+        }
+    }
+
+    private static final class ToggleTask implements Comparable<ToggleTask>
+    {
+        private final int priority;
+        private final long sequence;
+        private final int blockCount;
+        private final Supplier<DoorToggleResult> toggle;
+        private final CompletableFuture<DoorToggleResult> result = new CompletableFuture<>();
+
+        private ToggleTask(int priority, long sequence, int blockCount, Supplier<DoorToggleResult> toggle)
+        {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.blockCount = blockCount;
+            this.toggle = toggle;
+        }
+
+        private void run()
+        {
+            try
+            {
+                result.complete(toggle.get());
+            }
+            catch (Exception e)
+            {
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public int compareTo(ToggleTask other)
+        {
+            final int ret = Integer.compare(priority, other.priority);
+            return ret != 0 ? ret : Long.compare(sequence, other.sequence);
+        }
+    }
+}
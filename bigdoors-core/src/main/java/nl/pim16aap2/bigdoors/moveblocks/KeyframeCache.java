@@ -0,0 +1,322 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import lombok.ToString;
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.RotateDirection;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Caches the goal positions of all animated blocks for every step of an animation, so that later toggles of a door
+ * along the exact same trajectory can replay them instead of computing them again.
+ * <p>
+ * The cache is bounded by the (approximate) number of bytes used by all cached keyframes, as configured by
+ * {@link IConfigLoader#keyframeCacheSize()}. When the cache is full, the least recently used keyframes are evicted.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class KeyframeCache extends Restartable implements IDebuggable
+{
+    /**
+     * The number of bytes in a megabyte.
+     */
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final IConfigLoader config;
+
+    private final LinkedHashMap<Key, Keyframes> keyframes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long currentSize = 0;
+
+    @Inject
+    public KeyframeCache(RestartableHolder holder, IConfigLoader config, DebuggableRegistry debuggableRegistry)
+    {
+        super(holder);
+        this.config = config;
+        debuggableRegistry.registerDebuggable(this);
+    }
+
+    /**
+     * Gets the keyframes stored for a key.
+     *
+     * @param key
+     *     The key describing the animation.
+     * @param checksum
+     *     The checksum of the positions of the animated blocks. See {@link Keyframes#checksum(PositionBuffer)}.
+     * @return The keyframes stored for the key if they exist and match the provided checksum.
+     */
+    synchronized @Nullable Keyframes get(Key key, long checksum)
+    {
+        final @Nullable Keyframes ret = keyframes.get(key);
+        if (ret == null)
+            return null;
+        if (ret.checksum != checksum)
+        {
+            log.at(Level.FINEST).log("Discarding outdated keyframes for key %s", key);
+            remove(key);
+            return null;
+        }
+        return ret;
+    }
+
+    /**
+     * Creates a new (empty) set of keyframes for an animation if it would fit in this cache.
+     *
+     * @param key
+     *     The key describing the animation.
+     * @param blockCount
+     *     The number of animated blocks.
+     * @param checksum
+     *     The checksum of the positions of the animated blocks. See {@link Keyframes#checksum(PositionBuffer)}.
+     * @return The new keyframes, or null if they would be too large to be stored in this cache.
+     */
+    @Nullable Keyframes createKeyframes(Key key, int blockCount, long checksum)
+    {
+        final long size = Keyframes.estimateSize(key.duration(), blockCount);
+        if (size > getMaxSize() || size / Keyframes.VALUE_SIZE > Integer.MAX_VALUE - 8)
+            return null;
+        return new Keyframes(key.duration(), blockCount, checksum);
+    }
+
+    /**
+     * Stores a fully recorded set of keyframes.
+     *
+     * @param key
+     *     The key describing the animation.
+     * @param value
+     *     The keyframes to store.
+     */
+    synchronized void put(Key key, Keyframes value)
+    {
+        if (!value.isComplete())
+            throw new IllegalArgumentException("Trying to store incomplete keyframes for key: " + key);
+
+        final long maxSize = getMaxSize();
+        if (value.size() > maxSize)
+            return;
+
+        remove(key);
+        keyframes.put(key, value);
+        currentSize += value.size();
+
+        final Iterator<Map.Entry<Key, Keyframes>> it = keyframes.entrySet().iterator();
+        while (currentSize > maxSize && it.hasNext())
+        {
+            currentSize -= it.next().getValue().size();
+            it.remove();
+        }
+    }
+
+    /**
+     * Removes all keyframes of a door from this cache.
+     *
+     * @param doorUID
+     *     The UID of the door whose keyframes to remove.
+     */
+    public synchronized void invalidate(long doorUID)
+    {
+        final Iterator<Map.Entry<Key, Keyframes>> it = keyframes.entrySet().iterator();
+        while (it.hasNext())
+        {
+            final Map.Entry<Key, Keyframes> entry = it.next();
+            if (entry.getKey().doorUID() != doorUID)
+                continue;
+            currentSize -= entry.getValue().size();
+            it.remove();
+        }
+    }
+
+    private void remove(Key key)
+    {
+        final @Nullable Keyframes removed = keyframes.remove(key);
+        if (removed != null)
+            currentSize -= removed.size();
+    }
+
+    private long getMaxSize()
+    {
+        return Math.max(0, config.keyframeCacheSize()) * MEGABYTE;
+    }
+
+    @Override
+    public synchronized void shutDown()
+    {
+        keyframes.clear();
+        currentSize = 0;
+    }
+
+    @Override
+    public synchronized String getDebugInformation()
+    {
+        return String.format("KeyframeCache: %d entries using %d / %d bytes", keyframes.size(), currentSize,
+                             getMaxSize());
+    }
+
+    /**
+     * Describes an animation of a door.
+     * <p>
+     * Two toggles with the same key follow the exact same trajectory.
+     *
+     * @param doorUID
+     *     The UID of the door that is animated.
+     * @param moverType
+     *     The type of the {@link BlockMover} that animates the door.
+     * @param oldCuboid
+     *     The cuboid of the door before the animation.
+     * @param newCuboid
+     *     The cuboid of the door after the animation.
+     * @param rotationPoint
+     *     The rotation point of the door.
+     * @param direction
+     *     The direction the door moves in.
+     * @param duration
+     *     The duration of the animation in ticks.
+     */
+    record Key(
+        long doorUID, Class<? extends BlockMover> moverType, Cuboid oldCuboid, Cuboid newCuboid,
+        Vector3Di rotationPoint, RotateDirection direction, int duration)
+    {
+    }
+
+    /**
+     * The goal positions of the animated blocks of an animation for every step.
+     * <p>
+     * The goal positions are stored as offsets from the start positions of the blocks using single precision floats.
+     */
+    @ToString(onlyExplicitlyIncluded = true)
+    static final class Keyframes
+    {
+        /**
+         * The number of bytes used by a single value.
+         */
+        private static final int VALUE_SIZE = Float.BYTES;
+
+        @ToString.Include
+        private final int duration;
+        @ToString.Include
+        private final int blockCount;
+        @ToString.Include
+        private final long checksum;
+        private final float[] offsets;
+        @ToString.Include
+        private volatile int recordedSteps = 0;
+
+        private Keyframes(int duration, int blockCount, long checksum)
+        {
+            this.duration = duration;
+            this.blockCount = blockCount;
+            this.checksum = checksum;
+            offsets = new float[duration * blockCount * 3];
+        }
+
+        /**
+         * Stores the goal positions of all blocks for the given step.
+         * <p>
+         * Steps have to be recorded in order.
+         *
+         * @param step
+         *     The step of the animation, starting at 1.
+         * @param positions
+         *     The buffer containing the goal positions.
+         */
+        void record(int step, PositionBuffer positions)
+        {
+            if (step != recordedSteps + 1)
+                throw new IllegalStateException("Expected step " + (recordedSteps + 1) + " but received " + step);
+
+            int offsetIdx = (step - 1) * blockCount * 3;
+            for (int idx = 0; idx < blockCount; ++idx)
+            {
+                offsets[offsetIdx++] = (float) (positions.getGoalX(idx) - positions.getStartX(idx));
+                offsets[offsetIdx++] = (float) (positions.getGoalY(idx) - positions.getStartY(idx));
+                offsets[offsetIdx++] = (float) (positions.getGoalZ(idx) - positions.getStartZ(idx));
+            }
+            recordedSteps = step;
+        }
+
+        /**
+         * Loads the goal positions of the blocks in the given range for the given step into a buffer.
+         *
+         * @param step
+         *     The step of the animation, starting at 1.
+         * @param positions
+         *     The buffer to write the goal positions to.
+         * @param fromIdx
+         *     The index of the first block to load (inclusive).
+         * @param toIdx
+         *     The index of the last block to load (exclusive).
+         */
+        void replay(int step, PositionBuffer positions, int fromIdx, int toIdx)
+        {
+            int offsetIdx = ((step - 1) * blockCount + fromIdx) * 3;
+            for (int idx = fromIdx; idx < toIdx; ++idx)
+                positions.setGoalRelativeToStart(idx, offsets[offsetIdx++], offsets[offsetIdx++],
+                                                 offsets[offsetIdx++]);
+        }
+
+        /**
+         * @return True if the goal positions of all steps have been recorded.
+         */
+        boolean isComplete()
+        {
+            return recordedSteps == duration;
+        }
+
+        /**
+         * @return The number of steps that have been recorded so far.
+         */
+        int getRecordedSteps()
+        {
+            return recordedSteps;
+        }
+
+        /**
+         * @return The approximate number of bytes used by these keyframes.
+         */
+        long size()
+        {
+            return estimateSize(duration, blockCount);
+        }
+
+        static long estimateSize(int duration, int blockCount)
+        {
+            return (long) duration * blockCount * 3 * VALUE_SIZE;
+        }
+
+        /**
+         * Computes a checksum of the start and final positions of all blocks in a buffer.
+         * <p>
+         * This is used to verify that the stored keyframes belong to the same set of blocks moving to the same
+         * destination.
+         */
+        static long checksum(PositionBuffer positions)
+        {
+            long checksum = positions.size();
+            for (int idx = 0; idx < positions.size(); ++idx)
+            {
+                checksum = 31 * checksum + Double.hashCode(positions.getStartX(idx));
+                checksum = 31 * checksum + Double.hashCode(positions.getStartY(idx));
+                checksum = 31 * checksum + Double.hashCode(positions.getStartZ(idx));
+                checksum = 31 * checksum + Double.hashCode(positions.getFinalX(idx));
+                checksum = 31 * checksum + Double.hashCode(positions.getFinalY(idx));
+                checksum = 31 * checksum + Double.hashCode(positions.getFinalZ(idx));
+            }
+            return checksum;
+        }
+    }
+}
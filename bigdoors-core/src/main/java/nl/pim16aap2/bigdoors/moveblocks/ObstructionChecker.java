@@ -0,0 +1,379 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.api.IBlockAnalyzer;
+import nl.pim16aap2.bigdoors.api.IBlockSnapshot;
+import nl.pim16aap2.bigdoors.api.IPExecutor;
+import nl.pim16aap2.bigdoors.api.IPWorld;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.Util;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Checks if the area a door will move into is obstructed.
+ * <p>
+ * Reading blocks from a world is only allowed on the main thread. To keep the work done on the main thread to a
+ * minimum, only a snapshot of the blocks in the area is created on the main thread (see
+ * {@link IBlockAnalyzer#createSnapshot(IPWorld, Cuboid)}). The snapshot is then checked for obstructions
+ * asynchronously.
+ * <p>
+ * Because the world may have changed since the snapshot was created, the result of an asynchronous check is validated
+ * on the main thread before it is used to toggle a door (see {@link #getValidResult(Result, IPWorld, Cuboid, Cuboid,
+ * boolean)}). To do so, the platform reports the chunks in which blocks are placed (see
+ * {@link #onBlockChanged(String, int, int)}). Only the reported obstructions and the blocks in the chunks that changed
+ * since the snapshot was created are looked up again.
+ * <p>
+ * Checks on the main thread look up the blocks directly instead of creating a snapshot.
+ *
+ * @author Pim
+ */
+@Singleton
+@Flogger
+public final class ObstructionChecker
+{
+    /**
+     * The maximum age of the snapshot of a {@link Result} for it to be used to toggle a door.
+     */
+    static final Duration MAX_RESULT_AGE = Duration.ofMillis(250);
+
+    private final IBlockAnalyzer blockAnalyzer;
+    private final IPExecutor executor;
+    private final LongSupplier nanoTime;
+
+    /**
+     * The time of the last change of the blocks in a chunk, mapped by the name of the world and the id of the chunk.
+     * <p>
+     * Changes that are older than {@link #MAX_RESULT_AGE} cannot invalidate any results, so they are removed again.
+     */
+    private final Map<String, Map<Long, Long>> chunkChanges = new ConcurrentHashMap<>();
+
+    /**
+     * The last time old changes were removed from {@link #chunkChanges}.
+     */
+    private volatile long lastPruneTime;
+
+    ObstructionChecker(IBlockAnalyzer blockAnalyzer, IPExecutor executor, LongSupplier nanoTime)
+    {
+        this.blockAnalyzer = blockAnalyzer;
+        this.executor = executor;
+        this.nanoTime = nanoTime;
+        lastPruneTime = nanoTime.getAsLong();
+    }
+
+    @Inject
+    public ObstructionChecker(IBlockAnalyzer blockAnalyzer, IPExecutor executor)
+    {
+        this(blockAnalyzer, executor, System::nanoTime);
+    }
+
+    /**
+     * Checks if an area is obstructed. "Obstructed" here means that there are blocks that are not air or liquid.
+     * <p>
+     * The snapshot of the area is created on the main thread, after which it is checked asynchronously.
+     *
+     * @param world
+     *     The world to check the blocks in.
+     * @param newCuboid
+     *     The {@link Cuboid} representing the area the door will take up after the toggle.
+     * @param currentCuboid
+     *     The {@link Cuboid} representing the area the door currently takes up. Any parts of the new cuboid overlapping
+     *     this cuboid will be ignored.
+     * @param findAll
+     *     True to find all obstructions in the area. When false, the check stops at the first obstruction.
+     * @return The result of the check. This will be null if the snapshot could not be created.
+     */
+    public CompletableFuture<@Nullable Result> checkAsync(
+        IPWorld world, Cuboid newCuboid, Cuboid currentCuboid, boolean findAll)
+    {
+        final CompletableFuture<@Nullable Snapshot> snapshot = executor.runOnMainThread(
+            () ->
+            {
+                try
+                {
+                    return createSnapshot(world, newCuboid);
+                }
+                catch (Exception e)
+                {
+                    log.at(Level.SEVERE).withCause(e).log("Failed to create snapshot of %s in world %s!",
+                                                          newCuboid, world);
+                    return null;
+                }
+            });
+
+        return snapshot.thenCompose(
+            snap -> snap == null ? CompletableFuture.completedFuture(null) :
+                    executor.supplyAsync(() -> check(snap, currentCuboid, findAll)));
+    }
+
+    /**
+     * Checks if an area is obstructed on the current thread. See
+     * {@link #checkAsync(IPWorld, Cuboid, Cuboid, boolean)}.
+     * <p>
+     * The blocks are looked up directly, so this method has to be called on the main thread.
+     */
+    public Result check(IPWorld world, Cuboid newCuboid, Cuboid currentCuboid, boolean findAll)
+    {
+        return new Result(newCuboid, currentCuboid, nanoTime.getAsLong(), findAll,
+                          findObstructions(getBlocks(world), newCuboid, currentCuboid, findAll));
+    }
+
+    /**
+     * Gets the result of a previous check if it is still valid for a toggle. If it is not, the area is checked again.
+     * <p>
+     * A result can only be used if it was created for the same cuboids and if its snapshot is not older than
+     * {@link #MAX_RESULT_AGE}. In that case, the obstructions it found are looked up again, as are all blocks in the
+     * chunks that changed since the snapshot was created. Otherwise, all blocks in the area are looked up again.
+     * <p>
+     * This method has to be called on the main thread.
+     *
+     * @param result
+     *     The result of a previous check. May be null.
+     * @param world
+     *     The world to check the blocks in.
+     * @param newCuboid
+     *     The {@link Cuboid} representing the area the door will take up after the toggle.
+     * @param currentCuboid
+     *     The {@link Cuboid} representing the area the door currently takes up.
+     * @param findAll
+     *     True to find all obstructions in the area.
+     * @return The result for the current state of the world.
+     */
+    public Result getValidResult(
+        @Nullable Result result, IPWorld world, Cuboid newCuboid, Cuboid currentCuboid, boolean findAll)
+    {
+        if (result == null ||
+            !result.newCuboid().equals(newCuboid) ||
+            !result.currentCuboid().equals(currentCuboid) ||
+            nanoTime.getAsLong() - result.captureTime() > MAX_RESULT_AGE.toNanos())
+        {
+            log.at(Level.FINEST).log("Checking %s again for obstructions, previous result: %s", newCuboid, result);
+            return check(world, newCuboid, currentCuboid, findAll);
+        }
+        return revalidate(result, world, findAll);
+    }
+
+    /**
+     * Updates a recent result for the current state of the world.
+     */
+    private Result revalidate(Result result, IPWorld world, boolean findAll)
+    {
+        final BlockPredicate blocks = getBlocks(world);
+        final List<Vector3Di> obstructions = new ArrayList<>(result.obstructions().size());
+        for (final Vector3Di obstruction : result.obstructions())
+            if (!blocks.isAirOrLiquid(obstruction.x(), obstruction.y(), obstruction.z()))
+                obstructions.add(obstruction);
+
+        // The check stopped at the first obstruction, so the rest of the area is unknown.
+        if (result.isObstructed() && !result.findAll())
+        {
+            if (findAll || obstructions.isEmpty())
+                return check(world, result.newCuboid(), result.currentCuboid(), findAll);
+            return result;
+        }
+
+        final Vector3Di min = result.newCuboid().getMin();
+        final Vector3Di max = result.newCuboid().getMax();
+        final Map<Long, Long> changes = chunkChanges.getOrDefault(world.worldName(), Collections.emptyMap());
+        boolean changed = obstructions.size() != result.obstructions().size();
+        for (int chunkX = min.x() >> 4; chunkX <= max.x() >> 4; ++chunkX)
+            for (int chunkZ = min.z() >> 4; chunkZ <= max.z() >> 4; ++chunkZ)
+            {
+                final @Nullable Long changeTime = changes.get(Util.getChunkId(chunkX, chunkZ));
+                if (changeTime == null || changeTime < result.captureTime() || (!findAll && !obstructions.isEmpty()))
+                    continue;
+
+                changed = true;
+                final Cuboid area = getChunkArea(result.newCuboid(), chunkX, chunkZ);
+                for (final Vector3Di obstruction : findObstructions(blocks, area, result.currentCuboid(), findAll))
+                    if (!obstructions.contains(obstruction))
+                        obstructions.add(obstruction);
+            }
+
+        if (!changed)
+            return result;
+        log.at(Level.FINEST).log("Updated obstructions of %s: %s", result.newCuboid(), obstructions);
+        return new Result(result.newCuboid(), result.currentCuboid(), nanoTime.getAsLong(), result.findAll(),
+                          obstructions);
+    }
+
+    /**
+     * Registers that a block was placed or changed in a world. This should be called on the main thread for every
+     * block that may have become an obstruction.
+     * <p>
+     * Blocks that are removed do not have to be registered, as the obstructions found by a check are always looked up
+     * again.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param x
+     *     The x coordinate of the block.
+     * @param z
+     *     The z coordinate of the block.
+     */
+    public void onBlockChanged(String worldName, int x, int z)
+    {
+        final long now = nanoTime.getAsLong();
+        chunkChanges.computeIfAbsent(worldName, key -> new ConcurrentHashMap<>())
+                    .put(Util.getChunkId(x >> 4, z >> 4), now);
+        pruneChanges(now);
+    }
+
+    /**
+     * Registers that the blocks in an area were placed or changed. See {@link #onBlockChanged(String, int, int)}.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param cuboid
+     *     The area that changed.
+     */
+    public void onBlocksChanged(String worldName, Cuboid cuboid)
+    {
+        final long now = nanoTime.getAsLong();
+        final Map<Long, Long> changes = chunkChanges.computeIfAbsent(worldName, key -> new ConcurrentHashMap<>());
+        for (int chunkX = cuboid.getMin().x() >> 4; chunkX <= cuboid.getMax().x() >> 4; ++chunkX)
+            for (int chunkZ = cuboid.getMin().z() >> 4; chunkZ <= cuboid.getMax().z() >> 4; ++chunkZ)
+                changes.put(Util.getChunkId(chunkX, chunkZ), now);
+        pruneChanges(now);
+    }
+
+    /**
+     * Gets the part of a cuboid that lies inside a chunk.
+     */
+    private static Cuboid getChunkArea(Cuboid cuboid, int chunkX, int chunkZ)
+    {
+        final Vector3Di min = cuboid.getMin();
+        final Vector3Di max = cuboid.getMax();
+        return new Cuboid(new Vector3Di(Math.max(min.x(), chunkX << 4), min.y(), Math.max(min.z(), chunkZ << 4)),
+                          new Vector3Di(Math.min(max.x(), (chunkX << 4) + 15), max.y(),
+                                        Math.min(max.z(), (chunkZ << 4) + 15)));
+    }
+
+    private void pruneChanges(long now)
+    {
+        if (now - lastPruneTime < MAX_RESULT_AGE.toNanos())
+            return;
+        lastPruneTime = now;
+        final long threshold = now - MAX_RESULT_AGE.toNanos();
+        chunkChanges.values().forEach(changes -> changes.values().removeIf(changeTime -> changeTime < threshold));
+    }
+
+    private BlockPredicate getBlocks(IPWorld world)
+    {
+        return (x, y, z) -> blockAnalyzer.isAirOrLiquid(world, x, y, z);
+    }
+
+    private Snapshot createSnapshot(IPWorld world, Cuboid cuboid)
+    {
+        return new Snapshot(blockAnalyzer.createSnapshot(world, cuboid), nanoTime.getAsLong());
+    }
+
+    private static Result check(Snapshot snapshot, Cuboid currentCuboid, boolean findAll)
+    {
+        final IBlockSnapshot blocks = snapshot.blocks();
+        return new Result(blocks.getCuboid(), currentCuboid, snapshot.captureTime(), findAll,
+                          findObstructions(blocks::isAirOrLiquid, blocks.getCuboid(), currentCuboid, findAll));
+    }
+
+    /**
+     * Finds all blocks in a snapshot that are not air or liquid.
+     *
+     * @param snapshot
+     *     The snapshot to check.
+     * @param currentCuboid
+     *     The {@link Cuboid} representing the area the door currently takes up. Any blocks in this cuboid will be
+     *     ignored.
+     * @param findAll
+     *     True to find all obstructions. When false, at most 1 obstruction is returned.
+     * @return The positions of the obstructions.
+     */
+    static List<Vector3Di> findObstructions(IBlockSnapshot snapshot, Cuboid currentCuboid, boolean findAll)
+    {
+        return findObstructions(snapshot::isAirOrLiquid, snapshot.getCuboid(), currentCuboid, findAll);
+    }
+
+    private static List<Vector3Di> findObstructions(
+        BlockPredicate blocks, Cuboid area, Cuboid currentCuboid, boolean findAll)
+    {
+        final Vector3Di newMin = area.getMin();
+        final Vector3Di newMax = area.getMax();
+        final Vector3Di curMin = currentCuboid.getMin();
+        final Vector3Di curMax = currentCuboid.getMax();
+
+        final List<Vector3Di> obstructions = new ArrayList<>(0);
+        for (int xAxis = newMin.x(); xAxis <= newMax.x(); ++xAxis)
+        {
+            for (int yAxis = newMin.y(); yAxis <= newMax.y(); ++yAxis)
+            {
+                for (int zAxis = newMin.z(); zAxis <= newMax.z(); ++zAxis)
+                {
+                    // Ignore blocks that are currently part of the door.
+                    // It's expected and accepted for them to be in the way.
+                    if (Util.between(xAxis, curMin.x(), curMax.x()) &&
+                        Util.between(yAxis, curMin.y(), curMax.y()) &&
+                        Util.between(zAxis, curMin.z(), curMax.z()))
+                        continue;
+
+                    if (blocks.isAirOrLiquid(xAxis, yAxis, zAxis))
+                        continue;
+
+                    obstructions.add(new Vector3Di(xAxis, yAxis, zAxis));
+                    if (!findAll)
+                        return obstructions;
+                }
+            }
+        }
+        return obstructions;
+    }
+
+    /**
+     * Checks if the block at a position is air or liquid. See {@link IBlockSnapshot#isAirOrLiquid(int, int, int)}.
+     */
+    @FunctionalInterface
+    private interface BlockPredicate
+    {
+        boolean isAirOrLiquid(int x, int y, int z);
+    }
+
+    private record Snapshot(IBlockSnapshot blocks, long captureTime)
+    {
+    }
+
+    /**
+     * Represents the result of a check for obstructions.
+     *
+     * @param newCuboid
+     *     The {@link Cuboid} that was checked.
+     * @param currentCuboid
+     *     The {@link Cuboid} the door took up at the time of the check.
+     * @param captureTime
+     *     The time (in nanoseconds) at which the blocks were read.
+     * @param findAll
+     *     True if all obstructions were searched for. When false, the check stopped at the first obstruction.
+     * @param obstructions
+     *     The positions of the blocks that obstruct the door.
+     */
+    public record Result(
+        Cuboid newCuboid, Cuboid currentCuboid, long captureTime, boolean findAll, List<Vector3Di> obstructions)
+    {
+        /**
+         * @return True if at least one obstruction was found.
+         */
+        public boolean isObstructed()
+        {
+            return !obstructions.isEmpty();
+        }
+    }
+}
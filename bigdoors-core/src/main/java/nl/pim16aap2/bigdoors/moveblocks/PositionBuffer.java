@@ -0,0 +1,281 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
+
+import java.util.List;
+
+/**
+ * Stores the positions of the animated blocks of a {@link BlockMover} in primitive arrays, indexed by the index of the
+ * block in the list of animated blocks.
+ * <p>
+ * The start and final positions (as well as the radius and start angle) are captured once when the buffer is created.
+ * The goal positions are written by the block mover every step and the current positions are refreshed whenever the
+ * goal positions are applied to the animated blocks.
+ * <p>
+ * This class is not thread-safe. Different threads may only write to disjoint ranges of indices.
+ *
+ * @author Pim
+ */
+public final class PositionBuffer
+{
+    private final int size;
+
+    private final double[] startX;
+    private final double[] startY;
+    private final double[] startZ;
+
+    private final double[] finalX;
+    private final double[] finalY;
+    private final double[] finalZ;
+
+    private final double[] currentX;
+    private final double[] currentY;
+    private final double[] currentZ;
+
+    private final double[] goalX;
+    private final double[] goalY;
+    private final double[] goalZ;
+
+    private final float[] radius;
+    private final float[] startAngle;
+
+    /**
+     * Blocks that should not be moved in the current step.
+     */
+    private final boolean[] skipped;
+
+    /**
+     * Creates a new buffer for a list of animated blocks.
+     *
+     * @param animatedBlocks
+     *     The animated blocks whose positions to store. The index of each block in this list is used as its index in
+     *     this buffer.
+     */
+    PositionBuffer(List<? extends IAnimatedBlock> animatedBlocks)
+    {
+        size = animatedBlocks.size();
+
+        startX = new double[size];
+        startY = new double[size];
+        startZ = new double[size];
+        finalX = new double[size];
+        finalY = new double[size];
+        finalZ = new double[size];
+        currentX = new double[size];
+        currentY = new double[size];
+        currentZ = new double[size];
+        goalX = new double[size];
+        goalY = new double[size];
+        goalZ = new double[size];
+        radius = new float[size];
+        startAngle = new float[size];
+        skipped = new boolean[size];
+
+        for (int idx = 0; idx < size; ++idx)
+        {
+            final IAnimatedBlock animatedBlock = animatedBlocks.get(idx);
+
+            startX[idx] = animatedBlock.getStartX();
+            startY[idx] = animatedBlock.getStartY();
+            startZ[idx] = animatedBlock.getStartZ();
+
+            final Vector3Dd finalPosition = animatedBlock.getFinalPosition();
+            finalX[idx] = finalPosition.x();
+            finalY[idx] = finalPosition.y();
+            finalZ[idx] = finalPosition.z();
+
+            final Vector3Dd currentPosition = animatedBlock.getCurrentPosition();
+            currentX[idx] = currentPosition.x();
+            currentY[idx] = currentPosition.y();
+            currentZ[idx] = currentPosition.z();
+
+            goalX[idx] = currentX[idx];
+            goalY[idx] = currentY[idx];
+            goalZ[idx] = currentZ[idx];
+
+            radius[idx] = animatedBlock.getRadius();
+            startAngle[idx] = animatedBlock.getStartAngle();
+        }
+    }
+
+    /**
+     * @return The number of blocks in this buffer.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public double getStartX(int idx)
+    {
+        return startX[idx];
+    }
+
+    public double getStartY(int idx)
+    {
+        return startY[idx];
+    }
+
+    public double getStartZ(int idx)
+    {
+        return startZ[idx];
+    }
+
+    public double getFinalX(int idx)
+    {
+        return finalX[idx];
+    }
+
+    public double getFinalY(int idx)
+    {
+        return finalY[idx];
+    }
+
+    public double getFinalZ(int idx)
+    {
+        return finalZ[idx];
+    }
+
+    public double getCurrentX(int idx)
+    {
+        return currentX[idx];
+    }
+
+    public double getCurrentY(int idx)
+    {
+        return currentY[idx];
+    }
+
+    public double getCurrentZ(int idx)
+    {
+        return currentZ[idx];
+    }
+
+    public double getGoalX(int idx)
+    {
+        return goalX[idx];
+    }
+
+    public double getGoalY(int idx)
+    {
+        return goalY[idx];
+    }
+
+    public double getGoalZ(int idx)
+    {
+        return goalZ[idx];
+    }
+
+    /**
+     * @return The radius the block at the given index had in relation to the rotation point when the animation
+     * started.
+     */
+    public float getRadius(int idx)
+    {
+        return radius[idx];
+    }
+
+    /**
+     * @return The angle the block at the given index had in relation to the rotation point when the animation started.
+     */
+    public float getStartAngle(int idx)
+    {
+        return startAngle[idx];
+    }
+
+    /**
+     * Sets the goal position of the block at the given index for the current step.
+     */
+    public void setGoal(int idx, double x, double y, double z)
+    {
+        goalX[idx] = x;
+        goalY[idx] = y;
+        goalZ[idx] = z;
+    }
+
+    /**
+     * Sets the goal position of the block at the given index to its start position offset by the given values.
+     */
+    public void setGoalRelativeToStart(int idx, double dx, double dy, double dz)
+    {
+        goalX[idx] = startX[idx] + dx;
+        goalY[idx] = startY[idx] + dy;
+        goalZ[idx] = startZ[idx] + dz;
+    }
+
+    /**
+     * Sets the goal position of every block in the given range to its final position.
+     *
+     * @param fromIdx
+     *     The first index (inclusive).
+     * @param toIdx
+     *     The last index (exclusive).
+     */
+    public void setGoalsToFinal(int fromIdx, int toIdx)
+    {
+        System.arraycopy(finalX, fromIdx, goalX, fromIdx, toIdx - fromIdx);
+        System.arraycopy(finalY, fromIdx, goalY, fromIdx, toIdx - fromIdx);
+        System.arraycopy(finalZ, fromIdx, goalZ, fromIdx, toIdx - fromIdx);
+    }
+
+    /**
+     * Marks the block at the given index as not having to be moved in the current step.
+     */
+    public void skip(int idx)
+    {
+        skipped[idx] = true;
+    }
+
+    /**
+     * Checks if the block at the given index was marked as skipped for the current step and resets this flag.
+     *
+     * @return True if the block at the given index should not be moved in the current step.
+     */
+    boolean consumeSkipped(int idx)
+    {
+        final boolean ret = skipped[idx];
+        skipped[idx] = false;
+        return ret;
+    }
+
+    /**
+     * Updates the current position of the block at the given index.
+     */
+    void setCurrent(int idx, double x, double y, double z)
+    {
+        currentX[idx] = x;
+        currentY[idx] = y;
+        currentZ[idx] = z;
+    }
+
+    /**
+     * Computes the smallest box that contains the current positions of all blocks.
+     *
+     * @return The minimum and maximum coordinates in the order: xMin, yMin, zMin, xMax, yMax, zMax. When the buffer is
+     * empty, all values will be 0.
+     */
+    double[] getCurrentBounds()
+    {
+        if (size == 0)
+            return new double[6];
+
+        double xMin = currentX[0];
+        double yMin = currentY[0];
+        double zMin = currentZ[0];
+        double xMax = xMin;
+        double yMax = yMin;
+        double zMax = zMin;
+
+        for (int idx = 1; idx < size; ++idx)
+        {
+            xMin = Math.min(xMin, currentX[idx]);
+            yMin = Math.min(yMin, currentY[idx]);
+            zMin = Math.min(zMin, currentZ[idx]);
+            xMax = Math.max(xMax, currentX[idx]);
+            yMax = Math.max(yMax, currentY[idx]);
+            zMax = Math.max(zMax, currentZ[idx]);
+        }
+        return new double[]{xMin, yMin, zMin, xMax, yMax, zMax};
+    }
+}
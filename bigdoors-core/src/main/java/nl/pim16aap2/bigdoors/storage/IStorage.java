@@ -2,18 +2,22 @@ package nl.pim16aap2.bigdoors.storage;
 
 import nl.pim16aap2.bigdoors.api.IPPlayer;
 import nl.pim16aap2.bigdoors.api.PPlayerData;
+import nl.pim16aap2.bigdoors.data.LongMultimap;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.DoorBase;
 import nl.pim16aap2.bigdoors.doortypes.DoorType;
 import nl.pim16aap2.bigdoors.managers.DatabaseManager;
+import nl.pim16aap2.bigdoors.util.Cuboid;
 import nl.pim16aap2.bigdoors.util.DoorOwner;
 import nl.pim16aap2.bigdoors.util.IBitFlag;
+import nl.pim16aap2.bigdoors.util.Util;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -155,6 +159,17 @@ public interface IStorage
      */
     Optional<AbstractDoor> getDoor(long doorUID);
 
+    /**
+     * Gets all the doors with the given doorUIDs and their original creators as {@link DoorOwner}.
+     * <p>
+     * UIDs of doors that do not exist are ignored.
+     *
+     * @param doorUIDs
+     *     The UIDs of the doors to retrieve.
+     * @return All doors with the given doorUIDs.
+     */
+    List<AbstractDoor> getDoors(List<Long> doorUIDs);
+
     /**
      * Gets all the doors owned by the given player with the given name.
      *
@@ -209,16 +224,45 @@ public interface IStorage
     List<AbstractDoor> getDoors(UUID playerUUID, int maxPermission);
 
     /**
-     * Gets a map of location hashes and their connected powerblocks for all doors in a chunk.
+     * Gets the power block data of multiple chunks using a single query.
      * <p>
-     * The key is the hashed location in chunk space, the value is the list of UIDs of the doors whose powerblocks
-     * occupies that location.
+     * For every chunk, the keys are the hashed locations in chunk space and the values are the UIDs of the doors
+     * whose powerblocks occupy that location.
      *
-     * @param chunkId
-     *     The id of the chunk the doors are in.
-     * @return A map of location hashes and their connected powerblocks for all doors in a chunk.
+     * @param chunkIds
+     *     The ids of the chunks.
+     * @return The maps of location hashes and their connected powerblocks mapped by the id of their chunk. Every
+     * requested chunk is included, even if it does not contain any power blocks.
+     *
+     * @throws IllegalStateException
+     *     When the power block data could not be retrieved.
      */
-    ConcurrentHashMap<Integer, List<Long>> getPowerBlockData(long chunkId);
+    Map<Long, LongMultimap> getPowerBlockData(List<Long> chunkIds);
+
+    /**
+     * Gets the positions of all power blocks in a world.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @return The positions of all power blocks in the world. Positions that are shared by multiple doors are included
+     * once for every door.
+     *
+     * @throws IllegalStateException
+     *     When the positions could not be retrieved.
+     */
+    List<Vector3Di> getPowerBlockPositions(String worldName);
+
+    /**
+     * Gets the cuboids of all doors in a world.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @return The cuboids of all doors in the world mapped by the UIDs of their doors.
+     *
+     * @throws IllegalStateException
+     *     When the cuboids could not be retrieved.
+     */
+    Map<Long, Cuboid> getDoorCuboids(String worldName);
 
     /**
      * Gets a list of door UIDs that have their rotation point in a given chunk.
@@ -229,6 +273,20 @@ public interface IStorage
      */
     List<Long> getDoorsInChunk(long chunkId);
 
+    /**
+     * Gets all doors in a world that have their rotation point in any of the given chunks.
+     *
+     * @param worldName
+     *     The name of the world.
+     * @param chunkIds
+     *     The ids of the chunks. See {@link Util#getChunkId(int, int)}.
+     * @return All doors that have their rotation point in any of the given chunks.
+     *
+     * @throws IllegalStateException
+     *     When the doors could not be retrieved.
+     */
+    List<AbstractDoor> getDoorsInChunks(String worldName, List<Long> chunkIds);
+
     /**
      * Inserts a new door in the database. If the insertion was successful, a new {@link AbstractDoor} will be created
      * with the correct doorUID.
@@ -252,6 +310,16 @@ public interface IStorage
      */
     boolean syncDoorData(DoorBase doorBase, byte[] typeData);
 
+    /**
+     * Synchronizes multiple doors with the database in a single transaction. See {@link #syncDoorData(DoorBase,
+     * byte[])}.
+     *
+     * @param doors
+     *     The data of the doors to synchronize.
+     * @return For every door (in the same order as the provided list), whether the update was successful.
+     */
+    boolean[] syncDoorData(List<DoorSyncData> doors);
+
     /**
      * Retrieves all {@link DatabaseManager.DoorIdentifier}s that start with the provided input.
      * <p>
@@ -269,6 +337,18 @@ public interface IStorage
     List<DatabaseManager.DoorIdentifier> getPartialIdentifiers(
         String input, @Nullable IPPlayer player, int maxPermission);
 
+    /**
+     * Retrieves the identifiers of all doors owned by a player.
+     *
+     * @param playerUUID
+     *     The {@link UUID} of the player.
+     * @return The identifiers of all doors owned by the player, including the player's level of ownership of each door.
+     *
+     * @throws IllegalStateException
+     *     When the identifiers could not be retrieved.
+     */
+    List<DatabaseManager.OwnedDoorIdentifier> getOwnedDoorIdentifiers(UUID playerUUID);
+
     /**
      * Deletes a {@link DoorType} and all {@link AbstractDoor}s of this type from the database.
      * <p>
@@ -346,6 +426,18 @@ public interface IStorage
      */
     DatabaseState getDatabaseState();
 
+    /**
+     * The data of a door that is to be synchronized with the database.
+     *
+     * @param doorBase
+     *     The {@link DoorBase} that describes the base data of door.
+     * @param typeData
+     *     The type-specific data of this door.
+     */
+    record DoorSyncData(DoorBase doorBase, byte[] typeData)
+    {
+    }
+
     /**
      * Represents the status of the database.
      *
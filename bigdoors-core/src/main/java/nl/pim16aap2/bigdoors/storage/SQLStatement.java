@@ -78,8 +78,29 @@ public enum SQLStatement
         """
     ),
 
-    GET_POWER_BLOCK_DATA_IN_CHUNK(
-        "SELECT id, powerBlockX, powerBlockY, powerBlockZ, powerBlockChunkId FROM DoorBase WHERE powerBlockChunkId = ?;"
+    /**
+     * Obtains the power blocks in all chunks whose IDs are in a JSON array (e.g. '[1,2,3]').
+     */
+    GET_POWER_BLOCK_DATA_IN_CHUNKS(
+        """
+        SELECT id, powerBlockX, powerBlockY, powerBlockZ, powerBlockChunkId
+        FROM DoorBase
+        WHERE powerBlockChunkId IN (SELECT value FROM json_each(?));
+        """
+    ),
+
+    /**
+     * Obtains the positions of all power blocks in a world.
+     */
+    GET_POWER_BLOCKS_IN_WORLD(
+        "SELECT powerBlockX, powerBlockY, powerBlockZ FROM DoorBase WHERE world = ?;"
+    ),
+
+    /**
+     * Obtains the UIDs and cuboids of all doors in a world.
+     */
+    GET_DOOR_CUBOIDS_IN_WORLD(
+        "SELECT id, xMin, yMin, zMin, xMax, yMax, zMax FROM DoorBase WHERE world = ?;"
     ),
 
     /**
@@ -119,6 +140,19 @@ public enum SQLStatement
         """
     ),
 
+    /**
+     * Obtains the UID, name, and permission of every door owned by a player.
+     */
+    GET_IDENTIFIERS_OF_OWNER(
+        """
+        SELECT D.id, D.name, O.permission
+        FROM Player AS P
+        INNER JOIN DoorOwnerPlayer AS O ON O.playerID = P.id
+        INNER JOIN DoorBase AS D ON D.id = O.doorUID
+        WHERE P.playerUUID = ?;
+        """
+    ),
+
     UPDATE_PLAYER_DATA(
         """
         UPDATE Player SET
@@ -191,6 +225,19 @@ public enum SQLStatement
         """
     ),
 
+    /**
+     * Obtains the door bases of all doors whose UIDs are in a JSON array (e.g. '[1,2,3]').
+     */
+    GET_DOOR_BASES_FROM_IDS(
+        """
+        SELECT DoorBase.*, Player.*, DoorOwnerPlayer.permission
+        FROM DoorBase
+        INNER JOIN DoorOwnerPlayer ON DoorBase.id = DoorOwnerPlayer.doorUID
+        INNER JOIN Player ON DoorOwnerPlayer.playerID = Player.id
+        WHERE DoorBase.id IN (SELECT value FROM json_each(?)) AND DoorOwnerPlayer.permission = 0;
+        """
+    ),
+
     /**
      * Obtains the IDs of all doors whose rotationPoint's chunk hash value has a certain value.
      */
@@ -202,6 +249,20 @@ public enum SQLStatement
         """
     ),
 
+    /**
+     * Obtains the door bases of all doors in a world whose rotationPoint's chunk hash value is in a JSON array.
+     */
+    GET_DOOR_BASES_IN_CHUNKS(
+        """
+        SELECT DoorBase.*, Player.*, DoorOwnerPlayer.permission
+        FROM DoorBase
+        INNER JOIN DoorOwnerPlayer ON DoorBase.id = DoorOwnerPlayer.doorUID
+        INNER JOIN Player ON DoorOwnerPlayer.playerID = Player.id
+        WHERE DoorBase.rotationPointChunkId IN (SELECT value FROM json_each(?))
+            AND DoorBase.world = ? AND DoorOwnerPlayer.permission = 0;
+        """
+    ),
+
     GET_DOOR_BASE_FROM_ID_FOR_PLAYER(
         """
         SELECT DoorBase.*, Player.*, DoorOwnerPlayer.permission
@@ -250,6 +311,17 @@ public enum SQLStatement
         """
     ),
 
+    /**
+     * Obtains the owners of all doors whose UIDs are in a JSON array (e.g. '[1,2,3]').
+     */
+    GET_DOOR_OWNERS_OF_DOORS(
+        """
+        SELECT O.doorUID, O.permission, P.*
+        FROM DoorOwnerPlayer AS O INNER JOIN Player AS P ON O.playerID = P.id
+        WHERE O.doorUID IN (SELECT value FROM json_each(?));
+        """
+    ),
+
     INSERT_DOOR_BASE(
         """
         INSERT INTO DoorBase
@@ -359,12 +431,96 @@ public enum SQLStatement
         CREATE TABLE IF NOT EXISTS DoorOwnerPlayer
         (id            INTEGER    PRIMARY KEY AUTOINCREMENT,
         permission     INTEGER    NOT NULL,
-        playerID       REFERENCES Player(id)   ON UPDATE CASCADE ON DELETE CASCADE,
-        doorUID        REFERENCES DoorBase(id) ON UPDATE CASCADE ON DELETE CASCADE,
+        playerID       INTEGER    NOT NULL REFERENCES Player(id)   ON UPDATE CASCADE ON DELETE CASCADE,
+        doorUID        INTEGER    NOT NULL REFERENCES DoorBase(id) ON UPDATE CASCADE ON DELETE CASCADE,
         unique (playerID, doorUID));
         """
     ),
 
+    /**
+     * Covers {@link #GET_POWER_BLOCK_DATA_IN_CHUNKS}, so it can be answered without reading the DoorBase table.
+     */
+    CREATE_INDEX_DOORBASE_POWER_BLOCK_CHUNK_ID(
+        """
+        CREATE INDEX IF NOT EXISTS DoorBase_powerBlockChunkId
+        ON DoorBase (powerBlockChunkId, powerBlockX, powerBlockY, powerBlockZ);
+        """
+    ),
+
+    CREATE_INDEX_DOORBASE_ROTATION_POINT_CHUNK_ID(
+        "CREATE INDEX IF NOT EXISTS DoorBase_rotationPointChunkId ON DoorBase (rotationPointChunkId);"
+    ),
+
+    CREATE_INDEX_DOORBASE_WORLD(
+        "CREATE INDEX IF NOT EXISTS DoorBase_world ON DoorBase (world);"
+    ),
+
+    CREATE_INDEX_DOORBASE_NAME(
+        "CREATE INDEX IF NOT EXISTS DoorBase_name ON DoorBase (name);"
+    ),
+
+    CREATE_INDEX_DOORBASE_DOOR_TYPE(
+        "CREATE INDEX IF NOT EXISTS DoorBase_doorType ON DoorBase (doorType);"
+    ),
+
+    /**
+     * Lookups by playerID are already covered by the unique constraint on (playerID, doorUID).
+     */
+    CREATE_INDEX_DOOROWNER_PLAYER_DOOR_UID(
+        "CREATE INDEX IF NOT EXISTS DoorOwnerPlayer_doorUID ON DoorOwnerPlayer (doorUID, permission);"
+    ),
+
+    CREATE_INDEX_PLAYER_NAME(
+        "CREATE INDEX IF NOT EXISTS Player_playerName ON Player (playerName);"
+    ),
+
+    /**
+     * Moves the DoorOwnerPlayer table out of the way, so it can be recreated with typed columns.
+     * <p>
+     * Before version 13, the playerID and doorUID columns did not have a type. Because of that, SQLite could not use
+     * any indices on them when joining them with the (integer) IDs of the other tables.
+     */
+    UPGRADE_13_RENAME_DOOROWNER_PLAYER(
+        "ALTER TABLE DoorOwnerPlayer RENAME TO DoorOwnerPlayer_old;"
+    ),
+
+    UPGRADE_13_COPY_DOOROWNER_PLAYER(
+        """
+        INSERT INTO DoorOwnerPlayer (id, permission, playerID, doorUID)
+        SELECT id, permission, playerID, doorUID
+        FROM DoorOwnerPlayer_old;
+        """
+    ),
+
+    /**
+     * Removes the sequence of the new DoorOwnerPlayer table, so the sequence of the old table can be used instead.
+     */
+    UPGRADE_13_DELETE_DOOROWNER_PLAYER_SEQUENCE(
+        "DELETE FROM sqlite_sequence WHERE name = 'DoorOwnerPlayer';"
+    ),
+
+    UPGRADE_13_MOVE_DOOROWNER_PLAYER_SEQUENCE(
+        "UPDATE sqlite_sequence SET name = 'DoorOwnerPlayer' WHERE name = 'DoorOwnerPlayer_old';"
+    ),
+
+    UPGRADE_13_DROP_DOOROWNER_PLAYER_OLD(
+        "DROP TABLE DoorOwnerPlayer_old;"
+    ),
+
+    /**
+     * Recalculates the chunk IDs of all doors. See {@link nl.pim16aap2.bigdoors.util.Util#getChunkId(int, int)}.
+     * <p>
+     * Before version 14, the chunk IDs were calculated from the block coordinates multiplied by 16 rather than divided
+     * by 16, so every block column had its own 'chunk'.
+     */
+    UPGRADE_14_UPDATE_CHUNK_IDS(
+        """
+        UPDATE DoorBase SET
+        rotationPointChunkId = ((rotationPointX >> 4) << 32) | ((rotationPointZ >> 4) & 4294967295),
+        powerBlockChunkId    = ((powerBlockX    >> 4) << 32) | ((powerBlockZ    >> 4) & 4294967295);
+        """
+    ),
+
     ;
 
     private final String statement;
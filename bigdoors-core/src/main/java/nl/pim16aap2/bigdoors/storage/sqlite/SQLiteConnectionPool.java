@@ -0,0 +1,239 @@
+package nl.pim16aap2.bigdoors.storage.sqlite;
+
+import lombok.extern.flogger.Flogger;
+import nl.pim16aap2.bigdoors.util.functional.CheckedFunction;
+import org.sqlite.SQLiteConfig;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Manages the connections to an SQLite database in WAL mode.
+ * <p>
+ * In WAL mode, readers do not block the writer and the writer does not block readers. Therefore, this pool consists
+ * of a single writer connection and a small number of read-only connections, so that lookups can be executed in
+ * parallel with each other and with writes.
+ * <p>
+ * SQLite only allows a single writer at a time, so access to the writer is guarded by a reentrant lock. This allows
+ * an action that is holding the writer to execute nested writes on the same thread.
+ *
+ * @author Pim
+ */
+@Flogger
+final class SQLiteConnectionPool
+{
+    /**
+     * The number of read-only connections in the pool.
+     */
+    static final int READER_COUNT = 4;
+
+    /**
+     * The maximum amount of time (in milliseconds) a connection will wait for a lock on the database.
+     */
+    private static final int BUSY_TIMEOUT = 5_000;
+
+    /**
+     * The size of the page cache of each connection in KiB.
+     */
+    private static final int CACHE_SIZE = 8_192;
+
+    /**
+     * The maximum number of bytes of the database file that may be memory-mapped.
+     */
+    private static final long MMAP_SIZE = 256L * 1024 * 1024;
+
+    private final Connection writer;
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final List<Connection> readers;
+    private final BlockingQueue<Connection> availableReaders;
+
+    private SQLiteConnectionPool(Connection writer, List<Connection> readers)
+    {
+        this.writer = writer;
+        this.readers = readers;
+        availableReaders = new ArrayBlockingQueue<>(readers.size(), false, readers);
+    }
+
+    /**
+     * Opens all connections of a new pool for the given database file.
+     * <p>
+     * The writer is opened first, as it is responsible for switching the database to WAL mode.
+     *
+     * @param dbFile
+     *     The database file.
+     * @return The new connection pool.
+     *
+     * @throws SQLException
+     *     When one of the connections could not be opened.
+     */
+    static SQLiteConnectionPool open(Path dbFile)
+        throws SQLException
+    {
+        final String url = "jdbc:sqlite:" + dbFile;
+        final Connection writer = createConfig(false).createConnection(url);
+        final List<Connection> readers = new ArrayList<>(READER_COUNT);
+        try
+        {
+            final SQLiteConfig readerConfig = createConfig(true);
+            for (int idx = 0; idx < READER_COUNT; ++idx)
+                readers.add(readerConfig.createConnection(url));
+        }
+        catch (SQLException e)
+        {
+            closeAll(writer, readers);
+            throw e;
+        }
+        return new SQLiteConnectionPool(writer, readers);
+    }
+
+    private static SQLiteConfig createConfig(boolean readOnly)
+    {
+        final SQLiteConfig config = new SQLiteConfig();
+        config.enforceForeignKeys(true);
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // NORMAL is safe in WAL mode; a power loss may only roll back the most recent transactions.
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        // Negative values are interpreted as KiB rather than as a number of pages.
+        config.setCacheSize(-CACHE_SIZE);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(MMAP_SIZE));
+        config.setBusyTimeout(BUSY_TIMEOUT);
+        config.setReadOnly(readOnly);
+        return config;
+    }
+
+    /**
+     * Gets the writer connection without acquiring the lock.
+     * <p>
+     * This should only be used while no other threads can access the pool, e.g. during initialization.
+     *
+     * @return The writer connection.
+     */
+    Connection getWriter()
+    {
+        return writer;
+    }
+
+    /**
+     * Applies a function to the writer connection while holding the writer lock.
+     *
+     * @param fun
+     *     The function to apply.
+     * @param <T>
+     *     The type of the result.
+     * @return The result of the function.
+     *
+     * @throws Exception
+     *     When the function threw an exception.
+     */
+    <T> T write(CheckedFunction<Connection, T, Exception> fun)
+        throws Exception
+    {
+        writerLock.lock();
+        try
+        {
+            return fun.apply(writer);
+        }
+        finally
+        {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Applies a function to one of the read-only connections. When all readers are in use, this method waits until
+     * one becomes available.
+     * <p>
+     * When the current thread is holding the writer lock, the writer is used instead, so any uncommitted changes of
+     * the current transaction are visible to the function.
+     *
+     * @param fun
+     *     The function to apply.
+     * @param <T>
+     *     The type of the result.
+     * @return The result of the function.
+     *
+     * @throws Exception
+     *     When the function threw an exception or when the thread was interrupted while waiting for a reader.
+     */
+    <T> T read(CheckedFunction<Connection, T, Exception> fun)
+        throws Exception
+    {
+        if (writerLock.isHeldByCurrentThread())
+            return fun.apply(writer);
+
+        final Connection reader = availableReaders.take();
+        try
+        {
+            return fun.apply(reader);
+        }
+        finally
+        {
+            availableReaders.add(reader);
+        }
+    }
+
+    /**
+     * Copies all changes in the write-ahead log into the database file and truncates the log.
+     * <p>
+     * Afterwards, the database file contains all committed data, so it can safely be copied.
+     *
+     * @throws SQLException
+     *     When the checkpoint could not be executed.
+     */
+    void checkpoint()
+        throws SQLException
+    {
+        writerLock.lock();
+        try (Statement statement = writer.createStatement())
+        {
+            statement.execute("PRAGMA wal_checkpoint(TRUNCATE);");
+        }
+        finally
+        {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Closes all connections in this pool.
+     */
+    void close()
+    {
+        closeAll(writer, readers);
+    }
+
+    private static void closeAll(Connection writer, List<Connection> readers)
+    {
+        for (final Connection reader : readers)
+            close(reader);
+        close(writer);
+    }
+
+    private static void close(Connection conn)
+    {
+        try
+        {
+            conn.close();
+        }
+        catch (SQLException e)
+        {
+            log.at(Level.SEVERE).withCause(e).log("Failed to close SQLite connection!");
+        }
+    }
+
+    /**
+     * @return The number of read-only connections that are currently not in use.
+     */
+    int getAvailableReaderCount()
+    {
+        return availableReaders.size();
+    }
+}
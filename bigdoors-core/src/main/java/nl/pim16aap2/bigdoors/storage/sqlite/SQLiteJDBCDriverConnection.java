@@ -9,6 +9,9 @@ import nl.pim16aap2.bigdoors.api.PPlayerData;
 import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
 import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
 import nl.pim16aap2.bigdoors.api.factories.IPWorldFactory;
+import nl.pim16aap2.bigdoors.api.restartable.Restartable;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.LongMultimap;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.DoorBase;
 import nl.pim16aap2.bigdoors.doors.DoorBaseBuilder;
@@ -29,7 +32,6 @@ import nl.pim16aap2.bigdoors.util.functional.CheckedFunction;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
-import org.sqlite.SQLiteConfig;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -50,22 +52,36 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
  * An implementation of {@link IStorage} for SQLite.
+ * <p>
+ * The database is used in WAL mode. Queries are executed on a small pool of read-only connections, while all writes
+ * go through a single writer connection. See {@link SQLiteConnectionPool}.
  *
  * @author Pim
  */
 @Singleton
 @Flogger
-public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
+public final class SQLiteJDBCDriverConnection extends Restartable implements IStorage, IDebuggable
 {
     private static final String DRIVER = "org.sqlite.JDBC";
-    private static final int DATABASE_VERSION = 12;
+    private static final int DATABASE_VERSION = 14;
     private static final int MIN_DATABASE_VERSION = 10;
 
+    /**
+     * The statements that create the secondary indices of the database.
+     */
+    private static final List<SQLStatement> INDEX_STATEMENTS = List.of(
+        SQLStatement.CREATE_INDEX_DOORBASE_POWER_BLOCK_CHUNK_ID,
+        SQLStatement.CREATE_INDEX_DOORBASE_ROTATION_POINT_CHUNK_ID,
+        SQLStatement.CREATE_INDEX_DOORBASE_WORLD,
+        SQLStatement.CREATE_INDEX_DOORBASE_NAME,
+        SQLStatement.CREATE_INDEX_DOORBASE_DOOR_TYPE,
+        SQLStatement.CREATE_INDEX_DOOROWNER_PLAYER_DOOR_UID,
+        SQLStatement.CREATE_INDEX_PLAYER_NAME);
+
     /**
      * A fake UUID that cannot exist normally. To be used for storing transient data across server restarts.
      */
@@ -95,19 +111,23 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
 
     private final IPWorldFactory worldFactory;
 
-    private @Nullable Connection connection;
+    private volatile @Nullable SQLiteConnectionPool connectionPool;
 
     /**
      * Constructor of the SQLite driver connection.
      *
+     * @param restartableHolder
+     *     The object managing restarts for this object.
      * @param dbFile
      *     The file to store the database in.
      */
     @Inject
     public SQLiteJDBCDriverConnection(
-        @Named("databaseFile") Path dbFile, DoorBaseBuilder doorBaseBuilder, DoorRegistry doorRegistry,
-        DoorTypeManager doorTypeManager, IPWorldFactory worldFactory, DebuggableRegistry debuggableRegistry)
+        RestartableHolder restartableHolder, @Named("databaseFile") Path dbFile, DoorBaseBuilder doorBaseBuilder,
+        DoorRegistry doorRegistry, DoorTypeManager doorTypeManager, IPWorldFactory worldFactory,
+        DebuggableRegistry debuggableRegistry)
     {
+        super(restartableHolder);
         this.dbFile = dbFile;
         this.doorBaseBuilder = doorBaseBuilder;
         this.doorRegistry = doorRegistry;
@@ -135,6 +155,32 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
         debuggableRegistry.registerDebuggable(this);
     }
 
+    @Override
+    public synchronized void initialize()
+    {
+        // The connections are closed when this storage is shut down, so they have to be opened again after a restart.
+        if (connectionPool != null || databaseState != DatabaseState.OK)
+            return;
+        try
+        {
+            connectionPool = SQLiteConnectionPool.open(dbFile);
+        }
+        catch (SQLException e)
+        {
+            log.at(Level.SEVERE).withCause(e).log("Failed to reopen SQLite connections!");
+            databaseState = DatabaseState.ERROR;
+        }
+    }
+
+    @Override
+    public synchronized void shutDown()
+    {
+        final @Nullable SQLiteConnectionPool pool = connectionPool;
+        connectionPool = null;
+        if (pool != null)
+            pool.close();
+    }
+
     /**
      * Loads the driver's class file into memory at runtime.
      *
@@ -155,13 +201,13 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     }
 
     /**
-     * Establishes a connection with the database.
+     * Gets the pool of connections to the database.
      *
      * @param state
      *     The state from which the connection was requested.
-     * @return A database connection.
+     * @return The connection pool, or null if the database is not in the requested state.
      */
-    private @Nullable Connection getConnection(DatabaseState state)
+    private @Nullable SQLiteConnectionPool getConnectionPool(DatabaseState state)
     {
         if (!databaseState.equals(state))
         {
@@ -172,17 +218,31 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
             return null;
         }
 
-        return connection;
+        return connectionPool;
     }
 
     /**
-     * Establishes a connection with the database, assuming a database state of {@link DatabaseState#OK}.
+     * Gets the pool of connections to the database, assuming a database state of {@link DatabaseState#OK}.
      *
-     * @return A database connection.
+     * @return The connection pool, or null if the database is not in the OK state.
+     */
+    private @Nullable SQLiteConnectionPool getConnectionPool()
+    {
+        return getConnectionPool(DatabaseState.OK);
+    }
+
+    /**
+     * Gets the writer connection of the database without acquiring it. This should only be used while initializing
+     * or upgrading the database, as no other threads can access the database at that time.
+     *
+     * @param state
+     *     The state from which the connection was requested.
+     * @return The writer connection, or null if the database is not in the requested state.
      */
-    private @Nullable Connection getConnection()
+    private @Nullable Connection getConnection(DatabaseState state)
     {
-        return getConnection(DatabaseState.OK);
+        final @Nullable SQLiteConnectionPool pool = getConnectionPool(state);
+        return pool == null ? null : pool.getWriter();
     }
 
     /**
@@ -194,7 +254,6 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
      * @param conn
      *     The connection.
      */
-    @SuppressWarnings("unused")
     private void disableForeignKeys(Connection conn)
         throws Exception
     {
@@ -208,7 +267,6 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
      * @param conn
      *     The connection.
      */
-    @SuppressWarnings("unused")
     private void reEnableForeignKeys(Connection conn)
         throws Exception
     {
@@ -216,16 +274,6 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
         SQLStatement.LEGACY_ALTER_TABLE_OFF.constructPPreparedStatement().construct(conn).execute();
     }
 
-    private @Nullable Connection openConnection()
-        throws SQLException
-    {
-        final SQLiteConfig configRW = new SQLiteConfig();
-        configRW.enforceForeignKeys(true);
-
-        final String url = "jdbc:sqlite:" + dbFile;
-        return configRW.createConnection(url);
-    }
-
     /**
      * Initializes the database. I.e. create all the required files/tables.
      */
@@ -250,11 +298,12 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
 
         try
         {
-            this.connection = openConnection();
+            this.connectionPool = SQLiteConnectionPool.open(dbFile);
         }
         catch (SQLException e)
         {
             log.at(Level.SEVERE).withCause(e).log("Failed to open SQLite connections!");
+            databaseState = DatabaseState.ERROR;
             return;
         }
 
@@ -270,7 +319,14 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
 
             // Check if the "doors" table already exists. If it does, assume the rest exists
             // as well and don't set it up.
-            if (conn.getMetaData().getTables(null, null, "DoorBase", new String[]{"TABLE"}).next())
+            final boolean tableExists;
+            // The result set has to be closed, as it would otherwise prevent checkpoints on this connection.
+            try (ResultSet rs = conn.getMetaData().getTables(null, null, "DoorBase", new String[]{"TABLE"}))
+            {
+                tableExists = rs.next();
+            }
+
+            if (tableExists)
             {
                 databaseState = DatabaseState.OUT_OF_DATE;
                 verifyDatabaseVersion(conn);
@@ -286,6 +342,9 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
                 executeUpdate(conn, SQLStatement.CREATE_TABLE_DOOROWNER_PLAYER.constructPPreparedStatement());
                 executeUpdate(conn, SQLStatement.RESERVE_IDS_DOOROWNER_PLAYER.constructPPreparedStatement());
 
+                for (final SQLStatement statement : INDEX_STATEMENTS)
+                    executeUpdate(conn, statement.constructPPreparedStatement());
+
                 updateDBVersion(conn);
                 databaseState = DatabaseState.OK;
             }
@@ -297,7 +356,18 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
         }
     }
 
-    private Optional<AbstractDoor> constructDoor(ResultSet doorBaseRS)
+    /**
+     * Reads the data of a door from the current row of a {@link ResultSet}.
+     * <p>
+     * The row only contains the prime owner of the door, so the door cannot be constructed until its other owners have
+     * been retrieved. See {@link #constructDoors(Connection, List)}.
+     *
+     * @param doorBaseRS
+     *     The {@link ResultSet} whose current row contains a row from the "DoorBase" table as well as the prime owner
+     *     from the "DoorOwnerPlayer" and "Player" tables.
+     * @return The data of the door if it could be read.
+     */
+    private Optional<DoorRow> readDoorRow(ResultSet doorBaseRS)
         throws Exception
     {
         final Optional<DoorType> doorType = doorTypeManager.getDoorTypeFromFullName(doorBaseRS.getString("doorType"));
@@ -316,10 +386,6 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
         @SuppressWarnings("squid:S3655") //
         final DoorSerializer<?> serializer = doorType.get().getDoorSerializer();
 
-        final Optional<AbstractDoor> registeredDoor = doorRegistry.getRegisteredDoor(doorUID);
-        if (registeredDoor.isPresent())
-            return registeredDoor;
-
         final Optional<RotateDirection> openDirection =
             Optional.ofNullable(RotateDirection.valueOf(doorBaseRS.getInt("openDirection")));
 
@@ -357,15 +423,65 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
                                                    doorBaseRS.getInt("permission"),
                                                    playerData);
 
-        final Map<UUID, DoorOwner> doorOwners = getOwnersOfDoor(doorUID);
-        final DoorBase doorData = doorBaseBuilder.builder().uid(doorUID).name(name).cuboid(new Cuboid(min, max))
-                                                 .rotationPoint(rotationPoint).powerBlock(powerBlock).world(world)
-                                                 .isOpen(isOpen)
-                                                 .isLocked(isLocked).openDir(openDirection.get()).primeOwner(primeOwner)
-                                                 .doorOwners(doorOwners).build();
+        final DoorBaseBuilder.IBuilderDoorOwners builder =
+            doorBaseBuilder.builder().uid(doorUID).name(name).cuboid(new Cuboid(min, max))
+                           .rotationPoint(rotationPoint).powerBlock(powerBlock).world(world)
+                           .isOpen(isOpen)
+                           .isLocked(isLocked).openDir(openDirection.get()).primeOwner(primeOwner);
 
         final byte[] rawTypeData = doorBaseRS.getBytes("typeData");
-        return Optional.of(serializer.deserialize(doorData, rawTypeData));
+        return Optional.of(new DoorRow(doorUID, serializer, builder, rawTypeData));
+    }
+
+    /**
+     * Reads the data of all doors in a {@link ResultSet}. See {@link #readDoorRow(ResultSet)}.
+     *
+     * @param doorBaseRS
+     *     The {@link ResultSet} containing zero or more rows from the "DoorBase" table as well as their prime owners.
+     * @return The data of all doors that could be read.
+     */
+    private List<DoorRow> readDoorRows(ResultSet doorBaseRS)
+        throws Exception
+    {
+        final List<DoorRow> rows = new ArrayList<>();
+        while (doorBaseRS.next())
+            readDoorRow(doorBaseRS).ifPresent(rows::add);
+        return rows;
+    }
+
+    /**
+     * Constructs the doors described by a list of {@link DoorRow}s.
+     * <p>
+     * Doors that have already been registered are taken from the {@link DoorRegistry}. The owners of all other doors
+     * are retrieved using a single query, rather than a separate query for every door.
+     *
+     * @param conn
+     *     The connection to use to retrieve the owners of the doors.
+     * @param rows
+     *     The rows describing the doors to construct.
+     * @return The constructed doors, in the same order as the rows.
+     */
+    private List<AbstractDoor> constructDoors(Connection conn, List<DoorRow> rows)
+        throws Exception
+    {
+        if (rows.isEmpty())
+            return Collections.emptyList();
+
+        final Map<Long, AbstractDoor> registeredDoors = new HashMap<>();
+        final List<Long> unregisteredDoors = new ArrayList<>(rows.size());
+        for (final DoorRow row : rows)
+            doorRegistry.getRegisteredDoor(row.doorUID()).ifPresentOrElse(
+                door -> registeredDoors.put(row.doorUID(), door), () -> unregisteredDoors.add(row.doorUID()));
+
+        final Map<Long, Map<UUID, DoorOwner>> doorOwners = getOwnersOfDoors(conn, unregisteredDoors);
+
+        final List<AbstractDoor> doors = new ArrayList<>(rows.size());
+        for (final DoorRow row : rows)
+        {
+            final @Nullable AbstractDoor registeredDoor = registeredDoors.get(row.doorUID());
+            doors.add(registeredDoor != null ? registeredDoor : row.construct(doorOwners.get(row.doorUID())));
+        }
+        return doors;
     }
 
     @Override
@@ -449,34 +565,55 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     @Override
     public boolean syncDoorData(DoorBase doorBase, byte[] typeData)
     {
-        return executeUpdate(SQLStatement.UPDATE_DOOR_BASE
-                                 .constructPPreparedStatement()
-                                 .setNextString(doorBase.getName())
-                                 .setNextString(doorBase.getWorld().worldName())
-
-                                 .setNextInt(doorBase.getCuboid().getMin().x())
-                                 .setNextInt(doorBase.getCuboid().getMin().y())
-                                 .setNextInt(doorBase.getCuboid().getMin().z())
-
-                                 .setNextInt(doorBase.getCuboid().getMax().x())
-                                 .setNextInt(doorBase.getCuboid().getMax().y())
-                                 .setNextInt(doorBase.getCuboid().getMax().z())
-
-                                 .setNextInt(doorBase.getRotationPoint().x())
-                                 .setNextInt(doorBase.getRotationPoint().y())
-                                 .setNextInt(doorBase.getRotationPoint().z())
-                                 .setNextLong(Util.getChunkId(doorBase.getRotationPoint()))
-
-                                 .setNextInt(doorBase.getPowerBlock().x())
-                                 .setNextInt(doorBase.getPowerBlock().y())
-                                 .setNextInt(doorBase.getPowerBlock().z())
-                                 .setNextLong(Util.getChunkId(doorBase.getPowerBlock()))
+        return executeUpdate(getSyncDoorDataStatement(doorBase, typeData)) > 0;
+    }
 
-                                 .setNextInt(RotateDirection.getValue(doorBase.getOpenDir()))
-                                 .setNextLong(getFlag(doorBase.isOpen(), doorBase.isLocked()))
-                                 .setNextBytes(typeData)
+    @Override
+    public boolean[] syncDoorData(List<DoorSyncData> doors)
+    {
+        return executeTransaction(
+            conn ->
+            {
+                final boolean[] results = new boolean[doors.size()];
+                for (int idx = 0; idx < results.length; ++idx)
+                {
+                    final DoorSyncData door = doors.get(idx);
+                    results[idx] = executeUpdate(conn, getSyncDoorDataStatement(door.doorBase(), door.typeData())) > 0;
+                }
+                return results;
+            }, new boolean[doors.size()]);
+    }
 
-                                 .setNextLong(doorBase.getDoorUID())) > 0;
+    private PPreparedStatement getSyncDoorDataStatement(DoorBase doorBase, byte[] typeData)
+    {
+        return SQLStatement.UPDATE_DOOR_BASE
+            .constructPPreparedStatement()
+            .setNextString(doorBase.getName())
+            .setNextString(doorBase.getWorld().worldName())
+
+            .setNextInt(doorBase.getCuboid().getMin().x())
+            .setNextInt(doorBase.getCuboid().getMin().y())
+            .setNextInt(doorBase.getCuboid().getMin().z())
+
+            .setNextInt(doorBase.getCuboid().getMax().x())
+            .setNextInt(doorBase.getCuboid().getMax().y())
+            .setNextInt(doorBase.getCuboid().getMax().z())
+
+            .setNextInt(doorBase.getRotationPoint().x())
+            .setNextInt(doorBase.getRotationPoint().y())
+            .setNextInt(doorBase.getRotationPoint().z())
+            .setNextLong(Util.getChunkId(doorBase.getRotationPoint()))
+
+            .setNextInt(doorBase.getPowerBlock().x())
+            .setNextInt(doorBase.getPowerBlock().y())
+            .setNextInt(doorBase.getPowerBlock().z())
+            .setNextLong(Util.getChunkId(doorBase.getPowerBlock()))
+
+            .setNextInt(RotateDirection.getValue(doorBase.getOpenDir()))
+            .setNextLong(getFlag(doorBase.isOpen(), doorBase.isLocked()))
+            .setNextBytes(typeData)
+
+            .setNextLong(doorBase.getDoorUID());
     }
 
     @Override
@@ -498,6 +635,22 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
         return executeQuery(query, this::collectIdentifiers, Collections.emptyList());
     }
 
+    @Override
+    public List<DatabaseManager.OwnedDoorIdentifier> getOwnedDoorIdentifiers(UUID playerUUID)
+    {
+        return executeQueryOrThrow(SQLStatement.GET_IDENTIFIERS_OF_OWNER.constructPPreparedStatement()
+                                                                        .setNextString(playerUUID.toString()),
+                                   resultSet ->
+                                   {
+                                       final List<DatabaseManager.OwnedDoorIdentifier> ret = new ArrayList<>();
+                                       while (resultSet.next())
+                                           ret.add(new DatabaseManager.OwnedDoorIdentifier(
+                                               resultSet.getLong("id"), resultSet.getString("name"),
+                                               resultSet.getInt("permission")));
+                                       return ret;
+                                   });
+    }
+
     private List<DatabaseManager.DoorIdentifier> collectIdentifiers(ResultSet resultSet)
         throws SQLException
     {
@@ -538,64 +691,110 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     }
 
     /**
-     * Attempts to construct a subclass of {@link DoorBase} from a ResultSet containing all data pertaining the {@link
-     * DoorBase} (as stored in the "DoorBase" table), as well as the owner (name, UUID, permission) and the
-     * typeTableName.
+     * Attempts to construct a subclass of {@link DoorBase} from a query whose result contains all data pertaining the
+     * {@link DoorBase} (as stored in the "DoorBase" table), as well as the prime owner (name, UUID, permission).
      *
-     * @param doorBaseRS
-     *     The {@link ResultSet} containing a row from the "DoorBase" table as well as a row from the "DoorOwnerPlayer"
-     *     table and "typeTableName" from the "DoorType" table.
+     * @param pPreparedStatement
+     *     The query that selects a row from the "DoorBase" table as well as a row from the "DoorOwnerPlayer" and
+     *     "Player" tables.
      * @return An instance of a subclass of {@link DoorBase} if it could be created.
      */
-    private Optional<AbstractDoor> getDoor(ResultSet doorBaseRS)
-        throws Exception
+    private Optional<AbstractDoor> getDoor(PPreparedStatement pPreparedStatement)
     {
-        // Make sure the ResultSet isn't empty.
-        if (!doorBaseRS.isBeforeFirst())
-            return Optional.empty();
-
-        return constructDoor(doorBaseRS);
+        final List<AbstractDoor> doors = getDoors(pPreparedStatement);
+        return doors.isEmpty() ? Optional.empty() : Optional.of(doors.get(0));
     }
 
     /**
-     * Attempts to construct a list of subclasses of {@link DoorBase} from a ResultSet containing all data pertaining to
-     * one or more {@link DoorBase}s (as stored in the "DoorBase" table), as well as the owner (name, UUID, permission)
-     * and the typeTableName.
+     * Attempts to construct a list of subclasses of {@link DoorBase} from a query whose result contains all data
+     * pertaining to one or more {@link DoorBase}s (as stored in the "DoorBase" table), as well as their prime owners
+     * (name, UUID, permission).
+     * <p>
+     * The other owners of all doors are retrieved using a single additional query on the same connection. See {@link
+     * #constructDoors(Connection, List)}.
      *
-     * @param doorBaseRS
-     *     The {@link ResultSet} containing one or more rows from the "DoorBase" table as well as matching rows from the
-     *     "DoorOwnerPlayer" table and "typeTableName" from the "DoorType" table.
-     * @return An optional with a list of {@link DoorBase}s if any could be constructed. If none could be constructed,
-     * an empty {@link Optional} is returned instead.
+     * @param pPreparedStatement
+     *     The query that selects zero or more rows from the "DoorBase" table as well as matching rows from the
+     *     "DoorOwnerPlayer" and "Player" tables.
+     * @return A list of all {@link DoorBase}s that could be constructed.
      */
-    private List<AbstractDoor> getDoors(ResultSet doorBaseRS)
-        throws Exception
+    private List<AbstractDoor> getDoors(PPreparedStatement pPreparedStatement)
     {
-        // Make sure the ResultSet isn't empty.
-        if (!doorBaseRS.isBeforeFirst())
+        final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+        if (pool == null)
+        {
+            logStatement(pPreparedStatement);
             return Collections.emptyList();
+        }
+        try
+        {
+            return readDoors(pool, pPreparedStatement);
+        }
+        catch (Exception e)
+        {
+            log.at(Level.SEVERE).withCause(e).log("Failed to retrieve doors: %s", pPreparedStatement);
+        }
+        return Collections.emptyList();
+    }
 
-        final List<AbstractDoor> doors = new ArrayList<>();
-        while (doorBaseRS.next())
-            constructDoor(doorBaseRS).ifPresent(doors::add);
-        return doors;
+    /**
+     * Constructs doors from a query. See {@link #getDoors(PPreparedStatement)}.
+     * <p>
+     * Unlike {@link #getDoors(PPreparedStatement)}, any failures are propagated to the caller.
+     *
+     * @param pPreparedStatement
+     *     The query that selects zero or more rows from the "DoorBase" table as well as matching rows from the
+     *     "DoorOwnerPlayer" and "Player" tables.
+     * @return A list of all {@link DoorBase}s that could be constructed.
+     *
+     * @throws IllegalStateException
+     *     When the doors could not be retrieved.
+     */
+    private List<AbstractDoor> getDoorsOrThrow(PPreparedStatement pPreparedStatement)
+    {
+        final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+        if (pool == null)
+            throw new IllegalStateException("The database is not available! Failed to retrieve doors: " +
+                                                pPreparedStatement);
+        try
+        {
+            return readDoors(pool, pPreparedStatement);
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("Failed to retrieve doors: " + pPreparedStatement, e);
+        }
+    }
+
+    private List<AbstractDoor> readDoors(SQLiteConnectionPool pool, PPreparedStatement pPreparedStatement)
+        throws Exception
+    {
+        return pool.read(
+            conn -> constructDoors(conn, executeQueryOrThrow(conn, pPreparedStatement, this::readDoorRows)));
     }
 
     @Override
     public Optional<AbstractDoor> getDoor(long doorUID)
     {
-        return executeQuery(SQLStatement.GET_DOOR_BASE_FROM_ID.constructPPreparedStatement()
-                                                              .setLong(1, doorUID),
-                            this::getDoor, Optional.empty());
+        return getDoor(SQLStatement.GET_DOOR_BASE_FROM_ID.constructPPreparedStatement()
+                                                         .setLong(1, doorUID));
+    }
+
+    @Override
+    public List<AbstractDoor> getDoors(List<Long> doorUIDs)
+    {
+        if (doorUIDs.isEmpty())
+            return Collections.emptyList();
+        return getDoors(SQLStatement.GET_DOOR_BASES_FROM_IDS.constructPPreparedStatement()
+                                                            .setString(1, toJsonArray(doorUIDs)));
     }
 
     @Override
     public Optional<AbstractDoor> getDoor(UUID playerUUID, long doorUID)
     {
-        return executeQuery(SQLStatement.GET_DOOR_BASE_FROM_ID_FOR_PLAYER.constructPPreparedStatement()
-                                                                         .setLong(1, doorUID)
-                                                                         .setString(2, playerUUID.toString()),
-                            this::getDoor, Optional.empty());
+        return getDoor(SQLStatement.GET_DOOR_BASE_FROM_ID_FOR_PLAYER.constructPPreparedStatement()
+                                                                    .setLong(1, doorUID)
+                                                                    .setString(2, playerUUID.toString()));
     }
 
     @Override
@@ -657,11 +856,10 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     @Override
     public List<AbstractDoor> getDoors(UUID playerUUID, String doorName, int maxPermission)
     {
-        return executeQuery(SQLStatement.GET_NAMED_DOORS_OWNED_BY_PLAYER.constructPPreparedStatement()
-                                                                        .setString(1, playerUUID.toString())
-                                                                        .setString(2, doorName)
-                                                                        .setInt(3, maxPermission),
-                            this::getDoors, Collections.emptyList());
+        return getDoors(SQLStatement.GET_NAMED_DOORS_OWNED_BY_PLAYER.constructPPreparedStatement()
+                                                                    .setString(1, playerUUID.toString())
+                                                                    .setString(2, doorName)
+                                                                    .setInt(3, maxPermission));
     }
 
     @Override
@@ -673,18 +871,16 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     @Override
     public List<AbstractDoor> getDoors(String name)
     {
-        return executeQuery(SQLStatement.GET_DOORS_WITH_NAME.constructPPreparedStatement()
-                                                            .setString(1, name),
-                            this::getDoors, Collections.emptyList());
+        return getDoors(SQLStatement.GET_DOORS_WITH_NAME.constructPPreparedStatement()
+                                                        .setString(1, name));
     }
 
     @Override
     public List<AbstractDoor> getDoors(UUID playerUUID, int maxPermission)
     {
-        return executeQuery(SQLStatement.GET_DOORS_OWNED_BY_PLAYER_WITH_LEVEL.constructPPreparedStatement()
-                                                                             .setString(1, playerUUID.toString())
-                                                                             .setInt(2, maxPermission),
-                            this::getDoors, Collections.emptyList());
+        return getDoors(SQLStatement.GET_DOORS_OWNED_BY_PLAYER_WITH_LEVEL.constructPPreparedStatement()
+                                                                         .setString(1, playerUUID.toString())
+                                                                         .setInt(2, maxPermission));
     }
 
     @Override
@@ -740,25 +936,71 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     }
 
     @Override
-    public ConcurrentHashMap<Integer, List<Long>> getPowerBlockData(long chunkId)
+    public Map<Long, LongMultimap> getPowerBlockData(List<Long> chunkIds)
     {
-        return executeQuery(SQLStatement.GET_POWER_BLOCK_DATA_IN_CHUNK.constructPPreparedStatement()
-                                                                      .setLong(1, chunkId),
+        if (chunkIds.isEmpty())
+            return Collections.emptyMap();
+
+        final Map<Long, LongMultimap.Builder> builders = new HashMap<>(chunkIds.size());
+        executeQueryOrThrow(SQLStatement.GET_POWER_BLOCK_DATA_IN_CHUNKS.constructPPreparedStatement()
+                                                                       .setString(1, toJsonArray(chunkIds)),
                             resultSet ->
                             {
-                                final ConcurrentHashMap<Integer, List<Long>> doors = new ConcurrentHashMap<>();
                                 while (resultSet.next())
                                 {
                                     final int locationHash =
                                         Util.simpleChunkSpaceLocationhash(resultSet.getInt("powerBlockX"),
                                                                           resultSet.getInt("powerBlockY"),
                                                                           resultSet.getInt("powerBlockZ"));
-                                    if (!doors.containsKey(locationHash))
-                                        doors.put(locationHash, new ArrayList<>());
-                                    doors.get(locationHash).add(resultSet.getLong("id"));
+                                    builders.computeIfAbsent(resultSet.getLong("powerBlockChunkId"),
+                                                             chunkId -> LongMultimap.builder())
+                                            .put(locationHash, resultSet.getLong("id"));
                                 }
-                                return doors;
-                            }, new ConcurrentHashMap<>());
+                                return builders;
+                            });
+
+        final Map<Long, LongMultimap> ret = new HashMap<>(chunkIds.size());
+        builders.forEach((chunkId, builder) -> ret.put(chunkId, builder.build()));
+        // Make sure the chunks without any power blocks are included as well.
+        for (final long chunkId : chunkIds)
+            ret.putIfAbsent(chunkId, LongMultimap.EMPTY);
+        return ret;
+    }
+
+    @Override
+    public List<Vector3Di> getPowerBlockPositions(String worldName)
+    {
+        return executeQueryOrThrow(SQLStatement.GET_POWER_BLOCKS_IN_WORLD.constructPPreparedStatement()
+                                                                         .setString(1, worldName),
+                                   resultSet ->
+                                   {
+                                       final List<Vector3Di> positions = new ArrayList<>();
+                                       while (resultSet.next())
+                                           positions.add(new Vector3Di(resultSet.getInt("powerBlockX"),
+                                                                       resultSet.getInt("powerBlockY"),
+                                                                       resultSet.getInt("powerBlockZ")));
+                                       return positions;
+                                   });
+    }
+
+    @Override
+    public Map<Long, Cuboid> getDoorCuboids(String worldName)
+    {
+        return executeQueryOrThrow(SQLStatement.GET_DOOR_CUBOIDS_IN_WORLD.constructPPreparedStatement()
+                                                                         .setString(1, worldName),
+                                   resultSet ->
+                                   {
+                                       final Map<Long, Cuboid> cuboids = new HashMap<>();
+                                       while (resultSet.next())
+                                           cuboids.put(resultSet.getLong("id"),
+                                                       new Cuboid(new Vector3Di(resultSet.getInt("xMin"),
+                                                                                resultSet.getInt("yMin"),
+                                                                                resultSet.getInt("zMin")),
+                                                                  new Vector3Di(resultSet.getInt("xMax"),
+                                                                                resultSet.getInt("yMax"),
+                                                                                resultSet.getInt("zMax"))));
+                                       return cuboids;
+                                   });
     }
 
     @Override
@@ -775,6 +1017,16 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
                             }, new ArrayList<>(0));
     }
 
+    @Override
+    public List<AbstractDoor> getDoorsInChunks(String worldName, List<Long> chunkIds)
+    {
+        if (chunkIds.isEmpty())
+            return Collections.emptyList();
+        return getDoorsOrThrow(SQLStatement.GET_DOOR_BASES_IN_CHUNKS.constructPPreparedStatement()
+                                                                    .setNextString(toJsonArray(chunkIds))
+                                                                    .setNextString(worldName));
+    }
+
     @Override
     public boolean removeOwner(long doorUID, UUID playerUUID)
     {
@@ -783,29 +1035,65 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
                                                            .setLong(2, doorUID)) > 0;
     }
 
-    private Map<UUID, DoorOwner> getOwnersOfDoor(long doorUID)
+    /**
+     * Retrieves the owners of a number of doors using a single query.
+     *
+     * @param conn
+     *     A connection to the database.
+     * @param doorUIDs
+     *     The UIDs of the doors whose owners to retrieve.
+     * @return The owners of the doors mapped by the UID of their door. Doors without any owners are not included.
+     *
+     * @throws Exception
+     *     When the owners could not be retrieved.
+     */
+    private Map<Long, Map<UUID, DoorOwner>> getOwnersOfDoors(Connection conn, List<Long> doorUIDs)
+        throws Exception
     {
-        return executeQuery(SQLStatement.GET_DOOR_OWNERS.constructPPreparedStatement()
-                                                        .setLong(1, doorUID),
-                            resultSet ->
-                            {
-                                final Map<UUID, DoorOwner> ret = new HashMap<>();
-                                while (resultSet.next())
-                                {
-                                    final UUID uuid = UUID.fromString(resultSet.getString("playerUUID"));
-                                    final PPlayerData playerData =
-                                        new PPlayerData(uuid,
-                                                        resultSet.getString("playerName"),
-                                                        resultSet.getInt("sizeLimit"),
-                                                        resultSet.getInt("countLimit"),
-                                                        resultSet.getLong("permissions"));
-
-                                    ret.put(uuid, new DoorOwner(resultSet.getLong("doorUID"),
-                                                                resultSet.getInt("permission"),
-                                                                playerData));
-                                }
-                                return ret;
-                            }, new HashMap<>(0));
+        if (doorUIDs.isEmpty())
+            return Collections.emptyMap();
+
+        return executeQueryOrThrow(conn, SQLStatement.GET_DOOR_OWNERS_OF_DOORS.constructPPreparedStatement()
+                                                                              .setString(1, toJsonArray(doorUIDs)),
+                                   resultSet ->
+                                   {
+                                       final Map<Long, Map<UUID, DoorOwner>> ret = new HashMap<>();
+                                       while (resultSet.next())
+                                       {
+                                           final UUID uuid = UUID.fromString(resultSet.getString("playerUUID"));
+                                           final PPlayerData playerData =
+                                               new PPlayerData(uuid,
+                                                               resultSet.getString("playerName"),
+                                                               resultSet.getInt("sizeLimit"),
+                                                               resultSet.getInt("countLimit"),
+                                                               resultSet.getLong("permissions"));
+
+                                           final long doorUID = resultSet.getLong("doorUID");
+                                           ret.computeIfAbsent(doorUID, uid -> new HashMap<>())
+                                              .put(uuid, new DoorOwner(doorUID, resultSet.getInt("permission"),
+                                                                       playerData));
+                                       }
+                                       return ret;
+                                   });
+    }
+
+    /**
+     * Creates a JSON array from a list of UIDs, so they can be used with SQLite's json_each function.
+     *
+     * @param uids
+     *     The UIDs.
+     * @return The UIDs formatted as JSON array. E.g. "[1,2,3]".
+     */
+    private static String toJsonArray(List<Long> uids)
+    {
+        final StringBuilder sb = new StringBuilder(uids.size() * 8).append('[');
+        for (int idx = 0; idx < uids.size(); ++idx)
+        {
+            if (idx > 0)
+                sb.append(',');
+            sb.append(uids.get(idx).longValue());
+        }
+        return sb.append(']').toString();
     }
 
     @Override
@@ -916,6 +1204,12 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
             if (dbVersion < 11)
                 throw new IllegalStateException("Database version " + dbVersion + " is not supported!");
 
+            if (dbVersion < 13)
+                upgradeToV13(conn);
+
+            if (dbVersion < 14)
+                upgradeToV14(conn);
+
             updateDBVersion(conn);
             databaseState = DatabaseState.OK;
         }
@@ -926,6 +1220,86 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
         }
     }
 
+    /**
+     * Upgrades the database to version 13.
+     * <p>
+     * This recreates the DoorOwnerPlayer table with typed playerID and doorUID columns (all existing data is preserved)
+     * and adds the secondary indices for all lookups that would otherwise require a full table scan.
+     *
+     * @param conn
+     *     An active connection to the database.
+     */
+    private void upgradeToV13(Connection conn)
+        throws Exception
+    {
+        log.at(Level.INFO).log("Upgrading database to V13!");
+
+        // Foreign keys cannot be toggled inside a transaction, so this has to be done before starting it.
+        disableForeignKeys(conn);
+        conn.setAutoCommit(false);
+        try
+        {
+            executeOrThrow(conn, SQLStatement.UPGRADE_13_RENAME_DOOROWNER_PLAYER);
+            executeOrThrow(conn, SQLStatement.CREATE_TABLE_DOOROWNER_PLAYER);
+            executeOrThrow(conn, SQLStatement.UPGRADE_13_COPY_DOOROWNER_PLAYER);
+            executeOrThrow(conn, SQLStatement.UPGRADE_13_DELETE_DOOROWNER_PLAYER_SEQUENCE);
+            executeOrThrow(conn, SQLStatement.UPGRADE_13_MOVE_DOOROWNER_PLAYER_SEQUENCE);
+            executeOrThrow(conn, SQLStatement.UPGRADE_13_DROP_DOOROWNER_PLAYER_OLD);
+
+            for (final SQLStatement statement : INDEX_STATEMENTS)
+                executeOrThrow(conn, statement);
+
+            conn.commit();
+        }
+        catch (Exception e)
+        {
+            conn.rollback();
+            throw e;
+        }
+        finally
+        {
+            conn.setAutoCommit(true);
+            reEnableForeignKeys(conn);
+        }
+    }
+
+    /**
+     * Upgrades the database to version 14.
+     * <p>
+     * This recalculates the chunk IDs of the power blocks and rotation points of all doors.
+     *
+     * @param conn
+     *     An active connection to the database.
+     */
+    private void upgradeToV14(Connection conn)
+        throws Exception
+    {
+        log.at(Level.INFO).log("Upgrading database to V14!");
+        executeOrThrow(conn, SQLStatement.UPGRADE_14_UPDATE_CHUNK_IDS);
+    }
+
+    /**
+     * Executes a statement that does not have any variables. Unlike {@link #executeUpdate(Connection,
+     * PPreparedStatement)}, any failures are propagated to the caller.
+     *
+     * @param conn
+     *     An active connection to the database.
+     * @param statement
+     *     The statement to execute.
+     * @throws SQLException
+     *     When the statement could not be executed.
+     */
+    private void executeOrThrow(Connection conn, SQLStatement statement)
+        throws SQLException
+    {
+        final PPreparedStatement pPreparedStatement = statement.constructPPreparedStatement();
+        logStatement(pPreparedStatement);
+        try (PreparedStatement ps = pPreparedStatement.construct(conn))
+        {
+            ps.execute();
+        }
+    }
+
     /**
      * Makes a backup of the database file. Stored in a database with the same name, but with ".BACKUP" appended to it.
      *
@@ -937,10 +1311,13 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
 
         try
         {
+            // Make sure the database file contains all data that currently only exists in the write-ahead log.
+            if (connectionPool != null)
+                connectionPool.checkpoint();
             // Only the most recent backup is kept, so replace any existing backups.
             Files.copy(dbFile, dbFileBackup, StandardCopyOption.REPLACE_EXISTING);
         }
-        catch (IOException e)
+        catch (IOException | SQLException e)
         {
             log.at(Level.SEVERE).withCause(e)
                .log("Failed to create backup of the database! Database upgrade aborted and access is disabled!");
@@ -978,13 +1355,13 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     {
         try
         {
-            final @Nullable Connection conn = getConnection();
-            if (conn == null)
+            final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+            if (pool == null)
             {
                 logStatement(pPreparedStatement);
                 return -1;
             }
-            return executeUpdate(conn, pPreparedStatement);
+            return pool.write(conn -> executeUpdate(conn, pPreparedStatement));
         }
         catch (Exception e)
         {
@@ -1029,13 +1406,13 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     {
         try
         {
-            final @Nullable Connection conn = getConnection();
-            if (conn == null)
+            final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+            if (pool == null)
             {
                 logStatement(pPreparedStatement);
                 return -1;
             }
-            return executeUpdateReturnGeneratedKeys(conn, pPreparedStatement);
+            return pool.write(conn -> executeUpdateReturnGeneratedKeys(conn, pPreparedStatement));
         }
         catch (Exception e)
         {
@@ -1079,6 +1456,9 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
 
     /**
      * Executes a query defined by a {@link PPreparedStatement} and applies a function to the result.
+     * <p>
+     * The query is executed on one of the read-only connections, so it can run in parallel with other queries and
+     * with writes.
      *
      * @param pPreparedStatement
      *     The {@link PPreparedStatement}.
@@ -1096,13 +1476,13 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     {
         try
         {
-            final @Nullable Connection conn = getConnection();
-            if (conn == null)
+            final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+            if (pool == null)
             {
                 logStatement(pPreparedStatement);
                 return fallback;
             }
-            return executeQuery(conn, pPreparedStatement, fun, fallback);
+            return pool.read(conn -> executeQuery(conn, pPreparedStatement, fun, fallback));
         }
         catch (Exception e)
         {
@@ -1130,17 +1510,27 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     {
         try
         {
-            final @Nullable Connection conn = getConnection();
-            if (conn == null)
+            final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+            if (pool == null)
             {
                 logStatement(pPreparedStatement);
                 return fallback;
             }
-            conn.setAutoCommit(false);
-            final @Nullable T result = executeQuery(conn, pPreparedStatement, fun, fallback);
-            conn.commit();
-            conn.setAutoCommit(true);
-            return result;
+            return pool.write(
+                conn ->
+                {
+                    conn.setAutoCommit(false);
+                    try
+                    {
+                        final @Nullable T result = executeQuery(conn, pPreparedStatement, fun, fallback);
+                        conn.commit();
+                        return result;
+                    }
+                    finally
+                    {
+                        conn.setAutoCommit(true);
+                    }
+                });
         }
         catch (Exception e)
         {
@@ -1182,6 +1572,73 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
         return fallback;
     }
 
+    /**
+     * Executes a query defined by a {@link PPreparedStatement} on one of the read-only connections and applies a
+     * function to the result.
+     * <p>
+     * Unlike {@link #executeQuery(PPreparedStatement, CheckedFunction, Object)}, any failures are propagated to the
+     * caller. This should be used for queries whose results are cached, so a failure is not mistaken for an empty
+     * result.
+     *
+     * @param pPreparedStatement
+     *     The {@link PPreparedStatement}.
+     * @param fun
+     *     The function to apply to the {@link ResultSet}.
+     * @param <T>
+     *     The type of the result to return.
+     * @return The result of the function.
+     *
+     * @throws IllegalStateException
+     *     When the database is not available, when the query could not be executed, or when the function failed.
+     */
+    private <T> T executeQueryOrThrow(
+        PPreparedStatement pPreparedStatement, CheckedFunction<ResultSet, T, Exception> fun)
+    {
+        final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+        if (pool == null)
+            throw new IllegalStateException("The database is not available! Failed to execute query: " +
+                                                pPreparedStatement);
+        try
+        {
+            return pool.read(conn -> executeQueryOrThrow(conn, pPreparedStatement, fun));
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("Failed to execute query: " + pPreparedStatement, e);
+        }
+    }
+
+    /**
+     * Executes a query defined by a {@link PPreparedStatement} and applies a function to the result.
+     * <p>
+     * Unlike {@link #executeQuery(Connection, PPreparedStatement, CheckedFunction, Object)}, any failures are
+     * propagated to the caller.
+     *
+     * @param conn
+     *     A connection to the database.
+     * @param pPreparedStatement
+     *     The {@link PPreparedStatement}.
+     * @param fun
+     *     The function to apply to the {@link ResultSet}.
+     * @param <T>
+     *     The type of the result to return.
+     * @return The result of the function.
+     *
+     * @throws Exception
+     *     When the query could not be executed or when the function failed.
+     */
+    private <T> T executeQueryOrThrow(
+        Connection conn, PPreparedStatement pPreparedStatement, CheckedFunction<ResultSet, T, Exception> fun)
+        throws Exception
+    {
+        logStatement(pPreparedStatement);
+        try (PreparedStatement ps = pPreparedStatement.construct(conn);
+             ResultSet rs = ps.executeQuery())
+        {
+            return fun.apply(rs);
+        }
+    }
+
     /**
      * Executes a {@link CheckedFunction} given an active Connection.
      *
@@ -1219,19 +1676,30 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     {
         try
         {
-            final @Nullable Connection conn = getConnection();
-            try
-            {
-                if (conn == null)
+            final @Nullable SQLiteConnectionPool pool = getConnectionPool();
+            if (pool == null)
+                return fallback;
+            return pool.write(
+                conn ->
+                {
+                    try
+                    {
+                        return fun.apply(conn);
+                    }
+                    catch (Exception e)
+                    {
+                        if (failureAction == FailureAction.ROLLBACK)
+                            conn.rollback();
+                        log.at(Level.SEVERE).withCause(e).log();
+                    }
+                    finally
+                    {
+                        // Transactions disable auto-commit, so make sure it is enabled again for the next user.
+                        if (failureAction == FailureAction.ROLLBACK)
+                            conn.setAutoCommit(true);
+                    }
                     return fallback;
-                return fun.apply(conn);
-            }
-            catch (Exception e)
-            {
-                if (failureAction == FailureAction.ROLLBACK)
-                    conn.rollback();
-                log.at(Level.SEVERE).withCause(e).log();
-            }
+                });
         }
         catch (Exception e)
         {
@@ -1281,7 +1749,10 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
     {
         return "Database state: " + databaseState.name() +
             "\nDatabase version: " + DATABASE_VERSION +
-            "\nDatabase file: " + dbFile;
+            "\nDatabase file: " + dbFile +
+            "\nAvailable readers: " +
+            (connectionPool == null ? "-" : (connectionPool.getAvailableReaderCount() + "/" +
+                SQLiteConnectionPool.READER_COUNT));
     }
 
     /**
@@ -1299,4 +1770,33 @@ public final class SQLiteJDBCDriverConnection implements IStorage, IDebuggable
          */
         ROLLBACK,
     }
+
+    /**
+     * The data of a door as read from a single row of the "DoorBase" table, excluding its non-prime owners.
+     *
+     * @param doorUID
+     *     The UID of the door.
+     * @param serializer
+     *     The serializer of the type of the door.
+     * @param builder
+     *     The builder of the {@link DoorBase} of the door that only needs the owners of the door.
+     * @param typeData
+     *     The serialized type-specific data of the door.
+     */
+    private record DoorRow(
+        long doorUID, DoorSerializer<?> serializer, DoorBaseBuilder.IBuilderDoorOwners builder, byte[] typeData)
+    {
+        /**
+         * Constructs the door described by this row.
+         *
+         * @param doorOwners
+         *     All owners of the door, including the prime owner. When this is null, the prime owner is the only owner.
+         * @return The new door.
+         */
+        AbstractDoor construct(@Nullable Map<UUID, DoorOwner> doorOwners)
+            throws Exception
+        {
+            return serializer.deserialize(builder.doorOwners(doorOwners).build(), typeData);
+        }
+    }
 }
@@ -8,6 +8,7 @@ import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.IPLocation;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
+import nl.pim16aap2.bigdoors.managers.PowerBlockManager;
 import nl.pim16aap2.bigdoors.tooluser.step.IStep;
 import nl.pim16aap2.bigdoors.tooluser.step.Step;
 import nl.pim16aap2.bigdoors.tooluser.stepexecutor.StepExecutorPLocation;
@@ -27,13 +28,17 @@ import java.util.logging.Level;
 @Flogger
 public class PowerBlockRelocator extends ToolUser
 {
+    private final PowerBlockManager powerBlockManager;
     private final AbstractDoor door;
     private @Nullable IPLocation newLoc;
 
     @AssistedInject
-    public PowerBlockRelocator(ToolUser.Context context, @Assisted IPPlayer player, @Assisted AbstractDoor door)
+    public PowerBlockRelocator(
+        ToolUser.Context context, PowerBlockManager powerBlockManager, @Assisted IPPlayer player,
+        @Assisted AbstractDoor door)
     {
         super(context, player);
+        this.powerBlockManager = powerBlockManager;
         this.door = door;
     }
 
@@ -77,8 +82,7 @@ public class PowerBlockRelocator extends ToolUser
             getPlayer().sendMessage(localizer.getMessage("tool_user.powerblock_relocator.error.location_unchanged"));
         else
         {
-            door.setPowerBlockPosition(newLoc.getPosition());
-            door.syncData();
+            powerBlockManager.updatePowerBlockLoc(door, door.getPowerBlock(), newLoc.getPosition());
             getPlayer().sendMessage(localizer.getMessage("tool_user.powerblock_relocator.success"));
         }
         return true;
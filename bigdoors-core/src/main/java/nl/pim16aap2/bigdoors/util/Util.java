@@ -514,7 +514,7 @@ public final class Util
      */
     public static long getChunkId(Vector3Di position)
     {
-        return getChunkId(position.x() << 4, position.z() << 4);
+        return getChunkId(position.x() >> 4, position.z() >> 4);
     }
 
     /**
@@ -530,7 +530,7 @@ public final class Util
      */
     public static long getChunkId(int x, int y, int z)
     {
-        return getChunkId(x << 4, z << 4);
+        return getChunkId(x >> 4, z >> 4);
     }
 
     /**
@@ -582,7 +582,7 @@ public final class Util
      */
     public static Vector2Di getChunkCoords(Vector3Di position)
     {
-        return new Vector2Di(position.x() << 4, position.z() << 4);
+        return new Vector2Di(position.x() >> 4, position.z() >> 4);
     }
 
     /**
@@ -0,0 +1,169 @@
+package nl.pim16aap2.bigdoors.api.animatedblock;
+
+import nl.pim16aap2.bigdoors.moveblocks.BlockMover;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+class AbstractAnimationUpdateBatchTest
+{
+    private static final Player NEAR_PLAYER = new Player(0);
+    private static final Player OTHER_PLAYER = new Player(5);
+    private static final Player HALF_RATE_PLAYER = new Player(15);
+    private static final Player QUARTER_RATE_PLAYER = new Player(25);
+    private static final AnimationDetailLevels DETAIL_LEVELS = new AnimationDetailLevels(10, 20);
+
+    @Test
+    void testVelocity()
+    {
+        final TestBatch batch = new TestBatch(AnimationDetailLevels.FULL);
+        final IAnimatedBlock blockA = createVelocityBlock(batch, "a", List.of(NEAR_PLAYER));
+        final IAnimatedBlock blockB = createVelocityBlock(batch, "b", List.of(NEAR_PLAYER, OTHER_PLAYER));
+
+        BlockMover.MovementMethod.VELOCITY.apply(blockA, 1, 0, 0);
+        BlockMover.MovementMethod.VELOCITY.apply(blockB, 1, 0, 0);
+        // Nothing is sent until the batch is flushed.
+        Assertions.assertTrue(batch.sent.isEmpty());
+
+        batch.flush();
+        Assertions.assertEquals(List.of(List.of("velocity:a", "velocity:b")), batch.sent.get(NEAR_PLAYER));
+        Assertions.assertEquals(List.of(List.of("velocity:b")), batch.sent.get(OTHER_PLAYER));
+
+        // Flushing without any new updates does not send anything.
+        batch.flush();
+        Assertions.assertEquals(1, batch.sent.get(NEAR_PLAYER).size());
+    }
+
+    @Test
+    void testRelativeMoves()
+    {
+        final TestBatch batch = new TestBatch(AnimationDetailLevels.FULL);
+        final List<Player> players = List.of(NEAR_PLAYER, OTHER_PLAYER);
+
+        batch.addRelativeMove(players, "a", "move:a");
+        // Moves that are too small to be noticed are not sent.
+        batch.addRelativeMove(players, "b", null);
+        batch.flush();
+
+        Assertions.assertEquals(List.of(List.of("move:a")), batch.sent.get(NEAR_PLAYER));
+        Assertions.assertEquals(List.of(List.of("move:a")), batch.sent.get(OTHER_PLAYER));
+    }
+
+    @Test
+    void testVelocityUpdateInterval()
+    {
+        final TestBatch batch = new TestBatch(DETAIL_LEVELS);
+        final IAnimatedBlock block =
+            createVelocityBlock(batch, "a", List.of(NEAR_PLAYER, HALF_RATE_PLAYER, QUARTER_RATE_PLAYER));
+
+        for (int step = 0; step < 8; ++step)
+        {
+            BlockMover.MovementMethod.VELOCITY.apply(block, step, 0, 0);
+            batch.flush();
+        }
+
+        Assertions.assertEquals(8, batch.sent.get(NEAR_PLAYER).size());
+        batch.sent.get(NEAR_PLAYER).forEach(packets -> Assertions.assertEquals(List.of("velocity:a"), packets));
+
+        // Distant players receive the absolute position along with the velocity, so they don't drift.
+        Assertions.assertEquals(4, batch.sent.get(HALF_RATE_PLAYER).size());
+        Assertions.assertEquals(2, batch.sent.get(QUARTER_RATE_PLAYER).size());
+        Assertions.assertEquals(List.of("teleport:a", "velocity:a"), batch.sent.get(QUARTER_RATE_PLAYER).get(0));
+    }
+
+    @Test
+    void testRelativeMoveUpdateInterval()
+    {
+        final TestBatch batch = new TestBatch(DETAIL_LEVELS);
+        final List<Player> players = List.of(NEAR_PLAYER, HALF_RATE_PLAYER, QUARTER_RATE_PLAYER);
+
+        for (int step = 0; step < 8; ++step)
+        {
+            batch.addRelativeMove(players, "a", "move:a");
+            batch.flush();
+        }
+
+        Assertions.assertEquals(8, batch.sent.get(NEAR_PLAYER).size());
+        Assertions.assertEquals(4, batch.sent.get(HALF_RATE_PLAYER).size());
+        Assertions.assertEquals(2, batch.sent.get(QUARTER_RATE_PLAYER).size());
+        Assertions.assertEquals(List.of("teleport:a"), batch.sent.get(HALF_RATE_PLAYER).get(0));
+    }
+
+    @Test
+    void testResync()
+    {
+        final TestBatch batch = new TestBatch(DETAIL_LEVELS);
+        final Player player = new Player(15);
+
+        batch.addRelativeMove(List.of(player), "a", "move:a");
+        batch.flush();
+        // Moving closer to the animation means the player missed relative moves, so it has to be resynchronized.
+        player.distance = 0;
+        batch.addRelativeMove(List.of(player), "a", "move:a");
+        batch.flush();
+        batch.addRelativeMove(List.of(player), "a", "move:a");
+        batch.flush();
+
+        Assertions.assertEquals(List.of(List.of("teleport:a"), List.of("teleport:a"), List.of("move:a")),
+                                batch.sent.get(player));
+    }
+
+    /**
+     * Creates an animated block that adds its velocity updates to a batch the same way the platforms do.
+     */
+    private static IAnimatedBlock createVelocityBlock(TestBatch batch, String name, List<Player> players)
+    {
+        final IAnimatedBlock block = Mockito.mock(IAnimatedBlock.class);
+        Mockito.doAnswer(invocation ->
+                         {
+                             batch.addVelocity(players, name, "velocity:" + name);
+                             return null;
+                         })
+               .when(block).setVelocity(Mockito.anyDouble(), Mockito.anyDouble(), Mockito.anyDouble());
+        return block;
+    }
+
+    private static final class Player
+    {
+        private double distance;
+
+        private Player(double distance)
+        {
+            this.distance = distance;
+        }
+    }
+
+    private static final class TestBatch extends AbstractAnimationUpdateBatch<Player, String, String>
+    {
+        private final Map<Player, List<List<String>>> sent = new IdentityHashMap<>();
+
+        private TestBatch(AnimationDetailLevels detailLevels)
+        {
+            super(new Vector3Dd(0, 0, 0), detailLevels);
+        }
+
+        @Override
+        protected double getDistanceSquared(Player player, Vector3Dd position)
+        {
+            return player.distance * player.distance;
+        }
+
+        @Override
+        protected String createAbsoluteMove(String entity)
+        {
+            return "teleport:" + entity;
+        }
+
+        @Override
+        protected void send(Player player, List<String> packets)
+        {
+            sent.computeIfAbsent(player, key -> new ArrayList<>()).add(packets);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package nl.pim16aap2.bigdoors.api.animatedblock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AnimationDetailLevelsTest
+{
+    @Test
+    void testGetUpdateInterval()
+    {
+        final AnimationDetailLevels detailLevels = new AnimationDetailLevels(10, 20);
+        Assertions.assertEquals(1, detailLevels.getUpdateInterval(0));
+        Assertions.assertEquals(1, detailLevels.getUpdateInterval(99.9));
+        Assertions.assertEquals(2, detailLevels.getUpdateInterval(100));
+        Assertions.assertEquals(2, detailLevels.getUpdateInterval(399.9));
+        Assertions.assertEquals(4, detailLevels.getUpdateInterval(400));
+        Assertions.assertEquals(4, detailLevels.getUpdateInterval(Double.MAX_VALUE));
+    }
+
+    @Test
+    void testDisabledBands()
+    {
+        Assertions.assertEquals(1, AnimationDetailLevels.FULL.getUpdateInterval(Double.MAX_VALUE));
+
+        final AnimationDetailLevels halfOnly = new AnimationDetailLevels(10, 0);
+        Assertions.assertEquals(1, halfOnly.getUpdateInterval(99));
+        Assertions.assertEquals(2, halfOnly.getUpdateInterval(Double.MAX_VALUE));
+
+        final AnimationDetailLevels quarterOnly = new AnimationDetailLevels(-1, 20);
+        Assertions.assertEquals(1, quarterOnly.getUpdateInterval(399));
+        Assertions.assertEquals(4, quarterOnly.getUpdateInterval(400));
+    }
+}
@@ -0,0 +1,121 @@
+package nl.pim16aap2.bigdoors.data;
+
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class CuboidIndexTest
+{
+    private static Cuboid cuboid(int x0, int y0, int z0, int x1, int y1, int z1)
+    {
+        return new Cuboid(new Vector3Di(x0, y0, z0), new Vector3Di(x1, y1, z1));
+    }
+
+    private static long[] sorted(long[] keys)
+    {
+        final long[] ret = keys.clone();
+        Arrays.sort(ret);
+        return ret;
+    }
+
+    @Test
+    void testGetAt()
+    {
+        final CuboidIndex index = new CuboidIndex();
+        index.put(1, cuboid(0, 0, 0, 3, 15, 3));
+        // Spans 4 chunks, including negative ones.
+        index.put(2, cuboid(-5, 10, -5, 5, 20, 5));
+
+        Assertions.assertArrayEquals(new long[]{1}, index.getAt(new Vector3Di(0, 0, 0)));
+        Assertions.assertArrayEquals(new long[]{2}, index.getAt(new Vector3Di(-5, 15, -5)));
+        Assertions.assertArrayEquals(new long[]{1, 2}, sorted(index.getAt(new Vector3Di(2, 12, 2))));
+        Assertions.assertEquals(0, index.getAt(new Vector3Di(4, 0, 0)).length);
+        Assertions.assertEquals(0, index.getAt(new Vector3Di(100, 0, 100)).length);
+    }
+
+    @Test
+    void testUpdateAndRemove()
+    {
+        final CuboidIndex index = new CuboidIndex();
+        index.put(1, cuboid(0, 0, 0, 3, 3, 3));
+        index.put(1, cuboid(100, 0, 100, 103, 3, 103));
+
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertEquals(0, index.getAt(new Vector3Di(0, 0, 0)).length);
+        Assertions.assertArrayEquals(new long[]{1}, index.getAt(new Vector3Di(100, 0, 100)));
+        Assertions.assertEquals(cuboid(100, 0, 100, 103, 3, 103), index.get(1));
+
+        Assertions.assertTrue(index.remove(1));
+        Assertions.assertFalse(index.remove(1));
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertNull(index.get(1));
+        Assertions.assertEquals(0, index.getAt(new Vector3Di(100, 0, 100)).length);
+    }
+
+    @Test
+    void testGetIntersecting()
+    {
+        final CuboidIndex index = new CuboidIndex();
+        index.put(1, cuboid(0, 0, 0, 40, 3, 40));
+        index.put(2, cuboid(50, 0, 50, 52, 3, 52));
+        index.put(3, cuboid(0, 100, 0, 1, 101, 1));
+
+        // Door 1 spans many chunks, but it should only be found once.
+        Assertions.assertArrayEquals(new long[]{1}, index.getIntersecting(cuboid(-10, 0, -10, 45, 10, 45)));
+        Assertions.assertArrayEquals(new long[]{1, 2}, sorted(index.getIntersecting(cuboid(20, 0, 20, 50, 0, 50))));
+        Assertions.assertArrayEquals(new long[]{1, 2, 3},
+                                     sorted(index.getIntersecting(cuboid(-1000, 0, -1000, 1000, 255, 1000))));
+        Assertions.assertEquals(0, index.getIntersecting(cuboid(41, 0, 41, 49, 255, 49)).length);
+    }
+
+    @Test
+    void testGetInRange()
+    {
+        final CuboidIndex index = new CuboidIndex();
+        index.put(1, cuboid(0, 0, 0, 3, 3, 3));
+        index.put(2, cuboid(10, 0, 0, 13, 3, 3));
+
+        Assertions.assertArrayEquals(new long[]{1}, index.getInRange(new Vector3Di(5, 0, 0), 2));
+        Assertions.assertArrayEquals(new long[]{1, 2}, sorted(index.getInRange(new Vector3Di(5, 0, 0), 5)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.getInRange(new Vector3Di(0, 0, 0), -1));
+    }
+
+    @Test
+    void testRandom()
+    {
+        final Random random = new Random(1337);
+        final CuboidIndex index = new CuboidIndex();
+        final Map<Long, Cuboid> expected = new HashMap<>();
+        for (long key = 0; key < 500; ++key)
+        {
+            final int x = random.nextInt(1000) - 500;
+            final int y = random.nextInt(200);
+            final int z = random.nextInt(1000) - 500;
+            final Cuboid cuboid =
+                cuboid(x, y, z, x + random.nextInt(40), y + random.nextInt(20), z + random.nextInt(40));
+            expected.put(key, cuboid);
+            index.put(key, cuboid);
+        }
+
+        for (int idx = 0; idx < 200; ++idx)
+        {
+            final int x = random.nextInt(1000) - 500;
+            final int z = random.nextInt(1000) - 500;
+            final Cuboid region = cuboid(x, 0, z, x + random.nextInt(100), 255, z + random.nextInt(100));
+
+            final long[] expectedKeys = expected.entrySet().stream()
+                                                .filter(entry -> entry.getValue().getMin().x() <= region.getMax().x() &&
+                                                    entry.getValue().getMax().x() >= region.getMin().x() &&
+                                                    entry.getValue().getMin().z() <= region.getMax().z() &&
+                                                    entry.getValue().getMax().z() >= region.getMin().z())
+                                                .mapToLong(Map.Entry::getKey).sorted().toArray();
+            Assertions.assertArrayEquals(expectedKeys, sorted(index.getIntersecting(region)));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package nl.pim16aap2.bigdoors.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+class LongBloomFilterTest
+{
+    @Test
+    void testInvalidArguments()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(10, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(10, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(10, Double.NaN));
+    }
+
+    @Test
+    void testEmpty()
+    {
+        final LongBloomFilter filter = new LongBloomFilter(1, 0.01);
+        Assertions.assertEquals(1, filter.getCapacity());
+        for (long value = -100; value < 100; ++value)
+            Assertions.assertFalse(filter.mightContain(value));
+    }
+
+    @Test
+    void testFalsePositiveRate()
+    {
+        final int capacity = 10_000;
+        final LongBloomFilter filter = new LongBloomFilter(capacity, 0.01);
+        final Random random = new Random(1337);
+        final Set<Long> values = new HashSet<>();
+        while (values.size() < capacity)
+            values.add(random.nextLong());
+        values.forEach(filter::put);
+
+        // There should never be any false negatives.
+        for (final long value : values)
+            Assertions.assertTrue(filter.mightContain(value));
+
+        int falsePositives = 0;
+        final int tests = 100_000;
+        for (int idx = 0; idx < tests; ++idx)
+        {
+            final long value = random.nextLong();
+            if (!values.contains(value) && filter.mightContain(value))
+                ++falsePositives;
+        }
+        // Allow some margin over the requested probability of 1%.
+        Assertions.assertTrue(falsePositives < tests * 0.02, "Too many false positives: " + falsePositives);
+    }
+}
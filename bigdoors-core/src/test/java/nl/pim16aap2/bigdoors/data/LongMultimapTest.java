@@ -0,0 +1,78 @@
+package nl.pim16aap2.bigdoors.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class LongMultimapTest
+{
+    @Test
+    void testEmpty()
+    {
+        Assertions.assertSame(LongMultimap.EMPTY, LongMultimap.builder().build());
+        Assertions.assertTrue(LongMultimap.EMPTY.isEmpty());
+        Assertions.assertFalse(LongMultimap.EMPTY.containsKey(0));
+        Assertions.assertEquals(0, LongMultimap.EMPTY.get(0).length);
+        Assertions.assertEquals("{}", LongMultimap.EMPTY.toString());
+    }
+
+    @Test
+    void testMultipleValues()
+    {
+        final LongMultimap map = LongMultimap.builder()
+                                             .put(0, 10).put(-1, 11).put(0, 12).put(Long.MIN_VALUE, 13).put(0, 10)
+                                             .build();
+
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertEquals(5, map.valueCount());
+        Assertions.assertArrayEquals(new long[]{10, 12, 10}, map.get(0));
+        Assertions.assertArrayEquals(new long[]{11}, map.get(-1));
+        Assertions.assertArrayEquals(new long[]{13}, map.get(Long.MIN_VALUE));
+        Assertions.assertEquals(3, map.count(0));
+        Assertions.assertEquals(0, map.count(1));
+        Assertions.assertFalse(map.containsKey(1));
+        Assertions.assertEquals(0, map.get(Long.MAX_VALUE).length);
+    }
+
+    @Test
+    void testGetReturnsCopy()
+    {
+        final LongMultimap map = LongMultimap.builder().put(1, 2).build();
+        map.get(1)[0] = 3;
+        Assertions.assertArrayEquals(new long[]{2}, map.get(1));
+    }
+
+    @Test
+    void testRandom()
+    {
+        final Random random = new Random(1337);
+        final Map<Long, List<Long>> expected = new HashMap<>();
+        final LongMultimap.Builder builder = LongMultimap.builder();
+        for (int idx = 0; idx < 5_000; ++idx)
+        {
+            // Use a small range of keys, so most keys get multiple values.
+            final long key = random.nextInt(1_000) - 500L;
+            final long value = random.nextLong();
+            expected.computeIfAbsent(key, ignored -> new ArrayList<>()).add(value);
+            builder.put(key, value);
+        }
+        final LongMultimap map = builder.build();
+
+        Assertions.assertEquals(expected.size(), map.size());
+        Assertions.assertEquals(5_000, map.valueCount());
+        for (final Map.Entry<Long, List<Long>> entry : expected.entrySet())
+        {
+            final long[] values = map.get(entry.getKey());
+            Assertions.assertEquals(entry.getValue().size(), values.length);
+            for (int idx = 0; idx < values.length; ++idx)
+                Assertions.assertEquals(entry.getValue().get(idx), values[idx]);
+        }
+        for (long key = 500; key < 1_000; ++key)
+            Assertions.assertFalse(map.containsKey(key));
+    }
+}
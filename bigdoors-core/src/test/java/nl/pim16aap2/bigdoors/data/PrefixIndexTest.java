@@ -0,0 +1,101 @@
+package nl.pim16aap2.bigdoors.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+class PrefixIndexTest
+{
+    private record Named(long id, String name) {}
+
+    private static PrefixIndex<Named> newIndex()
+    {
+        return new PrefixIndex<>(Named::id, Named::name);
+    }
+
+    @Test
+    void testGetByPrefix()
+    {
+        final PrefixIndex<Named> index = newIndex();
+        final Named myDoor = new Named(1, "MyDoor");
+        final Named myPortcullis = new Named(2, "myPortcullis");
+        final Named flag = new Named(3, "flagThatIsMine");
+        final Named otherDoor = new Named(4, "MyDoor");
+        index.put(myDoor);
+        index.put(myPortcullis);
+        index.put(flag);
+        index.put(otherDoor);
+
+        Assertions.assertEquals(List.of(myDoor, otherDoor, myPortcullis), index.getByPrefix("my"));
+        Assertions.assertEquals(List.of(myDoor, otherDoor), index.getByPrefix("MYDOOR"));
+        Assertions.assertEquals(List.of(flag), index.getByPrefix("f"));
+        Assertions.assertEquals(4, index.getByPrefix("").size());
+        Assertions.assertTrue(index.getByPrefix("mydoors").isEmpty());
+        Assertions.assertTrue(index.getByPrefix("z").isEmpty());
+    }
+
+    @Test
+    void testUpdateAndRemove()
+    {
+        final PrefixIndex<Named> index = newIndex();
+        index.put(new Named(1, "door"));
+        final Named renamed = new Named(1, "portcullis");
+        index.put(renamed);
+
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertEquals(renamed, index.get(1));
+        Assertions.assertTrue(index.getByPrefix("door").isEmpty());
+        Assertions.assertEquals(List.of(renamed), index.getByPrefix("port"));
+
+        Assertions.assertTrue(index.remove(1));
+        Assertions.assertFalse(index.remove(1));
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertNull(index.get(1));
+        Assertions.assertTrue(index.getByPrefix("").isEmpty());
+    }
+
+    @Test
+    void testPutAll()
+    {
+        final PrefixIndex<Named> index = newIndex();
+        index.put(new Named(1, "a"));
+        index.putAll(List.of(new Named(1, "c"), new Named(2, "b"), new Named(3, "ab")));
+
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertEquals(List.of(new Named(3, "ab"), new Named(2, "b"), new Named(1, "c")),
+                                index.getByPrefix(""));
+        Assertions.assertEquals(List.of(new Named(3, "ab")), index.getByPrefix("a"));
+    }
+
+    @Test
+    void testRandom()
+    {
+        final Random random = new Random(1337);
+        final PrefixIndex<Named> index = newIndex();
+        final List<Named> expected = new ArrayList<>();
+        for (long id = 0; id < 500; ++id)
+        {
+            final StringBuilder sb = new StringBuilder();
+            for (int idx = random.nextInt(6); idx >= 0; --idx)
+                sb.append((char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(3)));
+            final Named named = new Named(id, sb.toString());
+            expected.add(named);
+            index.put(named);
+        }
+
+        for (int idx = 0; idx < 100; ++idx)
+        {
+            final String prefix = expected.get(random.nextInt(expected.size())).name().substring(0, 1);
+            final List<Named> expectedMatches =
+                expected.stream().filter(named -> named.name().toLowerCase(Locale.ROOT)
+                                                       .startsWith(prefix.toLowerCase(Locale.ROOT))).toList();
+            final List<Named> matches = index.getByPrefix(prefix);
+            Assertions.assertEquals(expectedMatches.size(), matches.size());
+            Assertions.assertTrue(matches.containsAll(expectedMatches));
+        }
+    }
+}
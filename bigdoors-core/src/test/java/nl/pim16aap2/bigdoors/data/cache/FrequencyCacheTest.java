@@ -0,0 +1,236 @@
+package nl.pim16aap2.bigdoors.data.cache;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.IntStream;
+
+class FrequencyCacheTest
+{
+    private long nanoTime = 0;
+
+    @Test
+    void basicOperations()
+    {
+        final FrequencyCache<Integer, String> cache = newCache(10, null);
+
+        Assertions.assertTrue(cache.putIfAbsent(1, "a").isEmpty());
+        Assertions.assertEquals("a", cache.putIfAbsent(1, "b").orElseThrow());
+        Assertions.assertEquals("a", cache.get(1).orElseThrow());
+
+        Assertions.assertEquals("c", cache.put(1, "c"));
+        Assertions.assertEquals("c", cache.get(1).orElseThrow());
+        Assertions.assertEquals(1, cache.getSize());
+
+        Assertions.assertEquals("c", cache.remove(1).orElseThrow());
+        Assertions.assertTrue(cache.remove(1).isEmpty());
+        Assertions.assertFalse(cache.containsKey(1));
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.clear();
+        Assertions.assertEquals(0, cache.getSize());
+        Assertions.assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void bounded()
+    {
+        final List<Integer> evicted = new ArrayList<>();
+        final FrequencyCache<Integer, String> cache =
+            new FrequencyCache<>(() -> 10, null, null, null, (key, value) -> evicted.add(key), () -> nanoTime);
+
+        for (int idx = 0; idx < 100; ++idx)
+            cache.put(idx, "value");
+        Assertions.assertEquals(10, cache.getSize());
+        Assertions.assertEquals(10, cache.getWeight());
+        Assertions.assertEquals(90, evicted.size());
+
+        // Explicitly removed entries are not evicted.
+        cache.remove(IntStream.range(0, 100).filter(cache::containsKey).findFirst().orElseThrow());
+        Assertions.assertEquals(90, evicted.size());
+    }
+
+    @Test
+    void unbounded()
+    {
+        final FrequencyCache<Integer, String> cache = newCache(0, null);
+        for (int idx = 0; idx < 1000; ++idx)
+            cache.put(idx, "value");
+        Assertions.assertEquals(1000, cache.getSize());
+    }
+
+    /**
+     * Make sure that entries that are accessed frequently are not evicted by entries that are only accessed once.
+     */
+    @Test
+    void frequencyAdmission()
+    {
+        final FrequencyCache<Integer, String> cache = newCache(10, null);
+
+        for (int idx = 0; idx < 10; ++idx)
+            cache.put(idx, "hot");
+        for (int count = 0; count < 10; ++count)
+            for (int idx = 0; idx < 10; ++idx)
+                Assertions.assertTrue(cache.get(idx).isPresent());
+
+        for (int idx = 100; idx < 120; ++idx)
+            cache.put(idx, "scan");
+
+        final long hotCount = IntStream.range(0, 10).filter(cache::containsKey).count();
+        final long scanCount = IntStream.range(100, 120).filter(cache::containsKey).count();
+        Assertions.assertTrue(hotCount >= 9, "Only " + hotCount + " hot entries survived the scan!");
+        Assertions.assertTrue(scanCount <= 1, scanCount + " scanned entries were admitted!");
+        Assertions.assertEquals(10, cache.getSize());
+    }
+
+    @Test
+    void pinned()
+    {
+        final FrequencyCache<Integer, String> cache =
+            new FrequencyCache<>(() -> 2, null, (key, value) -> key < 0, Duration.ofMillis(100), null,
+                                 () -> nanoTime);
+
+        cache.put(-1, "pinned");
+        for (int idx = 0; idx < 10; ++idx)
+            cache.put(idx, "value");
+        Assertions.assertTrue(cache.containsKey(-1));
+        Assertions.assertEquals(2, cache.getSize());
+
+        // Pinned entries do not expire either.
+        nanoTime += Duration.ofMillis(200).toNanos();
+        Assertions.assertTrue(cache.containsKey(-1));
+
+        // When all entries are pinned, the cache may exceed its maximum size.
+        cache.put(-2, "pinned");
+        cache.put(-3, "pinned");
+        Assertions.assertEquals(3, cache.getSize());
+    }
+
+    /**
+     * Make sure that the pinned predicate and the eviction listener can use the cache from other threads, which is not
+     * possible when they are called while holding the lock of the cache.
+     */
+    @Test
+    void callbacksWithoutLock()
+    {
+        final List<Integer> evicted = new ArrayList<>();
+        final AtomicReference<@Nullable FrequencyCache<Integer, String>> ref = new AtomicReference<>();
+        final BiPredicate<Integer, String> pinned =
+            (key, value) -> CompletableFuture.supplyAsync(() -> ref.get().getWeight()).orTimeout(1, TimeUnit.SECONDS)
+                                             .thenApply(weight -> key < 0).join();
+        final FrequencyCache<Integer, String> cache =
+            new FrequencyCache<>(() -> 2, null, pinned, null, (key, value) -> evicted.add(key), () -> nanoTime);
+        ref.set(cache);
+
+        cache.put(-1, "pinned");
+        for (int idx = 0; idx < 10; ++idx)
+            cache.put(idx, "value");
+        Assertions.assertTrue(cache.containsKey(-1));
+        Assertions.assertEquals(2, cache.getSize());
+        Assertions.assertEquals(2, cache.getWeight());
+        Assertions.assertEquals(9, evicted.size());
+    }
+
+    @Test
+    void concurrentAccess()
+        throws Exception
+    {
+        final FrequencyCache<Integer, String> cache = newCache(100, null);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; ++thread)
+            {
+                final int offset = thread * 1000;
+                futures.add(executor.submit(
+                    () ->
+                    {
+                        for (int idx = 0; idx < 10_000; ++idx)
+                        {
+                            final int key = offset + idx % 500;
+                            if (cache.get(key).isEmpty())
+                                cache.putIfAbsent(key, "value");
+                        }
+                    }));
+            }
+            for (final Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(100, cache.getWeight());
+        Assertions.assertEquals(100, cache.getSize());
+    }
+
+    @Test
+    void expireAfterAccess()
+    {
+        final List<Integer> evicted = new ArrayList<>();
+        final FrequencyCache<Integer, String> cache =
+            new FrequencyCache<>(() -> 10, null, null, Duration.ofMillis(100), (key, value) -> evicted.add(key),
+                                 () -> nanoTime);
+
+        cache.put(0, "value");
+        cache.put(1, "value");
+        nanoTime += Duration.ofMillis(60).toNanos();
+        // Accessing an entry resets its expiry.
+        Assertions.assertTrue(cache.containsKey(1));
+
+        nanoTime += Duration.ofMillis(60).toNanos();
+        Assertions.assertFalse(cache.containsKey(0));
+        Assertions.assertTrue(cache.containsKey(1));
+        Assertions.assertEquals(List.of(0), evicted);
+
+        // Expired entries are removed when new entries are added.
+        nanoTime += Duration.ofMillis(110).toNanos();
+        cache.put(2, "value");
+        Assertions.assertEquals(1, cache.getSize());
+        Assertions.assertEquals(List.of(0, 1), evicted);
+    }
+
+    @Test
+    void weighted()
+    {
+        final FrequencyCache<Integer, String> cache = newCache(10, (key, value) -> value.length());
+
+        cache.put(0, "12345");
+        cache.put(1, "1234");
+        Assertions.assertEquals(9, cache.getWeight());
+
+        // Replacing a value should update the weight.
+        cache.put(1, "1");
+        Assertions.assertEquals(6, cache.getWeight());
+
+        cache.put(2, "123456");
+        Assertions.assertTrue(cache.getWeight() <= 10);
+
+        cache.put(3, "12345678901");
+        Assertions.assertTrue(cache.getWeight() <= 10);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> newCache(10, (key, value) -> -1).put(0, "value"));
+    }
+
+    private FrequencyCache<Integer, String> newCache(
+        long maximumWeight, @Nullable ToIntBiFunction<Integer, String> weigher)
+    {
+        return new FrequencyCache<>(() -> maximumWeight, weigher, null, null, null, () -> nanoTime);
+    }
+}
@@ -34,6 +34,8 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -293,8 +295,9 @@ class TimedCacheTest
 
         Assertions.assertFalse(timedCache.putIfAbsent("key", "value").isPresent());
 
-        optionalEquals(timedCache.putIfAbsent("key", "value"), "value");
-
+        optionalEquals(timedCache.putIfAbsent("key", "newValue"), "value");
+        // The existing mapping should not be affected.
+        optionalEquals(timedCache.get("key"), "value");
 
         clock.addMillis(110);
 
@@ -338,6 +341,12 @@ class TimedCacheTest
         Assertions.assertEquals(0, timedCache.getSize());
         Assertions.assertFalse(timedCache.containsKey("key"));
 
+        timedCache.put("key", "value");
+        // Only remove the entry if it is still mapped to the provided value.
+        Assertions.assertFalse(timedCache.remove("key", "other"));
+        Assertions.assertTrue(timedCache.remove("key", "value"));
+        Assertions.assertFalse(timedCache.containsKey("key"));
+
         timedCache.put("key", "value");
         Assertions.assertTrue(timedCache.get("key").isPresent());
         Assertions.assertEquals(1, timedCache.getSize());
@@ -367,6 +376,145 @@ class TimedCacheTest
         Assertions.assertEquals(0, timedCache.getSize());
     }
 
+    /**
+     * Make sure that the cleanup tasks of all caches run on the same thread.
+     */
+    @Test
+    void cleanupTaskSharedThread()
+    {
+        final MockClock clock = new MockClock(0);
+        final List<TimedCache<String, String>> caches = new ArrayList<>();
+        for (int idx = 0; idx < 2; ++idx)
+        {
+            final TimedCache<String, String> timedCache = new TimedCache<>(clock, Duration.ofMillis(100),
+                                                                           Duration.ofMillis(1), false, false,
+                                                                           false);
+            timedCache.put("key", "value");
+            caches.add(timedCache);
+        }
+        sleep(10);
+        final long threadCount = Thread.getAllStackTraces().keySet().stream()
+                                       .filter(thread -> thread.getName().equals("TimedCache-Cleanup")).count();
+        Assertions.assertEquals(1, threadCount);
+
+        caches.get(0).shutDown();
+        clock.addMillis(200);
+        sleep(10);
+        Assertions.assertEquals(0, caches.get(1).getSize());
+        caches.get(1).shutDown();
+    }
+
+    /**
+     * Make sure that expired entries are removed when new entries are added.
+     */
+    @Test
+    void amortizedCleanup()
+    {
+        final MockClock clock = new MockClock(0);
+        final TimedCache<String, String> timedCache = new TimedCache<>(clock, Duration.ofMillis(100),
+                                                                       null, false, true, false);
+
+        timedCache.put("key0", "value");
+        timedCache.put("key1", "value");
+        timedCache.put("key2", "value");
+        clock.addMillis(60);
+        // Refreshed entries should not be removed.
+        optionalEquals(timedCache.get("key1"), "value");
+        // Replaced entries should not be removed either.
+        timedCache.put("key2", "newValue");
+
+        clock.addMillis(60);
+        timedCache.put("key3", "value");
+        Assertions.assertEquals(3, timedCache.getSize());
+        Assertions.assertNull(timedCache.getRaw("key0"));
+        optionalEquals(timedCache.get("key2"), "newValue");
+
+        clock.addMillis(110);
+        timedCache.cleanupCache();
+        Assertions.assertEquals(0, timedCache.getSize());
+    }
+
+    /**
+     * Make sure that the expiry queue does not keep growing when entries are replaced or removed often.
+     */
+    @Test
+    void expiryQueueSize()
+    {
+        final MockClock clock = new MockClock(0);
+        final TimedCache<String, String> timedCache = new TimedCache<>(clock, Duration.ofMinutes(10),
+                                                                       null, false, false, false);
+
+        for (int idx = 0; idx < 10_000; ++idx)
+            timedCache.put("key", "value" + idx);
+        Assertions.assertTrue(timedCache.getExpiryQueueSize() <= 100,
+                              "Expiry queue contains " + timedCache.getExpiryQueueSize() + " nodes!");
+
+        for (int idx = 0; idx < 10_000; ++idx)
+        {
+            timedCache.put("removed", "value");
+            timedCache.remove("removed");
+        }
+        Assertions.assertTrue(timedCache.getExpiryQueueSize() <= 100,
+                              "Expiry queue contains " + timedCache.getExpiryQueueSize() + " nodes!");
+        optionalEquals(timedCache.get("key"), "value9999");
+
+        timedCache.clear();
+        Assertions.assertEquals(0, timedCache.getExpiryQueueSize());
+    }
+
+    @Test
+    void boundedSize()
+    {
+        final MockClock clock = new MockClock(0);
+        final TimedCache<String, String> timedCache =
+            new TimedCache<>(clock, Duration.ofMillis(100), null, false, true, false, 2, null);
+
+        timedCache.put("key0", "value");
+        clock.addMillis(1);
+        timedCache.put("key1", "value");
+        clock.addMillis(1);
+        // Accessing key0 means that key1 is now the entry closest to expiring.
+        optionalEquals(timedCache.get("key0"), "value");
+        timedCache.put("key2", "value");
+
+        Assertions.assertEquals(2, timedCache.getSize());
+        Assertions.assertEquals(2, timedCache.getWeight());
+        Assertions.assertTrue(timedCache.get("key0").isPresent());
+        Assertions.assertFalse(timedCache.get("key1").isPresent());
+        Assertions.assertTrue(timedCache.get("key2").isPresent());
+
+        timedCache.remove("key0");
+        Assertions.assertEquals(1, timedCache.getWeight());
+        timedCache.clear();
+        Assertions.assertEquals(0, timedCache.getWeight());
+    }
+
+    @Test
+    void boundedWeight()
+    {
+        final MockClock clock = new MockClock(0);
+        final TimedCache<String, String> timedCache =
+            new TimedCache<>(clock, Duration.ofMillis(100), null, false, false, false, 10,
+                             (key, value) -> value.length());
+
+        timedCache.put("key0", "12345");
+        timedCache.put("key1", "1234");
+        Assertions.assertEquals(9, timedCache.getWeight());
+
+        // Replacing a value should update the weight.
+        timedCache.put("key1", "1");
+        Assertions.assertEquals(6, timedCache.getWeight());
+
+        timedCache.put("key2", "123456");
+        Assertions.assertEquals(7, timedCache.getWeight());
+        Assertions.assertNull(timedCache.getRaw("key0"));
+        Assertions.assertNotNull(timedCache.getRaw("key1"));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> new TimedCache<String, String>(clock, Duration.ofMillis(100), null, false,
+                                                                     false, false, -1, null));
+    }
+
     @Test
     void testEmptyCache()
     {
@@ -0,0 +1,235 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.PPlayerData;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.doors.IDoor;
+import nl.pim16aap2.bigdoors.util.DoorOwner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+class DoorNameIndexTest
+{
+    private static final UUID PLAYER_UUID = UUID.fromString("27e6c556-4f30-32bf-a005-c80a46ddd935");
+    private static final UUID OTHER_UUID = UUID.fromString("af5c6f36-445d-3786-803d-c2e3ba0dc3ed");
+
+    private static final DatabaseManager.OwnedDoorIdentifier DOOR_1 =
+        new DatabaseManager.OwnedDoorIdentifier(1, "MyDoor", 0);
+    private static final DatabaseManager.OwnedDoorIdentifier DOOR_12 =
+        new DatabaseManager.OwnedDoorIdentifier(12, "myPortcullis", 1);
+    private static final DatabaseManager.OwnedDoorIdentifier DOOR_20 =
+        new DatabaseManager.OwnedDoorIdentifier(20, "flagThatIsMine", 2);
+
+    @Mock
+    DatabaseManager databaseManager;
+
+    private CompletableFuture<List<DatabaseManager.OwnedDoorIdentifier>> identifiers;
+
+    private CompletableFuture<List<DatabaseManager.OwnedDoorIdentifier>> otherIdentifiers;
+
+    private DoorNameIndex nameIndex;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        identifiers = new CompletableFuture<>();
+        Mockito.when(databaseManager.getOwnedDoorIdentifiers(PLAYER_UUID)).thenReturn(identifiers);
+        otherIdentifiers = new CompletableFuture<>();
+        Mockito.when(databaseManager.getOwnedDoorIdentifiers(OTHER_UUID)).thenReturn(otherIdentifiers);
+
+        nameIndex = new DoorNameIndex(Mockito.mock(RestartableHolder.class), databaseManager,
+                                      Mockito.mock(DebuggableRegistry.class));
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        nameIndex.shutDown();
+    }
+
+    @Test
+    void testLoad()
+    {
+        final CompletableFuture<List<DatabaseManager.DoorIdentifier>> result =
+            nameIndex.getIdentifiers(PLAYER_UUID, "my", 2);
+        Assertions.assertFalse(result.isDone());
+
+        identifiers.complete(List.of(DOOR_1, DOOR_12, DOOR_20));
+        Assertions.assertEquals(List.of(identifier(DOOR_1), identifier(DOOR_12)), result.join());
+
+        // Once loaded, lookups are completed immediately and do not access the database again.
+        final CompletableFuture<List<DatabaseManager.DoorIdentifier>> flags =
+            nameIndex.getIdentifiers(PLAYER_UUID, "FLAG", 2);
+        Assertions.assertTrue(flags.isDone());
+        Assertions.assertEquals(List.of(identifier(DOOR_20)), flags.join());
+        Mockito.verify(databaseManager, Mockito.times(1)).getOwnedDoorIdentifiers(PLAYER_UUID);
+    }
+
+    @Test
+    void testPrefixMatching()
+    {
+        identifiers.complete(List.of(DOOR_1, DOOR_12, DOOR_20));
+
+        Assertions.assertEquals(List.of(identifier(DOOR_20), identifier(DOOR_1), identifier(DOOR_12)),
+                                nameIndex.getIdentifiers(PLAYER_UUID, "", 2).join());
+        Assertions.assertEquals(List.of(identifier(DOOR_1)), nameIndex.getIdentifiers(PLAYER_UUID, "mYd", 2).join());
+        Assertions.assertEquals(List.of(identifier(DOOR_12)),
+                                nameIndex.getIdentifiers(PLAYER_UUID, "myPortcullis", 2).join());
+        Assertions.assertTrue(nameIndex.getIdentifiers(PLAYER_UUID, "myPortcullis2", 2).join().isEmpty());
+        // Only the start of the names is matched.
+        Assertions.assertTrue(nameIndex.getIdentifiers(PLAYER_UUID, "door", 2).join().isEmpty());
+    }
+
+    @Test
+    void testNumericalInput()
+    {
+        identifiers.complete(List.of(DOOR_1, DOOR_12, DOOR_20));
+        Assertions.assertEquals(List.of(identifier(DOOR_1), identifier(DOOR_12)),
+                                nameIndex.getIdentifiers(PLAYER_UUID, "1", 2).join());
+        Assertions.assertEquals(List.of(identifier(DOOR_12)), nameIndex.getIdentifiers(PLAYER_UUID, "12", 2).join());
+        Assertions.assertEquals(List.of(identifier(DOOR_20)), nameIndex.getIdentifiers(PLAYER_UUID, "02", 2).join());
+        Assertions.assertTrue(nameIndex.getIdentifiers(PLAYER_UUID, "3", 2).join().isEmpty());
+    }
+
+    @Test
+    void testMaxPermission()
+    {
+        identifiers.complete(List.of(DOOR_1, DOOR_12, DOOR_20));
+        Assertions.assertEquals(List.of(identifier(DOOR_1)), nameIndex.getIdentifiers(PLAYER_UUID, "my", 0).join());
+        Assertions.assertTrue(nameIndex.getIdentifiers(PLAYER_UUID, "flag", 1).join().isEmpty());
+    }
+
+    @Test
+    void testUpdatesWhileLoading()
+    {
+        nameIndex.getIdentifiers(PLAYER_UUID, "", 2);
+
+        final DatabaseManager.OwnedDoorIdentifier renamed = new DatabaseManager.OwnedDoorIdentifier(1, "renamed", 0);
+        nameIndex.updateOwner(PLAYER_UUID, renamed);
+        nameIndex.removeOwner(PLAYER_UUID, DOOR_12.uid());
+
+        // The loaded data is outdated for doors 1 and 12, so the changes that were made during loading take precedence.
+        identifiers.complete(List.of(DOOR_1, DOOR_12, DOOR_20));
+
+        Assertions.assertTrue(nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join().isEmpty());
+        Assertions.assertEquals(List.of(identifier(DOOR_20), identifier(renamed)),
+                                nameIndex.getIdentifiers(PLAYER_UUID, "", 2).join());
+    }
+
+    @Test
+    void testAddDoor()
+    {
+        identifiers.complete(List.of(DOOR_1));
+        Assertions.assertEquals(List.of(identifier(DOOR_1)), nameIndex.getIdentifiers(PLAYER_UUID, "", 2).join());
+
+        nameIndex.updateDoor(door(DOOR_12.uid(), DOOR_12.name(), PLAYER_UUID, DOOR_12.permission()));
+        Assertions.assertEquals(List.of(identifier(DOOR_1), identifier(DOOR_12)),
+                                nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join());
+        Assertions.assertEquals(List.of(identifier(DOOR_12)), nameIndex.getIdentifiers(PLAYER_UUID, "12", 2).join());
+    }
+
+    @Test
+    void testRename()
+    {
+        identifiers.complete(List.of(DOOR_1, DOOR_12));
+        Assertions.assertEquals(2, nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join().size());
+
+        nameIndex.updateDoor(door(DOOR_1.uid(), "renamed", PLAYER_UUID, DOOR_1.permission()));
+        final DatabaseManager.DoorIdentifier renamed = new DatabaseManager.DoorIdentifier(DOOR_1.uid(), "renamed");
+
+        // The old name no longer matches, but the UID still does.
+        Assertions.assertEquals(List.of(identifier(DOOR_12)), nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join());
+        Assertions.assertEquals(List.of(renamed), nameIndex.getIdentifiers(PLAYER_UUID, "REN", 2).join());
+        Assertions.assertEquals(List.of(renamed, identifier(DOOR_12)),
+                                nameIndex.getIdentifiers(PLAYER_UUID, "1", 2).join());
+    }
+
+    @Test
+    void testOwnershipTransfer()
+    {
+        identifiers.complete(List.of(DOOR_1, DOOR_12));
+        otherIdentifiers.complete(List.of());
+        Assertions.assertEquals(2, nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join().size());
+        Assertions.assertTrue(nameIndex.getIdentifiers(OTHER_UUID, "my", 2).join().isEmpty());
+
+        nameIndex.removeOwner(PLAYER_UUID, DOOR_12.uid());
+        nameIndex.updateOwner(OTHER_UUID, new DatabaseManager.OwnedDoorIdentifier(DOOR_12.uid(), DOOR_12.name(), 0));
+
+        Assertions.assertEquals(List.of(identifier(DOOR_1)), nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join());
+        Assertions.assertEquals(List.of(identifier(DOOR_12)), nameIndex.getIdentifiers(OTHER_UUID, "my", 0).join());
+
+        // Changing the level of ownership of an existing owner is applied as well.
+        nameIndex.updateOwner(OTHER_UUID, DOOR_12);
+        Assertions.assertTrue(nameIndex.getIdentifiers(OTHER_UUID, "my", 0).join().isEmpty());
+        Assertions.assertEquals(List.of(identifier(DOOR_12)), nameIndex.getIdentifiers(OTHER_UUID, "my", 1).join());
+    }
+
+    @Test
+    void testRemoveDoor()
+    {
+        identifiers.complete(List.of(DOOR_1, DOOR_12));
+        otherIdentifiers.complete(List.of(new DatabaseManager.OwnedDoorIdentifier(DOOR_12.uid(), DOOR_12.name(), 0)));
+        Assertions.assertEquals(2, nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join().size());
+        Assertions.assertEquals(1, nameIndex.getIdentifiers(OTHER_UUID, "my", 2).join().size());
+
+        final IDoor door = door(DOOR_12.uid(), DOOR_12.name(), OTHER_UUID, 0);
+        Mockito.when(door.getDoorOwners()).thenReturn(List.of(doorOwner(DOOR_12.uid(), OTHER_UUID, 0),
+                                                              doorOwner(DOOR_12.uid(), PLAYER_UUID, 1)));
+        nameIndex.removeDoor(door);
+
+        // The door is removed for all of its owners.
+        Assertions.assertEquals(List.of(identifier(DOOR_1)), nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join());
+        Assertions.assertTrue(nameIndex.getIdentifiers(PLAYER_UUID, "12", 2).join().isEmpty());
+        Assertions.assertTrue(nameIndex.getIdentifiers(OTHER_UUID, "", 2).join().isEmpty());
+    }
+
+    @Test
+    void testUpdatesOfUnloadedPlayers()
+    {
+        // Players whose doors have not been loaded are not loaded just to apply an update.
+        nameIndex.updateOwner(PLAYER_UUID, DOOR_1);
+        nameIndex.removeOwner(PLAYER_UUID, DOOR_1.uid());
+        Mockito.verify(databaseManager, Mockito.never()).getOwnedDoorIdentifiers(PLAYER_UUID);
+    }
+
+    @Test
+    void testFailure()
+    {
+        identifiers.completeExceptionally(new RuntimeException("Test exception!"));
+        Assertions.assertTrue(nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).isCompletedExceptionally());
+
+        // The next lookup tries to load the doors again.
+        identifiers = CompletableFuture.completedFuture(List.of(DOOR_1));
+        Mockito.when(databaseManager.getOwnedDoorIdentifiers(PLAYER_UUID)).thenReturn(identifiers);
+        Assertions.assertEquals(List.of(identifier(DOOR_1)), nameIndex.getIdentifiers(PLAYER_UUID, "my", 2).join());
+    }
+
+    private static IDoor door(long doorUID, String name, UUID ownerUUID, int permission)
+    {
+        final IDoor door = Mockito.mock(IDoor.class);
+        Mockito.when(door.getDoorUID()).thenReturn(doorUID);
+        Mockito.when(door.getName()).thenReturn(name);
+        Mockito.when(door.getDoorOwners()).thenReturn(List.of(doorOwner(doorUID, ownerUUID, permission)));
+        return door;
+    }
+
+    private static DoorOwner doorOwner(long doorUID, UUID playerUUID, int permission)
+    {
+        return new DoorOwner(doorUID, permission, new PPlayerData(playerUUID, "player", -1, -1, false, false));
+    }
+
+    private static DatabaseManager.DoorIdentifier identifier(DatabaseManager.OwnedDoorIdentifier identifier)
+    {
+        return new DatabaseManager.DoorIdentifier(identifier.uid(), identifier.name());
+    }
+}
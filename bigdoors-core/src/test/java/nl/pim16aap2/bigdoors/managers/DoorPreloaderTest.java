@@ -0,0 +1,183 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.doors.AbstractDoor;
+import nl.pim16aap2.bigdoors.util.Util;
+import nl.pim16aap2.bigdoors.util.vector.Vector2Di;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+class DoorPreloaderTest
+{
+    private static final String WORLD_NAME = "world";
+
+    @Mock
+    IConfigLoader config;
+
+    @Mock
+    DatabaseManager databaseManager;
+
+    /**
+     * The queries that have been sent to the database manager. They are not completed until the test completes them.
+     */
+    private final List<CompletableFuture<List<AbstractDoor>>> queries = new ArrayList<>();
+
+    /**
+     * The chunk ids of all queries, in the same order as {@link #queries}.
+     */
+    private final List<List<Long>> queriedChunks = new ArrayList<>();
+
+    private DoorPreloader preloader;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(config.doorPreloadRadius()).thenReturn(1);
+        Mockito.when(config.doorPreloadConcurrency()).thenReturn(1);
+        Mockito.when(databaseManager.getDoorsInChunks(Mockito.eq(WORLD_NAME), Mockito.anyList())).thenAnswer(
+            invocation ->
+            {
+                final CompletableFuture<List<AbstractDoor>> query = new CompletableFuture<>();
+                queries.add(query);
+                queriedChunks.add(new ArrayList<>(invocation.<List<Long>>getArgument(1)));
+                return query;
+            });
+
+        preloader = new DoorPreloader(Mockito.mock(RestartableHolder.class), databaseManager, config,
+                                      Mockito.mock(DebuggableRegistry.class));
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        preloader.shutDown();
+    }
+
+    @Test
+    void testPreloadRing()
+    {
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertEquals(1, queries.size());
+        Assertions.assertEquals(getChunkIds(0, 0, 1), new HashSet<>(queriedChunks.get(0)));
+    }
+
+    @Test
+    void testDisabled()
+    {
+        Mockito.when(config.doorPreloadRadius()).thenReturn(-1);
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertTrue(queries.isEmpty());
+    }
+
+    @Test
+    void testSkipPreloadedChunks()
+    {
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        queries.get(0).complete(Collections.emptyList());
+
+        // Only the 3 chunks at x = 2 haven't been preloaded yet.
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(1, 0));
+        Assertions.assertEquals(2, queries.size());
+        Assertions.assertEquals(Set.of(Util.getChunkId(2, -1), Util.getChunkId(2, 0), Util.getChunkId(2, 1)),
+                                new HashSet<>(queriedChunks.get(1)));
+
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertEquals(2, queries.size());
+    }
+
+    @Test
+    void testRetryFailedChunks()
+    {
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        // The chunks are not queried again while their query is running.
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertEquals(1, queries.size());
+
+        queries.get(0).completeExceptionally(new IllegalStateException("Database is unavailable!"));
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertEquals(2, queries.size());
+        Assertions.assertEquals(getChunkIds(0, 0, 1), new HashSet<>(queriedChunks.get(1)));
+
+        // Once loaded successfully, the chunks are skipped again.
+        queries.get(1).complete(Collections.emptyList());
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertEquals(2, queries.size());
+    }
+
+    @Test
+    void testConcurrencyLimit()
+    {
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        // The first query is still running, so these chunks have to wait and are then loaded together.
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(10, 10));
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(20, 20));
+        Assertions.assertEquals(1, queries.size());
+
+        queries.get(0).complete(Collections.emptyList());
+        Assertions.assertEquals(2, queries.size());
+
+        final Set<Long> expected = getChunkIds(10, 10, 1);
+        expected.addAll(getChunkIds(20, 20, 1));
+        Assertions.assertEquals(expected, new HashSet<>(queriedChunks.get(1)));
+    }
+
+    /**
+     * Make sure that queries that are never completed (e.g. because the database was shut down) do not count towards
+     * the concurrency limit after a restart.
+     */
+    @Test
+    void testRestart()
+    {
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertEquals(1, queries.size());
+
+        preloader.shutDown();
+        preloader.initialize();
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(10, 10));
+        Assertions.assertEquals(2, queries.size());
+
+        // Completing the query from before the restart should not allow more queries to run at the same time.
+        queries.get(0).complete(Collections.emptyList());
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(20, 20));
+        Assertions.assertEquals(2, queries.size());
+        queries.get(1).complete(Collections.emptyList());
+        Assertions.assertEquals(3, queries.size());
+    }
+
+    @Test
+    void testMaxChunksPerQuery()
+    {
+        Mockito.when(config.doorPreloadRadius()).thenReturn(10);
+        Mockito.when(config.doorPreloadConcurrency()).thenReturn(4);
+
+        // A radius of 10 covers 21 * 21 = 441 chunks.
+        preloader.preloadChunk(WORLD_NAME, new Vector2Di(0, 0));
+        Assertions.assertEquals(2, queries.size());
+        Assertions.assertEquals(DoorPreloader.MAX_CHUNKS_PER_QUERY, queriedChunks.get(0).size());
+        Assertions.assertEquals(441 - DoorPreloader.MAX_CHUNKS_PER_QUERY, queriedChunks.get(1).size());
+    }
+
+    private static Set<Long> getChunkIds(int centerX, int centerZ, int radius)
+    {
+        final Set<Long> ret = new HashSet<>();
+        for (int x = centerX - radius; x <= centerX + radius; ++x)
+            for (int z = centerZ - radius; z <= centerZ + radius; ++z)
+                ret.add(Util.getChunkId(x, z));
+        return ret;
+    }
+}
@@ -0,0 +1,119 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+class DoorSpatialIndexTest
+{
+    private static final String WORLD_NAME = "world";
+
+    private static final Cuboid CUBOID_1 = new Cuboid(new Vector3Di(0, 0, 0), new Vector3Di(3, 3, 3));
+    private static final Cuboid CUBOID_2 = new Cuboid(new Vector3Di(10, 0, 10), new Vector3Di(13, 3, 13));
+
+    @Mock
+    DatabaseManager databaseManager;
+
+    private CompletableFuture<Map<Long, Cuboid>> cuboids;
+
+    private DoorSpatialIndex spatialIndex;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        cuboids = new CompletableFuture<>();
+        Mockito.when(databaseManager.getDoorCuboids(WORLD_NAME)).thenReturn(cuboids);
+
+        spatialIndex = new DoorSpatialIndex(Mockito.mock(RestartableHolder.class), databaseManager,
+                                            Mockito.mock(DebuggableRegistry.class));
+    }
+
+    @Test
+    void testLoad()
+    {
+        final CompletableFuture<long[]> result = spatialIndex.getDoorsAt(WORLD_NAME, new Vector3Di(1, 1, 1));
+        Assertions.assertFalse(result.isDone());
+
+        cuboids.complete(Map.of(1L, CUBOID_1, 2L, CUBOID_2));
+        Assertions.assertArrayEquals(new long[]{1}, result.join());
+
+        // Once loaded, lookups are completed immediately and do not access the database again.
+        final CompletableFuture<long[]> inRange = spatialIndex.getDoorsInRange(WORLD_NAME, new Vector3Di(8, 0, 8), 2);
+        Assertions.assertTrue(inRange.isDone());
+        Assertions.assertArrayEquals(new long[]{2}, inRange.join());
+        Mockito.verify(databaseManager, Mockito.times(1)).getDoorCuboids(WORLD_NAME);
+    }
+
+    @Test
+    void testUpdatesWhileLoading()
+    {
+        final CompletableFuture<long[]> result = spatialIndex.getDoorsInRegion(WORLD_NAME, CUBOID_1);
+        spatialIndex.updateDoor(WORLD_NAME, 1L, CUBOID_2);
+        spatialIndex.removeDoor(WORLD_NAME, 2L);
+        spatialIndex.updateDoor(WORLD_NAME, 3L, CUBOID_1);
+
+        // The loaded data is outdated for doors 1 and 2, so the changes that were made during loading take precedence.
+        cuboids.complete(Map.of(1L, CUBOID_1, 2L, CUBOID_2));
+
+        Assertions.assertArrayEquals(new long[]{3}, result.join());
+        Assertions.assertArrayEquals(new long[]{1}, spatialIndex.getDoorsInRegion(WORLD_NAME, CUBOID_2).join());
+    }
+
+    @Test
+    void testUpdatesAfterLoading()
+    {
+        cuboids.complete(Map.of(1L, CUBOID_1));
+        Assertions.assertArrayEquals(new long[]{1}, spatialIndex.getDoorsInRegion(WORLD_NAME, CUBOID_1).join());
+
+        spatialIndex.updateDoor(WORLD_NAME, 1L, CUBOID_2);
+        Assertions.assertEquals(0, spatialIndex.getDoorsInRegion(WORLD_NAME, CUBOID_1).join().length);
+        Assertions.assertArrayEquals(new long[]{1}, spatialIndex.getDoorsInRegion(WORLD_NAME, CUBOID_2).join());
+
+        spatialIndex.removeDoor(WORLD_NAME, 1L);
+        Assertions.assertEquals(0, spatialIndex.getDoorsInRegion(WORLD_NAME, CUBOID_2).join().length);
+    }
+
+    @Test
+    void testUpdatesOfUnloadedWorld()
+    {
+        // Changes in worlds that have not been loaded are read from the database once the world is loaded.
+        spatialIndex.updateDoor(WORLD_NAME, 1L, CUBOID_1);
+        spatialIndex.removeDoor(WORLD_NAME, 2L);
+        Mockito.verify(databaseManager, Mockito.never()).getDoorCuboids(Mockito.anyString());
+
+        final CompletableFuture<long[]> result = spatialIndex.getDoorsInRegion(WORLD_NAME, CUBOID_1);
+        cuboids.complete(Map.of(2L, CUBOID_1));
+        Assertions.assertArrayEquals(new long[]{2}, result.join());
+    }
+
+    @Test
+    void testFailure()
+    {
+        final CompletableFuture<Map<Long, Cuboid>> failed = new CompletableFuture<>();
+        Mockito.when(databaseManager.getDoorCuboids(WORLD_NAME)).thenReturn(failed, cuboids);
+
+        final CompletableFuture<long[]> result = spatialIndex.getDoorsAt(WORLD_NAME, new Vector3Di(1, 1, 1));
+        // Updates that are received while loading are discarded as well when loading fails.
+        spatialIndex.updateDoor(WORLD_NAME, 3L, CUBOID_1);
+        failed.completeExceptionally(new IllegalStateException("Test exception!"));
+        Assertions.assertTrue(result.isCompletedExceptionally());
+
+        // A failed world is not cached, so the next lookup loads it again.
+        final CompletableFuture<long[]> retried = spatialIndex.getDoorsAt(WORLD_NAME, new Vector3Di(1, 1, 1));
+        Assertions.assertFalse(retried.isDone());
+        cuboids.complete(Map.of(1L, CUBOID_1));
+        Assertions.assertArrayEquals(new long[]{1}, retried.join());
+        Mockito.verify(databaseManager, Mockito.times(2)).getDoorCuboids(WORLD_NAME);
+    }
+}
@@ -0,0 +1,166 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.doors.DoorBase;
+import nl.pim16aap2.bigdoors.storage.IStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class DoorSyncQueueTest
+{
+    @Mock
+    IStorage storage;
+
+    @Mock
+    IConfigLoader config;
+
+    private DoorSyncQueue queue;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        // Make sure the periodic flush never runs during a test.
+        Mockito.when(config.doorSyncDelay()).thenReturn(Integer.MAX_VALUE);
+        Mockito.when(storage.syncDoorData(Mockito.anyList()))
+               .thenAnswer(invocation -> filledArray(invocation.<List<?>>getArgument(0).size()));
+
+        queue = new DoorSyncQueue(storage, config);
+        queue.initialize();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        queue.shutDown();
+    }
+
+    @Test
+    void testDisabled()
+    {
+        queue.shutDown();
+        Mockito.when(config.doorSyncDelay()).thenReturn(0);
+        queue.initialize();
+        Assertions.assertFalse(queue.isEnabled());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCoalescing()
+    {
+        final DoorBase door1 = mockDoor(1);
+        final DoorBase door2 = mockDoor(2);
+        final byte[] oldData = {1};
+        final byte[] newData = {2};
+
+        Assertions.assertTrue(queue.isEnabled());
+        final CompletableFuture<Boolean> result0 = queue.add(door1, oldData);
+        final CompletableFuture<Boolean> result1 = queue.add(door2, oldData);
+        final CompletableFuture<Boolean> result2 = queue.add(door1, newData);
+        Assertions.assertSame(result0, result2);
+        Assertions.assertFalse(result0.isDone());
+
+        queue.flush();
+        Assertions.assertTrue(result0.join());
+        Assertions.assertTrue(result1.join());
+
+        final ArgumentCaptor<List<IStorage.DoorSyncData>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(storage, Mockito.times(1)).syncDoorData(captor.capture());
+        final List<IStorage.DoorSyncData> written = captor.getValue();
+        Assertions.assertEquals(2, written.size());
+        Assertions.assertSame(door1, written.get(0).doorBase());
+        Assertions.assertSame(newData, written.get(0).typeData());
+        Assertions.assertSame(door2, written.get(1).doorBase());
+
+        // Nothing is pending anymore, so nothing should be written.
+        queue.flush();
+        Mockito.verify(storage, Mockito.times(1)).syncDoorData(Mockito.anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushDoor()
+    {
+        final DoorBase door1 = mockDoor(1);
+        final CompletableFuture<Boolean> result1 = queue.add(door1, new byte[0]);
+        final CompletableFuture<Boolean> result2 = queue.add(mockDoor(2), new byte[0]);
+        Assertions.assertTrue(queue.isPending(1));
+
+        queue.flush(1);
+        Assertions.assertTrue(result1.join());
+        Assertions.assertFalse(result2.isDone());
+        Assertions.assertFalse(queue.isPending(1));
+        Assertions.assertTrue(queue.isPending(2));
+
+        final ArgumentCaptor<List<IStorage.DoorSyncData>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(storage).syncDoorData(captor.capture());
+        Assertions.assertEquals(1, captor.getValue().size());
+        Assertions.assertSame(door1, captor.getValue().get(0).doorBase());
+
+        // Doors without pending synchronizations are not written.
+        queue.flush(List.of(1L, 3L));
+        Mockito.verify(storage, Mockito.times(1)).syncDoorData(Mockito.anyList());
+
+        queue.flush();
+        Assertions.assertTrue(result2.join());
+    }
+
+    @Test
+    void testBatchSize()
+        throws Exception
+    {
+        Mockito.when(config.doorSyncBatchSize()).thenReturn(3);
+
+        queue.add(mockDoor(1), new byte[0]);
+        queue.add(mockDoor(1), new byte[0]);
+        queue.add(mockDoor(2), new byte[0]);
+        Mockito.verify(storage, Mockito.never()).syncDoorData(Mockito.anyList());
+
+        final CompletableFuture<Boolean> result = queue.add(mockDoor(3), new byte[0]);
+        Assertions.assertTrue(result.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testShutDown()
+    {
+        final CompletableFuture<Boolean> result = queue.add(mockDoor(1), new byte[0]);
+        queue.shutDown();
+        Assertions.assertTrue(result.isDone());
+        Assertions.assertTrue(result.join());
+        Assertions.assertFalse(queue.isEnabled());
+    }
+
+    @Test
+    void testFailure()
+    {
+        Mockito.when(storage.syncDoorData(Mockito.anyList())).thenThrow(new IllegalStateException("Expected"));
+        final CompletableFuture<Boolean> result = queue.add(mockDoor(1), new byte[0]);
+        queue.flush();
+        Assertions.assertFalse(result.join());
+    }
+
+    private static DoorBase mockDoor(long uid)
+    {
+        final DoorBase doorBase = Mockito.mock(DoorBase.class);
+        Mockito.when(doorBase.getDoorUID()).thenReturn(uid);
+        return doorBase;
+    }
+
+    private static boolean[] filledArray(int size)
+    {
+        final boolean[] ret = new boolean[size];
+        Arrays.fill(ret, true);
+        return ret;
+    }
+}
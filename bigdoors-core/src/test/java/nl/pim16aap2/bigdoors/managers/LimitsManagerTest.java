@@ -0,0 +1,122 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.IPPlayer;
+import nl.pim16aap2.bigdoors.api.IPermissionsManager;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.util.Limit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.OptionalInt;
+import java.util.UUID;
+
+class LimitsManagerTest
+{
+    private static final UUID PLAYER_UUID = UUID.fromString("27e6c556-4f30-32bf-a005-c80a46ddd935");
+
+    @Mock
+    IPermissionsManager permissionsManager;
+
+    @Mock
+    IConfigLoader config;
+
+    @Mock
+    IPPlayer player;
+
+    private LimitsManager limitsManager;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(player.getUUID()).thenReturn(PLAYER_UUID);
+        Mockito.when(config.maxDoorSize()).thenReturn(OptionalInt.empty());
+        Mockito.when(config.maxDoorCount()).thenReturn(OptionalInt.empty());
+        Mockito.when(config.maxPowerBlockDistance()).thenReturn(OptionalInt.empty());
+        Mockito.when(config.maxBlocksToMove()).thenReturn(OptionalInt.empty());
+        Mockito.when(permissionsManager.getMaxPermissionSuffix(Mockito.any(), Mockito.anyString()))
+               .thenReturn(OptionalInt.empty());
+
+        limitsManager = new LimitsManager(permissionsManager, config, Mockito.mock(RestartableHolder.class));
+    }
+
+    @Test
+    void testLimits()
+    {
+        Mockito.when(config.maxDoorSize()).thenReturn(OptionalInt.of(100));
+        Mockito.when(config.maxDoorCount()).thenReturn(OptionalInt.of(10));
+        Mockito.when(permissionsManager.getMaxPermissionSuffix(player, Limit.DOOR_SIZE.getUserPermission()))
+               .thenReturn(OptionalInt.of(50));
+        Mockito.when(permissionsManager.getMaxPermissionSuffix(player, Limit.DOOR_COUNT.getUserPermission()))
+               .thenReturn(OptionalInt.of(20));
+        Mockito.when(permissionsManager.getMaxPermissionSuffix(player, Limit.BLOCKS_TO_MOVE.getUserPermission()))
+               .thenReturn(OptionalInt.of(5));
+        Mockito.when(permissionsManager.hasPermission(player, Limit.POWERBLOCK_DISTANCE.getAdminPermission()))
+               .thenReturn(true);
+
+        // The lowest of the global and the personal limits.
+        Assertions.assertEquals(OptionalInt.of(50), limitsManager.getLimit(player, Limit.DOOR_SIZE));
+        Assertions.assertEquals(OptionalInt.of(10), limitsManager.getLimit(player, Limit.DOOR_COUNT));
+        // Only a personal limit.
+        Assertions.assertEquals(OptionalInt.of(5), limitsManager.getLimit(player, Limit.BLOCKS_TO_MOVE));
+        // Bypassed, without a global limit.
+        Assertions.assertEquals(OptionalInt.empty(), limitsManager.getLimit(player, Limit.POWERBLOCK_DISTANCE));
+
+        Assertions.assertTrue(limitsManager.exceedsLimit(player, Limit.DOOR_SIZE, 51));
+        Assertions.assertFalse(limitsManager.exceedsLimit(player, Limit.DOOR_SIZE, 50));
+    }
+
+    @Test
+    void testBypassDoesNotExceedGlobalLimit()
+    {
+        Mockito.when(config.maxDoorSize()).thenReturn(OptionalInt.of(100));
+        Mockito.when(permissionsManager.hasPermission(player, Limit.DOOR_SIZE.getAdminPermission())).thenReturn(true);
+        Mockito.when(permissionsManager.getMaxPermissionSuffix(player, Limit.DOOR_SIZE.getUserPermission()))
+               .thenReturn(OptionalInt.of(50));
+
+        Assertions.assertEquals(OptionalInt.of(100), limitsManager.getLimit(player, Limit.DOOR_SIZE));
+    }
+
+    @Test
+    void testCaching()
+    {
+        for (final Limit limit : Limit.values())
+            limitsManager.getLimit(player, limit);
+        limitsManager.getLimit(player, Limit.DOOR_SIZE);
+
+        // The permissions are checked only once for every limit.
+        for (final Limit limit : Limit.values())
+        {
+            Mockito.verify(permissionsManager, Mockito.times(1)).hasPermission(player, limit.getAdminPermission());
+            Mockito.verify(permissionsManager, Mockito.times(1))
+                   .getMaxPermissionSuffix(player, limit.getUserPermission());
+        }
+
+        // Changes to the global limits take effect immediately.
+        Mockito.when(config.maxDoorSize()).thenReturn(OptionalInt.of(100));
+        Assertions.assertEquals(OptionalInt.of(100), limitsManager.getLimit(player, Limit.DOOR_SIZE));
+    }
+
+    @Test
+    void testInvalidate()
+    {
+        Assertions.assertEquals(OptionalInt.empty(), limitsManager.getLimit(player, Limit.DOOR_COUNT));
+
+        Mockito.when(permissionsManager.getMaxPermissionSuffix(player, Limit.DOOR_COUNT.getUserPermission()))
+               .thenReturn(OptionalInt.of(3));
+        Assertions.assertEquals(OptionalInt.empty(), limitsManager.getLimit(player, Limit.DOOR_COUNT));
+
+        limitsManager.invalidate(PLAYER_UUID);
+        Assertions.assertEquals(OptionalInt.of(3), limitsManager.getLimit(player, Limit.DOOR_COUNT));
+
+        Mockito.when(permissionsManager.getMaxPermissionSuffix(player, Limit.DOOR_COUNT.getUserPermission()))
+               .thenReturn(OptionalInt.of(4));
+        limitsManager.shutDown();
+        Assertions.assertEquals(OptionalInt.of(4), limitsManager.getLimit(player, Limit.DOOR_COUNT));
+    }
+}
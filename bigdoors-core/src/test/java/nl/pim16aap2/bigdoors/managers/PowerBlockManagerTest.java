@@ -0,0 +1,288 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.IPWorld;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.LongMultimap;
+import nl.pim16aap2.bigdoors.doors.AbstractDoor;
+import nl.pim16aap2.bigdoors.util.Util;
+import nl.pim16aap2.bigdoors.util.vector.Vector2Di;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+class PowerBlockManagerTest
+{
+    private static final String WORLD_NAME = "world";
+
+    /**
+     * The position of the only power block in the world. This is in chunk (1, 2).
+     */
+    private static final Vector3Di POWER_BLOCK = new Vector3Di(20, 64, 36);
+
+    /**
+     * A power block in chunk (2, 3), which is next to the chunk of {@link #POWER_BLOCK}.
+     */
+    private static final Vector3Di NEIGHBOR_POWER_BLOCK = new Vector3Di(40, 64, 50);
+
+    /**
+     * A power block in chunk (3, 3), which is outside the prefetched area around the chunk of {@link #POWER_BLOCK}.
+     */
+    private static final Vector3Di DISTANT_POWER_BLOCK = new Vector3Di(50, 64, 50);
+
+    private static final long DOOR_UID = 42L;
+
+    @Mock
+    RestartableHolder restartableHolder;
+
+    @Mock
+    IConfigLoader config;
+
+    @Mock
+    DatabaseManager databaseManager;
+
+    @Mock
+    AbstractDoor door;
+
+    /**
+     * The positions of all power blocks in the database.
+     */
+    private final List<Vector3Di> powerBlocks =
+        new ArrayList<>(List.of(POWER_BLOCK, NEIGHBOR_POWER_BLOCK, DISTANT_POWER_BLOCK));
+
+    private PowerBlockManager powerBlockManager;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(config.cacheTimeout()).thenReturn(5);
+        Mockito.when(databaseManager.isBigDoorsWorld(WORLD_NAME)).thenReturn(CompletableFuture.completedFuture(true));
+        Mockito.when(databaseManager.getPowerBlockPositions(WORLD_NAME))
+               .thenAnswer(invocation -> CompletableFuture.completedFuture(new ArrayList<>(powerBlocks)));
+        Mockito.when(databaseManager.getPowerBlockData(Mockito.anyList()))
+               .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                   getPowerBlockData(invocation.<List<Long>>getArgument(0))));
+        Mockito.when(databaseManager.getDoors(Mockito.anyList()))
+               .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                   invocation.<List<Long>>getArgument(0).contains(DOOR_UID) ? List.of(door) : List.of()));
+
+        powerBlockManager = new PowerBlockManager(restartableHolder, config, databaseManager);
+        powerBlockManager.loadWorld(WORLD_NAME);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        powerBlockManager.shutDown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPrefetchRing()
+    {
+        Assertions.assertEquals(List.of(door),
+                                powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join());
+
+        // Only the surrounding chunks that contain power blocks are loaded along with the chunk itself.
+        final ArgumentCaptor<List<Long>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(databaseManager, Mockito.times(1)).getPowerBlockData(captor.capture());
+        Assertions.assertEquals(Set.of(Util.getChunkId(new Vector2Di(1, 2)), Util.getChunkId(new Vector2Di(2, 3))),
+                                new HashSet<>(captor.getValue()));
+
+        // The neighboring chunk was prefetched, so no more queries should be needed.
+        Assertions.assertEquals(List.of(),
+                                powerBlockManager.doorsFromPowerBlockLoc(NEIGHBOR_POWER_BLOCK, WORLD_NAME).join());
+        Mockito.verify(databaseManager, Mockito.times(1)).getPowerBlockData(Mockito.anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPrefetchSkipsCachedChunks()
+    {
+        powerBlockManager.prefetchChunk(WORLD_NAME, new Vector2Di(1, 2));
+        powerBlockManager.prefetchChunk(WORLD_NAME, new Vector2Di(2, 3));
+        Assertions.assertEquals(List.of(door),
+                                powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join());
+
+        // Chunk (2, 3) was already prefetched by the first call, so its surroundings should not be loaded.
+        final ArgumentCaptor<List<Long>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(databaseManager, Mockito.times(1)).getPowerBlockData(captor.capture());
+
+        powerBlockManager.prefetchChunk(WORLD_NAME, new Vector2Di(3, 3));
+        Mockito.verify(databaseManager, Mockito.times(2)).getPowerBlockData(captor.capture());
+        // Chunk (2, 3) is the only other chunk with power blocks around chunk (3, 3) and it has been loaded already.
+        Assertions.assertEquals(List.of(Util.getChunkId(new Vector2Di(3, 3))), captor.getValue());
+    }
+
+    @Test
+    void testPrefetchWithoutPowerBlocks()
+    {
+        // Chunk (2, 2) does not contain any power blocks, so it should not be loaded, even though its neighbors do.
+        powerBlockManager.prefetchChunk(WORLD_NAME, new Vector2Di(2, 2));
+        powerBlockManager.prefetchChunk(WORLD_NAME, new Vector2Di(10, 10));
+        Mockito.verify(databaseManager, Mockito.never()).getPowerBlockData(Mockito.anyList());
+    }
+
+    @Test
+    void testInvalidateChunk()
+    {
+        powerBlockManager.prefetchChunk(WORLD_NAME, new Vector2Di(1, 2));
+        powerBlockManager.invalidateChunk(WORLD_NAME, new Vector2Di(1, 2));
+        Assertions.assertEquals(List.of(door),
+                                powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join());
+        Mockito.verify(databaseManager, Mockito.times(2)).getPowerBlockData(Mockito.anyList());
+    }
+
+    @Test
+    void testChunkWithoutPowerBlocks()
+    {
+        // The chunk is not known to contain any power blocks, so it should not be loaded at all.
+        final Vector3Di pos = new Vector3Di(160, 64, 160);
+        Assertions.assertEquals(List.of(), powerBlockManager.doorsFromPowerBlockLoc(pos, WORLD_NAME).join());
+        Mockito.verify(databaseManager, Mockito.never()).getPowerBlockData(Mockito.anyList());
+        Mockito.verify(databaseManager, Mockito.never()).getDoors(Mockito.anyList());
+
+        // Once a door is added to the chunk, it should be looked up again.
+        powerBlockManager.onDoorAddOrRemove(WORLD_NAME, pos);
+        powerBlockManager.doorsFromPowerBlockLoc(pos, WORLD_NAME).join();
+        Mockito.verify(databaseManager, Mockito.times(1)).getPowerBlockData(Mockito.anyList());
+    }
+
+    @Test
+    void testMayBePowerBlock()
+    {
+        Assertions.assertTrue(powerBlockManager.mayBePowerBlock(WORLD_NAME, POWER_BLOCK.x(), POWER_BLOCK.y(),
+                                                                POWER_BLOCK.z()));
+        Assertions.assertFalse(powerBlockManager.mayBePowerBlock(WORLD_NAME, POWER_BLOCK.x(), POWER_BLOCK.y() + 1,
+                                                                 POWER_BLOCK.z()));
+        Assertions.assertFalse(powerBlockManager.mayBePowerBlock("fakeWorld", POWER_BLOCK.x(), POWER_BLOCK.y(),
+                                                                 POWER_BLOCK.z()));
+
+        final Vector3Di pos = new Vector3Di(-1, 0, -1);
+        Assertions.assertFalse(powerBlockManager.mayBePowerBlock(WORLD_NAME, pos.x(), pos.y(), pos.z()));
+        powerBlockManager.onDoorAddOrRemove(WORLD_NAME, pos);
+        Assertions.assertTrue(powerBlockManager.mayBePowerBlock(WORLD_NAME, pos.x(), pos.y(), pos.z()));
+
+        // Power blocks are only rejected once they have been loaded.
+        Mockito.when(databaseManager.getPowerBlockPositions(WORLD_NAME)).thenReturn(new CompletableFuture<>());
+        powerBlockManager.loadWorld(WORLD_NAME);
+        Assertions.assertTrue(powerBlockManager.mayBePowerBlock(WORLD_NAME, 0, 0, 0));
+    }
+
+    @Test
+    void testPowerBlockFilterRebuild()
+    {
+        Mockito.verify(databaseManager, Mockito.times(1)).getPowerBlockPositions(WORLD_NAME);
+        for (int idx = 0; idx < 1024; ++idx)
+        {
+            final Vector3Di pos = new Vector3Di(idx, 0, 0);
+            powerBlocks.add(pos);
+            powerBlockManager.onDoorAddOrRemove(WORLD_NAME, pos);
+        }
+        // The filter now contains more power blocks than it was sized for, so it should have been rebuilt.
+        Mockito.verify(databaseManager, Mockito.times(2)).getPowerBlockPositions(WORLD_NAME);
+
+        for (int idx = 0; idx < 1024; ++idx)
+            Assertions.assertTrue(powerBlockManager.mayBePowerBlock(WORLD_NAME, idx, 0, 0));
+    }
+
+    @Test
+    void testPowerBlockLoadFailure()
+    {
+        Mockito.when(databaseManager.getPowerBlockPositions(WORLD_NAME))
+               .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Expected")));
+        powerBlockManager.loadWorld(WORLD_NAME);
+
+        // Without the positions of the power blocks, no position can be rejected.
+        Assertions.assertTrue(powerBlockManager.mayBePowerBlock(WORLD_NAME, 0, 0, 0));
+        Assertions.assertEquals(List.of(door),
+                                powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join());
+        // The lookup should try to load the positions again.
+        Mockito.verify(databaseManager, Mockito.times(3)).getPowerBlockPositions(WORLD_NAME);
+
+        Mockito.when(databaseManager.getPowerBlockPositions(WORLD_NAME))
+               .thenAnswer(invocation -> CompletableFuture.completedFuture(new ArrayList<>(powerBlocks)));
+        powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join();
+        Mockito.verify(databaseManager, Mockito.times(4)).getPowerBlockPositions(WORLD_NAME);
+        Assertions.assertFalse(powerBlockManager.mayBePowerBlock(WORLD_NAME, 0, 0, 0));
+        Assertions.assertTrue(powerBlockManager.mayBePowerBlock(WORLD_NAME, POWER_BLOCK.x(), POWER_BLOCK.y(),
+                                                                POWER_BLOCK.z()));
+    }
+
+    @Test
+    void testPositionKey()
+    {
+        final Set<Long> keys = new HashSet<>();
+        for (int x = -2; x <= 2; ++x)
+            for (int y = -2; y <= 2; ++y)
+                for (int z = -2; z <= 2; ++z)
+                    Assertions.assertTrue(keys.add(PowerBlockManager.getPositionKey(x, y, z)));
+        Assertions.assertTrue(keys.add(PowerBlockManager.getPositionKey(30_000_000, 255, -30_000_000)));
+        Assertions.assertTrue(keys.add(PowerBlockManager.getPositionKey(-30_000_000, 255, 30_000_000)));
+    }
+
+    @Test
+    void testUpdatePowerBlockLoc()
+    {
+        final CompletableFuture<Boolean> syncResult = new CompletableFuture<>();
+        Mockito.when(door.syncData()).thenReturn(syncResult);
+        final IPWorld world = Mockito.mock(IPWorld.class);
+        Mockito.when(world.worldName()).thenReturn(WORLD_NAME);
+        Mockito.when(door.getWorld()).thenReturn(world);
+
+        powerBlockManager.prefetchChunk(WORLD_NAME, new Vector2Di(1, 2));
+        final Vector3Di newPos = new Vector3Di(160, 64, 160);
+        powerBlockManager.updatePowerBlockLoc(door, POWER_BLOCK, newPos);
+        Mockito.verify(door).setPowerBlockPosition(newPos);
+
+        // The cache should not be invalidated until the new location has been written to the database.
+        powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join();
+        Mockito.verify(databaseManager, Mockito.times(1)).getPowerBlockData(Mockito.anyList());
+
+        syncResult.complete(true);
+        powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join();
+        powerBlockManager.doorsFromPowerBlockLoc(newPos, WORLD_NAME).join();
+        Mockito.verify(databaseManager, Mockito.times(3)).getPowerBlockData(Mockito.anyList());
+    }
+
+    @Test
+    void testFailure()
+    {
+        Mockito.when(databaseManager.getPowerBlockData(Mockito.anyList()))
+               .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Expected")));
+        Assertions.assertEquals(List.of(), powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join());
+
+        // Chunks that failed to load should not be cached.
+        powerBlockManager.doorsFromPowerBlockLoc(POWER_BLOCK, WORLD_NAME).join();
+        Mockito.verify(databaseManager, Mockito.times(2)).getPowerBlockData(Mockito.anyList());
+    }
+
+    private static Map<Long, LongMultimap> getPowerBlockData(List<Long> chunkIds)
+    {
+        final Map<Long, LongMultimap> ret = new HashMap<>();
+        chunkIds.forEach(chunkId -> ret.put(chunkId, LongMultimap.EMPTY));
+
+        final long chunkId = Util.getChunkId(POWER_BLOCK);
+        if (chunkIds.contains(chunkId))
+            ret.put(chunkId, LongMultimap.builder()
+                                         .put(Util.simpleChunkSpaceLocationhash(POWER_BLOCK.x(), POWER_BLOCK.y(),
+                                                                                POWER_BLOCK.z()), DOOR_UID)
+                                         .build());
+        return ret;
+    }
+}
@@ -0,0 +1,162 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.IPExecutor;
+import nl.pim16aap2.bigdoors.api.IPPlayer;
+import nl.pim16aap2.bigdoors.api.IPWorld;
+import nl.pim16aap2.bigdoors.api.IProtectionCompatManager;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+class ProtectionCheckCacheTest
+{
+    private static final UUID PLAYER_UUID = UUID.fromString("27e6c556-4f30-32bf-a005-c80a46ddd935");
+    private static final Cuboid CUBOID = new Cuboid(new Vector3Di(0, 64, 0), new Vector3Di(10, 74, 0));
+
+    @Mock
+    IProtectionCompatManager protectionCompatManager;
+
+    @Mock
+    IConfigLoader config;
+
+    @Mock
+    IPExecutor executor;
+
+    @Mock
+    IPPlayer player;
+
+    @Mock
+    IPWorld world;
+
+    private long nanoTime = 0;
+
+    private ProtectionCheckCache protectionCheckCache;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(player.getUUID()).thenReturn(PLAYER_UUID);
+        Mockito.when(world.worldName()).thenReturn("world");
+        Mockito.when(config.protectionCheckCacheTime()).thenReturn(1000);
+        Mockito.when(protectionCompatManager.canBreakBlocksBetweenLocs(Mockito.any(), Mockito.any(), Mockito.any(),
+                                                                       Mockito.any())).thenReturn(Optional.empty());
+
+        protectionCheckCache = new ProtectionCheckCache(Mockito.mock(RestartableHolder.class), protectionCompatManager,
+                                                        config, executor, Mockito.mock(DebuggableRegistry.class),
+                                                        () -> nanoTime);
+    }
+
+    @Test
+    void testCaching()
+    {
+        Mockito.when(protectionCompatManager.canBreakBlocksBetweenLocs(player, CUBOID.getMin(), CUBOID.getMax(),
+                                                                       world)).thenReturn(Optional.of("TestCompat"));
+
+        Assertions.assertEquals(Optional.of("TestCompat"),
+                                protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world));
+        Assertions.assertEquals(Optional.of("TestCompat"),
+                                protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world));
+        verifyChecks(1, CUBOID);
+
+        // Other cuboids are checked separately.
+        final Cuboid other = CUBOID.move(1, 0, 0);
+        Assertions.assertEquals(Optional.empty(), protectionCheckCache.canBreakBlocksBetweenLocs(player, other, world));
+        verifyChecks(1, other);
+
+        // The results expire.
+        nanoTime += TimeUnit.MILLISECONDS.toNanos(1000);
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world);
+        verifyChecks(2, CUBOID);
+    }
+
+    @Test
+    void testDisabled()
+    {
+        Mockito.when(config.protectionCheckCacheTime()).thenReturn(0);
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world);
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world);
+        verifyChecks(2, CUBOID);
+        Assertions.assertEquals(0, protectionCheckCache.getSize());
+    }
+
+    @Test
+    void testInvalidate()
+    {
+        final IPPlayer otherPlayer = Mockito.mock(IPPlayer.class);
+        Mockito.when(otherPlayer.getUUID()).thenReturn(UUID.randomUUID());
+
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world);
+        protectionCheckCache.canBreakBlocksBetweenLocs(otherPlayer, CUBOID, world);
+        Assertions.assertEquals(2, protectionCheckCache.getSize());
+
+        protectionCheckCache.invalidate(PLAYER_UUID);
+        Assertions.assertEquals(1, protectionCheckCache.getSize());
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world);
+        verifyChecks(2, CUBOID, player);
+        verifyChecks(1, CUBOID, otherPlayer);
+
+        protectionCheckCache.invalidateAll();
+        Assertions.assertEquals(0, protectionCheckCache.getSize());
+    }
+
+    @Test
+    void testCleanup()
+    {
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world);
+        nanoTime += TimeUnit.MILLISECONDS.toNanos(1000);
+        // Expired results are removed when new results are added.
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID.move(1, 0, 0), world);
+        Assertions.assertEquals(1, protectionCheckCache.getSize());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCheckAhead()
+    {
+        Mockito.when(executor.supplyAsync(Mockito.any(Supplier.class)))
+               .thenAnswer(invocation -> CompletableFuture.supplyAsync(invocation.getArgument(0, Supplier.class)));
+
+        // Disabled by default.
+        protectionCheckCache.checkAhead(player, CUBOID, world).join();
+        Mockito.verify(executor, Mockito.never()).supplyAsync(Mockito.any(Supplier.class));
+        verifyChecks(0, CUBOID);
+
+        Mockito.when(config.asyncProtectionChecks()).thenReturn(true);
+        protectionCheckCache.checkAhead(player, CUBOID, world).join();
+        protectionCheckCache.canBreakBlocksBetweenLocs(player, CUBOID, world);
+        verifyChecks(1, CUBOID);
+
+        // Failures are not propagated.
+        Mockito.when(protectionCompatManager.canBreakBlocksBetweenLocs(Mockito.any(), Mockito.any(), Mockito.any(),
+                                                                       Mockito.any()))
+               .thenThrow(new IllegalStateException("Test exception!"));
+        Assertions.assertDoesNotThrow(() -> protectionCheckCache.checkAhead(player, CUBOID.move(1, 0, 0), world)
+                                                                .join());
+    }
+
+    private void verifyChecks(int count, Cuboid cuboid)
+    {
+        verifyChecks(count, cuboid, player);
+    }
+
+    private void verifyChecks(int count, Cuboid cuboid, IPPlayer player)
+    {
+        Mockito.verify(protectionCompatManager, Mockito.times(count))
+               .canBreakBlocksBetweenLocs(player, cuboid.getMin(), cuboid.getMax(), world);
+    }
+}
@@ -0,0 +1,256 @@
+package nl.pim16aap2.bigdoors.managers;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.IMessageable;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.factories.IPPlayerFactory;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.doors.AbstractDoor;
+import nl.pim16aap2.bigdoors.doors.DoorToggleRequest;
+import nl.pim16aap2.bigdoors.doors.DoorToggleRequestBuilder;
+import nl.pim16aap2.bigdoors.util.DoorToggleResult;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RedstoneQueueTest
+{
+    private static final String WORLD_NAME = "world";
+
+    @Mock
+    IConfigLoader config;
+
+    @Mock
+    PowerBlockManager powerBlockManager;
+
+    @Mock
+    DoorToggleRequest.IFactory doorToggleRequestFactory;
+
+    @Mock
+    DoorToggleRequest doorToggleRequest;
+
+    private RedstoneQueue queue;
+
+    /**
+     * Blocks the single redstone thread until it is released, so events stay in the queue.
+     */
+    private CountDownLatch blocker;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(config.redstoneThreads()).thenReturn(1);
+        Mockito.when(config.redstoneQueueSize()).thenReturn(2);
+        Mockito.when(config.redstoneQueuePolicy()).thenReturn(RedstoneQueue.Policy.COALESCE);
+        Mockito.when(doorToggleRequestFactory.create(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                                                     Mockito.anyDouble(), Mockito.anyBoolean(), Mockito.any()))
+               .thenReturn(doorToggleRequest);
+
+        final DoorToggleRequestBuilder doorToggleRequestBuilder =
+            new DoorToggleRequestBuilder(doorToggleRequestFactory, Mockito.mock(IMessageable.class),
+                                         Mockito.mock(IPPlayerFactory.class));
+        queue = new RedstoneQueue(Mockito.mock(RestartableHolder.class), config, powerBlockManager,
+                                  doorToggleRequestBuilder, Mockito.mock(DebuggableRegistry.class));
+        queue.initialize();
+        blocker = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        blocker.countDown();
+        queue.shutDown();
+    }
+
+    @Test
+    void testNotRunning()
+    {
+        queue.shutDown();
+        Assertions.assertFalse(queue.submit(WORLD_NAME, 0, 0, 0, () -> {}));
+        Assertions.assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void testCoalesce()
+        throws InterruptedException
+    {
+        final CountDownLatch started = blockQueue();
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch processed = new CountDownLatch(2);
+        final Runnable task = countingTask(runs, processed);
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 1, 2, 3, task));
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 1, 2, 3, task));
+        Assertions.assertTrue(queue.submit("other", 1, 2, 3, task));
+        Assertions.assertEquals(2, queue.getQueueDepth());
+        Assertions.assertEquals(1, queue.getCoalescedCount());
+
+        // The queue is full, so events at new positions are dropped, but events at pending positions are merged.
+        Assertions.assertFalse(queue.submit(WORLD_NAME, 4, 5, 6, task));
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 1, 2, 3, task));
+        Assertions.assertEquals(1, queue.getDroppedCount());
+        Assertions.assertEquals(2, queue.getCoalescedCount());
+
+        blocker.countDown();
+        awaitProcessed(processed);
+        Assertions.assertEquals(2, runs.get());
+
+        // Once processed, new events at the same position are queued again.
+        final CountDownLatch processedAgain = new CountDownLatch(1);
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 1, 2, 3, countingTask(runs, processedAgain)));
+        awaitProcessed(processedAgain);
+        Assertions.assertEquals(3, runs.get());
+    }
+
+    @Test
+    void testDrop()
+        throws InterruptedException
+    {
+        Mockito.when(config.redstoneQueuePolicy()).thenReturn(RedstoneQueue.Policy.DROP);
+        queue.initialize();
+
+        final CountDownLatch started = blockQueue();
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch processed = new CountDownLatch(2);
+        final Runnable task = countingTask(runs, processed);
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 1, 2, 3, task));
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 1, 2, 3, task));
+        Assertions.assertFalse(queue.submit(WORLD_NAME, 1, 2, 3, task));
+        Assertions.assertEquals(0, queue.getCoalescedCount());
+        Assertions.assertEquals(1, queue.getDroppedCount());
+
+        blocker.countDown();
+        awaitProcessed(processed);
+        Assertions.assertEquals(2, runs.get());
+    }
+
+    /**
+     * Make sure that events wait for the doors of previous events to be looked up, so the number of pending lookups is
+     * bounded by the queue as well.
+     */
+    @Test
+    void testSlowLookup()
+        throws InterruptedException
+    {
+        final CompletableFuture<List<AbstractDoor>> lookup = new CompletableFuture<>();
+        final CountDownLatch lookupStarted = new CountDownLatch(1);
+        Mockito.when(powerBlockManager.doorsFromPowerBlockLoc(Mockito.any(Vector3Di.class), Mockito.anyString()))
+               .thenAnswer(invocation ->
+                           {
+                               lookupStarted.countDown();
+                               return lookup;
+                           });
+
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 0, 0, 0, () -> queue.toggleDoorsAt(WORLD_NAME, 0, 0, 0)));
+        Assertions.assertTrue(lookupStarted.await(1, TimeUnit.SECONDS));
+
+        // The redstone thread is still waiting for the first lookup, so new events have to wait in the queue.
+        for (int idx = 1; idx <= 3; ++idx)
+        {
+            final int x = idx;
+            queue.submit(WORLD_NAME, x, 0, 0, () -> queue.toggleDoorsAt(WORLD_NAME, x, 0, 0));
+        }
+        queue.submit(WORLD_NAME, 1, 0, 0, () -> queue.toggleDoorsAt(WORLD_NAME, 1, 0, 0));
+        Assertions.assertEquals(2, queue.getQueueDepth());
+        Assertions.assertEquals(1, queue.getDroppedCount());
+        Assertions.assertEquals(1, queue.getCoalescedCount());
+        Mockito.verify(powerBlockManager, Mockito.times(1))
+               .doorsFromPowerBlockLoc(Mockito.any(Vector3Di.class), Mockito.anyString());
+
+        lookup.complete(List.of());
+        Mockito.verify(powerBlockManager, Mockito.timeout(1000).times(3))
+               .doorsFromPowerBlockLoc(Mockito.any(Vector3Di.class), Mockito.anyString());
+    }
+
+    @Test
+    void testPendingToggles()
+    {
+        final AbstractDoor door1 = Mockito.mock(AbstractDoor.class);
+        final AbstractDoor door2 = Mockito.mock(AbstractDoor.class);
+        Mockito.when(door1.getDoorUID()).thenReturn(1L);
+        Mockito.when(door2.getDoorUID()).thenReturn(2L);
+        Mockito.when(powerBlockManager.doorsFromPowerBlockLoc(Mockito.any(Vector3Di.class), Mockito.anyString()))
+               .thenReturn(CompletableFuture.completedFuture(List.of(door1)))
+               .thenReturn(CompletableFuture.completedFuture(List.of(door1, door2)));
+
+        final CompletableFuture<DoorToggleResult> result = new CompletableFuture<>();
+        Mockito.when(doorToggleRequest.execute()).thenReturn(result);
+
+        queue.toggleDoorsAt(WORLD_NAME, 1, 2, 3);
+        queue.toggleDoorsAt(WORLD_NAME, 1, 2, 3);
+        // The toggle of door 1 is still pending, so only door 2 is toggled the second time.
+        Mockito.verify(doorToggleRequest, Mockito.times(2)).execute();
+        Assertions.assertEquals(1, queue.getSkippedToggleCount());
+
+        result.complete(DoorToggleResult.SUCCESS);
+        queue.toggleDoorsAt(WORLD_NAME, 1, 2, 3);
+        Mockito.verify(doorToggleRequest, Mockito.times(4)).execute();
+        Assertions.assertEquals(1, queue.getSkippedToggleCount());
+    }
+
+    /**
+     * Submits a task that blocks the redstone thread until {@link #blocker} is released.
+     *
+     * @return A latch that is released once the redstone thread is blocked.
+     */
+    private CountDownLatch blockQueue()
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+        Assertions.assertTrue(queue.submit(WORLD_NAME, 0, 0, 0, () ->
+        {
+            started.countDown();
+            try
+            {
+                blocker.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        return started;
+    }
+
+    private static Runnable countingTask(AtomicInteger runs, CountDownLatch processed)
+    {
+        return () ->
+        {
+            runs.incrementAndGet();
+            processed.countDown();
+        };
+    }
+
+    /**
+     * Waits until all expected tasks have been processed and then until the redstone thread is idle.
+     * <p>
+     * Once all expected tasks have run, the queue is empty again. Submitting another task to the single redstone
+     * thread and waiting for it then ensures that any unexpected tasks that were still queued have run as well.
+     *
+     * @param processed
+     *     The latch that is counted down by the expected tasks.
+     */
+    private void awaitProcessed(CountDownLatch processed)
+        throws InterruptedException
+    {
+        Assertions.assertTrue(processed.await(1, TimeUnit.SECONDS));
+
+        final CountDownLatch done = new CountDownLatch(1);
+        Assertions.assertTrue(queue.submit("barrier", 0, 0, 0, done::countDown));
+        Assertions.assertTrue(done.await(1, TimeUnit.SECONDS));
+    }
+}
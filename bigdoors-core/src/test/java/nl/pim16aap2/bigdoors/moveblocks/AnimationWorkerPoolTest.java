@@ -0,0 +1,83 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+class AnimationWorkerPoolTest
+{
+    @Mock
+    IConfigLoader config;
+
+    @Mock
+    DebuggableRegistry debuggableRegistry;
+
+    private AnimationWorkerPool pool;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        pool = new AnimationWorkerPool(new RestartableHolder(), config, debuggableRegistry);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        pool.shutDown();
+    }
+
+    @Test
+    void testShouldRunInParallel()
+    {
+        Mockito.when(config.parallelAnimationThreshold()).thenReturn(0);
+        Assertions.assertFalse(pool.shouldRunInParallel(100_000));
+
+        Mockito.when(config.parallelAnimationThreshold()).thenReturn(5_000);
+        Assertions.assertFalse(pool.shouldRunInParallel(4_999));
+        Assertions.assertTrue(pool.shouldRunInParallel(5_000));
+
+        // Tiny animations are never split, regardless of the threshold.
+        Mockito.when(config.parallelAnimationThreshold()).thenReturn(1);
+        Assertions.assertFalse(pool.shouldRunInParallel(AnimationWorkerPool.MIN_CHUNK_SIZE));
+    }
+
+    @Test
+    void testRun()
+    {
+        for (final int size : new int[]{0, 1, AnimationWorkerPool.MIN_CHUNK_SIZE * 2 + 1, 100_003})
+            verifyCoverage(size);
+    }
+
+    @Test
+    void testRunAfterShutdown()
+    {
+        pool.shutDown();
+        verifyCoverage(100_003);
+    }
+
+    /**
+     * Ensures that every index in the range [0, size) is processed exactly once.
+     */
+    private void verifyCoverage(int size)
+    {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(size);
+        pool.run(size, (fromIdx, toIdx) ->
+        {
+            for (int idx = fromIdx; idx < toIdx; ++idx)
+                counts.incrementAndGet(idx);
+        });
+
+        for (int idx = 0; idx < size; ++idx)
+            Assertions.assertEquals(1, counts.get(idx), "Unexpected count for index " + idx + " of " + size);
+    }
+}
@@ -0,0 +1,172 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.IPExecutor;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
+import nl.pim16aap2.bigdoors.util.DoorToggleResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class DoorToggleSchedulerTest
+{
+    @Mock
+    IPExecutor executor;
+
+    @Mock
+    IConfigLoader config;
+
+    /**
+     * The current time in nanoseconds as seen by the scheduler.
+     */
+    private long nanoTime = 0;
+
+    /**
+     * The order in which the toggles were started.
+     */
+    private final List<String> started = new ArrayList<>();
+
+    private DoorToggleScheduler scheduler;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(config.toggleTimeBudget()).thenReturn(0);
+        Mockito.when(config.toggleBlockBudget()).thenReturn(0);
+
+        scheduler = new DoorToggleScheduler(Mockito.mock(RestartableHolder.class), executor, config,
+                                            Mockito.mock(DebuggableRegistry.class), () -> nanoTime);
+    }
+
+    private CompletableFuture<DoorToggleResult> schedule(String name, DoorActionCause cause, int blockCount)
+    {
+        return schedule(name, cause, blockCount, 0);
+    }
+
+    /**
+     * Schedules a toggle that takes a given amount of time.
+     */
+    private CompletableFuture<DoorToggleResult> schedule(
+        String name, DoorActionCause cause, int blockCount, long millis)
+    {
+        return scheduler.schedule(cause, blockCount, () ->
+        {
+            started.add(name);
+            nanoTime += TimeUnit.MILLISECONDS.toNanos(millis);
+            return DoorToggleResult.SUCCESS;
+        });
+    }
+
+    @Test
+    void testScheduleOnce()
+    {
+        final CompletableFuture<DoorToggleResult> result = schedule("a", DoorActionCause.PLAYER, 10);
+        schedule("b", DoorActionCause.PLAYER, 10);
+        Assertions.assertFalse(result.isDone());
+
+        // Processing the queue only has to be scheduled once.
+        Mockito.verify(executor, Mockito.times(1)).scheduleOnMainThread(Mockito.any(Runnable.class));
+
+        scheduler.processQueue();
+        Assertions.assertEquals(DoorToggleResult.SUCCESS, result.join());
+        Assertions.assertEquals(List.of("a", "b"), started);
+        Assertions.assertEquals(0, scheduler.getQueueSize());
+
+        // Once the queue is empty, the next toggle schedules processing it again.
+        schedule("c", DoorActionCause.PLAYER, 10);
+        Mockito.verify(executor, Mockito.times(2)).scheduleOnMainThread(Mockito.any(Runnable.class));
+    }
+
+    @Test
+    void testPriority()
+    {
+        schedule("redstone", DoorActionCause.REDSTONE, 10);
+        schedule("autoClose", DoorActionCause.AUTOCLOSE, 10);
+        schedule("server", DoorActionCause.SERVER, 10);
+        schedule("player", DoorActionCause.PLAYER, 10);
+
+        scheduler.processQueue();
+        Assertions.assertEquals(List.of("player", "server", "redstone", "autoClose"), started);
+    }
+
+    @Test
+    void testBlockBudget()
+    {
+        Mockito.when(config.toggleBlockBudget()).thenReturn(100);
+        schedule("a", DoorActionCause.REDSTONE, 60);
+        schedule("b", DoorActionCause.REDSTONE, 40);
+        schedule("c", DoorActionCause.REDSTONE, 1);
+        // Exceeds the budget on its own.
+        schedule("d", DoorActionCause.REDSTONE, 500);
+
+        scheduler.processQueue();
+        Assertions.assertEquals(List.of("a", "b"), started);
+        Assertions.assertEquals(new DoorToggleScheduler.TickReport(2, 100, 0, 2), scheduler.getLastTickReport());
+        Mockito.verify(executor).runSyncLater(Mockito.any(Runnable.class), Mockito.eq(1L));
+
+        scheduler.processQueue();
+        Assertions.assertEquals(List.of("a", "b", "c"), started);
+
+        // At least one toggle is started every tick.
+        scheduler.processQueue();
+        Assertions.assertEquals(List.of("a", "b", "c", "d"), started);
+        Assertions.assertEquals(0, scheduler.getLastTickReport().deferred());
+    }
+
+    @Test
+    void testTimeBudget()
+    {
+        Mockito.when(config.toggleTimeBudget()).thenReturn(10);
+        schedule("a", DoorActionCause.REDSTONE, 1, 4);
+        schedule("b", DoorActionCause.REDSTONE, 1, 4);
+        schedule("c", DoorActionCause.REDSTONE, 1, 4);
+        schedule("d", DoorActionCause.REDSTONE, 1, 4);
+
+        scheduler.processQueue();
+        Assertions.assertEquals(List.of("a", "b", "c"), started);
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(12), scheduler.getLastTickReport().nanos());
+
+        // Player toggles scheduled in the meantime are started first.
+        schedule("player", DoorActionCause.PLAYER, 1, 4);
+        scheduler.processQueue();
+        Assertions.assertEquals(List.of("a", "b", "c", "player", "d"), started);
+    }
+
+    @Test
+    void testException()
+    {
+        final CompletableFuture<DoorToggleResult> result = scheduler.schedule(
+            DoorActionCause.PLAYER, 1, () ->
+            {
+                throw new IllegalStateException("Test exception!");
+            });
+        final CompletableFuture<DoorToggleResult> other = schedule("a", DoorActionCause.PLAYER, 1);
+
+        scheduler.processQueue();
+        Assertions.assertTrue(result.isCompletedExceptionally());
+        Assertions.assertEquals(DoorToggleResult.SUCCESS, other.join());
+    }
+
+    @Test
+    void testShutDown()
+    {
+        final CompletableFuture<DoorToggleResult> result = schedule("a", DoorActionCause.PLAYER, 1);
+        scheduler.shutDown();
+        Assertions.assertEquals(DoorToggleResult.CANCELLED, result.join());
+        Assertions.assertEquals(0, scheduler.getQueueSize());
+
+        schedule("b", DoorActionCause.PLAYER, 1);
+        Mockito.verify(executor, Mockito.times(2)).scheduleOnMainThread(Mockito.any(Runnable.class));
+    }
+}
@@ -0,0 +1,179 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import nl.pim16aap2.bigdoors.api.IConfigLoader;
+import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.RotateDirection;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class KeyframeCacheTest
+{
+    private static final Cuboid CUBOID = new Cuboid(new Vector3Di(0, 0, 0), new Vector3Di(1, 1, 1));
+
+    @Mock
+    IConfigLoader config;
+
+    @Mock
+    DebuggableRegistry debuggableRegistry;
+
+    private KeyframeCache keyframeCache;
+
+    @BeforeEach
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(config.keyframeCacheSize()).thenReturn(1);
+        keyframeCache = new KeyframeCache(new RestartableHolder(), config, debuggableRegistry);
+    }
+
+    @Test
+    void testRecordAndReplay()
+    {
+        final PositionBuffer positions = createPositions(4);
+        final KeyframeCache.Key key = createKey(1, 3);
+        final long checksum = KeyframeCache.Keyframes.checksum(positions);
+
+        final KeyframeCache.Keyframes recorded = keyframeCache.createKeyframes(key, positions.size(), checksum);
+        Assertions.assertNotNull(recorded);
+
+        for (int step = 1; step <= 3; ++step)
+        {
+            for (int idx = 0; idx < positions.size(); ++idx)
+                positions.setGoalRelativeToStart(idx, step, idx, -step);
+            recorded.record(step, positions);
+        }
+        Assertions.assertTrue(recorded.isComplete());
+        keyframeCache.put(key, recorded);
+
+        final KeyframeCache.Keyframes replayed = keyframeCache.get(key, checksum);
+        Assertions.assertSame(recorded, replayed);
+
+        final PositionBuffer other = createPositions(4);
+        replayed.replay(2, other, 0, other.size());
+        for (int idx = 0; idx < other.size(); ++idx)
+        {
+            Assertions.assertEquals(other.getStartX(idx) + 2, other.getGoalX(idx), 1E-4);
+            Assertions.assertEquals(other.getStartY(idx) + idx, other.getGoalY(idx), 1E-4);
+            Assertions.assertEquals(other.getStartZ(idx) - 2, other.getGoalZ(idx), 1E-4);
+        }
+    }
+
+    @Test
+    void testOutOfOrderRecording()
+    {
+        final PositionBuffer positions = createPositions(2);
+        final KeyframeCache.Keyframes keyframes =
+            keyframeCache.createKeyframes(createKey(1, 5), positions.size(), 0);
+        Assertions.assertNotNull(keyframes);
+
+        keyframes.record(1, positions);
+        Assertions.assertThrows(IllegalStateException.class, () -> keyframes.record(3, positions));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> keyframeCache.put(createKey(1, 5), keyframes));
+    }
+
+    @Test
+    void testChecksumMismatch()
+    {
+        final PositionBuffer positions = createPositions(2);
+        final KeyframeCache.Key key = createKey(1, 1);
+        final KeyframeCache.Keyframes keyframes = recordAll(key, positions);
+        keyframeCache.put(key, keyframes);
+
+        Assertions.assertNull(keyframeCache.get(key, KeyframeCache.Keyframes.checksum(createPositions(3))));
+        // The outdated entry should have been removed.
+        Assertions.assertNull(keyframeCache.get(key, KeyframeCache.Keyframes.checksum(positions)));
+    }
+
+    @Test
+    void testSizeLimit()
+    {
+        // 1 MB allows for 87381 blocks for a single step.
+        Assertions.assertNull(keyframeCache.createKeyframes(createKey(1, 1), 90_000, 0));
+        Assertions.assertNotNull(keyframeCache.createKeyframes(createKey(1, 1), 80_000, 0));
+
+        Mockito.when(config.keyframeCacheSize()).thenReturn(0);
+        Assertions.assertNull(keyframeCache.createKeyframes(createKey(1, 1), 1, 0));
+    }
+
+    @Test
+    void testEviction()
+    {
+        // Every entry takes up 480 KB, so only 2 fit in the cache at the same time.
+        final PositionBuffer positions = createPositions(40);
+        final long checksum = KeyframeCache.Keyframes.checksum(positions);
+
+        final KeyframeCache.Key key0 = createKey(0, 1000);
+        final KeyframeCache.Key key1 = createKey(1, 1000);
+        final KeyframeCache.Key key2 = createKey(2, 1000);
+
+        keyframeCache.put(key0, recordAll(key0, positions));
+        keyframeCache.put(key1, recordAll(key1, positions));
+        // Access key0, so key1 becomes the least recently used entry.
+        Assertions.assertNotNull(keyframeCache.get(key0, checksum));
+        keyframeCache.put(key2, recordAll(key2, positions));
+
+        Assertions.assertNotNull(keyframeCache.get(key0, checksum));
+        Assertions.assertNull(keyframeCache.get(key1, checksum));
+        Assertions.assertNotNull(keyframeCache.get(key2, checksum));
+    }
+
+    @Test
+    void testInvalidate()
+    {
+        final PositionBuffer positions = createPositions(2);
+        final long checksum = KeyframeCache.Keyframes.checksum(positions);
+        final KeyframeCache.Key key0 = createKey(0, 1);
+        final KeyframeCache.Key key1 = createKey(1, 1);
+
+        keyframeCache.put(key0, recordAll(key0, positions));
+        keyframeCache.put(key1, recordAll(key1, positions));
+
+        keyframeCache.invalidate(0);
+        Assertions.assertNull(keyframeCache.get(key0, checksum));
+        Assertions.assertNotNull(keyframeCache.get(key1, checksum));
+    }
+
+    private KeyframeCache.Keyframes recordAll(KeyframeCache.Key key, PositionBuffer positions)
+    {
+        final KeyframeCache.Keyframes keyframes =
+            keyframeCache.createKeyframes(key, positions.size(), KeyframeCache.Keyframes.checksum(positions));
+        Assertions.assertNotNull(keyframes);
+        for (int step = 1; step <= key.duration(); ++step)
+            keyframes.record(step, positions);
+        return keyframes;
+    }
+
+    private static KeyframeCache.Key createKey(long doorUID, int duration)
+    {
+        return new KeyframeCache.Key(doorUID, BlockMover.class, CUBOID, CUBOID, new Vector3Di(0, 0, 0),
+                                     RotateDirection.NORTH, duration);
+    }
+
+    private static PositionBuffer createPositions(int count)
+    {
+        final List<IAnimatedBlock> blocks = new ArrayList<>(count);
+        for (int idx = 0; idx < count; ++idx)
+        {
+            final IAnimatedBlock block = Mockito.mock(IAnimatedBlock.class);
+            Mockito.when(block.getStartX()).thenReturn((double) idx);
+            Mockito.when(block.getStartY()).thenReturn(64D);
+            Mockito.when(block.getStartZ()).thenReturn((double) -idx);
+            Mockito.when(block.getFinalPosition()).thenReturn(new Vector3Dd(idx, 65, -idx));
+            Mockito.when(block.getCurrentPosition()).thenReturn(new Vector3Dd(idx, 64, -idx));
+            blocks.add(block);
+        }
+        return new PositionBuffer(blocks);
+    }
+}
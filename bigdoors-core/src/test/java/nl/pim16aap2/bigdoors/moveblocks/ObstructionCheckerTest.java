@@ -0,0 +1,246 @@
+package nl.pim16aap2.bigdoors.moveblocks;
+
+import nl.pim16aap2.bigdoors.api.IBlockAnalyzer;
+import nl.pim16aap2.bigdoors.api.IBlockSnapshot;
+import nl.pim16aap2.bigdoors.api.IPExecutor;
+import nl.pim16aap2.bigdoors.api.IPWorld;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+class ObstructionCheckerTest
+{
+    private static final Cuboid CURRENT_CUBOID = new Cuboid(new Vector3Di(0, 64, 0), new Vector3Di(0, 67, 3));
+    private static final Cuboid NEW_CUBOID = new Cuboid(new Vector3Di(0, 64, 0), new Vector3Di(3, 67, 0));
+
+    @Mock
+    IBlockAnalyzer blockAnalyzer;
+
+    @Mock
+    IPExecutor executor;
+
+    @Mock
+    IPWorld world;
+
+    /**
+     * The positions of all blocks that are not air or liquid.
+     */
+    private final Set<Vector3Di> solidBlocks = new HashSet<>();
+
+    private long nanoTime = 0;
+
+    private ObstructionChecker obstructionChecker;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init()
+    {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(blockAnalyzer.createSnapshot(Mockito.any(), Mockito.any()))
+               .thenAnswer(invocation -> new Snapshot(invocation.getArgument(1, Cuboid.class),
+                                                      Set.copyOf(solidBlocks)));
+        Mockito.when(blockAnalyzer.isAirOrLiquid(Mockito.any(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt()))
+               .thenAnswer(invocation -> !solidBlocks.contains(
+                   new Vector3Di(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3))));
+        Mockito.when(world.worldName()).thenReturn("world");
+        Mockito.when(executor.runOnMainThread(Mockito.any(Supplier.class)))
+               .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                   invocation.getArgument(0, Supplier.class).get()));
+        Mockito.when(executor.supplyAsync(Mockito.any(Supplier.class)))
+               .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                   invocation.getArgument(0, Supplier.class).get()));
+
+        obstructionChecker = new ObstructionChecker(blockAnalyzer, executor, () -> nanoTime);
+    }
+
+    @Test
+    void testFindObstructions()
+    {
+        // Part of the current cuboid, so it is ignored.
+        solidBlocks.add(new Vector3Di(0, 65, 0));
+        solidBlocks.add(new Vector3Di(1, 65, 0));
+        solidBlocks.add(new Vector3Di(3, 67, 0));
+        // Outside the new cuboid.
+        solidBlocks.add(new Vector3Di(3, 68, 0));
+
+        final Snapshot snapshot = new Snapshot(NEW_CUBOID, solidBlocks);
+        Assertions.assertEquals(List.of(new Vector3Di(1, 65, 0), new Vector3Di(3, 67, 0)),
+                                ObstructionChecker.findObstructions(snapshot, CURRENT_CUBOID, true));
+        Assertions.assertEquals(List.of(new Vector3Di(1, 65, 0)),
+                                ObstructionChecker.findObstructions(snapshot, CURRENT_CUBOID, false));
+
+        solidBlocks.clear();
+        Assertions.assertTrue(ObstructionChecker.findObstructions(snapshot, CURRENT_CUBOID, true).isEmpty());
+    }
+
+    @Test
+    void testCheckAsync()
+    {
+        solidBlocks.add(new Vector3Di(2, 64, 0));
+
+        final ObstructionChecker.Result result =
+            obstructionChecker.checkAsync(world, NEW_CUBOID, CURRENT_CUBOID, true).join();
+        Assertions.assertNotNull(result);
+        Assertions.assertTrue(result.isObstructed());
+        Assertions.assertEquals(List.of(new Vector3Di(2, 64, 0)), result.obstructions());
+
+        // The snapshot is created on the main thread and checked asynchronously.
+        Mockito.verify(executor).runOnMainThread(Mockito.any(Supplier.class));
+        Mockito.verify(executor).supplyAsync(Mockito.any(Supplier.class));
+    }
+
+    @Test
+    void testCheckAsyncFailure()
+    {
+        Mockito.when(blockAnalyzer.createSnapshot(Mockito.any(), Mockito.any()))
+               .thenThrow(new IllegalArgumentException("Test exception!"));
+        Assertions.assertNull(obstructionChecker.checkAsync(world, NEW_CUBOID, CURRENT_CUBOID, true).join());
+    }
+
+    @Test
+    void testCheck()
+    {
+        solidBlocks.add(new Vector3Di(2, 64, 0));
+        final ObstructionChecker.Result result = obstructionChecker.check(world, NEW_CUBOID, CURRENT_CUBOID, true);
+        Assertions.assertEquals(List.of(new Vector3Di(2, 64, 0)), result.obstructions());
+
+        // Checks on the main thread look up the blocks directly.
+        Mockito.verify(blockAnalyzer, Mockito.never()).createSnapshot(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testValidResult()
+    {
+        final ObstructionChecker.Result result =
+            obstructionChecker.checkAsync(world, NEW_CUBOID, CURRENT_CUBOID, true).join();
+        Assertions.assertNotNull(result);
+        Assertions.assertFalse(result.isObstructed());
+
+        nanoTime += ObstructionChecker.MAX_RESULT_AGE.toNanos();
+        Assertions.assertSame(result,
+                              obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, true));
+
+        // The door was moved in the meantime.
+        solidBlocks.add(new Vector3Di(1, 64, 0));
+        Assertions.assertTrue(
+            obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID.move(0, 1, 0), true)
+                              .isObstructed());
+
+        // The result is too old.
+        solidBlocks.clear();
+        solidBlocks.add(new Vector3Di(2, 64, 0));
+        nanoTime += 1;
+        final ObstructionChecker.Result newResult =
+            obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, true);
+        Assertions.assertNotSame(result, newResult);
+        Assertions.assertTrue(newResult.isObstructed());
+
+        Assertions.assertFalse(
+            obstructionChecker.getValidResult(null, world, NEW_CUBOID.move(10, 0, 0), CURRENT_CUBOID, true)
+                              .isObstructed());
+
+        // The area is looked up directly instead of creating a new snapshot.
+        Mockito.verify(blockAnalyzer, Mockito.times(1)).createSnapshot(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testChangedChunks()
+    {
+        final ObstructionChecker.Result result =
+            obstructionChecker.checkAsync(world, NEW_CUBOID, CURRENT_CUBOID, true).join();
+        Assertions.assertNotNull(result);
+
+        // Changes in other worlds and chunks do not affect the result.
+        nanoTime += 1;
+        obstructionChecker.onBlockChanged("other", 2, 0);
+        obstructionChecker.onBlockChanged("world", 20, 0);
+        solidBlocks.add(new Vector3Di(2, 64, 0));
+        Assertions.assertSame(result,
+                              obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, true));
+
+        obstructionChecker.onBlockChanged("world", 2, 0);
+        final ObstructionChecker.Result newResult =
+            obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, true);
+        Assertions.assertEquals(List.of(new Vector3Di(2, 64, 0)), newResult.obstructions());
+
+        // Changes from before the snapshot was created are ignored.
+        nanoTime += 1;
+        final ObstructionChecker.Result obstructed =
+            obstructionChecker.checkAsync(world, NEW_CUBOID, CURRENT_CUBOID, true).join();
+        Assertions.assertNotNull(obstructed);
+        Assertions.assertSame(obstructed,
+                              obstructionChecker.getValidResult(obstructed, world, NEW_CUBOID, CURRENT_CUBOID, true));
+    }
+
+    @Test
+    void testRemovedObstructions()
+    {
+        solidBlocks.add(new Vector3Di(1, 64, 0));
+        solidBlocks.add(new Vector3Di(2, 64, 0));
+        final ObstructionChecker.Result result =
+            obstructionChecker.checkAsync(world, NEW_CUBOID, CURRENT_CUBOID, true).join();
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(2, result.obstructions().size());
+
+        // The obstructions that were found are always looked up again, even if no changes were registered.
+        solidBlocks.remove(new Vector3Di(1, 64, 0));
+        Assertions.assertEquals(List.of(new Vector3Di(2, 64, 0)),
+                                obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, true)
+                                                  .obstructions());
+
+        solidBlocks.clear();
+        Assertions.assertFalse(
+            obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, true).isObstructed());
+    }
+
+    @Test
+    void testIncompleteResult()
+    {
+        solidBlocks.add(new Vector3Di(1, 64, 0));
+        final ObstructionChecker.Result result =
+            obstructionChecker.checkAsync(world, NEW_CUBOID, CURRENT_CUBOID, false).join();
+        Assertions.assertNotNull(result);
+        Assertions.assertSame(result,
+                              obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, false));
+
+        // The check stopped at the first obstruction, so the rest of the area has to be checked again.
+        solidBlocks.add(new Vector3Di(3, 64, 0));
+        Assertions.assertEquals(List.of(new Vector3Di(1, 64, 0), new Vector3Di(3, 64, 0)),
+                                obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, true)
+                                                  .obstructions());
+
+        solidBlocks.remove(new Vector3Di(1, 64, 0));
+        Assertions.assertEquals(List.of(new Vector3Di(3, 64, 0)),
+                                obstructionChecker.getValidResult(result, world, NEW_CUBOID, CURRENT_CUBOID, false)
+                                                  .obstructions());
+    }
+
+    private record Snapshot(Cuboid cuboid, Set<Vector3Di> solidBlocks) implements IBlockSnapshot
+    {
+        @Override
+        public Cuboid getCuboid()
+        {
+            return cuboid;
+        }
+
+        @Override
+        public boolean isAirOrLiquid(int x, int y, int z)
+        {
+            final Vector3Di pos = new Vector3Di(x, y, z);
+            if (!cuboid.isPosInsideCuboid(pos))
+                throw new IllegalArgumentException("Position " + pos + " is outside of " + cuboid);
+            return !solidBlocks.contains(pos);
+        }
+    }
+}
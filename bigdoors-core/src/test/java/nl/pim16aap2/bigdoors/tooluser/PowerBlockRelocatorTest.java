@@ -7,6 +7,7 @@ import nl.pim16aap2.bigdoors.api.IPWorld;
 import nl.pim16aap2.bigdoors.api.IProtectionCompatManager;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.localization.ILocalizer;
+import nl.pim16aap2.bigdoors.managers.PowerBlockManager;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +40,9 @@ class PowerBlockRelocatorTest
     @Mock
     private PowerBlockRelocator.IFactory factory;
 
+    @Mock
+    private PowerBlockManager powerBlockManager;
+
     @BeforeEach
     void init()
     {
@@ -60,7 +64,8 @@ class PowerBlockRelocatorTest
         Mockito.when(context.getLocalizer()).thenReturn(localizer);
 
         Mockito.when(factory.create(Mockito.any(IPPlayer.class), Mockito.any(AbstractDoor.class)))
-               .thenAnswer(invoc -> new PowerBlockRelocator(context, invoc.getArgument(0, IPPlayer.class),
+               .thenAnswer(invoc -> new PowerBlockRelocator(context, powerBlockManager,
+                                                            invoc.getArgument(0, IPPlayer.class),
                                                             invoc.getArgument(1, AbstractDoor.class)));
     }
 
@@ -115,7 +120,7 @@ class PowerBlockRelocatorTest
 
         Assertions.assertTrue(relocator.handleInput(location));
 
-        Mockito.verify(door).syncData();
+        Mockito.verify(powerBlockManager).updatePowerBlockLoc(door, currentPowerBlockLoc, new Vector3Di(0, 0, 0));
     }
 
     @Test
@@ -129,5 +134,7 @@ class PowerBlockRelocatorTest
         Assertions.assertTrue(relocator.handleInput(location));
 
         Mockito.verify(door, Mockito.never()).syncData();
+        Mockito.verify(powerBlockManager, Mockito.never())
+               .updatePowerBlockLoc(Mockito.any(), Mockito.any(), Mockito.any());
     }
 }
@@ -1,6 +1,7 @@
 package nl.pim16aap2.bigdoors.util;
 
 import nl.pim16aap2.bigdoors.util.vector.Vector2Di;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -15,6 +16,15 @@ class UtilTest
         testChunkId(new Vector2Di(-6, -9));
     }
 
+    @Test
+    void testChunkCoords()
+    {
+        Assertions.assertEquals(new Vector2Di(9, 0), Util.getChunkCoords(new Vector3Di(144, 75, 15)));
+        Assertions.assertEquals(new Vector2Di(-2, -1), Util.getChunkCoords(new Vector3Di(-17, 75, -1)));
+        Assertions.assertEquals(Util.getChunkId(new Vector2Di(9, -1)), Util.getChunkId(new Vector3Di(159, 0, -16)));
+        Assertions.assertEquals(Util.getChunkId(new Vector2Di(-1, 0)), Util.getChunkId(-16, 0, 0));
+    }
+
     @Test
     void isNumerical()
     {
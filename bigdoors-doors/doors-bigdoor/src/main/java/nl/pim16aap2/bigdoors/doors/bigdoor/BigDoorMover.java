@@ -2,7 +2,6 @@ package nl.pim16aap2.bigdoors.doors.bigdoor;
 
 import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
-import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
@@ -71,17 +70,34 @@ public class BigDoorMover extends BlockMover
     {
         if (ticks == halfEndCount)
             applyRotation();
+        super.executeAnimationStep(ticks);
+    }
 
+    @Override
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
+    {
         final double stepSum = step * ticks;
         final double cos = Math.cos(stepSum);
         final double sin = Math.sin(stepSum);
 
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getGoalPos(animatedBlock, cos, sin));
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+        {
+            final double translatedX = positions.getStartX(idx) - rotationCenter.x();
+            final double translatedZ = positions.getStartZ(idx) - rotationCenter.z();
+
+            final double changeX = translatedX * cos - translatedZ * sin;
+            final double changeZ = translatedX * sin + translatedZ * cos;
+
+            positions.setGoal(idx, rotationCenter.x() + changeX, positions.getStartY(idx),
+                              rotationCenter.z() + changeZ);
+        }
     }
 
-    private Vector3Dd getGoalPos(double cos, double sin, double startX, double startY, double startZ)
+    private Vector3Dd getGoalPos(double angle, double startX, double startY, double startZ)
     {
+        final double cos = Math.cos(angle);
+        final double sin = Math.sin(angle);
+
         final double translatedX = startX - rotationCenter.x();
         final double translatedZ = startZ - rotationCenter.z();
 
@@ -91,16 +107,6 @@ public class BigDoorMover extends BlockMover
         return new Vector3Dd(rotationCenter.x() + changeX, startY, rotationCenter.z() + changeZ);
     }
 
-    private Vector3Dd getGoalPos(double angle, double startX, double startY, double startZ)
-    {
-        return getGoalPos(Math.cos(angle), Math.sin(angle), startX, startY, startZ);
-    }
-
-    private Vector3Dd getGoalPos(IAnimatedBlock animatedBlock, double cos, double sin)
-    {
-        return getGoalPos(cos, sin, animatedBlock.getStartX(), animatedBlock.getStartY(), animatedBlock.getStartZ());
-    }
-
     @Override
     protected float getRadius(int xAxis, int yAxis, int zAxis)
     {
@@ -1,7 +1,6 @@
 package nl.pim16aap2.bigdoors.doors.clock;
 
 import nl.pim16aap2.bigdoors.api.IPPlayer;
-import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.doorarchetypes.IHorizontalAxisAligned;
 import nl.pim16aap2.bigdoors.doors.windmill.WindmillMover;
@@ -14,8 +13,6 @@ import nl.pim16aap2.bigdoors.util.WorldTime;
 import nl.pim16aap2.bigdoors.util.vector.IVector3D;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
 
-import java.util.function.Function;
-
 /**
  * Represents a {@link BlockMover} for {@link Clock}s.
  *
@@ -24,10 +21,10 @@ import java.util.function.Function;
 public class ClockMover<T extends AbstractDoor & IHorizontalAxisAligned> extends WindmillMover<T>
 {
     /**
-     * Method to determine if a given {@link IAnimatedBlock} is part of the little hand or the big hand of a clock.
-     * Represented as a {@link Function} because TODO: Finish this sentence
+     * Describes for every block in {@link #positions} whether it is part of the little hand (true) or the big hand
+     * (false) of the clock.
      */
-    protected final Function<IAnimatedBlock, Boolean> isHourArm;
+    protected final boolean[] hourArm;
 
     /**
      * The step of 1 minute on a clock, or 1/60th of a circle in radians.
@@ -56,7 +53,9 @@ public class ClockMover<T extends AbstractDoor & IHorizontalAxisAligned> extends
         throws Exception
     {
         super(context, door, 0.0D, 0.0D, rotateDirection, player, cause, actionType);
-        isHourArm = northSouth ? this::isHourArmNS : this::isHourArmEW;
+        hourArm = new boolean[positions.size()];
+        for (int idx = 0; idx < hourArm.length; ++idx)
+            hourArm[idx] = northSouth ? isHourArmNS(idx) : isHourArmEW(idx);
         angleDirectionMultiplier =
             (rotateDirection == RotateDirection.EAST || rotateDirection == RotateDirection.SOUTH) ? -1 : 1;
     }
@@ -68,23 +67,23 @@ public class ClockMover<T extends AbstractDoor & IHorizontalAxisAligned> extends
     }
 
     /**
-     * Checks is a given {@link IAnimatedBlock} is the hour arm or the minute arm.
+     * Checks is the block at the given index is the hour arm or the minute arm.
      *
      * @return True if the block is part of the hour arm.
      */
-    private boolean isHourArmNS(IAnimatedBlock animatedBlock)
+    private boolean isHourArmNS(int idx)
     {
-        return ((int) animatedBlock.getPosition().z()) == door.getRotationPoint().z();
+        return ((int) positions.getStartZ(idx)) == door.getRotationPoint().z();
     }
 
     /**
-     * Checks is a given {@link IAnimatedBlock} is the hour arm or the minute arm.
+     * Checks is the block at the given index is the hour arm or the minute arm.
      *
      * @return True if the block is part of the hour arm.
      */
-    private boolean isHourArmEW(IAnimatedBlock animatedBlock)
+    private boolean isHourArmEW(int idx)
     {
-        return ((int) animatedBlock.getPosition().x()) == door.getRotationPoint().x();
+        return ((int) positions.getStartX(idx)) == door.getRotationPoint().x();
     }
 
     @Override
@@ -93,29 +92,45 @@ public class ClockMover<T extends AbstractDoor & IHorizontalAxisAligned> extends
         return Vector3Dd.of(startLocation);
     }
 
+    /**
+     * The arms of a clock follow the time of the world, so the animation is different every time.
+     */
     @Override
-    protected void executeAnimationStep(int ticks)
+    protected boolean isAnimationRepeatable()
+    {
+        return false;
+    }
+
+    @Override
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
     {
         final WorldTime worldTime = world.getTime();
         final double hourAngle = angleDirectionMultiplier * ClockMover.hoursToAngle(worldTime.getHours(),
                                                                                     worldTime.getMinutes());
         final double minuteAngle = angleDirectionMultiplier * ClockMover.minutesToAngle(worldTime.getMinutes());
 
+        final double hourCos = Math.cos(hourAngle);
+        final double hourSin = Math.sin(hourAngle);
+        final double minuteCos = Math.cos(minuteAngle);
+        final double minuteSin = Math.sin(minuteAngle);
+
         // Move the hour arm at a lower tickRate than the minute arm.
         final boolean moveHourArm = ticks % 10 == 0;
 
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            if (Math.abs(animatedBlock.getRadius()) > EPS)
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+        {
+            // Move the little hand at a lower interval than the big hand.
+            if (Math.abs(positions.getRadius(idx)) <= EPS || (!moveHourArm && hourArm[idx]))
             {
-                // Move the little hand at a lower interval than the big hand.
-                // TODO: Just store the hour and minute arms separately.
-                final boolean hourArm = isHourArm.apply(animatedBlock);
-                if (!moveHourArm && hourArm)
-                    continue;
-
-                final double timeAngle = hourArm ? hourAngle : minuteAngle;
-                movementMethod.apply(animatedBlock, getGoalPos(timeAngle, animatedBlock));
+                positions.skip(idx);
+                continue;
             }
+
+            if (hourArm[idx])
+                setGoalPos(idx, hourCos, hourSin);
+            else
+                setGoalPos(idx, minuteCos, minuteSin);
+        }
     }
 
     /**
@@ -1,7 +1,6 @@
 package nl.pim16aap2.bigdoors.doors.drawbridge;
 
 import nl.pim16aap2.bigdoors.api.IPPlayer;
-import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.DoorBase;
 import nl.pim16aap2.bigdoors.doors.doorarchetypes.IHorizontalAxisAligned;
@@ -26,6 +25,11 @@ public class BridgeMover<T extends AbstractDoor & IHorizontalAxisAligned> extend
     protected final boolean northSouth;
     protected final TriFunction<Vector3Dd, Vector3Dd, Double, Vector3Dd> rotator;
 
+    /**
+     * Whether the blocks rotate around the x axis (true) or around the z axis (false).
+     */
+    private final boolean rotateAroundXAxis;
+
     private int halfEndCount;
     private double step;
     protected final double angle;
@@ -68,18 +72,22 @@ public class BridgeMover<T extends AbstractDoor & IHorizontalAxisAligned> extend
             case NORTH:
                 angle = -Math.PI / 2;
                 rotator = Vector3Dd::rotateAroundXAxis;
+                rotateAroundXAxis = true;
                 break;
             case SOUTH:
                 angle = Math.PI / 2;
                 rotator = Vector3Dd::rotateAroundXAxis;
+                rotateAroundXAxis = true;
                 break;
             case EAST:
                 angle = Math.PI / 2;
                 rotator = Vector3Dd::rotateAroundZAxis;
+                rotateAroundXAxis = false;
                 break;
             case WEST:
                 angle = -Math.PI / 2;
                 rotator = Vector3Dd::rotateAroundZAxis;
+                rotateAroundXAxis = false;
                 break;
             default:
                 throw new IllegalArgumentException("RotateDirection \"" + rotateDirection.name() +
@@ -105,9 +113,38 @@ public class BridgeMover<T extends AbstractDoor & IHorizontalAxisAligned> extend
         return rotator.apply(new Vector3Dd(x, y, z), rotationCenter, angle);
     }
 
-    protected Vector3Dd getGoalPos(double angle, IAnimatedBlock animatedBlock)
+    /**
+     * Sets the goal position of the block at the given index to its start position rotated around the rotation point.
+     *
+     * @param idx
+     *     The index of the block in {@link #positions}.
+     * @param cos
+     *     The cosine of the angle to rotate by.
+     * @param sin
+     *     The sine of the angle to rotate by.
+     */
+    protected void setGoalPos(int idx, double cos, double sin)
     {
-        return getGoalPos(angle, animatedBlock.getStartX(), animatedBlock.getStartY(), animatedBlock.getStartZ());
+        final double startX = positions.getStartX(idx);
+        final double startY = positions.getStartY(idx);
+        final double startZ = positions.getStartZ(idx);
+
+        final double translatedY = startY - rotationCenter.y();
+        if (rotateAroundXAxis)
+        {
+            final double translatedZ = startZ - rotationCenter.z();
+            positions.setGoal(idx, startX,
+                              rotationCenter.y() + cos * translatedY - sin * translatedZ,
+                              rotationCenter.z() + sin * translatedY + cos * translatedZ);
+        }
+        else
+        {
+            final double translatedX = startX - rotationCenter.x();
+            positions.setGoal(idx,
+                              rotationCenter.x() + sin * translatedY + cos * translatedX,
+                              rotationCenter.y() + cos * translatedY - sin * translatedX,
+                              startZ);
+        }
     }
 
     @Override
@@ -119,14 +156,20 @@ public class BridgeMover<T extends AbstractDoor & IHorizontalAxisAligned> extend
     @Override
     protected void executeAnimationStep(int ticks)
     {
-        final double stepSum = step * ticks;
-        final boolean replace = ticks == halfEndCount;
-
-        if (replace)
+        if (ticks == halfEndCount)
             this.respawnBlocks();
+        super.executeAnimationStep(ticks);
+    }
+
+    @Override
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
+    {
+        final double stepSum = step * ticks;
+        final double cos = Math.cos(stepSum);
+        final double sin = Math.sin(stepSum);
 
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getGoalPos(stepSum, animatedBlock));
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+            setGoalPos(idx, cos, sin);
     }
 
     @Override
@@ -1,7 +1,6 @@
 package nl.pim16aap2.bigdoors.doors.flag;
 
 import nl.pim16aap2.bigdoors.api.IPPlayer;
-import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
 import nl.pim16aap2.bigdoors.moveblocks.BlockMover;
@@ -9,8 +8,6 @@ import nl.pim16aap2.bigdoors.util.RotateDirection;
 import nl.pim16aap2.bigdoors.util.vector.IVector3D;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
 
-import java.util.function.BiFunction;
-
 /**
  * Represents a {@link BlockMover} for {@link Flag}s.
  *
@@ -19,7 +16,6 @@ import java.util.function.BiFunction;
 @SuppressWarnings({"FieldCanBeLocal", "unused", "squid:S1172", "CommentedOutCode", "PMD"})
 public class FlagMover extends BlockMover
 {
-    private final BiFunction<IAnimatedBlock, Integer, Vector3Dd> getGoalPos;
     private final boolean NS;
     private final double period;
     private final double amplitude;
@@ -35,7 +31,6 @@ public class FlagMover extends BlockMover
         final int xLen = Math.abs(xMax - xMin) + 1;
         final int zLen = Math.abs(zMax - zMin) + 1;
         NS = door.isNorthSouthAligned();
-        getGoalPos = NS ? this::getGoalPosNS : this::getGoalPosEW;
 
         final int length = NS ? zLen : xLen;
         period = length * 2.0f;
@@ -93,20 +88,14 @@ public class FlagMover extends BlockMover
 //        return offset;
     }
 
-    private Vector3Dd getGoalPosNS(IAnimatedBlock animatedBlock, int counter)
+    private void setGoalPos(int idx, int counter)
     {
-        double xOff = 0;
-        if (animatedBlock.getRadius() > 0)
-            xOff = getOffset(counter, animatedBlock.getRadius());
-        return new Vector3Dd(animatedBlock.getStartX() + xOff, animatedBlock.getStartY(), animatedBlock.getStartZ());
-    }
-
-    private Vector3Dd getGoalPosEW(IAnimatedBlock animatedBlock, int counter)
-    {
-        double zOff = 0;
-        if (animatedBlock.getRadius() > 0)
-            zOff = getOffset(counter, animatedBlock.getRadius());
-        return new Vector3Dd(animatedBlock.getStartX(), animatedBlock.getStartY(), animatedBlock.getStartZ() + zOff);
+        final float radius = positions.getRadius(idx);
+        final double offset = radius > 0 ? getOffset(counter, radius) : 0;
+        if (NS)
+            positions.setGoalRelativeToStart(idx, offset, 0, 0);
+        else
+            positions.setGoalRelativeToStart(idx, 0, 0, offset);
     }
 
     @Override
@@ -116,10 +105,10 @@ public class FlagMover extends BlockMover
     }
 
     @Override
-    protected void executeAnimationStep(int ticks)
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
     {
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getGoalPos.apply(animatedBlock, ticks));
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+            setGoalPos(idx, ticks);
     }
 
     @Override
@@ -1,7 +1,6 @@
 package nl.pim16aap2.bigdoors.doors.garagedoor;
 
 import nl.pim16aap2.bigdoors.api.IPPlayer;
-import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
 import nl.pim16aap2.bigdoors.moveblocks.BlockMover;
@@ -12,8 +11,6 @@ import nl.pim16aap2.bigdoors.util.vector.IVector3D;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
 
-import java.util.function.BiFunction;
-
 /**
  * Represents a {@link BlockMover} for {@link GarageDoor}s.
  *
@@ -23,7 +20,7 @@ public class GarageDoorMover extends BlockMover
 {
     private final double resultHeight;
     private final Vector3Di directionVec;
-    private final BiFunction<IAnimatedBlock, Double, Vector3Dd> getVector;
+    private final GoalPositionFunction getVector;
     private final int xLen;
     private final int yLen;
     private final int zLen;
@@ -42,27 +39,27 @@ public class GarageDoorMover extends BlockMover
 
         resultHeight = door.getMaximum().y() + 1.0D;
 
-        BiFunction<IAnimatedBlock, Double, Vector3Dd> getVectorTmp;
+        GoalPositionFunction getVectorTmp;
         switch (rotateDirection)
         {
             case NORTH:
                 directionVec = PBlockFace.getDirection(PBlockFace.NORTH);
-                getVectorTmp = this::getVectorDownNorth;
+                getVectorTmp = this::setGoalVectorDownNorth;
                 northSouth = true;
                 break;
             case EAST:
                 directionVec = PBlockFace.getDirection(PBlockFace.EAST);
-                getVectorTmp = this::getVectorDownEast;
+                getVectorTmp = this::setGoalVectorDownEast;
                 northSouth = false;
                 break;
             case SOUTH:
                 directionVec = PBlockFace.getDirection(PBlockFace.SOUTH);
-                getVectorTmp = this::getVectorDownSouth;
+                getVectorTmp = this::setGoalVectorDownSouth;
                 northSouth = true;
                 break;
             case WEST:
                 directionVec = PBlockFace.getDirection(PBlockFace.WEST);
-                getVectorTmp = this::getVectorDownWest;
+                getVectorTmp = this::setGoalVectorDownWest;
                 northSouth = false;
                 break;
             default:
@@ -78,7 +75,7 @@ public class GarageDoorMover extends BlockMover
         if (!door.isOpen())
         {
             blocksToMove = yLen + 1;
-            getVector = this::getVectorUp;
+            getVector = this::setGoalVectorUp;
         }
         else
         {
@@ -101,29 +98,28 @@ public class GarageDoorMover extends BlockMover
         step = (blocksToMove + 0.5f) / super.animationDuration;
     }
 
-    private Vector3Dd getVectorUp(IAnimatedBlock animatedBlock, double stepSum)
+    private void setGoalVectorUp(int idx, double stepSum)
     {
-        final double currentHeight = Math.min(resultHeight, animatedBlock.getStartY() + stepSum);
+        final double currentHeight = Math.min(resultHeight, positions.getStartY(idx) + stepSum);
         double xMod = 0;
         double yMod = stepSum;
         double zMod = 0;
 
         if (currentHeight >= door.getMaximum().y())
         {
-            final double horizontal = Math.max(0, stepSum - animatedBlock.getRadius() - 0.5);
+            final double horizontal = Math.max(0, stepSum - positions.getRadius(idx) - 0.5);
             xMod = directionVec.x() * horizontal;
-            yMod = Math.min(resultHeight - animatedBlock.getStartY(), stepSum);
+            yMod = Math.min(resultHeight - positions.getStartY(idx), stepSum);
             zMod = directionVec.z() * horizontal;
         }
-        return new Vector3Dd(animatedBlock.getStartX() + xMod, animatedBlock.getStartY() + yMod,
-                             animatedBlock.getStartZ() + zMod);
+        positions.setGoalRelativeToStart(idx, xMod, yMod, zMod);
     }
 
-    private Vector3Dd getVectorDownNorth(IAnimatedBlock animatedBlock, double stepSum)
+    private void setGoalVectorDownNorth(int idx, double stepSum)
     {
         final double goalZ = door.getRotationPoint().z();
         final double pivotZ = goalZ + 1.5;
-        final double currentZ = Math.max(goalZ, animatedBlock.getStartZ() - stepSum);
+        final double currentZ = Math.max(goalZ, positions.getStartZ(idx) - stepSum);
 
         final double xMod = 0;
         double yMod = 0;
@@ -131,19 +127,18 @@ public class GarageDoorMover extends BlockMover
 
         if (currentZ <= pivotZ)
         {
-            yMod = -Math.max(0, stepSum - animatedBlock.getRadius() + 0.5);
-            zMod = Math.max(goalZ - animatedBlock.getStartPosition().z() + 0.5, zMod);
+            yMod = -Math.max(0, stepSum - positions.getRadius(idx) + 0.5);
+            zMod = Math.max(goalZ - positions.getStartZ(idx) + 0.5, zMod);
         }
 
-        return new Vector3Dd(animatedBlock.getStartX() + xMod, animatedBlock.getStartY() + yMod,
-                             animatedBlock.getStartZ() + zMod);
+        positions.setGoalRelativeToStart(idx, xMod, yMod, zMod);
     }
 
-    private Vector3Dd getVectorDownSouth(IAnimatedBlock animatedBlock, double stepSum)
+    private void setGoalVectorDownSouth(int idx, double stepSum)
     {
         final double goalZ = door.getRotationPoint().z();
         final double pivotZ = goalZ - 1.5;
-        final double currentZ = Math.min(goalZ, animatedBlock.getStartZ() + stepSum);
+        final double currentZ = Math.min(goalZ, positions.getStartZ(idx) + stepSum);
 
         final double xMod = 0;
         double yMod = 0;
@@ -151,18 +146,17 @@ public class GarageDoorMover extends BlockMover
 
         if (currentZ >= pivotZ)
         {
-            yMod = -Math.max(0, stepSum - animatedBlock.getRadius() + 0.5);
-            zMod = Math.min(goalZ - animatedBlock.getStartPosition().z() + 0.5, zMod);
+            yMod = -Math.max(0, stepSum - positions.getRadius(idx) + 0.5);
+            zMod = Math.min(goalZ - positions.getStartZ(idx) + 0.5, zMod);
         }
-        return new Vector3Dd(animatedBlock.getStartX() + xMod, animatedBlock.getStartY() + yMod,
-                             animatedBlock.getStartZ() + zMod);
+        positions.setGoalRelativeToStart(idx, xMod, yMod, zMod);
     }
 
-    private Vector3Dd getVectorDownEast(IAnimatedBlock animatedBlock, double stepSum)
+    private void setGoalVectorDownEast(int idx, double stepSum)
     {
         final double goalX = door.getRotationPoint().x();
         final double pivotX = goalX - 1.5;
-        final double currentX = Math.min(goalX, animatedBlock.getStartX() + stepSum);
+        final double currentX = Math.min(goalX, positions.getStartX(idx) + stepSum);
 
         double xMod = stepSum;
         double yMod = 0;
@@ -170,18 +164,17 @@ public class GarageDoorMover extends BlockMover
 
         if (currentX >= pivotX)
         {
-            xMod = Math.min(goalX - animatedBlock.getStartPosition().x() + 0.5, xMod);
-            yMod = -Math.max(0, stepSum - animatedBlock.getRadius() + 0.5);
+            xMod = Math.min(goalX - positions.getStartX(idx) + 0.5, xMod);
+            yMod = -Math.max(0, stepSum - positions.getRadius(idx) + 0.5);
         }
-        return new Vector3Dd(animatedBlock.getStartX() + xMod, animatedBlock.getStartY() + yMod,
-                             animatedBlock.getStartZ() + zMod);
+        positions.setGoalRelativeToStart(idx, xMod, yMod, zMod);
     }
 
-    private Vector3Dd getVectorDownWest(IAnimatedBlock animatedBlock, double stepSum)
+    private void setGoalVectorDownWest(int idx, double stepSum)
     {
         final double goalX = door.getRotationPoint().x();
         final double pivotX = goalX + 1.5;
-        final double currentX = Math.max(goalX, animatedBlock.getStartX() - stepSum);
+        final double currentX = Math.max(goalX, positions.getStartX(idx) - stepSum);
 
         double xMod = -stepSum;
         double yMod = 0;
@@ -189,12 +182,11 @@ public class GarageDoorMover extends BlockMover
 
         if (currentX <= pivotX)
         {
-            xMod = Math.max(goalX - animatedBlock.getStartPosition().x() + 0.5, xMod);
-            yMod = -Math.max(0, stepSum - animatedBlock.getRadius() + 0.5);
+            xMod = Math.max(goalX - positions.getStartX(idx) + 0.5, xMod);
+            yMod = -Math.max(0, stepSum - positions.getRadius(idx) + 0.5);
         }
 
-        return new Vector3Dd(animatedBlock.getStartX() + xMod, animatedBlock.getStartY() + yMod,
-                             animatedBlock.getStartZ() + zMod);
+        positions.setGoalRelativeToStart(idx, xMod, yMod, zMod);
     }
 
     @Override
@@ -233,11 +225,11 @@ public class GarageDoorMover extends BlockMover
     }
 
     @Override
-    protected void executeAnimationStep(int ticks)
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
     {
         final double stepSum = step * ticks;
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getVector.apply(animatedBlock, stepSum));
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+            getVector.apply(idx, stepSum);
     }
 
     @Override
@@ -253,4 +245,13 @@ public class GarageDoorMover extends BlockMover
         final int dZ = Math.abs(zAxis - door.getRotationPoint().z());
         return Math.abs(dX * directionVec.x() + dZ * directionVec.z());
     }
+
+    /**
+     * Represents a function that computes the goal position of the block at a given index in {@link #positions}.
+     */
+    @FunctionalInterface
+    private interface GoalPositionFunction
+    {
+        void apply(int idx, double stepSum);
+    }
 }
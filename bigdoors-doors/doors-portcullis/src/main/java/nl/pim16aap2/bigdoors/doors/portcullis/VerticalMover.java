@@ -73,6 +73,12 @@ public class VerticalMover extends BlockMover
         return Vector3Dd.of(startLocation).add(0, blocksToMove, 0);
     }
 
+    @Override
+    protected boolean canCullInteriorBlocks()
+    {
+        return true;
+    }
+
     @Override
     protected void prepareAnimation()
     {
@@ -81,16 +87,11 @@ public class VerticalMover extends BlockMover
         firstBlockData = animatedBlocks.isEmpty() ? null : animatedBlocks.get(0);
     }
 
-    protected Vector3Dd getGoalPos(IAnimatedBlock animatedBlock, double stepSum)
-    {
-        return animatedBlock.getStartPosition().add(0, stepSum, 0);
-    }
-
     // Yes, it's bad practice to keep commented-out code around.
     // However, I do intend to use it again in the future, and it's easier to leave it here than hide it somewhere.
     @SuppressWarnings("CommentedOutCode")
     @Override
-    protected void executeAnimationStep(int ticks)
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
     {
         // TODO: Check if this is worth pursuing with the new movement system.
 //        // This isn't used currently, but the idea is to spawn solid blocks where this door is / is going to be.
@@ -113,7 +114,7 @@ public class VerticalMover extends BlockMover
             return;
 
         final double stepSum = step * ticks;
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getGoalPos(animatedBlock, stepSum));
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+            positions.setGoalRelativeToStart(idx, 0, stepSum, 0);
     }
 }
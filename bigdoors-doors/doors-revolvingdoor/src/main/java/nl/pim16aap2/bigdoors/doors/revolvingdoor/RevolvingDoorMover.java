@@ -1,7 +1,6 @@
 package nl.pim16aap2.bigdoors.doors.revolvingdoor;
 
 import nl.pim16aap2.bigdoors.api.IPPlayer;
-import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
@@ -11,8 +10,6 @@ import nl.pim16aap2.bigdoors.util.RotateDirection;
 import nl.pim16aap2.bigdoors.util.vector.IVector3D;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
 
-import java.util.function.BiFunction;
-
 /**
  * Represents a {@link BlockMover} for {@link RevolvingDoor}s.
  *
@@ -20,9 +17,13 @@ import java.util.function.BiFunction;
  */
 public class RevolvingDoorMover extends BlockMover
 {
-    private final BiFunction<IAnimatedBlock, Double, Vector3Dd> getGoalPos;
     private final RotateDirection rotateDirection;
 
+    /**
+     * The sign of the step: 1 for clockwise rotation, -1 for counterclockwise rotation.
+     */
+    private final int directionMultiplier;
+
     /**
      * The number of quarter circles to turn.
      */
@@ -47,10 +48,10 @@ public class RevolvingDoorMover extends BlockMover
         switch (rotateDirection)
         {
             case CLOCKWISE:
-                getGoalPos = this::getGoalPosClockwise;
+                directionMultiplier = 1;
                 break;
             case COUNTERCLOCKWISE:
-                getGoalPos = this::getGoalPosCounterClockwise;
+                directionMultiplier = -1;
                 break;
             default:
                 throw new IllegalStateException("Failed to open door \"" + getDoorUID()
@@ -79,13 +80,6 @@ public class RevolvingDoorMover extends BlockMover
         return new Vector3Dd(posX, startY, posZ);
     }
 
-    private Vector3Dd getGoalPosClockwise(IAnimatedBlock animatedBlock, double stepSum)
-    {
-        return getGoalPosClockwise(animatedBlock.getRadius(), animatedBlock.getStartAngle(),
-                                   animatedBlock.getStartY(),
-                                   stepSum);
-    }
-
     private Vector3Dd getGoalPosCounterClockwise(double radius, double startAngle, double startY, double stepSum)
     {
         final double posX = 0.5 + door.getRotationPoint().x() - radius * Math.sin(startAngle - stepSum);
@@ -93,12 +87,6 @@ public class RevolvingDoorMover extends BlockMover
         return new Vector3Dd(posX, startY, posZ);
     }
 
-    private Vector3Dd getGoalPosCounterClockwise(IAnimatedBlock animatedBlock, double stepSum)
-    {
-        return getGoalPosCounterClockwise(animatedBlock.getRadius(), animatedBlock.getStartAngle(),
-                                          animatedBlock.getStartY(), stepSum);
-    }
-
     @Override
     protected Vector3Dd getFinalPosition(IVector3D startLocation, float radius)
     {
@@ -113,12 +101,19 @@ public class RevolvingDoorMover extends BlockMover
     }
 
     @Override
-    protected void executeAnimationStep(int ticks)
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
     {
-        final double stepSum = step * ticks;
+        final double stepSum = directionMultiplier * step * ticks;
+        final double centerX = 0.5 + door.getRotationPoint().x();
+        final double centerZ = 0.5 + door.getRotationPoint().z();
 
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getGoalPos.apply(animatedBlock, stepSum));
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+        {
+            final double radius = positions.getRadius(idx);
+            final double angle = positions.getStartAngle(idx) + stepSum;
+            positions.setGoal(idx, centerX - radius * Math.sin(angle), positions.getStartY(idx),
+                              centerZ - radius * Math.cos(angle));
+        }
     }
 
     @Override
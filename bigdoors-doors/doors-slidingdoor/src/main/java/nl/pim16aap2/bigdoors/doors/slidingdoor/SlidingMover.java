@@ -82,6 +82,12 @@ public class SlidingMover extends BlockMover
         return Vector3Dd.of(startLocation).add(moveX, 0, moveZ);
     }
 
+    @Override
+    protected boolean canCullInteriorBlocks()
+    {
+        return true;
+    }
+
     @Override
     protected void prepareAnimation()
     {
@@ -90,21 +96,16 @@ public class SlidingMover extends BlockMover
         firstBlockData = animatedBlocks.isEmpty() ? null : animatedBlocks.get(0);
     }
 
-    protected Vector3Dd getGoalPos(IAnimatedBlock animatedBlock, double stepSum)
-    {
-        return animatedBlock.getStartPosition().add(northSouth ? 0 : stepSum,
-                                                    0,
-                                                    northSouth ? stepSum : 0);
-    }
-
     @Override
-    protected void executeAnimationStep(int ticks)
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
     {
         if (firstBlockData == null)
             return;
 
         final double stepSum = step * ticks;
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getGoalPos(animatedBlock, stepSum));
+        final double dx = northSouth ? 0 : stepSum;
+        final double dz = northSouth ? stepSum : 0;
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+            positions.setGoalRelativeToStart(idx, dx, 0, dz);
     }
 }
@@ -1,7 +1,6 @@
 package nl.pim16aap2.bigdoors.doors.windmill;
 
 import nl.pim16aap2.bigdoors.api.IPPlayer;
-import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.doorarchetypes.IHorizontalAxisAligned;
 import nl.pim16aap2.bigdoors.doors.drawbridge.BridgeMover;
@@ -46,11 +45,14 @@ public class WindmillMover<T extends AbstractDoor & IHorizontalAxisAligned> exte
     }
 
     @Override
-    protected void executeAnimationStep(int ticks)
+    protected void computeGoalPositions(int ticks, int fromIdx, int toIdx)
     {
         final double stepSum = step * ticks;
-        for (final IAnimatedBlock animatedBlock : animatedBlocks)
-            movementMethod.apply(animatedBlock, getGoalPos(stepSum, animatedBlock));
+        final double cos = Math.cos(stepSum);
+        final double sin = Math.sin(stepSum);
+
+        for (int idx = fromIdx; idx < toIdx; ++idx)
+            setGoalPos(idx, cos, sin);
     }
 
     @Override
@@ -48,6 +48,7 @@ import nl.pim16aap2.bigdoors.spigot.factories.pplayerfactory.PPlayerFactorySpigo
 import nl.pim16aap2.bigdoors.spigot.factories.pworldfactory.PWorldFactorySpigotModule;
 import nl.pim16aap2.bigdoors.spigot.implementations.BigDoorsToolUtilSpigot;
 import nl.pim16aap2.bigdoors.spigot.implementations.BigDoorsToolUtilSpigotModule;
+import nl.pim16aap2.bigdoors.spigot.listeners.BlockChangeListener;
 import nl.pim16aap2.bigdoors.spigot.listeners.ChunkListener;
 import nl.pim16aap2.bigdoors.spigot.listeners.EventListeners;
 import nl.pim16aap2.bigdoors.spigot.listeners.LoginMessageListener;
@@ -147,6 +148,8 @@ interface BigDoorsSpigotComponent
 
     ChunkListener getChunkListener();
 
+    BlockChangeListener getBlockChangeListener();
+
     EventListeners getEventListeners();
 
     LoginMessageListener getLoginMessageListener();
@@ -40,6 +40,7 @@ import nl.pim16aap2.bigdoors.managers.ToolUserManager;
 import nl.pim16aap2.bigdoors.moveblocks.AutoCloseScheduler;
 import nl.pim16aap2.bigdoors.moveblocks.DoorActivityManager;
 import nl.pim16aap2.bigdoors.spigot.exceptions.InitializationException;
+import nl.pim16aap2.bigdoors.spigot.listeners.BlockChangeListener;
 import nl.pim16aap2.bigdoors.spigot.listeners.ChunkListener;
 import nl.pim16aap2.bigdoors.spigot.listeners.EventListeners;
 import nl.pim16aap2.bigdoors.spigot.listeners.LoginMessageListener;
@@ -186,6 +187,9 @@ final class BigDoorsSpigotPlatform implements IBigDoorsPlatform
     @SuppressWarnings({"FieldCanBeLocal", "unused", "PMD.SingularField"})
     private final ChunkListener chunkListener;
 
+    @SuppressWarnings({"FieldCanBeLocal", "unused", "PMD.SingularField"})
+    private final BlockChangeListener blockChangeListener;
+
     @SuppressWarnings({"FieldCanBeLocal", "unused", "PMD.SingularField"})
     private final EventListeners eventListeners;
 
@@ -251,6 +255,7 @@ final class BigDoorsSpigotPlatform implements IBigDoorsPlatform
         redstoneListener = safeGetter(BigDoorsSpigotComponent::getRedstoneListener);
         loginResourcePackListener = safeGetter(BigDoorsSpigotComponent::getLoginResourcePackListener);
         chunkListener = safeGetter(BigDoorsSpigotComponent::getChunkListener);
+        blockChangeListener = safeGetter(BigDoorsSpigotComponent::getBlockChangeListener);
         eventListeners = safeGetter(BigDoorsSpigotComponent::getEventListeners);
         loginMessageListener = safeGetter(BigDoorsSpigotComponent::getLoginMessageListener);
 
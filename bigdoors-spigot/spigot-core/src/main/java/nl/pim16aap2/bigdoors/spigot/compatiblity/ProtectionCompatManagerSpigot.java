@@ -1,5 +1,6 @@
 package nl.pim16aap2.bigdoors.spigot.compatiblity;
 
+import dagger.Lazy;
 import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.IPLocation;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
@@ -7,6 +8,7 @@ import nl.pim16aap2.bigdoors.api.IPWorld;
 import nl.pim16aap2.bigdoors.api.IProtectionCompatManager;
 import nl.pim16aap2.bigdoors.api.restartable.Restartable;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.managers.ProtectionCheckCache;
 import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -25,10 +27,16 @@ import java.util.Optional;
 @Flogger
 public final class ProtectionCompatManagerSpigot extends Restartable implements Listener, IProtectionCompatManager
 {
+    /**
+     * The cache of the results of this manager. This is lazy, because the cache depends on this manager.
+     */
+    private final Lazy<ProtectionCheckCache> protectionCheckCache;
+
     @Inject
-    public ProtectionCompatManagerSpigot(RestartableHolder holder)
+    public ProtectionCompatManagerSpigot(RestartableHolder holder, Lazy<ProtectionCheckCache> protectionCheckCache)
     {
         super(holder);
+        this.protectionCheckCache = protectionCheckCache;
     }
 
     /**
@@ -60,6 +68,8 @@ public final class ProtectionCompatManagerSpigot extends Restartable implements
 
     /**
      * Load a compat for the plugin enabled in the event if needed.
+     * <p>
+     * The cached results of earlier checks are invalidated, as they did not take the new compat into account.
      *
      * @param event
      *     The event of the plugin that is loaded.
@@ -68,5 +78,6 @@ public final class ProtectionCompatManagerSpigot extends Restartable implements
     @EventHandler
     void onPluginEnable(PluginEnableEvent event)
     {
+        protectionCheckCache.get().invalidateAll();
     }
 }
@@ -9,6 +9,7 @@ import nl.pim16aap2.bigdoors.api.debugging.IDebuggable;
 import nl.pim16aap2.bigdoors.doortypes.DoorType;
 import nl.pim16aap2.bigdoors.localization.LocalizationUtil;
 import nl.pim16aap2.bigdoors.managers.DoorTypeManager;
+import nl.pim16aap2.bigdoors.managers.RedstoneQueue;
 import nl.pim16aap2.bigdoors.spigot.util.SpigotUtil;
 import nl.pim16aap2.bigdoors.spigot.util.implementations.ConfigReaderSpigot;
 import nl.pim16aap2.bigdoors.util.ConfigEntry;
@@ -70,6 +71,23 @@ public final class ConfigLoaderSpigot implements IConfigLoader, IDebuggable
     private OptionalInt maxDoorCount = OptionalInt.empty();
     private OptionalInt maxBlocksToMove = OptionalInt.empty();
     private int cacheTimeout;
+    private int keyframeCacheSize;
+    private int parallelAnimationThreshold;
+    private int animationHalfRateDistance;
+    private int animationQuarterRateDistance;
+    private boolean cullInteriorBlocks;
+    private int doorSyncDelay;
+    private int doorSyncBatchSize;
+    private int redstoneThreads;
+    private int redstoneQueueSize;
+    private RedstoneQueue.Policy redstoneQueuePolicy = RedstoneQueue.Policy.COALESCE;
+    private int doorPreloadRadius;
+    private int doorPreloadConcurrency;
+    private int toggleTimeBudget;
+    private int toggleBlockBudget;
+    private int protectionCheckCacheTime;
+    private boolean asyncProtectionChecks;
+    private int doorCacheSize;
     private boolean autoDLUpdate;
     private long downloadDelay;
     private boolean enableRedstone;
@@ -199,6 +217,77 @@ public final class ConfigLoaderSpigot implements IConfigLoader, IDebuggable
                 "-1 means no caching (not recommended!), 0 = infinite cache (not recommended either!).",
             "It doesn't take up too much RAM, so it's recommended to leave this value high. " +
                 "It'll get updated automatically when needed anyway."};
+        final String[] keyframeCacheSizeComment = {
+            "Maximum amount of memory (in MB) to use for caching the animations of doors. " +
+                "0 means no caching.",
+            "Doors that are toggled repeatedly will replay their cached animations instead of recalculating them."};
+        final String[] parallelAnimationThresholdComment = {
+            "Doors with at least this many blocks will use multiple threads to calculate their animations. " +
+                "0 means animations are never calculated in parallel.",
+            "This only helps for very large doors, as the threads need to be coordinated every tick."};
+        final String[] animationHalfRateDistanceComment = {
+            "Players that are further away from an animated door than this distance (in blocks) only receive " +
+                "every 2nd movement update of the door. 0 means every player receives every update."};
+        final String[] animationQuarterRateDistanceComment = {
+            "Players that are further away from an animated door than this distance (in blocks) only receive " +
+                "every 4th movement update of the door. 0 means this option is disabled."};
+        final String[] cullInteriorBlocksComment = {
+            "Whether to skip animating blocks that are completely surrounded by other blocks. " +
+                "These blocks cannot be seen anyway, so they will be moved to their new location directly.",
+            "This only affects doors that do not rotate, such as sliding doors and portcullises."};
+        final String[] doorSyncDelayComment = {
+            "The amount of time (in milliseconds) changes to doors are kept in memory before they are written " +
+                "to the database.",
+            "When a door changes multiple times within this time (e.g. because it is toggled often), " +
+                "only its final state is written.",
+            "Set this to 0 to write every change to the database immediately."};
+        final String[] doorSyncBatchSizeComment = {
+            "The maximum number of changed doors to keep in memory. When this many doors have changed, " +
+                "they are written to the database immediately.",
+            "Set this to 0 to only write changes after the delay defined in 'doorSyncDelay'."};
+        final String[] redstoneThreadsComment = {
+            "The number of threads to use for processing redstone events."};
+        final String[] redstoneQueueSizeComment = {
+            "The maximum number of redstone events that can wait to be processed.",
+            "When more redstone events happen (e.g. because of fast redstone clocks), new events are dropped."};
+        final String[] redstoneQueuePolicyComment = {
+            "What to do with redstone events that happen faster than they can be processed.",
+            "DROP: Queue every event and drop new events when the queue is full.",
+            "COALESCE: Merge new events into pending events at the same position and drop events at new positions " +
+                "when the queue is full.",
+            "This will default to COALESCE in case an invalid option is provided."};
+        final String[] doorPreloadRadiusComment = {
+            "When a chunk is loaded, the doors in all chunks within this distance (in chunks) are loaded as well, " +
+                "so they are ready to be used when a player gets there.",
+            "0 means only the doors in the loaded chunk itself are loaded. -1 disables loading doors in advance."};
+        final String[] doorPreloadConcurrencyComment = {
+            "The maximum number of database queries that can be used to load doors in advance at the same time.",
+            "When many chunks are loaded at once (e.g. when a player teleports), the doors in all chunks that " +
+                "have to wait are loaded using a single query."};
+        final String[] toggleTimeBudgetComment = {
+            "The maximum amount of time (in milliseconds) that can be spent on starting door toggles per tick.",
+            "Toggles that do not fit in this budget are postponed to the next tick. Toggles initiated by players " +
+                "are always started before toggles caused by redstone or the auto close system.",
+            "At least one toggle is started every tick. 0 or lower means there is no time limit."};
+        final String[] toggleBlockBudgetComment = {
+            "The maximum number of blocks of the doors whose toggles are started in a single tick.",
+            "Toggles that do not fit in this budget are postponed to the next tick, just like for the time budget.",
+            "At least one toggle is started every tick. 0 or lower means there is no block limit."};
+        final String[] protectionCheckCacheTimeComment = {
+            "The amount of time (in milliseconds) the result of a protection plugin check is cached.",
+            "When a player toggles the same door again within this time, the protection plugins are not queried " +
+                "again. Changes to claims or regions may take this long to take effect.",
+            "0 or lower disables the cache."};
+        final String[] asyncProtectionChecksComment = {
+            "Whether protection plugins may be queried asynchronously as soon as a door toggle is requested, so the " +
+                "result is already available when the door is toggled.",
+            "Only enable this when all your protection plugins can be queried from other threads! " +
+                "This has no effect when the protection check cache is disabled."};
+        final String[] doorCacheSizeComment = {
+            "The maximum number of doors to keep in memory. When more doors are loaded, the doors that are used " +
+                "least often are unloaded first. Doors that are currently moving are never unloaded.",
+            "Unloaded doors are loaded from the database again when they are needed.",
+            "0 or lower means there is no limit."};
         final String[] pricesComment = {
             "When Vault is present, you can set the price of doorBase creation here for every type of door.",
             "You can use the word \"blockCount\" (without quotation marks, case sensitive) as a " +
@@ -270,6 +359,31 @@ public final class ConfigLoaderSpigot implements IConfigLoader, IDebuggable
         headCacheTimeout = addNewConfigEntry(config, "headCacheTimeout", 120, headCacheTimeoutComment);
         coolDown = addNewConfigEntry(config, "coolDown", 0, coolDownComment);
         cacheTimeout = addNewConfigEntry(config, "cacheTimeout", 120, cacheTimeoutComment);
+        keyframeCacheSize = addNewConfigEntry(config, "keyframeCacheSize", 64, keyframeCacheSizeComment);
+        parallelAnimationThreshold = addNewConfigEntry(config, "parallelAnimationThreshold", 4096,
+                                                       parallelAnimationThresholdComment);
+        animationHalfRateDistance = addNewConfigEntry(config, "animationHalfRateDistance", 48,
+                                                      animationHalfRateDistanceComment);
+        animationQuarterRateDistance = addNewConfigEntry(config, "animationQuarterRateDistance", 96,
+                                                         animationQuarterRateDistanceComment);
+        cullInteriorBlocks = addNewConfigEntry(config, "cullInteriorBlocks", true, cullInteriorBlocksComment);
+        doorSyncDelay = addNewConfigEntry(config, "doorSyncDelay", 1000, doorSyncDelayComment);
+        doorSyncBatchSize = addNewConfigEntry(config, "doorSyncBatchSize", 128, doorSyncBatchSizeComment);
+        redstoneThreads = addNewConfigEntry(config, "redstoneThreads", 2, redstoneThreadsComment);
+        redstoneQueueSize = addNewConfigEntry(config, "redstoneQueueSize", 1024, redstoneQueueSizeComment);
+        final String redstoneQueuePolicyName = addNewConfigEntry(config, "redstoneQueuePolicy", "COALESCE",
+                                                                 redstoneQueuePolicyComment);
+        redstoneQueuePolicy = parseRedstoneQueuePolicy(redstoneQueuePolicyName);
+        doorPreloadRadius = addNewConfigEntry(config, "doorPreloadRadius", 1, doorPreloadRadiusComment);
+        doorPreloadConcurrency = addNewConfigEntry(config, "doorPreloadConcurrency", 2,
+                                                   doorPreloadConcurrencyComment);
+        toggleTimeBudget = addNewConfigEntry(config, "toggleTimeBudget", 10, toggleTimeBudgetComment);
+        toggleBlockBudget = addNewConfigEntry(config, "toggleBlockBudget", 10_000, toggleBlockBudgetComment);
+        protectionCheckCacheTime = addNewConfigEntry(config, "protectionCheckCacheTime", 5_000,
+                                                     protectionCheckCacheTimeComment);
+        asyncProtectionChecks = addNewConfigEntry(config, "asyncProtectionChecks", false,
+                                                  asyncProtectionChecksComment);
+        doorCacheSize = addNewConfigEntry(config, "doorCacheSize", 10_000, doorCacheSizeComment);
 
 
         flagFormula = addNewConfigEntry(config, "flagFormula",
@@ -466,6 +580,121 @@ public final class ConfigLoaderSpigot implements IConfigLoader, IDebuggable
         return cacheTimeout;
     }
 
+    @Override
+    public int keyframeCacheSize()
+    {
+        return keyframeCacheSize;
+    }
+
+    @Override
+    public int parallelAnimationThreshold()
+    {
+        return parallelAnimationThreshold;
+    }
+
+    @Override
+    public int animationHalfRateDistance()
+    {
+        return animationHalfRateDistance;
+    }
+
+    @Override
+    public int animationQuarterRateDistance()
+    {
+        return animationQuarterRateDistance;
+    }
+
+    @Override
+    public boolean cullInteriorBlocks()
+    {
+        return cullInteriorBlocks;
+    }
+
+    @Override
+    public int doorSyncDelay()
+    {
+        return doorSyncDelay;
+    }
+
+    @Override
+    public int doorSyncBatchSize()
+    {
+        return doorSyncBatchSize;
+    }
+
+    @Override
+    public int redstoneThreads()
+    {
+        return redstoneThreads;
+    }
+
+    @Override
+    public int redstoneQueueSize()
+    {
+        return redstoneQueueSize;
+    }
+
+    @Override
+    public RedstoneQueue.Policy redstoneQueuePolicy()
+    {
+        return redstoneQueuePolicy;
+    }
+
+    @Override
+    public int doorPreloadRadius()
+    {
+        return doorPreloadRadius;
+    }
+
+    @Override
+    public int doorPreloadConcurrency()
+    {
+        return doorPreloadConcurrency;
+    }
+
+    @Override
+    public int toggleTimeBudget()
+    {
+        return toggleTimeBudget;
+    }
+
+    @Override
+    public int toggleBlockBudget()
+    {
+        return toggleBlockBudget;
+    }
+
+    @Override
+    public int protectionCheckCacheTime()
+    {
+        return protectionCheckCacheTime;
+    }
+
+    @Override
+    public boolean asyncProtectionChecks()
+    {
+        return asyncProtectionChecks;
+    }
+
+    @Override
+    public int doorCacheSize()
+    {
+        return doorCacheSize;
+    }
+
+    private static RedstoneQueue.Policy parseRedstoneQueuePolicy(String name)
+    {
+        try
+        {
+            return RedstoneQueue.Policy.valueOf(name.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            log.at(Level.WARNING).log("Invalid redstone queue policy: '%s'! Using COALESCE instead.", name);
+            return RedstoneQueue.Policy.COALESCE;
+        }
+    }
+
     public String resourcePack()
     {
         return resourcePack;
@@ -0,0 +1,97 @@
+package nl.pim16aap2.bigdoors.spigot.listeners;
+
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.moveblocks.ObstructionChecker;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+
+/**
+ * Represents a listener that keeps track of blocks being placed, so the {@link ObstructionChecker} knows which results
+ * of its asynchronous checks are outdated.
+ *
+ * @author Pim
+ */
+@Singleton
+public class BlockChangeListener extends AbstractListener
+{
+    private final ObstructionChecker obstructionChecker;
+
+    @Inject
+    public BlockChangeListener(
+        JavaPlugin javaPlugin, ObstructionChecker obstructionChecker, RestartableHolder restartableHolder)
+    {
+        super(restartableHolder, javaPlugin);
+        this.obstructionChecker = obstructionChecker;
+        register();
+    }
+
+    private void onBlockChanged(Block block)
+    {
+        obstructionChecker.onBlockChanged(block.getWorld().getName(), block.getX(), block.getZ());
+    }
+
+    private void onBlocksMoved(List<Block> blocks, BlockFace direction)
+    {
+        for (final Block block : blocks)
+            onBlockChanged(block.getRelative(direction));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event)
+    {
+        onBlockChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event)
+    {
+        onBlockChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event)
+    {
+        onBlockChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event)
+    {
+        onBlockChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event)
+    {
+        onBlocksMoved(event.getBlocks(), event.getDirection());
+        onBlockChanged(event.getBlock().getRelative(event.getDirection()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event)
+    {
+        onBlocksMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event)
+    {
+        for (final BlockState blockState : event.getBlocks())
+            obstructionChecker.onBlockChanged(blockState.getWorld().getName(), blockState.getX(), blockState.getZ());
+    }
+}
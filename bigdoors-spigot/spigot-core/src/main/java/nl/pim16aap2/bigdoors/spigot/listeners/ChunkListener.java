@@ -3,9 +3,8 @@ package nl.pim16aap2.bigdoors.spigot.listeners;
 import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.annotations.Initializer;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
-import nl.pim16aap2.bigdoors.managers.DatabaseManager;
+import nl.pim16aap2.bigdoors.managers.DoorPreloader;
 import nl.pim16aap2.bigdoors.managers.PowerBlockManager;
-import nl.pim16aap2.bigdoors.util.Util;
 import nl.pim16aap2.bigdoors.util.vector.Vector2Di;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -29,7 +28,7 @@ import java.util.logging.Level;
 @Flogger
 public class ChunkListener extends AbstractListener
 {
-    private final DatabaseManager databaseManager;
+    private final DoorPreloader doorPreloader;
 
     /**
      * Checks if the ChunkUnloadEvent can be cancelled or not. In version 1.14 of Minecraft and later, that's no longer
@@ -45,11 +44,11 @@ public class ChunkListener extends AbstractListener
 
     @Inject
     public ChunkListener(
-        JavaPlugin javaPlugin, DatabaseManager databaseManager, PowerBlockManager powerBlockManager,
+        JavaPlugin javaPlugin, DoorPreloader doorPreloader, PowerBlockManager powerBlockManager,
         RestartableHolder restartableHolder)
     {
         super(restartableHolder, javaPlugin);
-        this.databaseManager = databaseManager;
+        this.doorPreloader = doorPreloader;
         this.powerBlockManager = powerBlockManager;
         isCancellable = org.bukkit.event.Cancellable.class.isAssignableFrom(ChunkUnloadEvent.class);
         init();
@@ -78,7 +77,7 @@ public class ChunkListener extends AbstractListener
     }
 
     /**
-     * Listens to chunks being loaded and checks if they contain doors that move perpetually (doors, clocks, etc).
+     * Listens to chunks being loaded and loads the power blocks and doors in and around them in advance.
      *
      * @param event
      *     The {@link ChunkLoadEvent}.
@@ -87,21 +86,16 @@ public class ChunkListener extends AbstractListener
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
     public void onChunkLoad(ChunkLoadEvent event)
     {
-        final long chunkId = Util.getChunkId(event.getChunk().getX(), event.getChunk().getZ());
-        databaseManager.getDoorsInChunk(chunkId).whenComplete(
-            (doors, throwable) ->
-                doors.forEach(doorUID -> databaseManager.getDoor(doorUID).whenComplete(
-                    (optionalDoor, throwable2) ->
-                        optionalDoor.ifPresent(
-                            door ->
-                            {
-                                // TODO: (re?)Implement this
-//                                if (door instanceof IPerpetualMover && door.isPowerBlockActive())
-//                                    BigDoors.get().getDoorOpener()
-//                                            .animateDoorAsync(door, DoorActionCause.PERPETUALMOVEMENT, null, 0,
-//                                                              false, DoorActionType.TOGGLE);
-                            })
-                )));
+        final String worldName = event.getWorld().getName();
+        final Vector2Di chunk = new Vector2Di(event.getChunk().getX(), event.getChunk().getZ());
+        powerBlockManager.prefetchChunk(worldName, chunk);
+        doorPreloader.preloadChunk(worldName, chunk);
+
+        // TODO: (re?)Implement this: Start the perpetual movers in this chunk.
+//        if (door instanceof IPerpetualMover && door.isPowerBlockActive())
+//            BigDoors.get().getDoorOpener()
+//                    .animateDoorAsync(door, DoorActionCause.PERPETUALMOVEMENT, null, 0,
+//                                      false, DoorActionType.TOGGLE);
     }
 
     /**
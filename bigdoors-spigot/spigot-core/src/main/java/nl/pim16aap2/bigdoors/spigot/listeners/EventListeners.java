@@ -4,6 +4,8 @@ import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
 import nl.pim16aap2.bigdoors.managers.DatabaseManager;
 import nl.pim16aap2.bigdoors.managers.DelayedCommandInputManager;
+import nl.pim16aap2.bigdoors.managers.LimitsManager;
+import nl.pim16aap2.bigdoors.managers.ProtectionCheckCache;
 import nl.pim16aap2.bigdoors.managers.ToolUserManager;
 import nl.pim16aap2.bigdoors.spigot.implementations.BigDoorsToolUtilSpigot;
 import nl.pim16aap2.bigdoors.spigot.util.SpigotAdapter;
@@ -44,18 +46,22 @@ public class EventListeners extends AbstractListener
     private final DatabaseManager databaseManager;
     private final ToolUserManager toolUserManager;
     private final DelayedCommandInputManager delayedCommandInputManager;
+    private final LimitsManager limitsManager;
+    private final ProtectionCheckCache protectionCheckCache;
 
     @Inject
     public EventListeners(
         JavaPlugin javaPlugin, BigDoorsToolUtilSpigot bigDoorsToolUtil, DatabaseManager databaseManager,
         ToolUserManager toolUserManager, DelayedCommandInputManager delayedCommandInputManager,
-        RestartableHolder restartableHolder)
+        LimitsManager limitsManager, ProtectionCheckCache protectionCheckCache, RestartableHolder restartableHolder)
     {
         super(restartableHolder, javaPlugin);
         this.bigDoorsToolUtil = bigDoorsToolUtil;
         this.databaseManager = databaseManager;
         this.toolUserManager = toolUserManager;
         this.delayedCommandInputManager = delayedCommandInputManager;
+        this.limitsManager = limitsManager;
+        this.protectionCheckCache = protectionCheckCache;
         register();
     }
 
@@ -86,7 +92,8 @@ public class EventListeners extends AbstractListener
     }
 
     /**
-     * Listens for the {@link PlayerJoinEvent} to make sure their latest name is updated in the database.
+     * Listens for the {@link PlayerJoinEvent} to make sure their latest name is updated in the database and that
+     * their limits and protection checks are based on their current permissions.
      *
      * @param event
      *     The {@link PlayerJoinEvent}.
@@ -96,6 +103,8 @@ public class EventListeners extends AbstractListener
     {
         try
         {
+            limitsManager.invalidate(event.getPlayer().getUniqueId());
+            protectionCheckCache.invalidate(event.getPlayer().getUniqueId());
             databaseManager.updatePlayer(SpigotAdapter.wrapPlayer(event.getPlayer()));
         }
         catch (Exception e)
@@ -118,6 +127,8 @@ public class EventListeners extends AbstractListener
             final Player player = event.getPlayer();
             delayedCommandInputManager.cancelAll(SpigotAdapter.wrapPlayer(player));
             toolUserManager.abortToolUser(player.getUniqueId());
+            limitsManager.invalidate(player.getUniqueId());
+            protectionCheckCache.invalidate(player.getUniqueId());
             databaseManager.updatePlayer(SpigotAdapter.wrapPlayer(player));
         }
         catch (Exception e)
@@ -2,14 +2,9 @@ package nl.pim16aap2.bigdoors.spigot.listeners;
 
 import lombok.extern.flogger.Flogger;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
-import nl.pim16aap2.bigdoors.doors.DoorToggleRequestBuilder;
-import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
-import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
 import nl.pim16aap2.bigdoors.managers.PowerBlockManager;
+import nl.pim16aap2.bigdoors.managers.RedstoneQueue;
 import nl.pim16aap2.bigdoors.spigot.config.ConfigLoaderSpigot;
-import nl.pim16aap2.bigdoors.util.Util;
-import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
-import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
@@ -20,9 +15,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 /**
@@ -35,18 +28,18 @@ import java.util.logging.Level;
 public class RedstoneListener extends AbstractListener
 {
     private final ConfigLoaderSpigot config;
-    private final DoorToggleRequestBuilder doorToggleRequestBuilder;
     private final Set<Material> powerBlockTypes = new HashSet<>();
     private final PowerBlockManager powerBlockManager;
+    private final RedstoneQueue redstoneQueue;
 
     @Inject
     public RedstoneListener(RestartableHolder holder, JavaPlugin plugin, ConfigLoaderSpigot config,
-                            DoorToggleRequestBuilder doorToggleRequestBuilder, PowerBlockManager powerBlockManager)
+                            PowerBlockManager powerBlockManager, RedstoneQueue redstoneQueue)
     {
         super(holder, plugin, () -> shouldBeEnabled(config));
         this.config = config;
-        this.doorToggleRequestBuilder = doorToggleRequestBuilder;
         this.powerBlockManager = powerBlockManager;
+        this.redstoneQueue = redstoneQueue;
     }
 
     /**
@@ -76,17 +69,39 @@ public class RedstoneListener extends AbstractListener
         powerBlockTypes.clear();
     }
 
-    private void checkDoors(Location loc)
+    private void checkDoors(String worldName, int x, int y, int z)
     {
-        final String worldName = Objects.requireNonNull(loc.getWorld(), "World cannot be null!").getName();
-        powerBlockManager.doorsFromPowerBlockLoc(
-            new Vector3Di(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()), worldName).whenComplete(
-            (doorList, throwable) -> doorList.forEach(
-                door -> doorToggleRequestBuilder.builder()
-                                                .door(door)
-                                                .doorActionCause(DoorActionCause.REDSTONE)
-                                                .doorActionType(DoorActionType.TOGGLE)
-                                                .build().execute()));
+        redstoneQueue.toggleDoorsAt(worldName, x, y, z);
+    }
+
+    /**
+     * Checks if there is a power block at a position.
+     * <p>
+     * Positions that definitely do not contain a power block according to the {@link PowerBlockManager} are discarded
+     * before the block at that position is retrieved from the world.
+     *
+     * @return True if the block at the position is a power block that may be used by a door.
+     */
+    private boolean isPowerBlock(World world, String worldName, int x, int y, int z)
+    {
+        return powerBlockManager.mayBePowerBlock(worldName, x, y, z) &&
+            powerBlockTypes.contains(world.getBlockAt(x, y, z).getType());
+    }
+
+    /**
+     * Checks if any of the blocks adjacent to a position may be a power block. See
+     * {@link PowerBlockManager#mayBePowerBlock(String, int, int, int)}.
+     *
+     * @return False if none of the adjacent blocks is a power block.
+     */
+    private boolean mayHavePowerBlockNeighbour(String worldName, int x, int y, int z)
+    {
+        return powerBlockManager.mayBePowerBlock(worldName, x, y, z - 1) ||
+            powerBlockManager.mayBePowerBlock(worldName, x + 1, y, z) ||
+            powerBlockManager.mayBePowerBlock(worldName, x, y, z + 1) ||
+            powerBlockManager.mayBePowerBlock(worldName, x - 1, y, z) ||
+            powerBlockManager.mayBePowerBlock(worldName, x, y + 1, z) ||
+            powerBlockManager.mayBePowerBlock(worldName, x, y - 1, z);
     }
 
     /**
@@ -100,30 +115,30 @@ public class RedstoneListener extends AbstractListener
         try
         {
             final Block block = event.getBlock();
-            final Location location = block.getLocation();
-            final World world = Objects.requireNonNull(location.getWorld(), "World cannot be null!");
+            final World world = block.getWorld();
+            final String worldName = world.getName();
 
-            final int x = location.getBlockX();
-            final int y = location.getBlockY();
-            final int z = location.getBlockZ();
+            final int x = block.getX();
+            final int y = block.getY();
+            final int z = block.getZ();
 
-            if (powerBlockTypes.contains(world.getBlockAt(x, y, z - 1).getType())) // North
-                checkDoors(new Location(world, x, y, z - 1.0));
+            if (isPowerBlock(world, worldName, x, y, z - 1)) // North
+                checkDoors(worldName, x, y, z - 1);
 
-            if (powerBlockTypes.contains(world.getBlockAt(x + 1, y, z).getType())) // East
-                checkDoors(new Location(world, x + 1.0, y, z));
+            if (isPowerBlock(world, worldName, x + 1, y, z)) // East
+                checkDoors(worldName, x + 1, y, z);
 
-            if (powerBlockTypes.contains(world.getBlockAt(x, y, z + 1).getType())) // South
-                checkDoors(new Location(world, x, y, z + 1.0));
+            if (isPowerBlock(world, worldName, x, y, z + 1)) // South
+                checkDoors(worldName, x, y, z + 1);
 
-            if (powerBlockTypes.contains(world.getBlockAt(x - 1, y, z).getType())) // West
-                checkDoors(new Location(world, x - 1.0, y, z));
+            if (isPowerBlock(world, worldName, x - 1, y, z)) // West
+                checkDoors(worldName, x - 1, y, z);
 
-            if (y < 254 && powerBlockTypes.contains(world.getBlockAt(x, y + 1, z).getType())) // Above
-                checkDoors(new Location(world, x, y + 1.0, z));
+            if (y < 254 && isPowerBlock(world, worldName, x, y + 1, z)) // Above
+                checkDoors(worldName, x, y + 1, z);
 
-            if (y > 0 && powerBlockTypes.contains(world.getBlockAt(x, y - 1, z).getType())) // Under
-                checkDoors(new Location(world, x, y - 1.0, z));
+            if (y > 0 && isPowerBlock(world, worldName, x, y - 1, z)) // Under
+                checkDoors(worldName, x, y - 1, z);
         }
         catch (Exception e)
         {
@@ -134,6 +149,8 @@ public class RedstoneListener extends AbstractListener
     /**
      * Listens to redstone changes and checks if there are any doors attached to it. Any doors that are found are then
      * toggled, if possible.
+     * <p>
+     * The events are processed by the {@link RedstoneQueue}, which may drop or merge events when there are too many.
      *
      * @param event
      *     The {@link BlockRedstoneEvent}.
@@ -145,9 +162,14 @@ public class RedstoneListener extends AbstractListener
         if (event.getOldCurrent() != 0 && event.getNewCurrent() != 0)
             return;
 
-        if (!powerBlockManager.isBigDoorsWorld(event.getBlock().getWorld().getName()))
+        final Block block = event.getBlock();
+        final String worldName = block.getWorld().getName();
+        if (!powerBlockManager.isBigDoorsWorld(worldName))
+            return;
+
+        if (!mayHavePowerBlockNeighbour(worldName, block.getX(), block.getY(), block.getZ()))
             return;
 
-        CompletableFuture.runAsync(() -> processRedstoneEvent(event)).exceptionally(Util::exceptionally);
+        redstoneQueue.submit(worldName, block.getX(), block.getY(), block.getZ(), () -> processRedstoneEvent(event));
     }
 }
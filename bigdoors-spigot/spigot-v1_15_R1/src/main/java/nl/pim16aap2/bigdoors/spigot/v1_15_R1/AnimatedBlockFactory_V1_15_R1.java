@@ -2,7 +2,9 @@ package nl.pim16aap2.bigdoors.spigot.v1_15_R1;
 
 import nl.pim16aap2.bigdoors.api.IPLocation;
 import nl.pim16aap2.bigdoors.api.animatedblock.AnimationContext;
+import nl.pim16aap2.bigdoors.api.animatedblock.AnimationDetailLevels;
 import nl.pim16aap2.bigdoors.api.animatedblock.IAnimatedBlock;
+import nl.pim16aap2.bigdoors.api.animatedblock.IAnimationUpdateBatch;
 import nl.pim16aap2.bigdoors.api.factories.IAnimatedBlockFactory;
 import nl.pim16aap2.bigdoors.managers.AnimatedBlockHookManager;
 import nl.pim16aap2.bigdoors.spigot.util.SpigotAdapter;
@@ -58,4 +60,10 @@ public final class AnimatedBlockFactory_V1_15_R1 implements IAnimatedBlockFactor
         animatedBlock.setCustomNameVisible(false);
         return Optional.of(animatedBlock);
     }
+
+    @Override
+    public IAnimationUpdateBatch createUpdateBatch(Vector3Dd center, AnimationDetailLevels detailLevels)
+    {
+        return new AnimationUpdateBatch_V1_15_R1(center, detailLevels);
+    }
 }
@@ -0,0 +1,97 @@
+package nl.pim16aap2.bigdoors.spigot.v1_15_R1;
+
+import io.netty.channel.Channel;
+import net.minecraft.server.v1_15_R1.Entity;
+import net.minecraft.server.v1_15_R1.EntityPlayer;
+import net.minecraft.server.v1_15_R1.NetworkManager;
+import net.minecraft.server.v1_15_R1.Packet;
+import net.minecraft.server.v1_15_R1.PacketPlayOutEntityTeleport;
+import net.minecraft.server.v1_15_R1.PlayerChunkMap;
+import nl.pim16aap2.bigdoors.api.animatedblock.AbstractAnimationUpdateBatch;
+import nl.pim16aap2.bigdoors.api.animatedblock.AnimationDetailLevels;
+import nl.pim16aap2.bigdoors.api.animatedblock.IAnimationUpdateBatch;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Dd;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * V1_15_R1 implementation of {@link IAnimationUpdateBatch}.
+ * <p>
+ * When flushed, all packets for a player are written to its connection in a single task on the netty event loop,
+ * followed by a single flush.
+ *
+ * @author Pim
+ * @see AbstractAnimationUpdateBatch
+ */
+final class AnimationUpdateBatch_V1_15_R1 extends AbstractAnimationUpdateBatch<EntityPlayer, Entity, Packet<?>>
+{
+    AnimationUpdateBatch_V1_15_R1(Vector3Dd center, AnimationDetailLevels detailLevels)
+    {
+        super(center, detailLevels);
+    }
+
+    /**
+     * Adds the movement of a teleported entity in the current step to this batch for every player tracked by its
+     * tracker.
+     *
+     * @param tracker
+     *     The tracker of the entity that moved.
+     * @param entity
+     *     The entity that moved. Its position should already be updated.
+     * @param relativeMove
+     *     The relative move packet to send to the players that receive every update. This may be null if the entity
+     *     did not move far enough for these players to notice.
+     */
+    void add(PlayerChunkMap.EntityTracker tracker, Entity entity, @Nullable Packet<?> relativeMove)
+    {
+        addRelativeMove(tracker.trackedPlayers, entity, relativeMove);
+    }
+
+    /**
+     * Adds the new velocity of an entity in the current step to this batch for every player tracked by its tracker.
+     *
+     * @param tracker
+     *     The tracker of the entity whose velocity changed.
+     * @param entity
+     *     The entity whose velocity changed.
+     * @param velocity
+     *     The velocity packet of the entity.
+     */
+    void addVelocity(PlayerChunkMap.EntityTracker tracker, Entity entity, Packet<?> velocity)
+    {
+        addVelocity(tracker.trackedPlayers, entity, velocity);
+    }
+
+    @Override
+    protected double getDistanceSquared(EntityPlayer player, Vector3Dd position)
+    {
+        final double dx = player.locX() - position.x();
+        final double dy = player.locY() - position.y();
+        final double dz = player.locZ() - position.z();
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    @Override
+    protected Packet<?> createAbsoluteMove(Entity entity)
+    {
+        return new PacketPlayOutEntityTeleport(entity);
+    }
+
+    @Override
+    protected void send(EntityPlayer player, List<Packet<?>> packets)
+    {
+        final NetworkManager networkManager = player.playerConnection.networkManager;
+        if (!networkManager.isConnected())
+            return;
+
+        final Channel channel = networkManager.channel;
+        channel.eventLoop().execute(
+            () ->
+            {
+                for (final Packet<?> packet : packets)
+                    channel.write(packet, channel.voidPromise());
+                channel.flush();
+            });
+    }
+}
@@ -1,11 +1,16 @@
 package nl.pim16aap2.bigdoors.spigot.v1_15_R1;
 
 import nl.pim16aap2.bigdoors.api.IBlockAnalyzer;
+import nl.pim16aap2.bigdoors.api.IBlockSnapshot;
 import nl.pim16aap2.bigdoors.api.IPLocation;
+import nl.pim16aap2.bigdoors.api.IPWorld;
 import nl.pim16aap2.bigdoors.spigot.util.SpigotAdapter;
+import nl.pim16aap2.bigdoors.util.Cuboid;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.jetbrains.annotations.Nullable;
 
 import javax.inject.Singleton;
 import java.util.EnumSet;
@@ -791,9 +796,29 @@ public final class BlockAnalyzer_V1_15_R1 implements IBlockAnalyzer
         return isAirOrLiquidStatic(location);
     }
 
+    @Override
+    public boolean isAirOrLiquid(IPWorld world, int x, int y, int z)
+    {
+        return isAirOrLiquidStatic(getBukkitWorld(world).getBlockAt(x, y, z));
+    }
+
     @Override
     public boolean isAllowedBlock(IPLocation location)
     {
         return isAllowedBlockStatic(location);
     }
+
+    @Override
+    public IBlockSnapshot createSnapshot(IPWorld world, Cuboid cuboid)
+    {
+        return new BlockSnapshot_V1_15_R1(getBukkitWorld(world), cuboid);
+    }
+
+    private static World getBukkitWorld(IPWorld world)
+    {
+        final @Nullable World bukkitWorld = SpigotAdapter.getBukkitWorld(world);
+        if (bukkitWorld == null)
+            throw new IllegalArgumentException("Could not find world " + world);
+        return bukkitWorld;
+    }
 }
@@ -0,0 +1,96 @@
+package nl.pim16aap2.bigdoors.spigot.v1_15_R1;
+
+import nl.pim16aap2.bigdoors.api.IBlockSnapshot;
+import nl.pim16aap2.bigdoors.util.Cuboid;
+import nl.pim16aap2.bigdoors.util.Util;
+import nl.pim16aap2.bigdoors.util.vector.Vector3Di;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * V1_15_R1 implementation of {@link IBlockSnapshot}.
+ * <p>
+ * The snapshot consists of the {@link ChunkSnapshot}s of all chunks that overlap with the cuboid. Chunk snapshots only
+ * copy the block palettes of the non-empty sections of the chunk, so creating them is cheap compared to looking up
+ * every block in the world.
+ *
+ * @author Pim
+ * @see IBlockSnapshot
+ */
+final class BlockSnapshot_V1_15_R1 implements IBlockSnapshot
+{
+    /**
+     * Whether a material is air or liquid, indexed by {@link Material#ordinal()}.
+     */
+    private static final boolean[] AIR_OR_LIQUID;
+
+    static
+    {
+        final Material[] materials = Material.values();
+        AIR_OR_LIQUID = new boolean[materials.length];
+        for (final Material mat : materials)
+            AIR_OR_LIQUID[mat.ordinal()] = mat.isAir() || mat == Material.WATER || mat == Material.LAVA;
+    }
+
+    private final Cuboid cuboid;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int maxHeight;
+
+    /**
+     * The snapshots of all chunks that overlap with the cuboid, indexed by [chunkX - minChunkX][chunkZ - minChunkZ].
+     */
+    private final ChunkSnapshot[][] chunks;
+
+    /**
+     * Creates a new snapshot.
+     * <p>
+     * This has to be called on the main thread.
+     *
+     * @param world
+     *     The world to capture the blocks from.
+     * @param cuboid
+     *     The area to capture.
+     */
+    BlockSnapshot_V1_15_R1(World world, Cuboid cuboid)
+    {
+        this.cuboid = cuboid;
+        final Vector3Di min = cuboid.getMin();
+        final Vector3Di max = cuboid.getMax();
+        minChunkX = min.x() >> 4;
+        minChunkZ = min.z() >> 4;
+        maxHeight = world.getMaxHeight();
+
+        chunks = new ChunkSnapshot[(max.x() >> 4) - minChunkX + 1][(max.z() >> 4) - minChunkZ + 1];
+        for (int chunkX = 0; chunkX < chunks.length; ++chunkX)
+            for (int chunkZ = 0; chunkZ < chunks[chunkX].length; ++chunkZ)
+                chunks[chunkX][chunkZ] = world.getChunkAt(minChunkX + chunkX, minChunkZ + chunkZ)
+                                              .getChunkSnapshot(false, false, false);
+    }
+
+    @Override
+    public Cuboid getCuboid()
+    {
+        return cuboid;
+    }
+
+    @Override
+    public boolean isAirOrLiquid(int x, int y, int z)
+    {
+        final Vector3Di min = cuboid.getMin();
+        final Vector3Di max = cuboid.getMax();
+        if (!Util.between(x, min.x(), max.x()) || !Util.between(y, min.y(), max.y()) ||
+            !Util.between(z, min.z(), max.z()))
+            throw new IllegalArgumentException("Position [" + x + ", " + y + ", " + z + "] is outside of " + cuboid);
+
+        // There are no blocks outside the build limits of the world.
+        if (y < 0 || y >= maxHeight)
+            return true;
+
+        final ChunkSnapshot chunk = chunks[(x >> 4) - minChunkX][(z >> 4) - minChunkZ];
+        if (chunk.isSectionEmpty(y >> 4))
+            return true;
+        return AIR_OR_LIQUID[chunk.getBlockType(x & 15, y, z & 15).ordinal()];
+    }
+}
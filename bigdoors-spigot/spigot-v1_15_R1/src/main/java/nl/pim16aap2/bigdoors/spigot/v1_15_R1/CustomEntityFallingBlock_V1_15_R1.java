@@ -14,6 +14,7 @@ import net.minecraft.server.v1_15_R1.GameProfileSerializer;
 import net.minecraft.server.v1_15_R1.IBlockData;
 import net.minecraft.server.v1_15_R1.NBTTagCompound;
 import net.minecraft.server.v1_15_R1.PacketPlayOutEntity;
+import net.minecraft.server.v1_15_R1.PacketPlayOutEntityVelocity;
 import net.minecraft.server.v1_15_R1.PlayerChunkMap;
 import net.minecraft.server.v1_15_R1.Vec3D;
 import net.minecraft.server.v1_15_R1.WorldServer;
@@ -104,10 +105,32 @@ public class CustomEntityFallingBlock_V1_15_R1 extends net.minecraft.server.v1_1
     @ToString.Exclude
     private final WorldServer worldServer;
 
-    @Getter
-    private Vector3Dd previousPosition;
-    @Getter
-    private Vector3Dd currentPosition;
+    /**
+     * The current and previous positions of this entity.
+     * <p>
+     * These are stored as primitives, so moving the entity does not allocate any new objects. The {@link Vector3Dd}
+     * representations are only created when they are requested.
+     */
+    private double currentX;
+    private double currentY;
+    private double currentZ;
+    private double previousX;
+    private double previousY;
+    private double previousZ;
+    @ToString.Exclude
+    private @Nullable Vector3Dd currentPosition;
+    @ToString.Exclude
+    private @Nullable Vector3Dd previousPosition;
+
+    /**
+     * The position of this entity as known by the clients, encoded the same way as in relative move packets.
+     * <p>
+     * Relative moves are computed from these values rather than from the current position, so no precision is lost
+     * when moves are too small to be sent.
+     */
+    private long sentX;
+    private long sentY;
+    private long sentZ;
 
     private final IPLocation startLocation;
     private final Vector3Dd startPosition;
@@ -144,8 +167,10 @@ public class CustomEntityFallingBlock_V1_15_R1 extends net.minecraft.server.v1_1
         lastY = d1;
         lastZ = d2;
 
-        previousPosition = new Vector3Dd(d0, d1, d2);
-        currentPosition = previousPosition;
+        currentX = previousX = d0;
+        currentY = previousY = d1;
+        currentZ = previousZ = d2;
+        resetSentPosition();
 
         noclip = true;
         a(new BlockPosition(this));
@@ -168,9 +193,17 @@ public class CustomEntityFallingBlock_V1_15_R1 extends net.minecraft.server.v1_1
         worldServer.addEntity(this, SpawnReason.CUSTOM);
         tracker = Util.requireNonNull(worldServer.getChunkProvider().playerChunkMap.trackedEntities.get(getId()),
                                       "entity tracker");
+        resetSentPosition();
         dead = false;
     }
 
+    private void resetSentPosition()
+    {
+        sentX = PacketPlayOutEntity.a(currentX);
+        sentY = PacketPlayOutEntity.a(currentY);
+        sentZ = PacketPlayOutEntity.a(currentZ);
+    }
+
     @Override
     public synchronized void spawn()
     {
@@ -191,37 +224,118 @@ public class CustomEntityFallingBlock_V1_15_R1 extends net.minecraft.server.v1_1
         spawn0();
     }
 
-    private synchronized void cyclePositions(Vector3Dd newPosition)
-    {
+    /**
+     * Moves this entity to a new position.
+     *
+     * @param x
+     *     The new x coordinate.
+     * @param y
+     *     The new y coordinate.
+     * @param z
+     *     The new z coordinate.
+     * @param newPosition
+     *     The new position as {@link Vector3Dd}, if it is already available. May be null.
+     */
+    private synchronized void cyclePositions(double x, double y, double z, @Nullable Vector3Dd newPosition)
+    {
+        previousX = currentX;
+        previousY = currentY;
+        previousZ = currentZ;
+        currentX = x;
+        currentY = y;
+        currentZ = z;
         previousPosition = currentPosition;
         currentPosition = newPosition;
         // Update current and last x/y/z values in entity class.
-        f(newPosition.x(), newPosition.y(), newPosition.z());
-        forEachHook("onMoved", hook -> hook.onMoved(newPosition));
+        f(x, y, z);
+
+        if (hooks.isEmpty())
+            return;
+        final Vector3Dd position = getCurrentPosition();
+        forEachHook("onMoved", hook -> hook.onMoved(position));
+    }
+
+    @Override
+    public synchronized Vector3Dd getCurrentPosition()
+    {
+        if (currentPosition == null)
+            currentPosition = new Vector3Dd(currentX, currentY, currentZ);
+        return currentPosition;
+    }
+
+    @Override
+    public synchronized Vector3Dd getPreviousPosition()
+    {
+        if (previousPosition == null)
+            previousPosition = new Vector3Dd(previousX, previousY, previousZ);
+        return previousPosition;
+    }
+
+    @Override
+    public synchronized double getCurrentX()
+    {
+        return currentX;
+    }
+
+    @Override
+    public synchronized double getCurrentY()
+    {
+        return currentY;
+    }
+
+    @Override
+    public synchronized double getCurrentZ()
+    {
+        return currentZ;
     }
 
     @Override
     public synchronized boolean teleport(Vector3Dd newPosition, Vector3Dd rotation)
+    {
+        return teleport(newPosition.x(), newPosition.y(), newPosition.z());
+    }
+
+    @Override
+    public synchronized boolean teleport(double x, double y, double z)
     {
         if (dead)
             return false;
 
-        final double deltaX = newPosition.x() - currentPosition.x();
-        final double deltaY = newPosition.y() - currentPosition.y();
-        final double deltaZ = newPosition.z() - currentPosition.z();
+        final long newX = PacketPlayOutEntity.a(x);
+        final long newY = PacketPlayOutEntity.a(y);
+        final long newZ = PacketPlayOutEntity.a(z);
 
-        final short relX = (short) ((int) PacketPlayOutEntity.a(deltaX));
-        final short relY = (short) ((int) PacketPlayOutEntity.a(deltaY));
-        final short relZ = (short) ((int) PacketPlayOutEntity.a(deltaZ));
+        final short relX = (short) (newX - sentX);
+        final short relY = (short) (newY - sentY);
+        final short relZ = (short) (newZ - sentZ);
 
-        final PacketPlayOutEntity.PacketPlayOutRelEntityMove tpPacket =
-            new PacketPlayOutEntity.PacketPlayOutRelEntityMove(getId(), relX, relY, relZ, false);
+        // Don't bother creating a packet if the clients wouldn't see the block move anyway.
+        @Nullable PacketPlayOutEntity.PacketPlayOutRelEntityMove tpPacket = null;
+        if ((relX | relY | relZ) != 0)
+        {
+            tpPacket = new PacketPlayOutEntity.PacketPlayOutRelEntityMove(getId(), relX, relY, relZ, false);
+            sentX = newX;
+            sentY = newY;
+            sentZ = newZ;
+        }
 
-        if (tracker != null)
-            tracker.broadcast(tpPacket);
+        @Nullable Vector3Dd newPosition = null;
+        if (!hooks.isEmpty())
+        {
+            final Vector3Dd position = newPosition = new Vector3Dd(x, y, z);
+            forEachHook("onTeleport", hook -> hook.onTeleport(position));
+        }
+        cyclePositions(x, y, z, newPosition);
 
-        forEachHook("onTeleport", hook -> hook.onTeleport(newPosition));
-        cyclePositions(newPosition);
+        if (tracker != null)
+        {
+            // The batch may need to send the new absolute position to players that do not receive every update,
+            // so it is informed about every move, even the ones that are too small to be sent as relative moves.
+            if (context.getUpdateBatch() instanceof AnimationUpdateBatch_V1_15_R1 updateBatch)
+                updateBatch.add(tracker, this, tpPacket);
+            else if (tpPacket != null)
+                tracker.broadcast(tpPacket);
+        }
 
         return true;
     }
@@ -253,12 +367,11 @@ public class CustomEntityFallingBlock_V1_15_R1 extends net.minecraft.server.v1_1
             if (Math.abs(mot.x) < 0.001 && Math.abs(mot.y) < 0.001 && Math.abs(mot.z) < 0.001)
                 return;
 
-            final Vector3Dd newLocation = currentPosition.add(mot.x, mot.y, mot.z);
             final double locY = locY();
             if (++ticksLived > 100 && (locY < 1 || locY > 256) || ticksLived > 12_000)
                 die();
 
-            cyclePositions(newLocation);
+            cyclePositions(currentX + mot.x, currentY + mot.y, currentZ + mot.z, null);
         }
         forEachHook("postTick", IAnimatedBlockHook::postTick);
     }
@@ -391,8 +504,18 @@ public class CustomEntityFallingBlock_V1_15_R1 extends net.minecraft.server.v1_1
     @Override
     public void setVelocity(Vector3Dd vector)
     {
-        setMot(new Vec3D(vector.x(), vector.y(), vector.z()));
-        velocityChanged = true;
+        setVelocity(vector.x(), vector.y(), vector.z());
+    }
+
+    @Override
+    public synchronized void setVelocity(double x, double y, double z)
+    {
+        setMot(x, y, z);
+        // When there is no batch, the tracker will send the new velocity to the players on the next tick.
+        if (tracker != null && context.getUpdateBatch() instanceof AnimationUpdateBatch_V1_15_R1 updateBatch)
+            updateBatch.addVelocity(tracker, this, new PacketPlayOutEntityVelocity(getId(), getMot()));
+        else
+            velocityChanged = true;
     }
 
     @Override
@@ -348,4 +348,11 @@ public class NMSBlock_V1_15_R1 extends Block implements IAnimatedBlockData
             bukkitWorld.getBlockAt(loc).setType(Material.AIR, true);
         }
     }
+
+    @Override
+    @Synchronized("blockDataLock")
+    public boolean isOccluding()
+    {
+        return bukkitBlockData.getMaterial().isOccluding();
+    }
 }
@@ -5,6 +5,16 @@ import lombok.Getter;
 import nl.pim16aap2.bigdoors.annotations.PersistentVariable;
 import nl.pim16aap2.bigdoors.api.IPPlayer;
 import nl.pim16aap2.bigdoors.api.PPlayerData;
+import nl.pim16aap2.bigdoors.doors.bigdoor.DoorTypeBigDoor;
+import nl.pim16aap2.bigdoors.doors.clock.DoorTypeClock;
+import nl.pim16aap2.bigdoors.doors.drawbridge.DoorTypeDrawbridge;
+import nl.pim16aap2.bigdoors.doors.elevator.DoorTypeElevator;
+import nl.pim16aap2.bigdoors.doors.flag.DoorTypeFlag;
+import nl.pim16aap2.bigdoors.doors.garagedoor.DoorTypeGarageDoor;
+import nl.pim16aap2.bigdoors.doors.portcullis.DoorTypePortcullis;
+import nl.pim16aap2.bigdoors.doors.revolvingdoor.DoorTypeRevolvingDoor;
+import nl.pim16aap2.bigdoors.doors.slidingdoor.DoorTypeSlidingDoor;
+import nl.pim16aap2.bigdoors.doors.windmill.DoorTypeWindmill;
 import nl.pim16aap2.bigdoors.doortypes.DoorType;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionCause;
 import nl.pim16aap2.bigdoors.events.dooraction.DoorActionType;
@@ -21,8 +31,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -110,6 +125,94 @@ class DoorSerializerTest
         Assertions.assertEquals(testDoorSubType1, testDoorSubType2);
     }
 
+    @Test
+    void legacyFormat()
+        throws Exception
+    {
+        final var instantiator = Assertions.assertDoesNotThrow(
+            () -> new DoorSerializer<>(TestDoorSubType.class));
+        final TestDoorSubType testDoorSubType1 = new TestDoorSubType(doorBase, "test", true, 42, 6);
+
+        final byte[] legacy;
+        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+             ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream))
+        {
+            objectOutputStream.writeObject(new ArrayList<>(Arrays.asList("test", true, 42, 6)));
+            objectOutputStream.flush();
+            legacy = byteArrayOutputStream.toByteArray();
+        }
+
+        final var testDoorSubType2 = Assertions.assertDoesNotThrow(() -> instantiator.deserialize(doorBase, legacy));
+        Assertions.assertEquals(testDoorSubType1, testDoorSubType2);
+
+        // Data read from the legacy format is written in the new format.
+        final byte[] serialized = Assertions.assertDoesNotThrow(() -> instantiator.serialize(testDoorSubType2));
+        Assertions.assertEquals(DoorSerializer.FORMAT_MARKER, serialized[0]);
+        Assertions.assertTrue(serialized.length < legacy.length);
+        Assertions.assertEquals(testDoorSubType1,
+                                Assertions.assertDoesNotThrow(() -> instantiator.deserialize(doorBase, serialized)));
+    }
+
+    /**
+     * Ensures that the accessors of the persistent fields of all door types can be created and that their values
+     * survive a round trip.
+     */
+    @Test
+    void allDoorTypes()
+        throws Exception
+    {
+        final List<DoorType> doorTypes =
+            List.of(DoorTypeBigDoor.get(), DoorTypeClock.get(), DoorTypeDrawbridge.get(), DoorTypeElevator.get(),
+                    DoorTypeFlag.get(), DoorTypeGarageDoor.get(), DoorTypePortcullis.get(),
+                    DoorTypeRevolvingDoor.get(), DoorTypeSlidingDoor.get(), DoorTypeWindmill.get());
+
+        for (final DoorType doorType : doorTypes)
+        {
+            final var serializer = Assertions.assertDoesNotThrow(() -> new DoorSerializer<>(doorType.getDoorClass()));
+
+            // All codecs read a zeroed value (0, false, or null) from zeroed data.
+            final int fieldCount = countPersistentFields(doorType.getDoorClass());
+            final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream))
+            {
+                out.writeByte(DoorSerializer.FORMAT_MARKER);
+                out.writeByte(DoorSerializer.FORMAT_VERSION);
+                out.writeShort(fieldCount);
+                out.write(new byte[8 * fieldCount]);
+            }
+
+            final AbstractDoor door = serializer.deserialize(doorBase, byteArrayOutputStream.toByteArray());
+            final byte[] serialized = serializer.serialize(door);
+            Assertions.assertArrayEquals(serialized, serializer.serialize(serializer.deserialize(doorBase, serialized)),
+                                         "Round trip failed for type " + doorType);
+
+            final String dump = serializer.toString(door);
+            Assertions.assertEquals(fieldCount, dump.split("\n", -1).length - 1);
+            Assertions.assertFalse(dump.contains("ERROR"), dump);
+        }
+    }
+
+    private static int countPersistentFields(Class<?> clz)
+    {
+        int count = 0;
+        for (Class<?> current = clz; current != AbstractDoor.class; current = current.getSuperclass())
+            for (final Field field : current.getDeclaredFields())
+                if (field.isAnnotationPresent(PersistentVariable.class))
+                    ++count;
+        return count;
+    }
+
+    @Test
+    void invalidFieldCount()
+    {
+        final var instantiator = Assertions.assertDoesNotThrow(() -> new DoorSerializer<>(TestDoorType.class));
+        final var subInstantiator = Assertions.assertDoesNotThrow(() -> new DoorSerializer<>(TestDoorSubType.class));
+
+        final byte[] serialized = Assertions.assertDoesNotThrow(
+            () -> subInstantiator.serialize(new TestDoorSubType(doorBase, "test", true, 42, 6)));
+        Assertions.assertThrows(Exception.class, () -> instantiator.deserialize(doorBase, serialized));
+    }
+
     // This class is a nullability nightmare, but that doesn't matter, because none of the methods are used;
     // It's only used for testing serialization and the methods are therefore just stubs.
     @SuppressWarnings("ConstantConditions")
@@ -0,0 +1,238 @@
+package nl.pim16aap2.bigdoors.storage;
+
+import lombok.SneakyThrows;
+import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
+import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.doors.DoorBase;
+import nl.pim16aap2.bigdoors.doors.DoorBaseBuilder;
+import nl.pim16aap2.bigdoors.managers.DoorRegistry;
+import nl.pim16aap2.bigdoors.managers.DoorTypeManager;
+import nl.pim16aap2.bigdoors.storage.sqlite.SQLiteJDBCDriverConnection;
+import nl.pim16aap2.bigdoors.testimplementations.TestPWorldFactory;
+import nl.pim16aap2.testing.AssistedFactoryMocker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Verifies that the statements in {@link SQLStatement} are backed by the indices of the database.
+ * <p>
+ * Every statement is run through 'EXPLAIN QUERY PLAN'. Any statement whose plan contains a full table scan will fail
+ * the test, unless it is explicitly exempted below.
+ */
+class SQLStatementQueryPlanTest
+{
+    private static final Path DB_FILE = Path.of(".", "tests", "queryPlan.db");
+
+    /**
+     * The statements that are allowed to scan a table.
+     */
+    private static final Set<SQLStatement> SCAN_EXEMPT = EnumSet.of(
+        // Prefix matching through LIKE with a bound parameter cannot use an index.
+        SQLStatement.GET_IDENTIFIERS_FROM_PARTIAL_NAME_MATCH_WITH_OWNER,
+        SQLStatement.GET_IDENTIFIERS_FROM_PARTIAL_UID_MATCH_WITH_OWNER,
+        // The sqlite_sequence table only contains a single row per table.
+        SQLStatement.RESERVE_IDS_PLAYER,
+        SQLStatement.RESERVE_IDS_DOORBASE,
+        SQLStatement.RESERVE_IDS_DOOROWNER_PLAYER,
+        SQLStatement.SELECT_MOST_RECENT_DOOR,
+        SQLStatement.INSERT_PRIME_OWNER,
+        // Does not read any tables.
+        SQLStatement.GET_LATEST_ROW_ADDITION);
+
+    /**
+     * The DoorOwnerPlayer table as it was defined before version 13 of the database.
+     */
+    private static final String CREATE_TABLE_DOOROWNER_PLAYER_V12 =
+        """
+        CREATE TABLE IF NOT EXISTS DoorOwnerPlayer
+        (id            INTEGER    PRIMARY KEY AUTOINCREMENT,
+        permission     INTEGER    NOT NULL,
+        playerID       REFERENCES Player(id)   ON UPDATE CASCADE ON DELETE CASCADE,
+        doorUID        REFERENCES DoorBase(id) ON UPDATE CASCADE ON DELETE CASCADE,
+        unique (playerID, doorUID));
+        """;
+
+    @Mock
+    private RestartableHolder restartableHolder;
+
+    @Mock
+    private DebuggableRegistry debuggableRegistry;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        MockitoAnnotations.openMocks(this);
+        deleteFiles();
+    }
+
+    @AfterEach
+    void afterEach()
+    {
+        deleteFiles();
+    }
+
+    @SneakyThrows
+    private static void deleteFiles()
+    {
+        Files.deleteIfExists(DB_FILE);
+        Files.deleteIfExists(DB_FILE.resolveSibling(DB_FILE.getFileName() + ".BACKUP"));
+        Files.deleteIfExists(DB_FILE.resolveSibling(DB_FILE.getFileName() + "-wal"));
+        Files.deleteIfExists(DB_FILE.resolveSibling(DB_FILE.getFileName() + "-shm"));
+    }
+
+    @Test
+    void testNewDatabase()
+        throws Exception
+    {
+        final SQLiteJDBCDriverConnection storage = createStorage();
+        Assertions.assertEquals(IStorage.DatabaseState.OK, storage.getDatabaseState());
+
+        try (Connection conn = openConnection())
+        {
+            verifyQueryPlans(conn);
+        }
+    }
+
+    @Test
+    void testUpgradeFromV12()
+        throws Exception
+    {
+        Files.createDirectories(DB_FILE.getParent());
+        try (Connection conn = openConnection();
+             Statement statement = conn.createStatement())
+        {
+            statement.execute(SQLStatement.getStatement(SQLStatement.CREATE_TABLE_PLAYER));
+            statement.execute(SQLStatement.getStatement(SQLStatement.CREATE_TABLE_DOORBASE));
+            statement.execute(CREATE_TABLE_DOOROWNER_PLAYER_V12);
+
+            statement.execute("INSERT INTO Player VALUES (7, 'b50ad385-829d-3141-a216-7e7d7539ba7f', 'pim16aap2', " +
+                                  "10, 11, 3);");
+            statement.execute("INSERT INTO DoorBase VALUES (12, 'door', 'world', 0, 0, 0, 1, 1, 1, 0, 0, 0, 0, " +
+                                  "0, 0, 0, 0, 0, 'type', x'00', 0);");
+            statement.execute("INSERT INTO DoorOwnerPlayer VALUES (42, 0, 7, 12);");
+            statement.execute("PRAGMA user_version = 12;");
+        }
+
+        final SQLiteJDBCDriverConnection storage = createStorage();
+        Assertions.assertEquals(IStorage.DatabaseState.OK, storage.getDatabaseState());
+        Assertions.assertEquals(1, storage.getOwnerCountOfDoor(12L));
+
+        try (Connection conn = openConnection();
+             Statement statement = conn.createStatement())
+        {
+            try (ResultSet rs = statement.executeQuery(
+                "SELECT id, typeof(playerID), typeof(doorUID) FROM DoorOwnerPlayer;"))
+            {
+                Assertions.assertTrue(rs.next());
+                Assertions.assertEquals(42, rs.getInt(1));
+                Assertions.assertEquals("integer", rs.getString(2));
+                Assertions.assertEquals("integer", rs.getString(3));
+                Assertions.assertFalse(rs.next());
+            }
+
+            // The sequence of the old table should have been moved to the new table.
+            try (ResultSet rs = statement.executeQuery(
+                "SELECT name, seq FROM sqlite_sequence WHERE name LIKE 'DoorOwnerPlayer%';"))
+            {
+                Assertions.assertTrue(rs.next());
+                Assertions.assertEquals("DoorOwnerPlayer", rs.getString(1));
+                Assertions.assertEquals(42, rs.getInt(2));
+                Assertions.assertFalse(rs.next());
+            }
+
+            try (ResultSet rs = statement.executeQuery("PRAGMA foreign_key_check;"))
+            {
+                Assertions.assertFalse(rs.next());
+            }
+
+            verifyQueryPlans(conn);
+        }
+    }
+
+    private SQLiteJDBCDriverConnection createStorage()
+        throws NoSuchMethodException
+    {
+        final DoorRegistry doorRegistry = DoorRegistry.unCached(restartableHolder, debuggableRegistry);
+        final DoorTypeManager doorTypeManager = new DoorTypeManager(restartableHolder, debuggableRegistry);
+        final AssistedFactoryMocker<DoorBase, DoorBase.IFactory> assistedFactoryMocker =
+            new AssistedFactoryMocker<>(DoorBase.class, DoorBase.IFactory.class)
+                .setMock(DoorRegistry.class, doorRegistry);
+
+        return new SQLiteJDBCDriverConnection(restartableHolder, DB_FILE,
+                                              new DoorBaseBuilder(assistedFactoryMocker.getFactory()),
+                                              doorRegistry, doorTypeManager, new TestPWorldFactory(),
+                                              debuggableRegistry);
+    }
+
+    private static Connection openConnection()
+        throws SQLException
+    {
+        return DriverManager.getConnection("jdbc:sqlite:" + DB_FILE);
+    }
+
+    private static void verifyQueryPlans(Connection conn)
+        throws SQLException
+    {
+        final List<String> failures = new ArrayList<>();
+        for (final SQLStatement sqlStatement : SQLStatement.values())
+        {
+            if (SCAN_EXEMPT.contains(sqlStatement) || !isQuery(sqlStatement))
+                continue;
+
+            final List<String> plan = getQueryPlan(conn, sqlStatement);
+            for (final String detail : plan)
+                // Virtual tables (e.g. json_each) only scan the values bound to the statement.
+                if (detail.startsWith("SCAN") && !detail.contains("VIRTUAL TABLE"))
+                    failures.add(sqlStatement + ": " + plan);
+        }
+        Assertions.assertTrue(failures.isEmpty(), "Found statements that scan a table: " + failures);
+    }
+
+    /**
+     * Checks if a statement should be verified. Statements that define the schema (or that only exist to migrate
+     * it) do not have a meaningful query plan.
+     */
+    private static boolean isQuery(SQLStatement sqlStatement)
+    {
+        final String name = sqlStatement.name();
+        return !name.startsWith("CREATE_") && !name.startsWith("UPGRADE_") &&
+            !SQLStatement.getStatement(sqlStatement).strip().toUpperCase().startsWith("PRAGMA");
+    }
+
+    private static List<String> getQueryPlan(Connection conn, SQLStatement sqlStatement)
+        throws SQLException
+    {
+        final List<String> ret = new ArrayList<>();
+        try (PreparedStatement ps =
+                 conn.prepareStatement("EXPLAIN QUERY PLAN " + SQLStatement.getStatement(sqlStatement)))
+        {
+            // The values of the variables do not affect the plan, so just bind null to all of them.
+            for (int idx = 1; idx <= SQLStatement.getVariableCountCount(sqlStatement); ++idx)
+                ps.setObject(idx, null);
+
+            try (ResultSet rs = ps.executeQuery())
+            {
+                while (rs.next())
+                    ret.add(rs.getString("detail"));
+            }
+        }
+        return ret;
+    }
+}
@@ -9,6 +9,7 @@ import nl.pim16aap2.bigdoors.api.PPlayerData;
 import nl.pim16aap2.bigdoors.api.debugging.DebuggableRegistry;
 import nl.pim16aap2.bigdoors.api.factories.IPWorldFactory;
 import nl.pim16aap2.bigdoors.api.restartable.RestartableHolder;
+import nl.pim16aap2.bigdoors.data.LongMultimap;
 import nl.pim16aap2.bigdoors.doors.AbstractDoor;
 import nl.pim16aap2.bigdoors.doors.DoorBase;
 import nl.pim16aap2.bigdoors.doors.DoorBaseBuilder;
@@ -26,6 +27,7 @@ import nl.pim16aap2.bigdoors.managers.DoorTypeManager;
 import nl.pim16aap2.bigdoors.storage.sqlite.SQLiteJDBCDriverConnection;
 import nl.pim16aap2.bigdoors.testimplementations.TestPWorld;
 import nl.pim16aap2.bigdoors.testimplementations.TestPWorldFactory;
+import nl.pim16aap2.bigdoors.util.Cuboid;
 import nl.pim16aap2.bigdoors.util.DoorOwner;
 import nl.pim16aap2.bigdoors.util.RotateDirection;
 import nl.pim16aap2.bigdoors.util.Util;
@@ -47,9 +49,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class SQLiteJDBCDriverConnectionTest
 {
@@ -140,6 +143,15 @@ public class SQLiteJDBCDriverConnectionTest
     {
         Files.deleteIfExists(DB_FILE);
         Files.deleteIfExists(DB_FILE_BACKUP);
+        // Leftover write-ahead log files of a previous run would be applied to the new database.
+        deleteWalFiles();
+    }
+
+    @SneakyThrows
+    private static void deleteWalFiles()
+    {
+        Files.deleteIfExists(DB_FILE.resolveSibling(DB_FILE.getFileName() + "-wal"));
+        Files.deleteIfExists(DB_FILE.resolveSibling(DB_FILE.getFileName() + "-shm"));
     }
 
     /**
@@ -154,6 +166,7 @@ public class SQLiteJDBCDriverConnectionTest
         Files.move(DB_FILE, finishedDB, StandardCopyOption.REPLACE_EXISTING);
 
         Files.deleteIfExists(DB_FILE_BACKUP);
+        deleteWalFiles();
     }
 
     private void deleteDoorTypeTestDoors()
@@ -197,6 +210,20 @@ public class SQLiteJDBCDriverConnectionTest
 
         insertBulkDoors();
         partialIdentifiersFromId();
+
+        restart();
+    }
+
+    /**
+     * Makes sure the connections are closed when the storage is shut down and opened again when it is initialized.
+     */
+    private void restart()
+    {
+        storage.shutDown();
+        Assertions.assertFalse(storage.getDoor(1L).isPresent());
+
+        storage.initialize();
+        Assertions.assertTrue(storage.getDoor(1L).isPresent());
     }
 
     private void insertBulkDoors()
@@ -258,6 +285,10 @@ public class SQLiteJDBCDriverConnectionTest
         final IPPlayer player1 = createPlayer(PLAYER_DATA_1);
         Assertions.assertEquals(List.of(new DatabaseManager.DoorIdentifier(2, "popular_door_name")),
                                 storage.getPartialIdentifiers("popular_", player1, 99));
+
+        Assertions.assertEquals(Set.of(new DatabaseManager.OwnedDoorIdentifier(1, DOOR_1_NAME, 0),
+                                       new DatabaseManager.OwnedDoorIdentifier(2, "popular_door_name", 0)),
+                                Set.copyOf(storage.getOwnedDoorIdentifiers(PLAYER_DATA_1.getUUID())));
     }
 
     public void partialIdentifiersFromId()
@@ -325,6 +356,12 @@ public class SQLiteJDBCDriverConnectionTest
         // Verify there are only 2 owners of door 2 (player 1 didn't get copied).
         UnitTestUtil.optionalEquals(2, storage.getDoor(2L), (door) -> door.getDoorOwners().size());
 
+        // Verify that retrieving multiple doors at once also retrieves all owners of every door.
+        final List<AbstractDoor> bulkDoors = storage.getDoors(List.of(1L, 2L, 9999999L));
+        Assertions.assertEquals(2, bulkDoors.size());
+        for (final AbstractDoor bulkDoor : bulkDoors)
+            Assertions.assertEquals(2, bulkDoor.getDoorOwners().size());
+
         // Verify that player 2 is the creator of exactly 1 door.
         Assertions.assertEquals(1, storage.getDoors(PLAYER_DATA_2.getUUID(), 0).size());
 
@@ -424,9 +461,22 @@ public class SQLiteJDBCDriverConnectionTest
         Assertions.assertTrue(storage.updatePlayerData(PLAYER_DATA_2));
 
         chunkId = Util.getChunkId(door1.getPowerBlock());
-        final ConcurrentHashMap<Integer, List<Long>> powerBlockData = storage.getPowerBlockData(chunkId);
-        Assertions.assertNotNull(powerBlockData);
-        Assertions.assertEquals(3, powerBlockData.elements().nextElement().size());
+        final Map<Long, LongMultimap> powerBlockDataOfChunks = storage.getPowerBlockData(List.of(chunkId, chunkId + 1));
+        Assertions.assertEquals(3, powerBlockDataOfChunks.get(chunkId).valueCount());
+        Assertions.assertTrue(powerBlockDataOfChunks.get(chunkId + 1).isEmpty());
+        final List<Vector3Di> powerBlocks = storage.getPowerBlockPositions(WORLD_NAME);
+        Assertions.assertEquals(3, powerBlocks.size());
+        Assertions.assertTrue(powerBlocks.contains(door1.getPowerBlock()));
+
+        final List<Long> rotationPointChunks = List.of(Util.getChunkId(door1.getRotationPoint()));
+        Assertions.assertTrue(storage.getDoorsInChunks(WORLD_NAME, rotationPointChunks).stream()
+                                     .anyMatch(door -> door.getDoorUID() == door1.getDoorUID()));
+        Assertions.assertTrue(storage.getDoorsInChunks(WORLD_NAME + "_other", rotationPointChunks).isEmpty());
+        Assertions.assertTrue(storage.getDoorsInChunks(WORLD_NAME, List.of()).isEmpty());
+
+        final Map<Long, Cuboid> cuboids = storage.getDoorCuboids(WORLD_NAME);
+        Assertions.assertEquals(3, cuboids.size());
+        Assertions.assertEquals(door1.getCuboid(), cuboids.get(door1.getDoorUID()));
     }
 
     /**
@@ -559,6 +609,10 @@ public class SQLiteJDBCDriverConnectionTest
 
         AssertionsUtil.assertThrowablesLogged(() -> storage.getDoor(PLAYER_DATA_1.getUUID(), 1L),
                                               LogSiteStackTrace.class);
+        // Lookups whose callers retry failed queries should not hide the failure behind an empty result.
+        Assertions.assertThrows(IllegalStateException.class,
+                                () -> storage.getPowerBlockData(List.of(Util.getChunkId(door1.getPowerBlock()))));
+        Assertions.assertThrows(IllegalStateException.class, () -> storage.getPowerBlockPositions(WORLD_NAME));
 
         // Set the database state to enabled again and verify that it's now possible to retrieve doors again.
         databaseLock.set(storage, IStorage.DatabaseState.OK);
@@ -570,8 +624,8 @@ public class SQLiteJDBCDriverConnectionTest
      */
     private void initStorage()
     {
-        storage = new SQLiteJDBCDriverConnection(DB_FILE, doorBaseBuilder, doorRegistry, doorTypeManager, worldFactory,
-                                                 debuggableRegistry);
+        storage = new SQLiteJDBCDriverConnection(restartableHolder, DB_FILE, doorBaseBuilder, doorRegistry,
+                                                 doorTypeManager, worldFactory, debuggableRegistry);
     }
 
     private void initDoors()
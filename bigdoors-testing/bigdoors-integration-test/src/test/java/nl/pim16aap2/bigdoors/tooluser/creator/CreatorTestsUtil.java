@@ -129,7 +129,7 @@ public class CreatorTestsUtil
         MockitoAnnotations.openMocks(this);
 
         localizer = UnitTestUtil.initLocalizer();
-        limitsManager = new LimitsManager(permissionsManager, configLoader);
+        limitsManager = new LimitsManager(permissionsManager, configLoader, Mockito.mock(RestartableHolder.class));
 
         final DoorBase.IFactory doorBaseIFactory =
             new AssistedFactoryMocker<>(DoorBase.class, DoorBase.IFactory.class)